@@ -0,0 +1,52 @@
+package com.blockchain.coordinator;
+
+import com.blockchain.coordinator.dtos.ChainVerificationReport;
+import com.blockchain.coordinator.services.ChainVerifier;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// Verificación de la cadena desde la línea de comandos, con la misma configuración que el coordinador
+// (application.properties, variables de entorno, --propiedad=valor) pero sin servidor web, sin publicar
+// tareas de minería y sin inicializar la cadena ni recuperar el mempool.
+//
+//   java -cp coordinator-node.jar -Dloader.main=com.blockchain.coordinator.ChainVerifierCli \
+//        org.springframework.boot.loader.launch.PropertiesLauncher [--parallelism=N]
+//
+// Código de salida: 0 si la cadena es válida, 1 si tiene una inconsistencia, 2 si no se pudo leer.
+public class ChainVerifierCli {
+
+    public static void main(String[] args) {
+        int parallelism = 0;
+        for (String arg : args) {
+            if (arg.startsWith("--parallelism=")) {
+                parallelism = Integer.parseInt(arg.substring("--parallelism=".length()));
+            }
+        }
+
+        int exitCode;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(CoordinatorNodeApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "blockchain.startup.initialize-chain=false",
+                        "blockchain.transactions.recovery.enabled=false",
+                        "blockchain.mining.task-publication-cron=-")
+                .run(args)) {
+            ChainVerificationReport report = context.getBean(ChainVerifier.class).verify(parallelism);
+            System.out.println("Estado: " + report.getState());
+            System.out.println("Bloques verificados: " + report.getVerifiedBlocks() + " de " + (report.getTipHeight() + 1));
+            System.out.println("Hash recalculado desde la altura: " + report.getHashCheckFromHeight());
+            System.out.printf("Tiempo: %d ms (%.0f bloques/s con %d hilos)%n", report.getElapsedMillis(), report.getBlocksPerSecond(), report.getParallelism());
+            if (report.getFailureReason() != null) {
+                System.out.println("Primera inconsistencia en la altura " + report.getFailureHeight()
+                        + (report.getFailureHash() != null ? " (bloque " + report.getFailureHash() + ")" : "") + ": " + report.getFailureReason());
+            }
+            exitCode = switch (ChainVerifier.State.valueOf(report.getState())) {
+                case VALID -> 0;
+                case INVALID -> 1;
+                default -> 2;
+            };
+        }
+        System.exit(exitCode);
+    }
+}
@@ -1,8 +1,11 @@
 package com.blockchain.coordinator;
 
 import com.blockchain.coordinator.services.BlockService;
+import com.blockchain.coordinator.services.ChainVerifier;
+import com.blockchain.coordinator.services.MempoolRecoveryService;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.scheduling.annotation.EnableScheduling;
@@ -13,6 +16,12 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 public class CoordinatorNodeApplication {
 
 	private final BlockService blockService;
+	private final MempoolRecoveryService mempoolRecoveryService;
+	private final ChainVerifier chainVerifier;
+
+	// Herramientas de línea de comandos (ChainVerifierCli) levantan el contexto sin tocar la cadena.
+	@Value("${blockchain.startup.initialize-chain:true}")
+	private boolean initializeChain;
 
 	public static void main(String[] args) {
 		SpringApplication.run(CoordinatorNodeApplication.class, args);
@@ -20,6 +29,11 @@ public class CoordinatorNodeApplication {
 
 	@PostConstruct
 	public void init() {
+		if (!initializeChain) {
+			return;
+		}
+		chainVerifier.recordHashCheckHeight();
 		blockService.init();
+		mempoolRecoveryService.start();
 	}
 }
\ No newline at end of file
@@ -0,0 +1,159 @@
+package com.blockchain.coordinator.cache;
+
+import com.blockchain.coordinator.dtos.BlockCacheStats;
+import com.blockchain.coordinator.models.Block;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Caché LRU de bloques por hash, acotada por cantidad de bloques y por peso (tamaño estimado en memoria).
+// Los bloques recién agregados a la cadena entran al guardarse, así las lecturas de la punta (lo que más
+// piden exploradores y wallets) no van a Redis. Mantiene además un índice altura -> hash de los bloques
+// cacheados, que en la práctica es la ventana de los últimos bloques.
+// Los bloques cacheados se comparten entre lectores: no se deben modificar (commitMinedBlock clona antes).
+@Component
+public class BlockCache {
+
+    // Estimación gruesa del tamaño en heap de un bloque y de cada transacción (objeto, id, direcciones).
+    private static final long BLOCK_OVERHEAD_BYTES = 256;
+    private static final long TRANSACTION_BYTES = 200;
+
+    private final int maxEntries;
+    private final long maxWeightBytes;
+    private final ReentrantLock lock = new ReentrantLock();
+    // accessOrder = true: get() mueve la entrada al final, así la primera es la menos usada.
+    private final LinkedHashMap<String, Block> byHash = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<Long, String> hashByHeight = new HashMap<>();
+    private long weightBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public BlockCache(@Value("${blockchain.cache.max-blocks:1024}") int maxEntries,
+                      @Value("${blockchain.cache.max-weight-bytes:67108864}") long maxWeightBytes) {
+        this.maxEntries = Math.max(0, maxEntries);
+        this.maxWeightBytes = Math.max(0, maxWeightBytes);
+    }
+
+    public static long weightOf(Block block) {
+        int transactions = block.getData() != null ? block.getData().size() : 0;
+        return BLOCK_OVERHEAD_BYTES + TRANSACTION_BYTES * transactions;
+    }
+
+    public Block get(String hash) {
+        if (hash == null) {
+            return null;
+        }
+        Block block;
+        lock.lock();
+        try {
+            block = byHash.get(hash);
+        } finally {
+            lock.unlock();
+        }
+        (block != null ? hits : misses).increment();
+        return block;
+    }
+
+    public Block getByHeight(long height) {
+        Block block = null;
+        lock.lock();
+        try {
+            String hash = hashByHeight.get(height);
+            if (hash != null) {
+                block = byHash.get(hash);
+            }
+        } finally {
+            lock.unlock();
+        }
+        (block != null ? hits : misses).increment();
+        return block;
+    }
+
+    // Agrega (o reemplaza) el bloque y desaloja los menos usados hasta volver a estar dentro de los límites.
+    // Un bloque que por sí solo supera el peso máximo no se cachea.
+    public void put(Block block) {
+        if (block == null || block.getHash() == null) {
+            return;
+        }
+        long weight = weightOf(block);
+        if (maxEntries == 0 || weight > maxWeightBytes) {
+            return;
+        }
+        lock.lock();
+        try {
+            Block previous = byHash.put(block.getHash(), block);
+            if (previous != null) {
+                weightBytes -= weightOf(previous);
+                removeHeight(previous);
+            }
+            weightBytes += weight;
+            hashByHeight.put((long) block.getIndex(), block.getHash());
+
+            Iterator<Map.Entry<String, Block>> eldest = byHash.entrySet().iterator();
+            while ((byHash.size() > maxEntries || weightBytes > maxWeightBytes) && eldest.hasNext()) {
+                Block evicted = eldest.next().getValue();
+                eldest.remove();
+                weightBytes -= weightOf(evicted);
+                removeHeight(evicted);
+                evictions.incrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(String hash) {
+        lock.lock();
+        try {
+            Block removed = byHash.remove(hash);
+            if (removed != null) {
+                weightBytes -= weightOf(removed);
+                removeHeight(removed);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            byHash.clear();
+            hashByHeight.clear();
+            weightBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public BlockCacheStats getStats() {
+        int entries;
+        long weight;
+        lock.lock();
+        try {
+            entries = byHash.size();
+            weight = weightBytes;
+        } finally {
+            lock.unlock();
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        return new BlockCacheStats(entries, maxEntries, weight, maxWeightBytes, hitCount, missCount,
+                evictions.get(), lookups > 0 ? (double) hitCount / lookups : 0.0);
+    }
+
+    // Sólo borra la altura si todavía apunta a este bloque (otro bloque pudo ocupar esa altura después).
+    private void removeHeight(Block block) {
+        hashByHeight.remove((long) block.getIndex(), block.getHash());
+    }
+}
@@ -0,0 +1,137 @@
+package com.blockchain.coordinator.cache;
+
+import com.blockchain.coordinator.crypto.Md5Hasher;
+import com.blockchain.coordinator.models.Block;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Respuestas HAL de bloques ya serializadas. Un bloque minado no cambia, así que el JSON de GET
+// /api/blocks/{hash} se arma una sola vez (al guardarse o en la primera lectura) y después se sirven
+// los mismos bytes con su ETag fuerte (MD5 del cuerpo).
+// Los enlaces son absolutos y dependen de la URL base del pedido (host, X-Forwarded-*), por eso la base es
+// parte de la clave. Acotada por bytes totales con desalojo LRU.
+@Component
+public class BlockResponseCache {
+
+    public record Rendered(byte[] body, String etag) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Md5Hasher md5Hasher;
+    private final long maxBytes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Rendered> responses = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytes;
+    // Última URL base vista, para pre-armar la respuesta de los bloques nuevos al guardarlos.
+    private volatile String lastBaseUri;
+
+    public BlockResponseCache(ObjectMapper objectMapper, Md5Hasher md5Hasher,
+                              @Value("${blockchain.cache.response-max-bytes:33554432}") long maxBytes) {
+        this.objectMapper = objectMapper;
+        this.md5Hasher = md5Hasher;
+        this.maxBytes = Math.max(0, maxBytes);
+    }
+
+    // Respuesta de GET {base}/{hash}; baseUri es la URL absoluta de /api/blocks para el pedido actual.
+    public Rendered block(String baseUri, Block block) {
+        lastBaseUri = baseUri;
+        return cached("block|" + baseUri + "|" + block.getHash(), () -> render(block, Map.of(
+                "self", baseUri + "/" + block.getHash(),
+                "previous-block", baseUri + "/" + block.getPrevious_hash(),
+                "latest-block", baseUri + "/latest",
+                "all-blocks", baseUri)));
+    }
+
+    // Respuesta de GET {base}/latest para el bloque punta dado; cambia (y con ella el ETag) con cada bloque nuevo.
+    public Rendered latest(String baseUri, Block block) {
+        lastBaseUri = baseUri;
+        return cached("latest|" + baseUri + "|" + block.getHash(), () -> render(block, Map.of(
+                "self", baseUri + "/latest",
+                "self-by-hash", baseUri + "/" + block.getHash(),
+                "previous-block", baseUri + "/" + block.getPrevious_hash(),
+                "all-blocks", baseUri)));
+    }
+
+    // Deja armada la respuesta del bloque recién guardado, con la última URL base vista (si hubo pedidos).
+    public void prerender(Block block) {
+        String baseUri = lastBaseUri;
+        if (baseUri == null) {
+            return;
+        }
+        try {
+            block(baseUri, block);
+        } catch (IllegalStateException e) {
+            System.err.println("BlockResponseCache: No se pudo pre-armar la respuesta del bloque " + block.getHash() + ": " + e.getMessage());
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return responses.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Rendered cached(String key, Supplier<Rendered> renderer) {
+        lock.lock();
+        try {
+            Rendered rendered = responses.get(key);
+            if (rendered != null) {
+                return rendered;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // Se serializa fuera del lock; si dos pedidos lo arman a la vez, ambos producen los mismos bytes.
+        Rendered rendered = renderer.get();
+        if (rendered.body().length > maxBytes) {
+            return rendered;
+        }
+        lock.lock();
+        try {
+            Rendered previous = responses.put(key, rendered);
+            if (previous != null) {
+                bytes -= previous.body().length;
+            }
+            bytes += rendered.body().length;
+            Iterator<Rendered> eldest = responses.values().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                bytes -= eldest.next().body().length;
+                eldest.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return rendered;
+    }
+
+    // Mismo formato que un EntityModel<Block> en HAL: los campos del bloque seguidos de "_links".
+    private Rendered render(Block block, Map<String, String> links) {
+        ObjectNode node = objectMapper.valueToTree(block);
+        ObjectNode linksNode = node.putObject("_links");
+        for (String rel : new String[]{"self", "self-by-hash", "previous-block", "latest-block", "all-blocks"}) {
+            String href = links.get(rel);
+            if (href != null) {
+                linksNode.putObject(rel).put("href", href);
+            }
+        }
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(node);
+            return new Rendered(body, "\"" + md5Hasher.hash(body, 0, body.length).toHex() + "\"");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el bloque " + block.getHash(), e);
+        }
+    }
+}
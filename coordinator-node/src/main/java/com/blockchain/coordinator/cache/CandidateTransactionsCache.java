@@ -0,0 +1,64 @@
+package com.blockchain.coordinator.cache;
+
+import com.blockchain.coordinator.crypto.Md5Hasher;
+import com.blockchain.coordinator.dtos.CandidateTransactions;
+import com.blockchain.coordinator.dtos.MiningTask;
+import com.blockchain.coordinator.models.Block;
+import com.blockchain.coordinator.models.Transaction;
+import com.blockchain.coordinator.services.CurrentMiningTaskService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+// Cuerpos de las transacciones del candidato actual ya serializados. Con tareas sólo-cabecera todos los
+// mineros que necesitan las transacciones las piden a la vez al recibir la tarea: el JSON se arma una vez por
+// candidato y después se sirven los mismos bytes. Sólo se guarda el último candidato; su contenido no cambia
+// (el hash del candidato cubre la raíz de Merkle), así que la respuesta es inmutable.
+@Component
+public class CandidateTransactionsCache {
+
+    private record Entry(String blockId, BlockResponseCache.Rendered rendered) {
+    }
+
+    private final CurrentMiningTaskService currentMiningTaskService;
+    private final ObjectMapper objectMapper;
+    private final Md5Hasher md5Hasher;
+    private volatile Entry entry;
+
+    public CandidateTransactionsCache(CurrentMiningTaskService currentMiningTaskService, ObjectMapper objectMapper,
+                                      Md5Hasher md5Hasher) {
+        this.currentMiningTaskService = currentMiningTaskService;
+        this.objectMapper = objectMapper;
+        this.md5Hasher = md5Hasher;
+    }
+
+    // Vacío si blockId no es el candidato actual (ya se minó, venció o nunca existió).
+    public Optional<BlockResponseCache.Rendered> transactions(String blockId) {
+        Entry current = entry;
+        if (current != null && current.blockId().equals(blockId)) {
+            return Optional.of(current.rendered());
+        }
+        MiningTask task = currentMiningTaskService.getCurrentTask();
+        if (task == null || task.getBlock() == null || !blockId.equals(task.getBlock().getHash())) {
+            return Optional.empty();
+        }
+        // Si dos pedidos lo arman a la vez, ambos producen los mismos bytes.
+        BlockResponseCache.Rendered rendered = render(task.getBlock());
+        entry = new Entry(blockId, rendered);
+        return Optional.of(rendered);
+    }
+
+    private BlockResponseCache.Rendered render(Block block) {
+        List<Transaction> data = block.getData() != null ? block.getData() : List.of();
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(
+                    new CandidateTransactions(block.getHash(), block.getMerkle_root(), data.size(), data));
+            return new BlockResponseCache.Rendered(body, "\"" + md5Hasher.hash(body, 0, body.length).toHex() + "\"");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudieron serializar las transacciones del candidato " + block.getHash(), e);
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package com.blockchain.coordinator.codec;
+
+import com.blockchain.coordinator.crypto.Md5Hash;
+import com.blockchain.coordinator.dtos.BlockHeader;
+import com.blockchain.coordinator.models.Block;
+import com.blockchain.coordinator.models.Transaction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Formato binario versionado para guardar bloques y transacciones en Redis como un único valor.
+//
+// Cabecera: magic ('B' bloque, 'T' transacción) | versión | flags (bit 0: cuerpo comprimido con Deflate).
+// Si el cuerpo está comprimido, sigue su largo sin comprimir (varint) y luego los bytes comprimidos.
+//
+// Cuerpo de bloque:       index int32 | timestamp int64 | nonce int64 | hash | previous_hash
+//                         | versión del bloque varint | merkle_root | n varint | n transacciones
+//   (el formato 1 no tiene versión del bloque ni merkle_root; se sigue leyendo como bloque legacy)
+// Cuerpo de transacción:  id | sender | receiver | amount float64 | timestamp int64
+//
+// Los numéricos son de ancho fijo (big-endian). Los textos llevan un tag: 0 = null, 1 = UTF-8 con largo
+// varint, 2 = UUID en 16 bytes (ids), 3 = MD5 en 16 bytes (hashes). Los formatos compactos se usan sólo si
+// el texto es la forma canónica (UUID.toString() o hex minúscula), así la decodificación es exacta.
+@Component
+public class BlockCodec {
+
+    public static final byte VERSION = 2;
+    private static final byte BLOCK_MAGIC = 'B';
+    private static final byte TRANSACTION_MAGIC = 'T';
+    private static final int FLAG_DEFLATE = 1;
+
+    // Bytes del cuerpo que alcanzan para la cabecera con hashes canónicos (o textos de hasta ~200 bytes).
+    private static final int HEADER_PREFIX = 512;
+
+    private static final int TAG_NULL = 0;
+    private static final int TAG_UTF8 = 1;
+    private static final int TAG_UUID = 2;
+    private static final int TAG_MD5 = 3;
+
+    private final int compressionThreshold;
+
+    // compressionThreshold: cuerpos de al menos esa cantidad de bytes se comprimen (<= 0 deshabilita).
+    public BlockCodec(@Value("${blockchain.storage.compression-threshold:1024}") int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public byte[] encodeBlock(Block block) {
+        List<Transaction> transactions = block.getData() != null ? block.getData() : List.of();
+        ByteArrayOutputStream body = new ByteArrayOutputStream(64 + transactions.size() * 96);
+        try (DataOutputStream out = new DataOutputStream(body)) {
+            out.writeInt(block.getIndex());
+            out.writeLong(block.getTimestamp());
+            out.writeLong(block.getNonce());
+            writeHash(out, block.getHash());
+            writeHash(out, block.getPrevious_hash());
+            writeVarInt(out, block.getVersion());
+            writeHash(out, block.getMerkle_root());
+            writeVarInt(out, transactions.size());
+            for (Transaction transaction : transactions) {
+                writeTransaction(out, transaction);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return frame(BLOCK_MAGIC, body.toByteArray(), compressionThreshold);
+    }
+
+    public Block decodeBlock(byte[] bytes) {
+        ByteBuffer in = unframe(BLOCK_MAGIC, bytes);
+        try {
+            Block block = new Block();
+            block.setIndex(in.getInt());
+            block.setTimestamp(in.getLong());
+            block.setNonce(in.getLong());
+            block.setHash(readText(in));
+            block.setPrevious_hash(readText(in));
+            if (bytes[1] >= 2) {
+                block.setVersion(readVarInt(in));
+                block.setMerkle_root(readText(in));
+            }
+            int count = readVarInt(in);
+            List<Transaction> transactions = new ArrayList<>(Math.min(count, in.remaining() / 20 + 1));
+            for (int i = 0; i < count; i++) {
+                transactions.add(readTransaction(in));
+            }
+            block.setData(transactions);
+            return block;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Bloque codificado truncado");
+        }
+    }
+
+    // Lee sólo la cabecera del bloque; si el cuerpo está comprimido se descomprime apenas el comienzo.
+    public BlockHeader decodeHeader(byte[] bytes) {
+        try {
+            return readHeader(unframe(BLOCK_MAGIC, bytes, HEADER_PREFIX), bytes[1]);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            // Hashes no canónicos muy largos: la cabecera no entra en el prefijo. Se reintenta con todo el cuerpo.
+        }
+        try {
+            return readHeader(unframe(BLOCK_MAGIC, bytes, Integer.MAX_VALUE), bytes[1]);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Bloque codificado truncado");
+        }
+    }
+
+    // Sólo los ids de las transacciones del bloque, salteando el resto de los campos sin armar objetos.
+    public List<String> decodeTransactionIds(byte[] bytes) {
+        ByteBuffer in = unframe(BLOCK_MAGIC, bytes);
+        try {
+            int count = readHeader(in, bytes[1]).getTransactionCount();
+            List<String> ids = new ArrayList<>(Math.min(count, in.remaining() / 20 + 1));
+            for (int i = 0; i < count; i++) {
+                ids.add(readText(in));
+                skipText(in);
+                skipText(in);
+                skip(in, 16);
+            }
+            return ids;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Bloque codificado truncado");
+        }
+    }
+
+    private static BlockHeader readHeader(ByteBuffer in, int format) {
+        BlockHeader header = new BlockHeader();
+        header.setIndex(in.getInt());
+        header.setTimestamp(in.getLong());
+        header.setNonce(in.getLong());
+        header.setHash(readText(in));
+        header.setPrevious_hash(readText(in));
+        if (format >= 2) {
+            header.setVersion(readVarInt(in));
+            header.setMerkle_root(readText(in));
+        }
+        header.setTransactionCount(readVarInt(in));
+        return header;
+    }
+
+    // Las transacciones sueltas son chicas: no se comprimen.
+    public byte[] encodeTransaction(Transaction transaction) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(96);
+        try (DataOutputStream out = new DataOutputStream(body)) {
+            writeTransaction(out, transaction);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return frame(TRANSACTION_MAGIC, body.toByteArray(), 0);
+    }
+
+    public Transaction decodeTransaction(byte[] bytes) {
+        ByteBuffer in = unframe(TRANSACTION_MAGIC, bytes);
+        try {
+            return readTransaction(in);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Transacción codificada truncada");
+        }
+    }
+
+    // true si los bytes empiezan con la cabecera de una transacción binaria (y no, p. ej., con JSON).
+    public static boolean isEncodedTransaction(byte[] bytes) {
+        return bytes != null && bytes.length >= 3 && bytes[0] == TRANSACTION_MAGIC;
+    }
+
+    private static void writeTransaction(DataOutputStream out, Transaction transaction) throws IOException {
+        writeId(out, transaction.getId());
+        writeString(out, transaction.getSender());
+        writeString(out, transaction.getReceiver());
+        out.writeDouble(transaction.getAmount());
+        out.writeLong(transaction.getTimestamp());
+    }
+
+    private static Transaction readTransaction(ByteBuffer in) {
+        Transaction transaction = new Transaction();
+        transaction.setId(readText(in));
+        transaction.setSender(readText(in));
+        transaction.setReceiver(readText(in));
+        transaction.setAmount(in.getDouble());
+        transaction.setTimestamp(in.getLong());
+        return transaction;
+    }
+
+    private static void writeId(DataOutputStream out, String id) throws IOException {
+        UUID uuid = canonicalUuid(id);
+        if (uuid == null) {
+            writeString(out, id);
+            return;
+        }
+        out.writeByte(TAG_UUID);
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    private static void writeHash(DataOutputStream out, String hash) throws IOException {
+        if (!Md5Hash.isHex(hash)) {
+            writeString(out, hash);
+            return;
+        }
+        Md5Hash md5 = Md5Hash.fromHex(hash);
+        out.writeByte(TAG_MD5);
+        out.writeLong(md5.getHigh());
+        out.writeLong(md5.getLow());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeByte(TAG_NULL);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeByte(TAG_UTF8);
+        writeVarInt(out, utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readText(ByteBuffer in) {
+        int tag = in.get();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_UTF8: {
+                int length = readVarInt(in);
+                if (length > in.remaining()) {
+                    throw new IllegalArgumentException("Largo de texto inválido: " + length);
+                }
+                String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+                in.position(in.position() + length);
+                return value;
+            }
+            case TAG_UUID:
+                return new UUID(in.getLong(), in.getLong()).toString();
+            case TAG_MD5:
+                return new Md5Hash(in.getLong(), in.getLong()).toHex();
+            default:
+                throw new IllegalArgumentException("Tag de texto desconocido: " + tag);
+        }
+    }
+
+    private static void skipText(ByteBuffer in) {
+        int tag = in.get();
+        switch (tag) {
+            case TAG_NULL:
+                return;
+            case TAG_UTF8:
+                skip(in, readVarInt(in));
+                return;
+            case TAG_UUID:
+            case TAG_MD5:
+                skip(in, 16);
+                return;
+            default:
+                throw new IllegalArgumentException("Tag de texto desconocido: " + tag);
+        }
+    }
+
+    private static void skip(ByteBuffer in, int length) {
+        if (length > in.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        in.position(in.position() + length);
+    }
+
+    // UUID sólo si id es exactamente su forma canónica; si no, se guardaría distinto de como llegó.
+    private static UUID canonicalUuid(String id) {
+        if (id == null || id.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(id);
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static byte[] frame(byte magic, byte[] body, int compressionThreshold) {
+        if (compressionThreshold > 0 && body.length >= compressionThreshold) {
+            byte[] compressed = deflate(body);
+            if (compressed.length + 5 < body.length) {
+                ByteArrayOutputStream framed = new ByteArrayOutputStream(compressed.length + 8);
+                framed.write(magic);
+                framed.write(VERSION);
+                framed.write(FLAG_DEFLATE);
+                try {
+                    writeVarInt(new DataOutputStream(framed), body.length);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                framed.write(compressed, 0, compressed.length);
+                return framed.toByteArray();
+            }
+        }
+        byte[] framed = new byte[body.length + 3];
+        framed[0] = magic;
+        framed[1] = VERSION;
+        framed[2] = 0;
+        System.arraycopy(body, 0, framed, 3, body.length);
+        return framed;
+    }
+
+    private static ByteBuffer unframe(byte magic, byte[] bytes) {
+        return unframe(magic, bytes, Integer.MAX_VALUE);
+    }
+
+    // maxBody acota cuántos bytes del cuerpo comprimido se descomprimen.
+    private static ByteBuffer unframe(byte magic, byte[] bytes, int maxBody) {
+        if (bytes == null || bytes.length < 3 || bytes[0] != magic) {
+            throw new IllegalArgumentException("Cabecera de " + (magic == BLOCK_MAGIC ? "bloque" : "transacción") + " inválida");
+        }
+        if (bytes[1] < 1 || bytes[1] > VERSION) {
+            throw new IllegalArgumentException("Versión de formato no soportada: " + bytes[1]);
+        }
+        ByteBuffer in = ByteBuffer.wrap(bytes, 3, bytes.length - 3);
+        if ((bytes[2] & FLAG_DEFLATE) == 0) {
+            return in;
+        }
+        int length = readVarInt(in);
+        return ByteBuffer.wrap(inflate(bytes, in.position(), bytes.length - in.position(), Math.min(length, maxBody)));
+    }
+
+    private static byte[] deflate(byte[] body) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(body);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 2 + 16);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(chunk);
+                out.write(chunk, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes, int off, int len, int uncompressedLength) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, off, len);
+            byte[] body = new byte[uncompressedLength];
+            int n = 0;
+            while (n < uncompressedLength && !inflater.finished()) {
+                int read = inflater.inflate(body, n, uncompressedLength - n);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                n += read;
+            }
+            if (n != uncompressedLength) {
+                throw new IllegalArgumentException("Cuerpo comprimido truncado");
+            }
+            return body;
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Cuerpo comprimido inválido: " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    throw new IllegalArgumentException("Varint negativo");
+                }
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint demasiado largo");
+    }
+}
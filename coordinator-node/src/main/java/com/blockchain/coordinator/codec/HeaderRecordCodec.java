@@ -0,0 +1,92 @@
+package com.blockchain.coordinator.codec;
+
+import com.blockchain.coordinator.crypto.BlockContentSerializer;
+import com.blockchain.coordinator.crypto.Md5Hash;
+import com.blockchain.coordinator.dtos.ChainHeader;
+import com.blockchain.coordinator.models.Block;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+
+// Registro de tamaño fijo del índice de cabeceras: el registro de la altura h está en h * RECORD_BYTES, así
+// que un rango de alturas es un rango contiguo de bytes que se sirve sin decodificar.
+//
+//   index int32 | timestamp int64 | nonce int64 | transacciones int32 | versión uint8 | flags uint8
+//   | hash 16 | previous_hash 16 | merkle_root 16 | hash de contenido 16
+//
+// Numéricos big-endian, hashes MD5 crudos. Con el hash de contenido se verifica la prueba de trabajo
+// (hash = md5(nonce + contenido) con el prefijo pedido) sin las transacciones; en bloques con raíz de Merkle
+// el contenido también se recalcula desde la cabecera (index + timestamp + merkle_root + previous_hash).
+// Flags: un hash que no es MD5 en hex (p. ej. el previous_hash del génesis) se guarda en ceros con su bit.
+@Component
+public class HeaderRecordCodec {
+
+    public static final int RECORD_BYTES = 90;
+    public static final int FLAG_HASH_NOT_MD5 = 1;
+    public static final int FLAG_PREVIOUS_HASH_NOT_MD5 = 2;
+    public static final int FLAG_NO_MERKLE_ROOT = 4;
+
+    private final BlockContentSerializer blockContentSerializer;
+
+    public HeaderRecordCodec(BlockContentSerializer blockContentSerializer) {
+        this.blockContentSerializer = blockContentSerializer;
+    }
+
+    public byte[] encode(Block block) {
+        ByteBuffer out = ByteBuffer.allocate(RECORD_BYTES);
+        int flags = (Md5Hash.isHex(block.getHash()) ? 0 : FLAG_HASH_NOT_MD5)
+                | (Md5Hash.isHex(block.getPrevious_hash()) ? 0 : FLAG_PREVIOUS_HASH_NOT_MD5)
+                | (Md5Hash.isHex(block.getMerkle_root()) ? 0 : FLAG_NO_MERKLE_ROOT);
+        out.putInt(block.getIndex());
+        out.putLong(block.getTimestamp());
+        out.putLong(block.getNonce());
+        out.putInt(block.getData() != null ? block.getData().size() : 0);
+        out.put((byte) block.getVersion());
+        out.put((byte) flags);
+        putHash(out, block.getHash());
+        putHash(out, block.getPrevious_hash());
+        putHash(out, block.getMerkle_root());
+        putHash(out, blockContentSerializer.contentHash(block));
+        return out.array();
+    }
+
+    // Lee el registro que empieza en offset. Los hashes marcados en flags quedan en null.
+    public static ChainHeader decode(byte[] records, int offset) {
+        ByteBuffer in = ByteBuffer.wrap(records, offset, RECORD_BYTES);
+        ChainHeader header = new ChainHeader();
+        header.setIndex(in.getInt());
+        header.setTimestamp(in.getLong());
+        header.setNonce(in.getLong());
+        header.setTransactionCount(in.getInt());
+        header.setVersion(in.get() & 0xFF);
+        int flags = in.get() & 0xFF;
+        header.setHash(readHash(in, (flags & FLAG_HASH_NOT_MD5) == 0));
+        header.setPrevious_hash(readHash(in, (flags & FLAG_PREVIOUS_HASH_NOT_MD5) == 0));
+        header.setMerkle_root(readHash(in, (flags & FLAG_NO_MERKLE_ROOT) == 0));
+        header.setContent_hash(readHash(in, true));
+        return header;
+    }
+
+    public static int flags(byte[] records, int offset) {
+        return records[offset + 25] & 0xFF;
+    }
+
+    private static void putHash(ByteBuffer out, String hex) {
+        if (Md5Hash.isHex(hex)) {
+            putHash(out, Md5Hash.fromHex(hex));
+        } else {
+            out.position(out.position() + Md5Hash.LENGTH);
+        }
+    }
+
+    private static void putHash(ByteBuffer out, Md5Hash hash) {
+        out.putLong(hash.getHigh());
+        out.putLong(hash.getLow());
+    }
+
+    private static String readHash(ByteBuffer in, boolean present) {
+        long high = in.getLong();
+        long low = in.getLong();
+        return present ? new Md5Hash(high, low).toHex() : null;
+    }
+}
@@ -0,0 +1,364 @@
+package com.blockchain.coordinator.codec;
+
+import com.blockchain.coordinator.crypto.Md5Hash;
+import com.blockchain.coordinator.dtos.MiningTask;
+import com.blockchain.coordinator.dtos.MiningTaskStatus;
+import com.blockchain.coordinator.models.Block;
+import com.blockchain.coordinator.models.ExchangeEvent;
+import com.blockchain.coordinator.models.Transaction;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Formato binario versionado de los mensajes AMQP entre coordinador, pool y mineros. El pool tiene una copia
+// de este codec (com.blockchain.miningpool.codec) y los mineros Python un decodificador (utils/wire_codec.py):
+// cualquier cambio del formato tiene que hacerse en los tres y subir VERSION.
+//
+// Cabecera: magic 'W' | versión | flags (bit 0: cuerpo comprimido con Deflate) | tipo de mensaje.
+// Si el cuerpo está comprimido, sigue su largo sin comprimir (varint) y luego los bytes comprimidos (zlib).
+//
+// Tipos: 1 MiningTask, 2 MiningTaskStatus, 3 SubTask y 4 CancelTask (los dos últimos sólo los usa el pool).
+//   MiningTask:       event | challenge | target | retries int32 (-1 = null) | publishedAt int64 | deadline int64
+//                     | contentHash | transactionCount int32 | bloque
+//   MiningTaskStatus: event | preliminaryHashBlockResolved | minerId
+//   SubTask:          from int64 | to int64 | challenge | target | contentHash | bloque
+//   CancelTask:       preliminaryHash
+//   Bloque:           presente byte (0 = null) | index int32 | timestamp int64 | nonce int64 | hash | previous_hash
+//                     | versión varint | merkle_root | n + 1 varint (0 = data null, tareas sólo-cabecera) | n transacciones
+//   Transacción:      id | sender | receiver | amount float64 | timestamp int64
+//
+// Numéricos de ancho fijo (big-endian) y textos con el mismo tag que BlockCodec: 0 = null, 1 = UTF-8 con largo
+// varint, 2 = UUID en 16 bytes, 3 = MD5 en 16 bytes (sólo si el texto es la forma canónica). El evento viaja
+// como el nombre del enum.
+public class TaskMessageCodec {
+
+    public static final byte VERSION = 1;
+    private static final byte MAGIC = 'W';
+    private static final int FLAG_DEFLATE = 1;
+    private static final int HEADER_BYTES = 4;
+
+    public static final byte TYPE_MINING_TASK = 1;
+    public static final byte TYPE_MINING_TASK_STATUS = 2;
+
+    private static final int TAG_NULL = 0;
+    private static final int TAG_UTF8 = 1;
+    private static final int TAG_UUID = 2;
+    private static final int TAG_MD5 = 3;
+
+    private final int compressionThreshold;
+
+    // compressionThreshold: cuerpos de al menos esa cantidad de bytes se comprimen (<= 0 deshabilita).
+    public TaskMessageCodec(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public static boolean supports(Object object) {
+        return object instanceof MiningTask || object instanceof MiningTaskStatus;
+    }
+
+    public byte[] encode(Object object) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+        byte type;
+        try (DataOutputStream out = new DataOutputStream(body)) {
+            if (object instanceof MiningTask task) {
+                type = TYPE_MINING_TASK;
+                writeMiningTask(out, task);
+            } else if (object instanceof MiningTaskStatus status) {
+                type = TYPE_MINING_TASK_STATUS;
+                writeString(out, status.getEvent() != null ? status.getEvent().name() : null);
+                writeHash(out, status.getPreliminaryHashBlockResolved());
+                writeString(out, status.getMinerId());
+            } else {
+                throw new IllegalArgumentException("Tipo de mensaje no soportado: " + (object != null ? object.getClass().getName() : "null"));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return frame(type, body.toByteArray());
+    }
+
+    public Object decode(byte[] bytes) {
+        ByteBuffer in = unframe(bytes);
+        try {
+            return switch (bytes[3]) {
+                case TYPE_MINING_TASK -> readMiningTask(in);
+                case TYPE_MINING_TASK_STATUS -> new MiningTaskStatus(readEvent(in), readText(in), readText(in));
+                default -> throw new IllegalArgumentException("Tipo de mensaje desconocido: " + bytes[3]);
+            };
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Mensaje codificado truncado");
+        }
+    }
+
+    private static void writeMiningTask(DataOutputStream out, MiningTask task) throws IOException {
+        writeString(out, task.getEvent() != null ? task.getEvent().name() : null);
+        writeString(out, task.getChallenge());
+        writeHash(out, task.getTarget());
+        out.writeInt(task.getRetries() != null ? task.getRetries() : -1);
+        out.writeLong(task.getPublishedAt());
+        out.writeLong(task.getDeadline());
+        writeHash(out, task.getContentHash());
+        out.writeInt(task.getTransactionCount());
+        writeBlock(out, task.getBlock());
+    }
+
+    private static MiningTask readMiningTask(ByteBuffer in) {
+        MiningTask task = new MiningTask();
+        task.setEvent(readEvent(in));
+        task.setChallenge(readText(in));
+        task.setTarget(readText(in));
+        int retries = in.getInt();
+        task.setRetries(retries >= 0 ? retries : null);
+        task.setPublishedAt(in.getLong());
+        task.setDeadline(in.getLong());
+        task.setContentHash(readText(in));
+        task.setTransactionCount(in.getInt());
+        task.setBlock(readBlock(in));
+        return task;
+    }
+
+    private static void writeBlock(DataOutputStream out, Block block) throws IOException {
+        if (block == null) {
+            out.writeByte(0);
+            return;
+        }
+        out.writeByte(1);
+        out.writeInt(block.getIndex());
+        out.writeLong(block.getTimestamp());
+        out.writeLong(block.getNonce());
+        writeHash(out, block.getHash());
+        writeHash(out, block.getPrevious_hash());
+        writeVarInt(out, block.getVersion());
+        writeHash(out, block.getMerkle_root());
+        List<Transaction> transactions = block.getData();
+        writeVarInt(out, transactions != null ? transactions.size() + 1 : 0);
+        if (transactions != null) {
+            for (Transaction transaction : transactions) {
+                writeId(out, transaction.getId());
+                writeString(out, transaction.getSender());
+                writeString(out, transaction.getReceiver());
+                out.writeDouble(transaction.getAmount());
+                out.writeLong(transaction.getTimestamp());
+            }
+        }
+    }
+
+    private static Block readBlock(ByteBuffer in) {
+        if (in.get() == 0) {
+            return null;
+        }
+        Block block = new Block();
+        block.setIndex(in.getInt());
+        block.setTimestamp(in.getLong());
+        block.setNonce(in.getLong());
+        block.setHash(readText(in));
+        block.setPrevious_hash(readText(in));
+        block.setVersion(readVarInt(in));
+        block.setMerkle_root(readText(in));
+        int count = readVarInt(in) - 1;
+        if (count >= 0) {
+            List<Transaction> transactions = new ArrayList<>(Math.min(count, in.remaining() / 20 + 1));
+            for (int i = 0; i < count; i++) {
+                Transaction transaction = new Transaction();
+                transaction.setId(readText(in));
+                transaction.setSender(readText(in));
+                transaction.setReceiver(readText(in));
+                transaction.setAmount(in.getDouble());
+                transaction.setTimestamp(in.getLong());
+                transactions.add(transaction);
+            }
+            block.setData(transactions);
+        }
+        return block;
+    }
+
+    private static ExchangeEvent readEvent(ByteBuffer in) {
+        String name = readText(in);
+        return name != null ? ExchangeEvent.valueOf(name) : null;
+    }
+
+    private static void writeId(DataOutputStream out, String id) throws IOException {
+        UUID uuid = canonicalUuid(id);
+        if (uuid == null) {
+            writeString(out, id);
+            return;
+        }
+        out.writeByte(TAG_UUID);
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    private static void writeHash(DataOutputStream out, String hash) throws IOException {
+        if (!Md5Hash.isHex(hash)) {
+            writeString(out, hash);
+            return;
+        }
+        Md5Hash md5 = Md5Hash.fromHex(hash);
+        out.writeByte(TAG_MD5);
+        out.writeLong(md5.getHigh());
+        out.writeLong(md5.getLow());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeByte(TAG_NULL);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeByte(TAG_UTF8);
+        writeVarInt(out, utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readText(ByteBuffer in) {
+        int tag = in.get();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_UTF8: {
+                int length = readVarInt(in);
+                if (length > in.remaining()) {
+                    throw new IllegalArgumentException("Largo de texto inválido: " + length);
+                }
+                String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+                in.position(in.position() + length);
+                return value;
+            }
+            case TAG_UUID:
+                return new UUID(in.getLong(), in.getLong()).toString();
+            case TAG_MD5:
+                return new Md5Hash(in.getLong(), in.getLong()).toHex();
+            default:
+                throw new IllegalArgumentException("Tag de texto desconocido: " + tag);
+        }
+    }
+
+    private static UUID canonicalUuid(String id) {
+        if (id == null || id.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(id);
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private byte[] frame(byte type, byte[] body) {
+        if (compressionThreshold > 0 && body.length >= compressionThreshold) {
+            byte[] compressed = deflate(body);
+            if (compressed.length + 5 < body.length) {
+                ByteArrayOutputStream framed = new ByteArrayOutputStream(compressed.length + 9);
+                framed.write(MAGIC);
+                framed.write(VERSION);
+                framed.write(FLAG_DEFLATE);
+                framed.write(type);
+                try {
+                    writeVarInt(new DataOutputStream(framed), body.length);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                framed.write(compressed, 0, compressed.length);
+                return framed.toByteArray();
+            }
+        }
+        byte[] framed = new byte[body.length + HEADER_BYTES];
+        framed[0] = MAGIC;
+        framed[1] = VERSION;
+        framed[2] = 0;
+        framed[3] = type;
+        System.arraycopy(body, 0, framed, HEADER_BYTES, body.length);
+        return framed;
+    }
+
+    private static ByteBuffer unframe(byte[] bytes) {
+        if (bytes == null || bytes.length < HEADER_BYTES || bytes[0] != MAGIC) {
+            throw new IllegalArgumentException("Cabecera de mensaje inválida");
+        }
+        if (bytes[1] < 1 || bytes[1] > VERSION) {
+            throw new IllegalArgumentException("Versión de formato no soportada: " + bytes[1]);
+        }
+        ByteBuffer in = ByteBuffer.wrap(bytes, HEADER_BYTES, bytes.length - HEADER_BYTES);
+        if ((bytes[2] & FLAG_DEFLATE) == 0) {
+            return in;
+        }
+        int length = readVarInt(in);
+        return ByteBuffer.wrap(inflate(bytes, in.position(), bytes.length - in.position(), length));
+    }
+
+    private static byte[] deflate(byte[] body) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(body);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 2 + 16);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(chunk);
+                out.write(chunk, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes, int off, int len, int uncompressedLength) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, off, len);
+            byte[] body = new byte[uncompressedLength];
+            int n = 0;
+            while (n < uncompressedLength && !inflater.finished()) {
+                int read = inflater.inflate(body, n, uncompressedLength - n);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                n += read;
+            }
+            if (n != uncompressedLength) {
+                throw new IllegalArgumentException("Cuerpo comprimido truncado");
+            }
+            return body;
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Cuerpo comprimido inválido: " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    throw new IllegalArgumentException("Varint negativo");
+                }
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint demasiado largo");
+    }
+}
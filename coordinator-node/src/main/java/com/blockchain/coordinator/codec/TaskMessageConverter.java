@@ -0,0 +1,55 @@
+package com.blockchain.coordinator.codec;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+// MessageConverter de los mensajes de minería: con binary los tipos que conoce TaskMessageCodec se publican en
+// el formato binario con content-type CONTENT_TYPE (y el header de versión); el resto, o todo con binary en
+// false, pasa por el conversor JSON. Al leer se decide por el content-type de cada mensaje, así que conviven
+// publicadores de los dos formatos (réplicas sin actualizar, mineros Python que publican JSON).
+public class TaskMessageConverter implements MessageConverter {
+
+    public static final String CONTENT_TYPE = "application/x-blockchain-task";
+    public static final String VERSION_HEADER = "x-wire-version";
+
+    private final TaskMessageCodec codec;
+    private final MessageConverter json;
+    private final boolean binary;
+
+    public TaskMessageConverter(TaskMessageCodec codec, MessageConverter json, boolean binary) {
+        this.codec = codec;
+        this.json = json;
+        this.binary = binary;
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) {
+        if (!binary || !TaskMessageCodec.supports(object)) {
+            return json.toMessage(object, messageProperties);
+        }
+        byte[] body;
+        try {
+            body = codec.encode(object);
+        } catch (RuntimeException e) {
+            throw new MessageConversionException("No se pudo codificar el mensaje " + object.getClass().getSimpleName(), e);
+        }
+        messageProperties.setContentType(CONTENT_TYPE);
+        messageProperties.setContentLength(body.length);
+        messageProperties.setHeader(VERSION_HEADER, TaskMessageCodec.VERSION);
+        return new Message(body, messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        if (!CONTENT_TYPE.equals(message.getMessageProperties().getContentType())) {
+            return json.fromMessage(message);
+        }
+        try {
+            return codec.decode(message.getBody());
+        } catch (IllegalArgumentException e) {
+            throw new MessageConversionException("Mensaje binario inválido: " + e.getMessage(), e);
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package com.blockchain.coordinator.config;
 
+import com.blockchain.coordinator.codec.TaskMessageCodec;
+import com.blockchain.coordinator.codec.TaskMessageConverter;
 import org.springframework.amqp.core.*;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitAdmin;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -30,15 +33,19 @@ public class RabbitMQConfig {
         return BindingBuilder.bind(blocksQueue).to(blockchainExchange);
     }
 
+    // Tareas y estados en el formato binario (TaskMessageCodec) sólo con wire-format=binary; los demás mensajes, y
+    // los que llegan como JSON, pasan por Jackson.
     @Bean
-    public MessageConverter jsonMessageConverter() {
-        return new Jackson2JsonMessageConverter();
+    public MessageConverter messageConverter(@Value("${blockchain.amqp.wire-format:json}") String wireFormat,
+                                             @Value("${blockchain.amqp.compression-threshold:1024}") int compressionThreshold) {
+        return new TaskMessageConverter(new TaskMessageCodec(compressionThreshold), new Jackson2JsonMessageConverter(),
+                "binary".equalsIgnoreCase(wireFormat));
     }
 
     @Bean
-    public RabbitTemplate rabbitModificatedTemplate(ConnectionFactory connectionFactory) {
+    public RabbitTemplate rabbitModificatedTemplate(ConnectionFactory connectionFactory, MessageConverter messageConverter) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
-        rabbitTemplate.setMessageConverter(jsonMessageConverter());
+        rabbitTemplate.setMessageConverter(messageConverter);
         return rabbitTemplate;
     }
 
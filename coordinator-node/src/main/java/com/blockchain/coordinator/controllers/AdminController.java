@@ -0,0 +1,47 @@
+package com.blockchain.coordinator.controllers;
+
+import com.blockchain.coordinator.dtos.ChainVerificationReport;
+import com.blockchain.coordinator.dtos.MiningScheduleStats;
+import com.blockchain.coordinator.scheduler.TaskScheduler;
+import com.blockchain.coordinator.services.ChainVerifier;
+import lombok.RequiredArgsConstructor;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.*;
+
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+@CrossOrigin("*")
+public class AdminController {
+
+    private final ChainVerifier chainVerifier;
+    private final TaskScheduler taskScheduler;
+
+    // Lanza la verificación completa de la cadena en segundo plano; el resultado se consulta con GET.
+    @PostMapping("/chain/verify")
+    public ResponseEntity<EntityModel<ChainVerificationReport>> startChainVerification(
+            @RequestParam(defaultValue = "0") int parallelism) {
+        EntityModel<ChainVerificationReport> reportModel = EntityModel.of(chainVerifier.start(parallelism),
+                linkTo(methodOn(AdminController.class).getChainVerification()).withRel("status"));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(reportModel);
+    }
+
+    @GetMapping("/chain/verify")
+    public ResponseEntity<EntityModel<ChainVerificationReport>> getChainVerification() {
+        EntityModel<ChainVerificationReport> reportModel = EntityModel.of(chainVerifier.getReport(),
+                linkTo(methodOn(AdminController.class).getChainVerification()).withSelfRel());
+        return ResponseEntity.ok(reportModel);
+    }
+
+    // Tiempo ocioso entre tareas e intervalo entre bloques, para comparar la publicación por eventos con el cron.
+    @GetMapping("/mining/schedule")
+    public ResponseEntity<EntityModel<MiningScheduleStats>> getMiningSchedule() {
+        EntityModel<MiningScheduleStats> statsModel = EntityModel.of(taskScheduler.getStats(),
+                linkTo(methodOn(AdminController.class).getMiningSchedule()).withSelfRel());
+        return ResponseEntity.ok(statsModel);
+    }
+}
@@ -1,17 +1,34 @@
 package com.blockchain.coordinator.controllers;
 
+import com.blockchain.coordinator.cache.BlockCache;
+import com.blockchain.coordinator.cache.BlockResponseCache;
+import com.blockchain.coordinator.cache.CandidateTransactionsCache;
+import com.blockchain.coordinator.codec.HeaderRecordCodec;
+import com.blockchain.coordinator.dtos.BlockCacheStats;
+import com.blockchain.coordinator.dtos.BlockPage;
+import com.blockchain.coordinator.dtos.MerkleProof;
 import com.blockchain.coordinator.dtos.MiningResult;
 import com.blockchain.coordinator.dtos.StatusResponse;
+import com.blockchain.coordinator.dtos.SubmissionOutcome;
+import com.blockchain.coordinator.dtos.SubmissionStats;
 import com.blockchain.coordinator.models.Block;
 import com.blockchain.coordinator.services.*;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
@@ -24,9 +41,18 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.*;
 public class BlockController {
 
     private final BlockService blockService;
-    private final QueueAdminService queueAdminService;
-    private final CurrentMiningTaskService currentMiningTaskService;
-    private final MiningTaskNotifier miningTaskNotifier;
+    private final SubmissionPipeline submissionPipeline;
+    private final ChainQueryService chainQueryService;
+    private final ChainExportService chainExportService;
+    private final BlockCache blockCache;
+    private final BlockResponseCache blockResponseCache;
+    private final CandidateTransactionsCache candidateTransactionsCache;
+
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+    // Un bloque guardado no cambia: su respuesta se puede cachear sin revalidar.
+    private static final CacheControl IMMUTABLE_BLOCK = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+    // /latest cambia con cada bloque nuevo: se revalida enseguida con el ETag (304 si la punta no cambió).
+    private static final CacheControl LATEST_BLOCK = CacheControl.maxAge(2, TimeUnit.SECONDS).mustRevalidate();
 
     @GetMapping("/status")
     public ResponseEntity<EntityModel<StatusResponse>> getStatus() {
@@ -36,38 +62,198 @@ public class BlockController {
         return ResponseEntity.ok(statusModel);
     }
 
+    // Las respuestas de bloques se sirven ya serializadas (BlockResponseCache). Spring responde 304 sin cuerpo
+    // cuando el If-None-Match del pedido coincide con el ETag.
     @GetMapping("/latest")
-    public ResponseEntity<EntityModel<Block>> getLatestBlock() {
+    public ResponseEntity<byte[]> getLatestBlock() {
         Block latestBlock = blockService.getLatestBlock();
         if (latestBlock == null) {
             return ResponseEntity.notFound().build();
         }
 
-        EntityModel<Block> blockModel = EntityModel.of(latestBlock,
-                linkTo(methodOn(BlockController.class).getLatestBlock()).withSelfRel(),
-                linkTo(methodOn(BlockController.class).getBlockByHash(latestBlock.getHash())).withRel("self-by-hash"),
-                linkTo(methodOn(BlockController.class).getBlockByHash(latestBlock.getPrevious_hash())).withRel("previous-block"),
-                linkTo(methodOn(BlockController.class).getAllBlocks()).withRel("all-blocks"));
-        return ResponseEntity.ok(blockModel);
+        BlockResponseCache.Rendered rendered = blockResponseCache.latest(baseUri(), latestBlock);
+        return ResponseEntity.ok()
+                .contentType(MediaTypes.HAL_JSON)
+                .eTag(rendered.etag())
+                .cacheControl(LATEST_BLOCK)
+                .body(rendered.body());
     }
 
     @GetMapping("/{blockHash}")
-    public ResponseEntity<EntityModel<Block>> getBlockByHash(@PathVariable String blockHash) {
+    public ResponseEntity<byte[]> getBlockByHash(@PathVariable String blockHash) {
         Optional<Block> blockOptional = blockService.getBlockByHash(blockHash);
 
         if (blockOptional.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
 
+        BlockResponseCache.Rendered rendered = blockResponseCache.block(baseUri(), blockOptional.get());
+        return ResponseEntity.ok()
+                .contentType(MediaTypes.HAL_JSON)
+                .eTag(rendered.etag())
+                .cacheControl(IMMUTABLE_BLOCK)
+                .body(rendered.body());
+    }
+
+    // Prueba de inclusión de una transacción en el bloque dado (no hay índice global transacción -> bloque).
+    // 404 si el bloque no existe, no tiene la transacción o es un bloque legacy sin raíz de Merkle.
+    @GetMapping("/{blockHash}/transactions/{transactionId}/proof")
+    public ResponseEntity<EntityModel<MerkleProof>> getTransactionProof(@PathVariable String blockHash,
+                                                                        @PathVariable String transactionId) {
+        Optional<MerkleProof> proof = blockService.getTransactionProof(blockHash, transactionId);
+        if (proof.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        EntityModel<MerkleProof> proofModel = EntityModel.of(proof.get(),
+                linkTo(methodOn(BlockController.class).getTransactionProof(blockHash, transactionId)).withSelfRel(),
+                linkTo(methodOn(BlockController.class).getBlockByHash(blockHash)).withRel("block"));
+        return ResponseEntity.ok().cacheControl(IMMUTABLE_BLOCK).body(proofModel);
+    }
+
+    // Transacciones del candidato actual, para los mineros que recibieron la tarea sólo con la cabecera.
+    // 404 si blockId ya no es el candidato actual.
+    @GetMapping("/candidates/{blockId}/transactions")
+    public ResponseEntity<byte[]> getCandidateTransactions(@PathVariable String blockId) {
+        Optional<BlockResponseCache.Rendered> rendered = candidateTransactionsCache.transactions(blockId);
+        if (rendered.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(rendered.get().etag())
+                .cacheControl(IMMUTABLE_BLOCK)
+                .body(rendered.get().body());
+    }
+
+    // URL absoluta de /api/blocks para el pedido actual (respeta X-Forwarded-*, igual que los demás enlaces).
+    private static String baseUri() {
+        return linkTo(BlockController.class).toUri().toString();
+    }
+
+    @GetMapping("/height/{height}")
+    public ResponseEntity<EntityModel<Block>> getBlockByHeight(@PathVariable long height) {
+        Optional<Block> blockOptional = chainQueryService.getBlockByHeight(height);
+        if (blockOptional.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
         Block block = blockOptional.get();
         EntityModel<Block> blockModel = EntityModel.of(block,
-                linkTo(methodOn(BlockController.class).getBlockByHash(blockHash)).withSelfRel(),
+                linkTo(methodOn(BlockController.class).getBlockByHeight(height)).withSelfRel(),
+                linkTo(methodOn(BlockController.class).getBlockByHash(block.getHash())).withRel("self-by-hash"),
                 linkTo(methodOn(BlockController.class).getBlockByHash(block.getPrevious_hash())).withRel("previous-block"),
-                linkTo(methodOn(BlockController.class).getLatestBlock()).withRel("latest-block"),
-                linkTo(methodOn(BlockController.class).getAllBlocks()).withRel("all-blocks"));
+                linkTo(methodOn(BlockController.class).getLatestBlock()).withRel("latest-block"));
         return ResponseEntity.ok(blockModel);
     }
 
+    // Recorre la cadena por altura. cursor (si viene) reemplaza a from; headersOnly omite las transacciones.
+    @GetMapping("/range")
+    public ResponseEntity<EntityModel<BlockPage<?>>> getBlocksByHeight(
+            @RequestParam(defaultValue = "0") long from,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(defaultValue = "false") boolean headersOnly) {
+        long fromHeight;
+        try {
+            fromHeight = cursor != null ? ChainQueryService.parseHeightCursor(cursor) : from;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        BlockPage<?> page = headersOnly
+                ? chainQueryService.headersFromHeight(fromHeight, limit)
+                : chainQueryService.blocksFromHeight(fromHeight, limit);
+
+        EntityModel<BlockPage<?>> pageModel = EntityModel.of(page,
+                linkTo(methodOn(BlockController.class).getBlocksByHeight(fromHeight, null, limit, headersOnly)).withSelfRel());
+        if (page.getNextCursor() != null) {
+            pageModel.add(linkTo(methodOn(BlockController.class).getBlocksByHeight(fromHeight, page.getNextCursor(), limit, headersOnly)).withRel("next"));
+        }
+        return ResponseEntity.ok(pageModel);
+    }
+
+    // Recorre los bloques con timestamp en [from, to] (segundos epoch), en orden de timestamp.
+    @GetMapping("/range/time")
+    public ResponseEntity<EntityModel<BlockPage<?>>> getBlocksByTime(
+            @RequestParam(defaultValue = "0") long from,
+            @RequestParam(defaultValue = "" + Long.MAX_VALUE) long to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(defaultValue = "false") boolean headersOnly) {
+        BlockPage<?> page;
+        try {
+            page = headersOnly
+                    ? chainQueryService.headersByTime(from, to, cursor, limit)
+                    : chainQueryService.blocksByTime(from, to, cursor, limit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        EntityModel<BlockPage<?>> pageModel = EntityModel.of(page,
+                linkTo(methodOn(BlockController.class).getBlocksByTime(from, to, cursor, limit, headersOnly)).withSelfRel());
+        if (page.getNextCursor() != null) {
+            pageModel.add(linkTo(methodOn(BlockController.class).getBlocksByTime(from, to, page.getNextCursor(), limit, headersOnly)).withRel("next"));
+        }
+        return ResponseEntity.ok(pageModel);
+    }
+
+    // Exporta la cadena desde fromHeight hasta el último bloque al momento del pedido, escribiendo cada bloque
+    // a medida que se lee. Se escribe directo sobre la respuesta (no async) para que una exportación larga no
+    // quede sujeta al timeout de las peticiones asíncronas de MVC.
+    @GetMapping("/export")
+    public void exportChain(@RequestParam(defaultValue = "ndjson") String format,
+                            @RequestParam(defaultValue = "0") long fromHeight,
+                            HttpServletResponse response) throws IOException {
+        ChainExportService.Format exportFormat;
+        try {
+            exportFormat = ChainExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Formato desconocido: " + format);
+            return;
+        }
+        if (fromHeight < 0) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "fromHeight inválido: " + fromHeight);
+            return;
+        }
+
+        long tipHeight = chainExportService.currentTipHeight();
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(exportFormat == ChainExportService.Format.BINARY
+                ? MediaType.APPLICATION_OCTET_STREAM_VALUE : MediaType.APPLICATION_NDJSON_VALUE);
+        response.setHeader("X-Export-Tip-Height", String.valueOf(tipHeight));
+        response.setBufferSize(EXPORT_BUFFER_SIZE);
+        long exported = chainExportService.export(fromHeight, tipHeight, exportFormat, response.getOutputStream());
+        System.out.println("Coordinador: Exportación " + exportFormat + " de " + exported + " bloques (alturas " + fromHeight + " a " + tipHeight + ").");
+    }
+
+    // Cabeceras desde fromHeight hasta la punta, leídas del índice de cabeceras: para seguir la cadena y
+    // verificar la prueba de trabajo sin bajar transacciones. binary son registros de X-Header-Record-Bytes
+    // bytes (formato en HeaderRecordCodec); ndjson, una cabecera JSON por línea.
+    @GetMapping("/headers")
+    public void exportHeaders(@RequestParam(defaultValue = "binary") String format,
+                              @RequestParam(defaultValue = "0") long fromHeight,
+                              HttpServletResponse response) throws IOException {
+        ChainExportService.Format exportFormat;
+        try {
+            exportFormat = ChainExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Formato desconocido: " + format);
+            return;
+        }
+        if (fromHeight < 0) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "fromHeight inválido: " + fromHeight);
+            return;
+        }
+
+        long tipHeight = chainExportService.currentTipHeight();
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(exportFormat == ChainExportService.Format.BINARY
+                ? MediaType.APPLICATION_OCTET_STREAM_VALUE : MediaType.APPLICATION_NDJSON_VALUE);
+        response.setHeader("X-Export-Tip-Height", String.valueOf(tipHeight));
+        response.setHeader("X-Header-Record-Bytes", String.valueOf(HeaderRecordCodec.RECORD_BYTES));
+        response.setBufferSize(EXPORT_BUFFER_SIZE);
+        chainExportService.exportHeaders(fromHeight, tipHeight, exportFormat, response.getOutputStream());
+    }
+
     @GetMapping
     public ResponseEntity<CollectionModel<EntityModel<Block>>> getAllBlocks() {
         List<EntityModel<Block>> blocks = StreamSupport.stream(blockService.blockRepository.findAll().spliterator(), false)
@@ -82,26 +268,28 @@ public class BlockController {
     }
 
     @PostMapping("/result")
-    public ResponseEntity<String> validateBlock(@RequestBody MiningResult candidateBlock) {
+    public CompletableFuture<ResponseEntity<String>> validateBlock(@RequestBody MiningResult candidateBlock) {
         System.out.println("Coordinador: SE RECIBIO EL BLOQUE: " + candidateBlock.getBlockId() + " del minero: " + candidateBlock.getMinerId());
         // valida si es el bloque candidato actual, el hash, la dificultad y la unicidad del previous_hash.
-        Optional<Block> addedBlock = blockService.addMinedBlock(
-                candidateBlock.getBlockId(),
-                candidateBlock.getNonce(),
-                candidateBlock.getHash()
-        );
-
-        if (addedBlock.isPresent()) {
-            Block solvedBlock = addedBlock.get();
-            System.out.println("Coordinador: ¡Bloque " + solvedBlock.getHash() + " añadido exitosamente a la blockchain por el minero " + candidateBlock.getMinerId() + "!");
-            blockService.createRewardBlock(candidateBlock.getMinerId());
-            queueAdminService.purgeBlocksQueue();
-            miningTaskNotifier.notifySolvedCandidateBlock(candidateBlock.getBlockId(), candidateBlock.getMinerId());
-            currentMiningTaskService.clearCurrentTask();
-            return ResponseEntity.ok("Solución valida, Bloque añadido a la blockchain.");
-        } else {
-            System.out.println("Coordinador: Falló la validación o ya fue resuelto el bloque: " + candidateBlock.getBlockId());
-            return ResponseEntity.badRequest().body("Falló la validación o el bloque ya fue resuelto por otro minero.");
-        }
+        return submissionPipeline.submit(candidateBlock).thenApply(outcome -> {
+            if (outcome != SubmissionOutcome.ACCEPTED) {
+                System.out.println("Coordinador: Envío rechazado (" + outcome + ") para el bloque: " + candidateBlock.getBlockId() + " del minero: " + candidateBlock.getMinerId());
+            }
+            return ResponseEntity.status(outcome.getStatus()).body(outcome.getMessage());
+        });
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<EntityModel<BlockCacheStats>> getCacheStats() {
+        EntityModel<BlockCacheStats> statsModel = EntityModel.of(blockCache.getStats(),
+                linkTo(methodOn(BlockController.class).getCacheStats()).withSelfRel());
+        return ResponseEntity.ok(statsModel);
+    }
+
+    @GetMapping("/result/stats")
+    public ResponseEntity<EntityModel<SubmissionStats>> getSubmissionStats() {
+        EntityModel<SubmissionStats> statsModel = EntityModel.of(submissionPipeline.getStats(),
+                linkTo(methodOn(BlockController.class).getSubmissionStats()).withSelfRel());
+        return ResponseEntity.ok(statsModel);
     }
 }
\ No newline at end of file
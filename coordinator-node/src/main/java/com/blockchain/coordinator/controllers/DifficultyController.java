@@ -1,5 +1,6 @@
 package com.blockchain.coordinator.controllers;
 
+import com.blockchain.coordinator.dtos.DifficultyStats;
 import com.blockchain.coordinator.services.DifficultyService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
@@ -19,10 +20,21 @@ public class DifficultyController {
         return difficultyService.getCurrentChallenge();
     }
 
+    // {"difficulty": "0000"} fija la dificultad de ese prefijo; {"bits": "17.5"} la fija en bits de trabajo.
     @PostMapping
     public String setDifficulty(@RequestBody Map<String, String> difficulty) {
-        difficultyService.setCurrentChallenge(difficulty.get("difficulty"));
+        if (difficulty.containsKey("bits")) {
+            difficultyService.setDifficultyBits(Double.parseDouble(difficulty.get("bits")));
+        } else {
+            difficultyService.setCurrentChallenge(difficulty.get("difficulty"));
+        }
         return difficultyService.getCurrentChallenge();
     }
 
+    // Estado del reajuste automático: hashrate estimado, tiempo promedio de solución y bits deseados.
+    @GetMapping("/retarget")
+    public DifficultyStats getRetargetStats() {
+        return difficultyService.getStats();
+    }
+
 }
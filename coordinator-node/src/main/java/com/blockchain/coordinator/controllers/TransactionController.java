@@ -1,17 +1,25 @@
 package com.blockchain.coordinator.controllers;
 
 import com.blockchain.coordinator.dtos.CountResponse;
+import com.blockchain.coordinator.dtos.PersistenceStats;
+import com.blockchain.coordinator.dtos.RecoveryStatus;
+import com.blockchain.coordinator.dtos.TransactionAdmission;
+import com.blockchain.coordinator.dtos.TransactionIngestSummary;
 import com.blockchain.coordinator.models.Transaction;
+import com.blockchain.coordinator.services.MempoolRecoveryService;
+import com.blockchain.coordinator.services.TransactionIngestService;
+import com.blockchain.coordinator.services.TransactionPersister;
 import com.blockchain.coordinator.services.TransactionPoolService;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.*;
@@ -22,41 +30,77 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.*;
 public class TransactionController {
 
     private final TransactionPoolService transactionPoolService;
+    private final TransactionPersister transactionPersister;
+    private final TransactionIngestService transactionIngestService;
+    private final MempoolRecoveryService mempoolRecoveryService;
 
-    public TransactionController(TransactionPoolService transactionPoolService) {
+    public TransactionController(TransactionPoolService transactionPoolService, TransactionPersister transactionPersister,
+                                 TransactionIngestService transactionIngestService, MempoolRecoveryService mempoolRecoveryService) {
         this.transactionPoolService = transactionPoolService;
+        this.transactionPersister = transactionPersister;
+        this.transactionIngestService = transactionIngestService;
+        this.mempoolRecoveryService = mempoolRecoveryService;
     }
 
     @PostMapping
-    public ResponseEntity<EntityModel<Transaction>> registerTransaction(@RequestBody Transaction transaction) {
+    public CompletableFuture<ResponseEntity<EntityModel<Transaction>>> registerTransaction(@RequestBody Transaction transaction) {
         // Se valida que la transacción tenga un ID y un timestamp válido (consistente)
-        if (transaction.getId() == null || transaction.getId().isEmpty()) {
-            transaction.setId(UUID.randomUUID().toString());
-        }
-        if (transaction.getTimestamp() == 0) { // Si el timestamp no viene, se asigna el actual
-            transaction.setTimestamp(LocalDateTime.now().toEpochSecond(ZoneOffset.UTC));
-        }
+        TransactionIngestService.normalize(transaction);
 
-        transactionPoolService.addTransaction(transaction);
+        return transactionPoolService.addTransaction(transaction).thenApply(admission -> {
+            if (admission != TransactionAdmission.ACCEPTED) {
+                return ResponseEntity.status(admission.getStatus()).<EntityModel<Transaction>>build();
+            }
+            EntityModel<Transaction> transactionModel = EntityModel.of(transaction,
+                    linkTo(methodOn(TransactionController.class).getPendingTransaction(transaction.getId())).withSelfRel(),
+                    linkTo(methodOn(TransactionController.class).getPendingTransactions()).withRel("all-pending-transactions"));
+            return ResponseEntity.created(transactionModel.getRequiredLink("self").toUri()).body(transactionModel);
+        });
+    }
 
-        EntityModel<Transaction> transactionModel = EntityModel.of(transaction,
-                linkTo(methodOn(TransactionController.class).registerTransaction(transaction)).withSelfRel(),
-                linkTo(methodOn(TransactionController.class).getPendingTransactions()).withRel("all-pending-transactions"));
+    // Carga masiva: arreglo JSON de transacciones. Responde un estado por transacción, sin enlaces.
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<TransactionIngestSummary> registerTransactionBatch(InputStream body) throws IOException {
+        return ingestResponse(transactionIngestService.ingest(body));
+    }
 
-        return ResponseEntity.created(transactionModel.getRequiredLink("self").toUri()).body(transactionModel);
+    // Carga masiva en streaming: una transacción JSON por línea (NDJSON).
+    @PostMapping(value = "/stream", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<TransactionIngestSummary> registerTransactionStream(InputStream body) throws IOException {
+        return ingestResponse(transactionIngestService.ingest(body));
+    }
+
+    private ResponseEntity<TransactionIngestSummary> ingestResponse(TransactionIngestSummary summary) {
+        if (summary.getError() != null && summary.getReceived() == 0) {
+            return ResponseEntity.badRequest().body(summary);
+        }
+        return ResponseEntity.ok(summary);
     }
 
     @GetMapping("/pending")
     public ResponseEntity<CollectionModel<EntityModel<Transaction>>> getPendingTransactions() {
         List<EntityModel<Transaction>> transactions = transactionPoolService.getAllPendingTransactions().stream()
                 .map(transaction -> EntityModel.of(transaction,
-                        linkTo(methodOn(TransactionController.class).registerTransaction(transaction)).withRel("add-new-transaction")))
+                        linkTo(TransactionController.class).withRel("add-new-transaction")))
                 .collect(Collectors.toList());
 
         return ResponseEntity.ok(CollectionModel.of(transactions,
                 linkTo(methodOn(TransactionController.class).getPendingTransactions()).withSelfRel()));
     }
 
+    @GetMapping("/pending/{id}")
+    public ResponseEntity<EntityModel<Transaction>> getPendingTransaction(@PathVariable String id) {
+        Transaction transaction = transactionPoolService.getPendingTransaction(id);
+        if (transaction == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        EntityModel<Transaction> transactionModel = EntityModel.of(transaction,
+                linkTo(methodOn(TransactionController.class).getPendingTransaction(id)).withSelfRel(),
+                linkTo(methodOn(TransactionController.class).getPendingTransactions()).withRel("all-pending-transactions"));
+        return ResponseEntity.ok(transactionModel);
+    }
+
     @GetMapping("/pending/count")
     public ResponseEntity<EntityModel<CountResponse>> getPendingTransactionCount() {
         int count = transactionPoolService.getPendingTransactionCount();
@@ -67,4 +111,19 @@ public class TransactionController {
                 linkTo(methodOn(TransactionController.class).getPendingTransactions()).withRel("view-pending-transactions"));
         return ResponseEntity.ok(countModel);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/persistence/stats")
+    public ResponseEntity<EntityModel<PersistenceStats>> getPersistenceStats() {
+        EntityModel<PersistenceStats> statsModel = EntityModel.of(transactionPersister.getStats(),
+                linkTo(methodOn(TransactionController.class).getPersistenceStats()).withSelfRel());
+        return ResponseEntity.ok(statsModel);
+    }
+
+    @GetMapping("/recovery")
+    public ResponseEntity<EntityModel<RecoveryStatus>> getRecoveryStatus() {
+        EntityModel<RecoveryStatus> statusModel = EntityModel.of(mempoolRecoveryService.getStatus(),
+                linkTo(methodOn(TransactionController.class).getRecoveryStatus()).withSelfRel(),
+                linkTo(methodOn(TransactionController.class).getPendingTransactionCount()).withRel("pending-count"));
+        return ResponseEntity.ok(statusModel);
+    }
+}
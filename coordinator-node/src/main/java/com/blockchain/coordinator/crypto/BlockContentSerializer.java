@@ -0,0 +1,156 @@
+package com.blockchain.coordinator.crypto;
+
+import com.blockchain.coordinator.models.Block;
+import com.blockchain.coordinator.models.Transaction;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Serializa el contenido canónico de un bloque directamente dentro del digest MD5, sin construir el String
+// intermedio. Los bytes son idénticos a los de la concatenación original, por lo que el hash coincide con
+// get_block_content_hash del minero:
+//  - versión legacy (< Block.MERKLE_VERSION): index + timestamp + data JSON + previous_hash;
+//  - versión Merkle: index + timestamp + merkle_root + previous_hash.
+@Component
+public class BlockContentSerializer {
+
+    private static final ThreadLocal<DigestSink> SINK = ThreadLocal.withInitial(DigestSink::new);
+
+    private final ObjectMapper objectMapper;
+    private final Md5Hasher md5Hasher;
+
+    public BlockContentSerializer(ObjectMapper objectMapper, Md5Hasher md5Hasher) {
+        this.objectMapper = objectMapper;
+        this.md5Hasher = md5Hasher;
+    }
+
+    public Md5Hash contentHash(Block block) {
+        // La raíz se calcula antes de abrir el digest del contenido: usa el mismo digest del hilo.
+        String merkleRoot = merkleRootHex(block);
+        return digest(sink -> writeContent(block, merkleRoot, sink, sink.writer));
+    }
+
+    // Hoja del árbol de Merkle: md5 del JSON de la transacción, el mismo que aparece dentro de data.
+    public Md5Hash transactionHash(Transaction transaction) {
+        return digest(sink -> {
+            try {
+                writeData(transaction, sink.writer);
+            } catch (IOException e) {
+                throw new RuntimeException("Error al serializar la transacción.", e);
+            }
+        });
+    }
+
+    public Md5Hash merkleRoot(List<Transaction> transactions) {
+        MerkleTree.Builder builder = new MerkleTree.Builder(md5Hasher);
+        if (transactions != null) {
+            for (Transaction transaction : transactions) {
+                builder.add(transactionHash(transaction));
+            }
+        }
+        return builder.root();
+    }
+
+    private Md5Hash digest(Consumer<DigestSink> content) {
+        MessageDigest digest = md5Hasher.begin();
+        DigestSink sink = SINK.get();
+        sink.digest = digest;
+        try {
+            content.accept(sink);
+        } catch (RuntimeException e) {
+            // El writer puede haber quedado con caracteres pendientes: se descarta el sink del hilo.
+            SINK.remove();
+            throw e;
+        } finally {
+            sink.digest = null;
+        }
+        return md5Hasher.finish(digest);
+    }
+
+    // Escribe el contenido canónico en cualquier destino; contentHash lo usa con el digest como destino.
+    public void writeContent(Block block, OutputStream out) {
+        writeContent(block, merkleRootHex(block), out, new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    private String merkleRootHex(Block block) {
+        if (!block.usesMerkleRoot()) {
+            return null;
+        }
+        return block.getMerkle_root() != null ? block.getMerkle_root() : merkleRoot(block.getData()).toHex();
+    }
+
+    private void writeContent(Block block, String merkleRoot, OutputStream out, Writer dataWriter) {
+        try {
+            writeDecimal(block.getIndex(), out);
+            writeDecimal(block.getTimestamp(), out);
+            if (merkleRoot != null) {
+                writeString(merkleRoot, out);
+            } else {
+                writeData(block.getData(), dataWriter);
+            }
+            writeString(String.valueOf(block.getPrevious_hash()), out);
+        } catch (IOException e) {
+            throw new RuntimeException("Error al serializar el bloque.", e);
+        }
+    }
+
+    // Serializa value con el mismo ObjectMapper y el mismo generador de caracteres que writeValueAsString;
+    // el Writer codifica a UTF-8 igual que String.getBytes (incluidos los pares sustitutos).
+    public void writeData(Object value, Writer out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            objectMapper.writeValue(generator, value);
+        }
+        out.flush();
+    }
+
+    private static void writeDecimal(long value, OutputStream out) throws IOException {
+        byte[] buffer = SINK.get().scratch;
+        int len = Hex.writeDecimal(value, buffer, 0);
+        out.write(buffer, 0, len);
+    }
+
+    private static void writeString(String value, OutputStream out) throws IOException {
+        byte[] buffer = SINK.get().scratch;
+        int length = value.length();
+        if (length > buffer.length) {
+            out.write(value.getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                out.write(value.getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            buffer[i] = (byte) c;
+        }
+        out.write(buffer, 0, length);
+    }
+
+    // OutputStream que alimenta el digest del hilo; close() no hace nada para que Jackson no lo cierre.
+    private static final class DigestSink extends OutputStream {
+        private final byte[] scratch = new byte[128];
+        private final Writer writer = new OutputStreamWriter(this, StandardCharsets.UTF_8);
+        private MessageDigest digest;
+
+        @Override
+        public void write(int b) {
+            digest.update((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            digest.update(b, off, len);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.blockchain.coordinator.crypto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Utilidades de codificación hexadecimal y decimal ASCII sin objetos intermedios.
+public final class Hex {
+
+    private static final byte[] DIGITS = {
+            '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'
+    };
+
+    // Tabla inversa: caracter ASCII -> nibble, -1 si no es un digito hex en minúscula.
+    private static final byte[] NIBBLES = new byte[128];
+
+    static {
+        Arrays.fill(NIBBLES, (byte) -1);
+        for (int i = 0; i < DIGITS.length; i++) {
+            NIBBLES[DIGITS[i]] = (byte) i;
+        }
+    }
+
+    private Hex() {
+    }
+
+    // Escribe 2 * len caracteres hex en minúscula en dst a partir de dstOff.
+    public static void encode(byte[] src, int srcOff, int len, byte[] dst, int dstOff) {
+        for (int i = 0; i < len; i++) {
+            int v = src[srcOff + i] & 0xff;
+            dst[dstOff++] = DIGITS[v >>> 4];
+            dst[dstOff++] = DIGITS[v & 0x0f];
+        }
+    }
+
+    public static String encode(byte[] src) {
+        byte[] out = new byte[src.length * 2];
+        encode(src, 0, src.length, out, 0);
+        return new String(out, StandardCharsets.ISO_8859_1);
+    }
+
+    static byte digit(int nibble) {
+        return DIGITS[nibble];
+    }
+
+    // Devuelve el valor del digito hex en minúscula o -1 si el caracter no es válido.
+    public static int nibble(char c) {
+        return c < 128 ? NIBBLES[c] : -1;
+    }
+
+    // Compara el digest crudo con su representación hex sin construir ningún String.
+    public static boolean matches(byte[] digest, int off, int len, CharSequence hex) {
+        if (hex == null || hex.length() != len * 2) {
+            return false;
+        }
+        for (int i = 0; i < len; i++) {
+            int v = digest[off + i] & 0xff;
+            if (hex.charAt(2 * i) != DIGITS[v >>> 4] || hex.charAt(2 * i + 1) != DIGITS[v & 0x0f]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Escribe value en decimal ASCII terminando justo antes de end y devuelve el offset inicial.
+    public static int writeDecimalBefore(long value, byte[] dst, int end) {
+        int start = end - decimalLength(value);
+        writeDecimal(value, dst, start);
+        return start;
+    }
+
+    // Cantidad de bytes que ocupa la representación decimal de value.
+    public static int decimalLength(long value) {
+        if (value < 0) {
+            return value == Long.MIN_VALUE ? 20 : 1 + decimalLength(-value);
+        }
+        int length = 1;
+        long limit = 10;
+        while (length < 19 && value >= limit) {
+            length++;
+            limit *= 10;
+        }
+        return length;
+    }
+
+    // Escribe value en decimal ASCII (igual que String.valueOf) y devuelve el offset siguiente.
+    public static int writeDecimal(long value, byte[] dst, int dstOff) {
+        if (value == Long.MIN_VALUE) {
+            byte[] min = "-9223372036854775808".getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(min, 0, dst, dstOff, min.length);
+            return dstOff + min.length;
+        }
+        int end = dstOff + decimalLength(value);
+        if (value < 0) {
+            dst[dstOff] = '-';
+            value = -value;
+        }
+        int pos = end;
+        do {
+            dst[--pos] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+        return end;
+    }
+}
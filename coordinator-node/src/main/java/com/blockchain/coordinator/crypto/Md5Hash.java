@@ -0,0 +1,140 @@
+package com.blockchain.coordinator.crypto;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+
+// Resultado MD5 crudo (128 bits) representado como dos longs big-endian.
+public final class Md5Hash implements Serializable, Comparable<Md5Hash> {
+
+    public static final int LENGTH = 16;
+    public static final int HEX_LENGTH = 32;
+
+    private final long high;
+    private final long low;
+
+    public Md5Hash(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    public static Md5Hash fromBytes(byte[] bytes, int off) {
+        return new Md5Hash(readLong(bytes, off), readLong(bytes, off + 8));
+    }
+
+    public static Md5Hash fromHex(CharSequence hex) {
+        if (!isHex(hex)) {
+            throw new IllegalArgumentException("Hash MD5 inválido: " + hex);
+        }
+        return new Md5Hash(parseHexLong(hex, 0), parseHexLong(hex, 16));
+    }
+
+    // true si la cadena es un hash MD5 en hex minúscula (el formato que produce el coordinador).
+    public static boolean isHex(CharSequence hex) {
+        if (hex == null || hex.length() != HEX_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < HEX_LENGTH; i++) {
+            if (Hex.nibble(hex.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getHigh() {
+        return high;
+    }
+
+    public long getLow() {
+        return low;
+    }
+
+    public void writeBytes(byte[] dst, int off) {
+        writeLong(high, dst, off);
+        writeLong(low, dst, off + 8);
+    }
+
+    public byte[] toBytes() {
+        byte[] out = new byte[LENGTH];
+        writeBytes(out, 0);
+        return out;
+    }
+
+    public void writeHex(byte[] dst, int off) {
+        writeHexLong(high, dst, off);
+        writeHexLong(low, dst, off + 16);
+    }
+
+    public String toHex() {
+        byte[] out = new byte[HEX_LENGTH];
+        writeHex(out, 0);
+        return new String(out, StandardCharsets.ISO_8859_1);
+    }
+
+    public boolean matchesHex(CharSequence hex) {
+        return hex != null && hex.length() == HEX_LENGTH && matchesHexLong(high, hex, 0) && matchesHexLong(low, hex, 16);
+    }
+
+    @Override
+    public int compareTo(Md5Hash other) {
+        int cmp = Long.compareUnsigned(high, other.high);
+        return cmp != 0 ? cmp : Long.compareUnsigned(low, other.low);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Md5Hash other)) return false;
+        return high == other.high && low == other.low;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(high) * 31 + Long.hashCode(low);
+    }
+
+    @Override
+    public String toString() {
+        return toHex();
+    }
+
+    static long readLong(byte[] b, int off) {
+        long v = 0;
+        for (int i = 0; i < 8; i++) {
+            v = (v << 8) | (b[off + i] & 0xffL);
+        }
+        return v;
+    }
+
+    static void writeLong(long v, byte[] b, int off) {
+        for (int i = 7; i >= 0; i--) {
+            b[off + i] = (byte) v;
+            v >>>= 8;
+        }
+    }
+
+    private static long parseHexLong(CharSequence hex, int off) {
+        long v = 0;
+        for (int i = 0; i < 16; i++) {
+            v = (v << 4) | Hex.nibble(hex.charAt(off + i));
+        }
+        return v;
+    }
+
+    private static void writeHexLong(long v, byte[] dst, int off) {
+        for (int i = 15; i >= 0; i--) {
+            dst[off + i] = Hex.digit((int) (v & 0x0f));
+            v >>>= 4;
+        }
+    }
+
+    private static boolean matchesHexLong(long v, CharSequence hex, int off) {
+        for (int i = 15; i >= 0; i--) {
+            if (Hex.nibble(hex.charAt(off + i)) != (int) (v & 0x0f)) {
+                return false;
+            }
+            v >>>= 4;
+        }
+        return true;
+    }
+}
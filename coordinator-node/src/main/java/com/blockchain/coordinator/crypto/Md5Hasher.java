@@ -0,0 +1,139 @@
+package com.blockchain.coordinator.crypto;
+
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+// Motor MD5 reutilizable: un MessageDigest y buffers de trabajo por hilo, entrada a nivel de bytes
+// y salida cruda (Md5Hash) o comparada directamente contra el hex recibido, sin generar basura.
+@Component
+public class Md5Hasher {
+
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(Md5Hasher::newDigest);
+    private static final ThreadLocal<byte[]> OUTPUT = ThreadLocal.withInitial(() -> new byte[Md5Hash.LENGTH]);
+    // Entrada del hash final: nonce decimal (hasta 20 bytes) + hash de contenido en hex (32 bytes).
+    private static final ThreadLocal<byte[]> FINAL_INPUT = ThreadLocal.withInitial(() -> new byte[20 + Md5Hash.HEX_LENGTH]);
+    private static final ThreadLocal<byte[]> ASCII_INPUT = ThreadLocal.withInitial(() -> new byte[256]);
+    // Entradas más grandes no se retienen por hilo para no fijar memoria en cada hilo de Tomcat.
+    private static final int MAX_RETAINED_INPUT = 16 * 1024;
+
+    // Devuelve el digest del hilo actual ya reiniciado, para alimentarlo por partes.
+    public MessageDigest begin() {
+        MessageDigest digest = DIGEST.get();
+        digest.reset();
+        return digest;
+    }
+
+    public Md5Hash finish(MessageDigest digest) {
+        byte[] out = OUTPUT.get();
+        digestInto(digest, out);
+        return Md5Hash.fromBytes(out, 0);
+    }
+
+    // Finaliza el digest en el buffer del hilo; el arreglo es válido hasta el próximo uso en este hilo.
+    public byte[] finishRaw(MessageDigest digest) {
+        byte[] out = OUTPUT.get();
+        digestInto(digest, out);
+        return out;
+    }
+
+    // Finaliza el digest y compara el resultado con el hex esperado, sin crear objetos.
+    public boolean finishAndMatch(MessageDigest digest, CharSequence expectedHex) {
+        byte[] out = OUTPUT.get();
+        digestInto(digest, out);
+        return Hex.matches(out, 0, Md5Hash.LENGTH, expectedHex);
+    }
+
+    public Md5Hash hash(byte[] input, int off, int len) {
+        MessageDigest digest = begin();
+        digest.update(input, off, len);
+        return finish(digest);
+    }
+
+    public String hashHex(String input) {
+        return hashString(input).toHex();
+    }
+
+    public Md5Hash hashString(String input) {
+        int length = input.length();
+        if (length > MAX_RETAINED_INPUT) {
+            byte[] utf8 = input.getBytes(StandardCharsets.UTF_8);
+            return hash(utf8, 0, utf8.length);
+        }
+        byte[] buffer = asciiBuffer(length);
+        for (int i = 0; i < length; i++) {
+            char c = input.charAt(i);
+            if (c >= 0x80) {
+                byte[] utf8 = input.getBytes(StandardCharsets.UTF_8);
+                return hash(utf8, 0, utf8.length);
+            }
+            buffer[i] = (byte) c;
+        }
+        return hash(buffer, 0, length);
+    }
+
+    // md5(nonce + contentHashHex), el hash final del bloque tal como lo calculan los mineros.
+    public Md5Hash hashFinal(long nonce, byte[] contentHashHex, int off) {
+        byte[] input = FINAL_INPUT.get();
+        int len = writeFinalInput(nonce, contentHashHex, off, input);
+        return hash(input, 0, len);
+    }
+
+    public Md5Hash hashFinal(long nonce, Md5Hash contentHash) {
+        byte[] input = FINAL_INPUT.get();
+        int pos = Hex.writeDecimal(nonce, input, 0);
+        contentHash.writeHex(input, pos);
+        return hash(input, 0, pos + Md5Hash.HEX_LENGTH);
+    }
+
+    public boolean finalHashMatches(long nonce, byte[] contentHashHex, int off, CharSequence expectedHex) {
+        byte[] input = FINAL_INPUT.get();
+        int len = writeFinalInput(nonce, contentHashHex, off, input);
+        MessageDigest digest = begin();
+        digest.update(input, 0, len);
+        return finishAndMatch(digest, expectedHex);
+    }
+
+    public boolean finalHashMatches(long nonce, Md5Hash contentHash, CharSequence expectedHex) {
+        byte[] input = FINAL_INPUT.get();
+        int pos = Hex.writeDecimal(nonce, input, 0);
+        contentHash.writeHex(input, pos);
+        MessageDigest digest = begin();
+        digest.update(input, 0, pos + Md5Hash.HEX_LENGTH);
+        return finishAndMatch(digest, expectedHex);
+    }
+
+    private static int writeFinalInput(long nonce, byte[] contentHashHex, int off, byte[] input) {
+        int pos = Hex.writeDecimal(nonce, input, 0);
+        System.arraycopy(contentHashHex, off, input, pos, Md5Hash.HEX_LENGTH);
+        return pos + Md5Hash.HEX_LENGTH;
+    }
+
+    private static byte[] asciiBuffer(int length) {
+        byte[] buffer = ASCII_INPUT.get();
+        if (buffer.length < length) {
+            buffer = new byte[Math.min(MAX_RETAINED_INPUT, Math.max(length, buffer.length * 2))];
+            ASCII_INPUT.set(buffer);
+        }
+        return buffer;
+    }
+
+    private static void digestInto(MessageDigest digest, byte[] out) {
+        try {
+            digest.digest(out, 0, Md5Hash.LENGTH);
+        } catch (DigestException e) {
+            throw new IllegalStateException("No se pudo finalizar el digest MD5.", e);
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("MD5 no disponible.", e);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.blockchain.coordinator.crypto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Árbol de Merkle MD5 sobre los hashes de las transacciones de un bloque.
+//  - hoja: md5 del JSON de la transacción (BlockContentSerializer.transactionHash);
+//  - nodo: md5(izquierdo 16 bytes || derecho 16 bytes);
+//  - en un nivel impar el último nodo sube sin cambios (no se duplica);
+//  - sin transacciones la raíz es md5 de la entrada vacía.
+public final class MerkleTree {
+
+    public enum Side {
+        LEFT,
+        RIGHT
+    }
+
+    // Un paso de la prueba: el hermano y de qué lado va al combinarlo con el hash acumulado.
+    public record Step(Md5Hash hash, Side side) {
+    }
+
+    private MerkleTree() {
+    }
+
+    public static Md5Hash root(Md5Hasher md5Hasher, List<Md5Hash> leaves) {
+        Builder builder = new Builder(md5Hasher);
+        for (Md5Hash leaf : leaves) {
+            builder.add(leaf);
+        }
+        return builder.root();
+    }
+
+    // Pasos desde la hoja index hasta la raíz. Los niveles donde la hoja sube sin hermano no agregan paso.
+    public static List<Step> proof(Md5Hasher md5Hasher, List<Md5Hash> leaves, int index) {
+        if (index < 0 || index >= leaves.size()) {
+            throw new IndexOutOfBoundsException("Hoja fuera de rango: " + index);
+        }
+        List<Step> steps = new ArrayList<>();
+        List<Md5Hash> level = leaves;
+        int position = index;
+        while (level.size() > 1) {
+            int sibling = position ^ 1;
+            if (sibling < level.size()) {
+                steps.add(new Step(level.get(sibling), sibling < position ? Side.LEFT : Side.RIGHT));
+            }
+            List<Md5Hash> parents = new ArrayList<>((level.size() + 1) / 2);
+            for (int i = 0; i < level.size(); i += 2) {
+                parents.add(i + 1 < level.size() ? parent(md5Hasher, level.get(i), level.get(i + 1)) : level.get(i));
+            }
+            level = parents;
+            position /= 2;
+        }
+        return steps;
+    }
+
+    public static boolean verify(Md5Hasher md5Hasher, Md5Hash leaf, List<Step> steps, Md5Hash root) {
+        Md5Hash current = leaf;
+        for (Step step : steps) {
+            current = step.side() == Side.LEFT ? parent(md5Hasher, step.hash(), current) : parent(md5Hasher, current, step.hash());
+        }
+        return current.equals(root);
+    }
+
+    public static Md5Hash parent(Md5Hasher md5Hasher, Md5Hash left, Md5Hash right) {
+        byte[] input = new byte[Md5Hash.LENGTH * 2];
+        left.writeBytes(input, 0);
+        right.writeBytes(input, Md5Hash.LENGTH);
+        return md5Hasher.hash(input, 0, input.length);
+    }
+
+    // Construye la raíz a medida que llegan las hojas guardando sólo un subárbol completo por nivel
+    // (como un contador binario). Al cerrar, combinar esos subárboles de derecha a izquierda da la misma
+    // raíz que armar el árbol nivel por nivel subiendo el nodo impar.
+    public static final class Builder {
+        private final Md5Hasher md5Hasher;
+        private Md5Hash[] stack = new Md5Hash[8];
+        private int depth;
+        private long count;
+
+        public Builder(Md5Hasher md5Hasher) {
+            this.md5Hasher = md5Hasher;
+        }
+
+        public Builder add(Md5Hash leaf) {
+            if (depth == stack.length) {
+                stack = Arrays.copyOf(stack, depth * 2);
+            }
+            stack[depth++] = leaf;
+            count++;
+            for (long n = count; (n & 1) == 0; n >>>= 1) {
+                depth--;
+                stack[depth - 1] = parent(md5Hasher, stack[depth - 1], stack[depth]);
+                stack[depth] = null;
+            }
+            return this;
+        }
+
+        // Copia independiente del estado actual, para seguir agregando hojas sin modificar este builder.
+        public Builder copy() {
+            Builder copy = new Builder(md5Hasher);
+            copy.stack = Arrays.copyOf(stack, stack.length);
+            copy.depth = depth;
+            copy.count = count;
+            return copy;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public Md5Hash root() {
+            if (depth == 0) {
+                return md5Hasher.hash(new byte[0], 0, 0);
+            }
+            Md5Hash current = stack[depth - 1];
+            for (int i = depth - 2; i >= 0; i--) {
+                current = parent(md5Hasher, stack[i], current);
+            }
+            return current;
+        }
+    }
+}
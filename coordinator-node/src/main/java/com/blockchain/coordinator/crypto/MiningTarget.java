@@ -0,0 +1,68 @@
+package com.blockchain.coordinator.crypto;
+
+import java.math.BigInteger;
+
+// Objetivo numérico de 128 bits: un hash cumple si, leído como entero sin signo big-endian, es <= target.
+// La dificultad en bits es log2(2^128 / (target + 1)), o sea log2 de los hashes esperados por solución, y
+// puede tomar cualquier valor real (el prefijo de n ceros sólo permite múltiplos de 4 bits).
+// Para los mineros que sólo entienden el prefijo se publica además prefixFor(target): el prefijo de ceros
+// más corto que alcanza para cumplir el target, así que sus soluciones siguen siendo válidas.
+public final class MiningTarget {
+
+    public static final double MAX_BITS = 128;
+
+    private static final BigInteger TWO_POW_128 = BigInteger.ONE.shiftLeft(128);
+    private static final BigInteger MAX_VALUE = TWO_POW_128.subtract(BigInteger.ONE);
+
+    private MiningTarget() {
+    }
+
+    public static Md5Hash fromBits(double bits) {
+        double exponent = MAX_BITS - Math.max(0, Math.min(MAX_BITS, bits));
+        int whole = (int) Math.floor(exponent);
+        // target + 1 = 2^exponent = 2^frac * 2^whole, con la mantisa en 52 bits.
+        BigInteger mantissa = BigInteger.valueOf(Math.round(Math.pow(2, exponent - whole) * (1L << 52)));
+        BigInteger value = mantissa.shiftLeft(whole - 52).subtract(BigInteger.ONE);
+        return toHash(value.signum() < 0 ? BigInteger.ZERO : value.min(MAX_VALUE));
+    }
+
+    // Target equivalente a startsWith(n ceros): 2^(128 - 4n) - 1.
+    public static Md5Hash fromZeroPrefix(int zeros) {
+        return fromBits(4.0 * zeros);
+    }
+
+    public static double bits(Md5Hash target) {
+        BigInteger work = toBigInteger(target).add(BigInteger.ONE);
+        return MAX_BITS - Math.log(work.doubleValue()) / Math.log(2);
+    }
+
+    // Prefijo de ceros más corto tal que todo hash que lo cumple también cumple el target.
+    public static String prefixFor(Md5Hash target) {
+        for (int zeros = 0; zeros < Md5Hash.HEX_LENGTH; zeros++) {
+            if (fromZeroPrefix(zeros).compareTo(target) <= 0) {
+                return "0".repeat(zeros);
+            }
+        }
+        return "0".repeat(Md5Hash.HEX_LENGTH);
+    }
+
+    // Compara el digest crudo (16 bytes desde offset) con el target, sin pasar por hex.
+    public static boolean meets(byte[] digest, int offset, Md5Hash target) {
+        long high = Md5Hash.readLong(digest, offset);
+        long low = Md5Hash.readLong(digest, offset + 8);
+        return Long.compareUnsigned(high, target.getHigh()) < 0
+                | (high == target.getHigh() & Long.compareUnsigned(low, target.getLow()) <= 0);
+    }
+
+    public static boolean meets(Md5Hash hash, Md5Hash target) {
+        return hash.compareTo(target) <= 0;
+    }
+
+    private static BigInteger toBigInteger(Md5Hash hash) {
+        return new BigInteger(1, hash.toBytes());
+    }
+
+    private static Md5Hash toHash(BigInteger value) {
+        return new Md5Hash(value.shiftRight(64).longValue(), value.longValue());
+    }
+}
@@ -0,0 +1,111 @@
+package com.blockchain.coordinator.crypto;
+
+import java.security.MessageDigest;
+import java.util.Objects;
+
+// Contexto de verificación precalculado para un bloque candidato publicado. El hash de contenido no
+// cambia entre envíos (solo el nonce), así que se calcula una única vez y cada verificación se reduce
+// a un MD5 de a lo sumo 52 bytes sobre un buffer por hilo, sin asignaciones. Con target la dificultad se
+// controla comparando el digest crudo contra el target; las tareas sin target siguen usando el prefijo.
+public final class MiningVerificationContext {
+
+    public enum Result {
+        VALID,
+        HASH_MISMATCH,
+        DIFFICULTY_NOT_MET
+    }
+
+    // Espacio reservado para el nonce decimal (Long.MIN_VALUE ocupa 20 caracteres).
+    private static final int NONCE_AREA = 20;
+
+    private final String blockId;
+    private final String challenge;
+    private final Md5Hash target;
+    private final Md5Hash contentHash;
+    // Nibbles exigidos al inicio del hash; null si el challenge nunca puede cumplirse (no es hex en minúscula).
+    private final byte[] requiredNibbles;
+    // Buffer [nonce alineado a la derecha | hash de contenido en hex] con la parte fija ya copiada.
+    private final ThreadLocal<byte[]> finalInput;
+
+    public MiningVerificationContext(String blockId, String challenge, Md5Hash contentHash) {
+        this(blockId, challenge, null, contentHash);
+    }
+
+    public MiningVerificationContext(String blockId, String challenge, Md5Hash target, Md5Hash contentHash) {
+        this.blockId = blockId;
+        this.challenge = challenge;
+        this.target = target;
+        this.contentHash = contentHash;
+        this.requiredNibbles = parseChallenge(challenge);
+        this.finalInput = ThreadLocal.withInitial(() -> {
+            byte[] buffer = new byte[NONCE_AREA + Md5Hash.HEX_LENGTH];
+            contentHash.writeHex(buffer, NONCE_AREA);
+            return buffer;
+        });
+    }
+
+    public Result verify(Md5Hasher md5Hasher, long nonce, CharSequence solvedBlockHash) {
+        byte[] input = finalInput.get();
+        int start = Hex.writeDecimalBefore(nonce, input, NONCE_AREA);
+        MessageDigest digest = md5Hasher.begin();
+        digest.update(input, start, input.length - start);
+        byte[] calculated = md5Hasher.finishRaw(digest);
+
+        if (!Hex.matches(calculated, 0, Md5Hash.LENGTH, solvedBlockHash)) {
+            return Result.HASH_MISMATCH;
+        }
+        boolean meets = target != null ? MiningTarget.meets(calculated, 0, target) : meetsChallenge(calculated);
+        return meets ? Result.VALID : Result.DIFFICULTY_NOT_MET;
+    }
+
+    // Equivale a hash.startsWith(challenge) cuando hash es el hex en minúscula del digest.
+    private boolean meetsChallenge(byte[] digest) {
+        if (requiredNibbles == null) {
+            return false;
+        }
+        for (int i = 0; i < requiredNibbles.length; i++) {
+            int v = digest[i >>> 1] & 0xff;
+            int nibble = (i & 1) == 0 ? v >>> 4 : v & 0x0f;
+            if (nibble != requiredNibbles[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] parseChallenge(String challenge) {
+        if (challenge == null || challenge.length() > Md5Hash.HEX_LENGTH) {
+            return null;
+        }
+        byte[] nibbles = new byte[challenge.length()];
+        for (int i = 0; i < nibbles.length; i++) {
+            int nibble = Hex.nibble(challenge.charAt(i));
+            if (nibble < 0) {
+                return null;
+            }
+            nibbles[i] = (byte) nibble;
+        }
+        return nibbles;
+    }
+
+    public boolean isFor(String blockId, String challenge, String target) {
+        return this.blockId.equals(blockId) && Objects.equals(this.challenge, challenge)
+                && Objects.equals(this.target != null ? this.target.toHex() : null, Md5Hash.isHex(target) ? target : null);
+    }
+
+    public String getBlockId() {
+        return blockId;
+    }
+
+    public String getChallenge() {
+        return challenge;
+    }
+
+    public Md5Hash getTarget() {
+        return target;
+    }
+
+    public Md5Hash getContentHash() {
+        return contentHash;
+    }
+}
@@ -0,0 +1,97 @@
+package com.blockchain.coordinator.difficulty;
+
+// Estimador del hashrate de la red y de la dificultad que lo lleva al intervalo objetivo.
+//  - la dificultad se mide en bits de trabajo (ver MiningTarget): n bits piden en promedio 2^n hashes;
+//  - el tiempo de un bloque es exponencial con media trabajo / hashrate, así que el hashrate se estima como
+//    bloques resueltos / suma de (tiempo / trabajo), con medias móviles exponenciales (alpha) de cada parte.
+//    Una tarea vencida suma su tiempo pero ningún bloque: sólo se sabe que tardaría al menos eso. Tomarla
+//    como resuelta sobreestimaría el hashrate y la dificultad no bajaría nunca;
+//  - los bits deseados son log2(hashrate * intervalo objetivo), acotados a max-step-bits por ajuste y sólo
+//    después de min-samples muestras.
+// No es thread-safe: DifficultyService lo usa bajo su propio lock.
+public class DifficultyRetargeter {
+
+    private final long targetIntervalMillis;
+    private final double alpha;
+    private final double maxStepBits;
+    private final int minSamples;
+
+    private double averageSolved;
+    private double averageMillisPerWork;
+    private double averageMillis;
+    private long samples;
+
+    public DifficultyRetargeter(long targetIntervalMillis, double alpha, double maxStepBits, int minSamples) {
+        this.targetIntervalMillis = targetIntervalMillis;
+        this.alpha = alpha;
+        this.maxStepBits = maxStepBits;
+        this.minSamples = minSamples;
+    }
+
+    // Estado guardado (p. ej. en Redis) para seguir suavizando después de un reinicio.
+    public void restore(double averageSolved, double averageMillisPerWork, double averageMillis, long samples) {
+        this.averageSolved = averageSolved;
+        this.averageMillisPerWork = averageMillisPerWork;
+        this.averageMillis = averageMillis;
+        this.samples = samples;
+    }
+
+    // Tarea con la dificultad dada que se resolvió (solved) o venció después de millis.
+    public void record(double difficultyBits, long millis, boolean solved) {
+        double clamped = Math.max(1, millis);
+        double millisPerWork = clamped / Math.pow(2, difficultyBits);
+        double solvedSample = solved ? 1 : 0;
+        if (samples == 0) {
+            averageSolved = solvedSample;
+            averageMillisPerWork = millisPerWork;
+            averageMillis = clamped;
+        } else {
+            averageSolved += alpha * (solvedSample - averageSolved);
+            averageMillisPerWork += alpha * (millisPerWork - averageMillisPerWork);
+            averageMillis += alpha * (clamped - averageMillis);
+        }
+        samples++;
+    }
+
+    public boolean isWarm() {
+        return samples >= minSamples;
+    }
+
+    // Hashes por segundo estimados; 0 sin muestras o si todas las recientes vencieron.
+    public double hashrate() {
+        return samples > 0 ? averageSolved / averageMillisPerWork * 1000.0 : 0.0;
+    }
+
+    public double desiredBits() {
+        return Math.log(hashrate() * targetIntervalMillis / 1000.0) / Math.log(2);
+    }
+
+    public double nextBits(double currentBits) {
+        if (!isWarm()) {
+            return currentBits;
+        }
+        // Con hashrate 0 los bits deseados son -infinito y el paso queda en -max-step-bits.
+        double step = Math.max(-maxStepBits, Math.min(maxStepBits, desiredBits() - currentBits));
+        return Math.max(0, currentBits + step);
+    }
+
+    public double getAverageSolved() {
+        return averageSolved;
+    }
+
+    public double getAverageMillisPerWork() {
+        return averageMillisPerWork;
+    }
+
+    public double getAverageMillis() {
+        return averageMillis;
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+
+    public long getTargetIntervalMillis() {
+        return targetIntervalMillis;
+    }
+}
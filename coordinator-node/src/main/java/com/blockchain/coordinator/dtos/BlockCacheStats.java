@@ -0,0 +1,17 @@
+package com.blockchain.coordinator.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BlockCacheStats {
+    private int entries;
+    private int maxEntries;
+    private long weightBytes;
+    private long maxWeightBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private double hitRate;
+}
@@ -0,0 +1,20 @@
+package com.blockchain.coordinator.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Proyección de un bloque sin sus transacciones.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BlockHeader {
+    private int index;
+    private String hash;
+    private String previous_hash;
+    private long timestamp;
+    private long nonce;
+    private int transactionCount;
+    private int version;
+    private String merkle_root;
+}
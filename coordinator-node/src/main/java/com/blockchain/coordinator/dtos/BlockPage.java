@@ -0,0 +1,14 @@
+package com.blockchain.coordinator.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+// Página de un recorrido de la cadena. nextCursor es null cuando no hay más bloques en el rango.
+@Data
+@AllArgsConstructor
+public class BlockPage<T> {
+    private List<T> items;
+    private String nextCursor;
+}
@@ -0,0 +1,20 @@
+package com.blockchain.coordinator.dtos;
+
+import com.blockchain.coordinator.models.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Transacciones de un bloque candidato publicado como tarea sólo-cabecera, en el orden de sus hojas: su raíz
+// de Merkle tiene que dar merkleRoot (el block.merkle_root de la tarea).
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CandidateTransactions {
+    private String blockId;
+    private String merkleRoot;
+    private int transactionCount;
+    private List<Transaction> transactions;
+}
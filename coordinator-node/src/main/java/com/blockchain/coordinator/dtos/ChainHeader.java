@@ -0,0 +1,22 @@
+package com.blockchain.coordinator.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Cabecera del índice de cabeceras (HeaderRecordCodec), con el hash de contenido para verificar la prueba
+// de trabajo sin las transacciones.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChainHeader {
+    private int index;
+    private String hash;
+    private String previous_hash;
+    private long timestamp;
+    private long nonce;
+    private int transactionCount;
+    private int version;
+    private String merkle_root;
+    private String content_hash;
+}
@@ -0,0 +1,20 @@
+package com.blockchain.coordinator.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ChainVerificationReport {
+    private String state;
+    private int parallelism;
+    private long tipHeight;
+    // Por debajo de esta altura no se recalcula el hash final (bloques minados antes de conservar el timestamp).
+    private long hashCheckFromHeight;
+    private long verifiedBlocks;
+    private Long failureHeight;
+    private String failureHash;
+    private String failureReason;
+    private long elapsedMillis;
+    private double blocksPerSecond;
+}
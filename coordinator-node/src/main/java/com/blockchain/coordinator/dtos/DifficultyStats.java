@@ -0,0 +1,23 @@
+package com.blockchain.coordinator.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DifficultyStats {
+    // Prefijo para los mineros sin soporte de target.
+    private String challenge;
+    private String target;
+    private double difficultyBits;
+    private boolean retargetEnabled;
+    private long targetBlockIntervalMillis;
+    private long samples;
+    // Media móvil del tiempo entre publicación y solución (o vencimiento).
+    private double averageSolveMillis;
+    private double hashrateEstimate;
+    // Bits que llevarían al intervalo objetivo con el hashrate estimado, antes de acotar el paso.
+    private double desiredBits;
+}
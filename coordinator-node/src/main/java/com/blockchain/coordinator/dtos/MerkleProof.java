@@ -0,0 +1,31 @@
+package com.blockchain.coordinator.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Prueba de inclusión de una transacción en la raíz de Merkle de un bloque. Partiendo de leafHash se
+// combina cada paso en orden: side "left" es md5(hash || acumulado) y "right" md5(acumulado || hash),
+// sobre los 16 bytes crudos de cada hash. El resultado tiene que ser merkleRoot.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MerkleProof {
+    private String blockHash;
+    private String merkleRoot;
+    private String transactionId;
+    private String leafHash;
+    private int index;
+    private int leafCount;
+    private List<Step> steps;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Step {
+        private String hash;
+        private String side;
+    }
+}
@@ -0,0 +1,22 @@
+package com.blockchain.coordinator.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Publicación de tareas de minería: cuántas se publicaron por evento y por el cron de respaldo, cuántas
+// vencieron, el tiempo sin tarea activa entre una y la siguiente y el intervalo entre bloques minados.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MiningScheduleStats {
+    private long publishedByEvent;
+    private long publishedByCron;
+    private long expiredTasks;
+    private long taskTimeoutMillis;
+    private double averageIdleMillis;
+    private long maxIdleMillis;
+    private long lastIdleMillis;
+    private long committedBlocks;
+    private double averageBlockIntervalMillis;
+}
@@ -13,7 +13,20 @@ import java.io.Serializable;
 @NoArgsConstructor
 public class MiningTask implements Serializable {
     private ExchangeEvent event;
+    // Prefijo de ceros, para los mineros que no leen target.
     private String challenge;
+    // Target de 128 bits en hex (el hash cumple si es <= target); null en tareas anteriores al target numérico.
+    private String target;
     private Block block;
     private Integer retries;
+    // Momento (epoch ms) de publicación; el tiempo hasta la solución alimenta el reajuste de dificultad.
+    private long publishedAt;
+    // Momento (epoch ms) en que la tarea se descarta si nadie la resolvió; 0 en tareas sin plazo.
+    private long deadline;
+    // Sólo en el mensaje publicado a los mineros (null y 0 en la tarea guardada en Redis): hash de contenido ya
+    // calculado, con el que alcanza para buscar el nonce, y cantidad de transacciones del candidato. En tareas
+    // sólo-cabecera block.data viene en null; block.merkle_root resume las transacciones y sus cuerpos se piden
+    // a GET /api/blocks/candidates/{hash}/transactions.
+    private String contentHash;
+    private int transactionCount;
 }
\ No newline at end of file
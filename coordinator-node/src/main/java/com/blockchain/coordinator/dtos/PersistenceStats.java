@@ -0,0 +1,19 @@
+package com.blockchain.coordinator.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class PersistenceStats {
+    private String ackMode;
+    private int queueDepth;
+    private int queueCapacity;
+    private long enqueued;
+    private long rejected;
+    private long persisted;
+    private long failed;
+    private long batches;
+    private double averageBatchSize;
+    private double lastFlushMillis;
+}
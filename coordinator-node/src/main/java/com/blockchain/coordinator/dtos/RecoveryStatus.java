@@ -0,0 +1,18 @@
+package com.blockchain.coordinator.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class RecoveryStatus {
+    private String state;
+    private long keysScanned;
+    private long transactionsLoaded;
+    private long unreadable;
+    private long blocksChecked;
+    private long alreadyIncluded;
+    private long skippedLegacy;
+    private long recovered;
+    private long elapsedMillis;
+}
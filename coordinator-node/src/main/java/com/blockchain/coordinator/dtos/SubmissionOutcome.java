@@ -0,0 +1,30 @@
+package com.blockchain.coordinator.dtos;
+
+import org.springframework.http.HttpStatus;
+
+// Resultado de un envío a /api/blocks/result y la respuesta HTTP que le corresponde.
+public enum SubmissionOutcome {
+    ACCEPTED(HttpStatus.OK, "Solución valida, Bloque añadido a la blockchain."),
+    STALE(HttpStatus.CONFLICT, "El bloque no corresponde a la tarea actual o ya fue resuelto por otro minero."),
+    DUPLICATE(HttpStatus.CONFLICT, "El nonce ya fue enviado para este bloque."),
+    LOST(HttpStatus.CONFLICT, "Otro minero resolvió el bloque primero."),
+    INVALID(HttpStatus.BAD_REQUEST, "Falló la validación del hash o de la dificultad."),
+    OVERLOADED(HttpStatus.SERVICE_UNAVAILABLE, "Cola de verificación llena, reintentar más tarde."),
+    ERROR(HttpStatus.INTERNAL_SERVER_ERROR, "Error interno al procesar la solución.");
+
+    private final HttpStatus status;
+    private final String message;
+
+    SubmissionOutcome(HttpStatus status, String message) {
+        this.status = status;
+        this.message = message;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,18 @@
+package com.blockchain.coordinator.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class SubmissionStats {
+    private int queueDepth;
+    private int queueCapacity;
+    private int pendingCommits;
+    private Map<SubmissionOutcome, Long> outcomes;
+    private long completed;
+    private double averageLatencyMillis;
+    private double maxLatencyMillis;
+}
@@ -0,0 +1,22 @@
+package com.blockchain.coordinator.dtos;
+
+import org.springframework.http.HttpStatus;
+
+// Resultado de registrar una transacción y la respuesta HTTP que le corresponde.
+public enum TransactionAdmission {
+    ACCEPTED(HttpStatus.CREATED),
+    DUPLICATE(HttpStatus.CONFLICT),
+    INVALID(HttpStatus.BAD_REQUEST),
+    OVERLOADED(HttpStatus.SERVICE_UNAVAILABLE),
+    PERSISTENCE_FAILED(HttpStatus.SERVICE_UNAVAILABLE);
+
+    private final HttpStatus status;
+
+    TransactionAdmission(HttpStatus status) {
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
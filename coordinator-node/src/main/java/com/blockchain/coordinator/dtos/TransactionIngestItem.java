@@ -0,0 +1,11 @@
+package com.blockchain.coordinator.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class TransactionIngestItem {
+    private String id;
+    private TransactionAdmission status;
+}
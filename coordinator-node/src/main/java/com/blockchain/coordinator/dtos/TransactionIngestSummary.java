@@ -0,0 +1,18 @@
+package com.blockchain.coordinator.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+// Resumen de una carga masiva: un estado por transacción, en el mismo orden en que llegaron.
+// error no es null si el cuerpo quedó cortado o mal formado; las transacciones anteriores ya fueron procesadas.
+@Data
+@AllArgsConstructor
+public class TransactionIngestSummary {
+    private int received;
+    private Map<TransactionAdmission, Integer> counts;
+    private List<TransactionIngestItem> items;
+    private String error;
+}
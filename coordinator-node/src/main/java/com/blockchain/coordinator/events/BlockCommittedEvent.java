@@ -0,0 +1,6 @@
+package com.blockchain.coordinator.events;
+
+// Se agregó a la cadena el bloque minado blockHash (y su recompensa) y ya no hay tarea actual. difficultyBits
+// y publishedAt son los de la tarea resuelta (publishedAt es 0 en tareas guardadas sin ese dato).
+public record BlockCommittedEvent(String blockHash, double difficultyBits, long publishedAt, long committedAt) {
+}
@@ -0,0 +1,5 @@
+package com.blockchain.coordinator.events;
+
+// El mempool alcanzó min-transactions-per-block (o terminó de recuperarse con al menos esa cantidad).
+public record MempoolReadyEvent(int pendingTransactions) {
+}
@@ -0,0 +1,121 @@
+package com.blockchain.coordinator.mempool;
+
+import com.blockchain.coordinator.models.Transaction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// Pool de transacciones pendientes sin locks:
+//  - índice por id (ConcurrentHashMap) para deduplicar y buscar en O(1),
+//  - cola FIFO (ConcurrentLinkedQueue) que conserva el orden de llegada para armar bloques,
+//  - contador atómico para que el tamaño sea O(1) en lugar de recorrer la cola.
+// Una transacción está pendiente mientras su entrada siga en el índice; las entradas que quedan en la
+// cola después de un remove(id) se descartan al drenar o iterar.
+public class Mempool {
+
+    private final ConcurrentHashMap<String, Entry> byId = new ConcurrentHashMap<>();
+    private final Queue<Entry> order = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger count = new AtomicInteger();
+
+    // Igualdad por identidad: distingue una misma transacción re-agregada de su entrada anterior.
+    private static final class Entry {
+        private final Transaction transaction;
+
+        private Entry(Transaction transaction) {
+            this.transaction = transaction;
+        }
+    }
+
+    // Devuelve false si ya hay una transacción pendiente con el mismo id.
+    public boolean add(Transaction transaction) {
+        if (transaction.getId() == null) {
+            throw new IllegalArgumentException("La transacción no tiene id.");
+        }
+        Entry entry = new Entry(transaction);
+        if (byId.putIfAbsent(transaction.getId(), entry) != null) {
+            return false;
+        }
+        count.incrementAndGet();
+        order.offer(entry);
+        return true;
+    }
+
+    // Extrae hasta max transacciones en orden de llegada.
+    public List<Transaction> drain(int max) {
+        if (max <= 0 || count.get() == 0) {
+            return Collections.emptyList();
+        }
+        List<Transaction> drained = new ArrayList<>(Math.min(max, count.get()));
+        Entry entry;
+        while (drained.size() < max && (entry = order.poll()) != null) {
+            if (byId.remove(entry.transaction.getId(), entry)) {
+                count.decrementAndGet();
+                drained.add(entry.transaction);
+            }
+        }
+        return drained;
+    }
+
+    // Hasta max pendientes en orden de llegada, sin extraerlas (vista débilmente consistente).
+    public List<Transaction> peek(int max) {
+        if (max <= 0 || count.get() == 0) {
+            return Collections.emptyList();
+        }
+        List<Transaction> peeked = new ArrayList<>(Math.min(max, count.get()));
+        for (Entry entry : order) {
+            if (peeked.size() >= max) {
+                break;
+            }
+            if (byId.get(entry.transaction.getId()) == entry) {
+                peeked.add(entry.transaction);
+            }
+        }
+        return peeked;
+    }
+
+    public Transaction get(String id) {
+        Entry entry = byId.get(id);
+        return entry != null ? entry.transaction : null;
+    }
+
+    public boolean contains(String id) {
+        return byId.containsKey(id);
+    }
+
+    public boolean remove(String id) {
+        if (byId.remove(id) != null) {
+            count.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    public int size() {
+        return count.get();
+    }
+
+    public boolean isEmpty() {
+        return count.get() == 0;
+    }
+
+    // Recorre las pendientes en orden de llegada sin copiarlas (vista débilmente consistente).
+    public void forEach(Consumer<Transaction> action) {
+        for (Entry entry : order) {
+            if (byId.get(entry.transaction.getId()) == entry) {
+                action.accept(entry.transaction);
+            }
+        }
+    }
+
+    public List<Transaction> snapshot() {
+        List<Transaction> snapshot = new ArrayList<>(count.get());
+        forEach(snapshot::add);
+        return snapshot;
+    }
+}
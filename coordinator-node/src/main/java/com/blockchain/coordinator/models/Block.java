@@ -16,6 +16,11 @@ import java.util.List;
 @NoArgsConstructor
 @RedisHash("Block")
 public class Block implements Serializable, Cloneable {
+    // Versión del hash de contenido: LEGACY_VERSION (o 0 en bloques anteriores al campo) cubre el JSON
+    // completo de data; MERKLE_VERSION cubre merkle_root en su lugar.
+    public static final int LEGACY_VERSION = 1;
+    public static final int MERKLE_VERSION = 2;
+
     @Id
     private String hash;
     private String previous_hash;
@@ -23,6 +28,8 @@ public class Block implements Serializable, Cloneable {
     private long timestamp;
     private List<Transaction> data;
     private int index;
+    private int version;
+    private String merkle_root;
 
     public Block(int index, String previous_hash, List<Transaction> data, long timestamp, long nonce, String hash) {
         this.index = index;
@@ -42,6 +49,10 @@ public class Block implements Serializable, Cloneable {
         this.hash = "";
     }
 
+    public boolean usesMerkleRoot() {
+        return version >= MERKLE_VERSION;
+    }
+
     @Override
     public Block clone() throws CloneNotSupportedException {
         Block clonedBlock = (Block) super.clone();
@@ -1,8 +1,83 @@
 package com.blockchain.coordinator.repositories;
 
+import com.blockchain.coordinator.dtos.BlockHeader;
 import com.blockchain.coordinator.models.Block;
-import org.springframework.data.repository.CrudRepository;
-import org.springframework.stereotype.Repository;
+import org.springframework.data.redis.core.ZSetOperations;
 
-@Repository
-public interface BlockRepository extends CrudRepository<Block, String> {}
\ No newline at end of file
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// Almacenamiento de la cadena. La implementación se elige con blockchain.storage.backend:
+//  - redis (por defecto): RedisBlockRepository, bloques en Redis con índices en ZSets.
+//  - log: ChainLogBlockRepository, log local de sólo-agregado en segmentos mapeados en memoria.
+// Cada bloque se indexa por hash, por altura (su index) y por timestamp, y su cabecera se agrega al índice
+// de cabeceras de tamaño fijo.
+public interface BlockRepository {
+
+    // Agrega el bloque con todos sus índices.
+    Block save(Block block);
+
+    // Agrega los bloques en orden, con sus índices, sólo si el último bloque de la cadena sigue siendo
+    // expectedTipHash: todo o nada, sin que otra instancia pueda intercalar un bloque. Devuelve false (sin
+    // escribir nada) si la cadena ya avanzó.
+    boolean appendIfTip(String expectedTipHash, List<Block> blocks);
+
+    Optional<Block> findById(String hash);
+
+    boolean existsById(String hash);
+
+    // Bloques en el orden de la cadena.
+    Iterable<Block> findAll();
+
+    // Los hashes que no existen se omiten; el resultado respeta el orden de entrada.
+    List<Block> findAllById(Collection<String> hashes);
+
+    long count();
+
+    Optional<String> findHashByHeight(long height);
+
+    // Hasta limit hashes desde la altura dada (inclusive), en orden de altura.
+    List<String> findHashesFromHeight(long fromHeight, int limit);
+
+    // Hasta limit (hash, altura) con altura en [from, to], en orden de altura.
+    List<ZSetOperations.TypedTuple<String>> findHashesByHeightRange(long from, long to, int limit);
+
+    // Altura del último bloque, o -1 si la cadena está vacía.
+    long findMaxHeight();
+
+    // Valores codificados con BlockCodec, en el orden de entrada (sin decodificarlos); los inexistentes quedan en null.
+    List<byte[]> findEncodedById(List<String> hashes);
+
+    // Hasta limit (hash, timestamp) con timestamp en [from, to], salteando los primeros offset del rango.
+    List<ZSetOperations.TypedTuple<String>> findHashesByTime(long from, long to, long offset, int limit);
+
+    // Hashes de los bloques con timestamp mayor o igual al dado, en orden de timestamp.
+    List<String> findHashesSince(long timestamp);
+
+    // Cabeceras de los bloques dados sin decodificar sus transacciones; omite los que no existen.
+    List<BlockHeader> findHeadersById(Collection<String> hashes);
+
+    // Registros del índice de cabeceras (HeaderRecordCodec) desde fromHeight, concatenados: hasta limit
+    // registros consecutivos, menos si el índice termina antes.
+    byte[] findHeaderRecords(long fromHeight, int limit);
+
+    // Mantenimiento al arrancar; las implementaciones que no lo necesitan devuelven 0.
+    default int migrateLegacyBlocks() {
+        return 0;
+    }
+
+    default int rebuildHeightIndexIfIncomplete() {
+        return 0;
+    }
+
+    default int rebuildHeaderIndexIfIncomplete() {
+        return 0;
+    }
+
+    static BlockHeader header(Block block) {
+        return new BlockHeader(block.getIndex(), block.getHash(), block.getPrevious_hash(), block.getTimestamp(),
+                block.getNonce(), block.getData() != null ? block.getData().size() : 0,
+                block.getVersion(), block.getMerkle_root());
+    }
+}
@@ -0,0 +1,377 @@
+package com.blockchain.coordinator.repositories;
+
+import com.blockchain.coordinator.codec.BlockCodec;
+import com.blockchain.coordinator.codec.HeaderRecordCodec;
+import com.blockchain.coordinator.dtos.BlockHeader;
+import com.blockchain.coordinator.models.Block;
+import com.blockchain.coordinator.storage.ChainLog;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Cadena guardada en un ChainLog local (blockchain.storage.backend=log): cada bloque es un registro con su
+// codificación de BlockCodec y su altura es la posición en el log. En memoria sólo quedan los índices
+// hash -> altura y, por altura, el hash y el timestamp; se reconstruyen al abrir el log leyendo las cabeceras.
+// Las consultas por timestamp usan un índice de alturas ordenado por (timestamp, hash), el mismo orden que el
+// ZSet de Redis: se busca el rango por bisección y sólo se recorre la página pedida. Como los timestamps son
+// casi monótonos, un bloque nuevo casi siempre va al final; si no, se copia el índice con el bloque insertado.
+// El índice de cabeceras es el archivo "headers.idx" junto a los segmentos, con el registro de la altura h en
+// h * RECORD_BYTES. Se escribe después del log: al abrir se recorta o se completa desde el log si quedó distinto.
+@Repository
+@ConditionalOnProperty(name = "blockchain.storage.backend", havingValue = "log")
+public class ChainLogBlockRepository implements BlockRepository {
+
+    private final BlockCodec blockCodec;
+    private final HeaderRecordCodec headerRecordCodec;
+    private final ChainLog chainLog;
+    private final FileChannel headerIndex;
+    private final boolean fsync;
+    private final ConcurrentHashMap<String, Integer> heightByHash = new ConcurrentHashMap<>();
+    // Crecen por copia; los lectores leen primero count (volatile) y después los arreglos.
+    private volatile String[] hashes = new String[1024];
+    private volatile long[] timestamps = new long[1024];
+    private volatile int count;
+    // Se reemplaza en cada bloque; las posiciones [0, size) del arreglo no cambian una vez publicadas.
+    private volatile TimeIndex timeIndex = new TimeIndex(new int[1024], 0);
+
+    private record TimeIndex(int[] heights, int size) {
+    }
+
+    public ChainLogBlockRepository(BlockCodec blockCodec, HeaderRecordCodec headerRecordCodec,
+                                   @Value("${blockchain.storage.log.directory:data/chain}") String directory,
+                                   @Value("${blockchain.storage.log.segment-bytes:67108864}") int segmentBytes,
+                                   @Value("${blockchain.storage.log.index-interval:64}") int indexInterval,
+                                   @Value("${blockchain.storage.log.fsync:true}") boolean fsync) throws IOException {
+        this.blockCodec = blockCodec;
+        this.headerRecordCodec = headerRecordCodec;
+        this.fsync = fsync;
+        this.chainLog = ChainLog.open(Path.of(directory), segmentBytes, indexInterval, fsync,
+                (height, payload) -> index(blockCodec.decodeHeader(payload)));
+        this.headerIndex = FileChannel.open(Path.of(directory).resolve("headers.idx"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        System.out.println("ChainLogBlockRepository: Log abierto en " + directory + " con " + count + " bloques en "
+                + chainLog.segmentCount() + " segmentos" + (chainLog.truncatedBytes() > 0
+                ? " (se descartaron " + chainLog.truncatedBytes() + " bytes de una escritura incompleta)." : "."));
+    }
+
+    // Recorta los registros de alturas que el log descartó y completa los que faltan leyendo los bloques.
+    @Override
+    public synchronized int rebuildHeaderIndexIfIncomplete() {
+        try {
+            long expected = (long) count * HeaderRecordCodec.RECORD_BYTES;
+            if (headerIndex.size() > expected) {
+                headerIndex.truncate(expected);
+            }
+            int indexed = 0;
+            for (long height = headerIndex.size() / HeaderRecordCodec.RECORD_BYTES; height < count; height++) {
+                writeHeader(blockCodec.decodeBlock(chainLog.read(height)));
+                indexed++;
+            }
+            headerIndex.force(false);
+            return indexed;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo reconstruir el índice de cabeceras", e);
+        }
+    }
+
+    // El index del bloque tiene que ser la altura siguiente; guardar un bloque ya existente no hace nada.
+    @Override
+    public synchronized Block save(Block block) {
+        if (heightByHash.containsKey(block.getHash())) {
+            return block;
+        }
+        try {
+            chainLog.append(block.getIndex(), blockCodec.encodeBlock(block));
+            writeHeader(block);
+            if (fsync) {
+                headerIndex.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo agregar el bloque " + block.getHash() + " al log", e);
+        }
+        index(BlockRepository.header(block));
+        return block;
+    }
+
+    // Una única instancia escribe el log: alcanza con el lock del repositorio.
+    @Override
+    public synchronized boolean appendIfTip(String expectedTipHash, List<Block> blocks) {
+        if (count == 0 || !hashes[count - 1].equals(expectedTipHash)) {
+            return false;
+        }
+        for (Block block : blocks) {
+            save(block);
+        }
+        return true;
+    }
+
+    @Override
+    public Optional<Block> findById(String hash) {
+        byte[] payload = payload(hash);
+        return payload != null ? Optional.of(blockCodec.decodeBlock(payload)) : Optional.empty();
+    }
+
+    @Override
+    public boolean existsById(String hash) {
+        return hash != null && heightByHash.containsKey(hash);
+    }
+
+    // Recorre el log en orden de altura decodificando un bloque por vez.
+    @Override
+    public Iterable<Block> findAll() {
+        int size = count;
+        return () -> new Iterator<>() {
+            private int height;
+
+            @Override
+            public boolean hasNext() {
+                return height < size;
+            }
+
+            @Override
+            public Block next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return blockCodec.decodeBlock(chainLog.read(height++));
+            }
+        };
+    }
+
+    @Override
+    public List<Block> findAllById(Collection<String> hashes) {
+        List<Block> blocks = new ArrayList<>(hashes.size());
+        for (String hash : hashes) {
+            findById(hash).ifPresent(blocks::add);
+        }
+        return blocks;
+    }
+
+    @Override
+    public long count() {
+        return count;
+    }
+
+    @Override
+    public Optional<String> findHashByHeight(long height) {
+        int size = count;
+        return height >= 0 && height < size ? Optional.of(hashes[(int) height]) : Optional.empty();
+    }
+
+    @Override
+    public List<String> findHashesFromHeight(long fromHeight, int limit) {
+        int size = count;
+        String[] current = hashes;
+        List<String> result = new ArrayList<>();
+        for (long height = Math.max(0, fromHeight); height < size && result.size() < limit; height++) {
+            result.add(current[(int) height]);
+        }
+        return result;
+    }
+
+    @Override
+    public List<ZSetOperations.TypedTuple<String>> findHashesByHeightRange(long from, long to, int limit) {
+        int size = count;
+        String[] current = hashes;
+        List<ZSetOperations.TypedTuple<String>> result = new ArrayList<>();
+        for (long height = Math.max(0, from); height <= to && height < size && result.size() < limit; height++) {
+            result.add(new DefaultTypedTuple<>(current[(int) height], (double) height));
+        }
+        return result;
+    }
+
+    @Override
+    public long findMaxHeight() {
+        return count - 1L;
+    }
+
+    @Override
+    public List<byte[]> findEncodedById(List<String> hashes) {
+        List<byte[]> encoded = new ArrayList<>(hashes.size());
+        for (String hash : hashes) {
+            encoded.add(payload(hash));
+        }
+        return encoded;
+    }
+
+    // Mismo orden que el ZSet por timestamp de Redis: timestamp y, a igual timestamp, hash.
+    @Override
+    public List<ZSetOperations.TypedTuple<String>> findHashesByTime(long from, long to, long offset, int limit) {
+        TimeIndex index = timeIndex;
+        String[] currentHashes = hashes;
+        long[] currentTimestamps = timestamps;
+        int end = firstAfter(index, currentTimestamps, to);
+        long start = firstFrom(index, currentTimestamps, from) + Math.max(0, offset);
+        if (limit >= 0) {
+            end = (int) Math.min(end, start + limit);
+        }
+        List<ZSetOperations.TypedTuple<String>> result = new ArrayList<>();
+        for (long i = start; i < end; i++) {
+            int height = index.heights()[(int) i];
+            result.add(new DefaultTypedTuple<>(currentHashes[height], (double) currentTimestamps[height]));
+        }
+        return result;
+    }
+
+    @Override
+    public List<String> findHashesSince(long timestamp) {
+        TimeIndex index = timeIndex;
+        String[] currentHashes = hashes;
+        long[] currentTimestamps = timestamps;
+        int start = firstFrom(index, currentTimestamps, timestamp);
+        List<String> result = new ArrayList<>(index.size() - start);
+        for (int i = start; i < index.size(); i++) {
+            result.add(currentHashes[index.heights()[i]]);
+        }
+        return result;
+    }
+
+    @Override
+    public List<BlockHeader> findHeadersById(Collection<String> hashes) {
+        List<BlockHeader> headers = new ArrayList<>(hashes.size());
+        for (String hash : hashes) {
+            byte[] payload = payload(hash);
+            if (payload != null) {
+                headers.add(blockCodec.decodeHeader(payload));
+            }
+        }
+        return headers;
+    }
+
+    // Sólo se devuelven registros de alturas ya publicadas en count.
+    @Override
+    public byte[] findHeaderRecords(long fromHeight, int limit) {
+        long from = Math.max(0, fromHeight);
+        int records = (int) Math.max(0, Math.min(limit, count - from));
+        ByteBuffer buffer = ByteBuffer.allocate(records * HeaderRecordCodec.RECORD_BYTES);
+        try {
+            long position = from * HeaderRecordCodec.RECORD_BYTES;
+            while (buffer.hasRemaining()) {
+                int read = headerIndex.read(buffer, position + buffer.position());
+                if (read < 0) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el índice de cabeceras", e);
+        }
+        int complete = buffer.position() - buffer.position() % HeaderRecordCodec.RECORD_BYTES;
+        return complete == buffer.capacity() ? buffer.array() : Arrays.copyOf(buffer.array(), complete);
+    }
+
+    @PreDestroy
+    public void close() {
+        chainLog.close();
+        try {
+            headerIndex.close();
+        } catch (IOException e) {
+            System.err.println("ChainLogBlockRepository: Error al cerrar el índice de cabeceras: " + e.getMessage());
+        }
+    }
+
+    private void writeHeader(Block block) throws IOException {
+        ByteBuffer record = ByteBuffer.wrap(headerRecordCodec.encode(block));
+        long position = (long) block.getIndex() * HeaderRecordCodec.RECORD_BYTES;
+        while (record.hasRemaining()) {
+            position += headerIndex.write(record, position);
+        }
+    }
+
+    private byte[] payload(String hash) {
+        Integer height = hash != null ? heightByHash.get(hash) : null;
+        return height != null ? chainLog.read(height) : null;
+    }
+
+    // Primera posición del índice con timestamp >= from.
+    private static int firstFrom(TimeIndex index, long[] currentTimestamps, long from) {
+        return from == Long.MIN_VALUE ? 0 : firstAfter(index, currentTimestamps, from - 1);
+    }
+
+    // Primera posición del índice con timestamp > timestamp (size si no hay ninguna).
+    private static int firstAfter(TimeIndex index, long[] currentTimestamps, long timestamp) {
+        int low = 0;
+        int high = index.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (currentTimestamps[index.heights()[mid]] <= timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Inserta la altura después de todas las de menor (timestamp, hash); al final sin copiar salvo al crecer.
+    private void indexByTime(int height, String[] currentHashes, long[] currentTimestamps) {
+        TimeIndex index = timeIndex;
+        int[] heights = index.heights();
+        int size = index.size();
+        int position = size > 0 && compareByTime(heights[size - 1], height, currentHashes, currentTimestamps) > 0
+                ? insertionPoint(index, height, currentHashes, currentTimestamps) : size;
+        if (position == size && size < heights.length) {
+            heights[size] = height;
+        } else {
+            int[] copy = new int[size == heights.length ? size * 2 : heights.length];
+            System.arraycopy(heights, 0, copy, 0, position);
+            copy[position] = height;
+            System.arraycopy(heights, position, copy, position + 1, size - position);
+            heights = copy;
+        }
+        timeIndex = new TimeIndex(heights, size + 1);
+    }
+
+    private static int insertionPoint(TimeIndex index, int height, String[] currentHashes, long[] currentTimestamps) {
+        int low = 0;
+        int high = index.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareByTime(index.heights()[mid], height, currentHashes, currentTimestamps) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int compareByTime(int a, int b, String[] currentHashes, long[] currentTimestamps) {
+        int byTimestamp = Long.compare(currentTimestamps[a], currentTimestamps[b]);
+        return byTimestamp != 0 ? byTimestamp : currentHashes[a].compareTo(currentHashes[b]);
+    }
+
+    private void index(BlockHeader header) {
+        int height = count;
+        String[] currentHashes = hashes;
+        long[] currentTimestamps = timestamps;
+        if (height == currentHashes.length) {
+            currentHashes = Arrays.copyOf(currentHashes, height * 2);
+            currentTimestamps = Arrays.copyOf(currentTimestamps, height * 2);
+        }
+        currentHashes[height] = header.getHash();
+        currentTimestamps[height] = header.getTimestamp();
+        hashes = currentHashes;
+        timestamps = currentTimestamps;
+        indexByTime(height, currentHashes, currentTimestamps);
+        heightByHash.put(header.getHash(), height);
+        count = height + 1;
+    }
+}
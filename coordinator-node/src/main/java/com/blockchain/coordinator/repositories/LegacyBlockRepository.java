@@ -0,0 +1,10 @@
+package com.blockchain.coordinator.repositories;
+
+import com.blockchain.coordinator.models.Block;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+// Bloques guardados con el formato anterior (@RedisHash "Block", un campo de hash por atributo de cada
+// transacción). Sólo se usa para migrarlos al formato binario de BlockRepository.
+@Repository
+public interface LegacyBlockRepository extends CrudRepository<Block, String> {}
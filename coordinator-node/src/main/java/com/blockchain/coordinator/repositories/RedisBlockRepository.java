@@ -0,0 +1,423 @@
+package com.blockchain.coordinator.repositories;
+
+import com.blockchain.coordinator.codec.BlockCodec;
+import com.blockchain.coordinator.codec.HeaderRecordCodec;
+import com.blockchain.coordinator.dtos.BlockHeader;
+import com.blockchain.coordinator.models.Block;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+// Bloques guardados como un único valor binario (BlockCodec) bajo "block:{hash}", con un índice
+// altura -> hash en el ZSet "block_heights" (score = index del bloque) y timestamp -> hash en "block_hashes".
+// El índice de cabeceras es el string "block_header_index": el registro de la altura h se escribe con SETRANGE
+// en h * RECORD_BYTES y un rango de alturas se lee con un único GETRANGE (el string admite hasta 512 MB,
+// unos 5,9 millones de bloques).
+// Los bloques minados se agregan con appendIfTip: un script Lua que en un único viaje controla el último bloque
+// ("block_chain_tip", o el mayor de block_heights si todavía no existe), escribe los bloques con sus índices y
+// avanza el tip. Redis ejecuta el script de forma atómica, así que varias instancias del coordinador que
+// comparten Redis no pueden agregar dos bloques sobre el mismo padre. Todas las claves tienen que estar en el
+// mismo nodo (no se usa Redis Cluster).
+// Los bloques que todavía están en el formato anterior (LegacyBlockRepository) se leen desde ahí y se migran
+// al primer acceso, o todos juntos con migrateLegacyBlocks() al arrancar.
+@Repository
+@ConditionalOnProperty(name = "blockchain.storage.backend", havingValue = "redis", matchIfMissing = true)
+public class RedisBlockRepository implements BlockRepository {
+
+    private static final String BLOCK_KEY_PREFIX = "block:";
+    private static final String BLOCK_HASHES_ZSET_KEY = "block_hashes";
+    private static final String BLOCK_HEIGHTS_ZSET_KEY = "block_heights";
+    private static final String HEADER_INDEX_KEY = "block_header_index";
+    private static final String TIP_KEY = "block_chain_tip";
+    private static final byte[] HASHES_KEY_BYTES = BLOCK_HASHES_ZSET_KEY.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] HEIGHTS_KEY_BYTES = BLOCK_HEIGHTS_ZSET_KEY.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] HEADER_INDEX_KEY_BYTES = HEADER_INDEX_KEY.getBytes(StandardCharsets.UTF_8);
+    private static final int MULTI_GET_BATCH = 500;
+
+    // KEYS: tip, block_heights, block_hashes, block_header_index y block:{hash} de cada bloque.
+    // ARGV: tip esperado y, por bloque: hash, index, timestamp, offset en el índice de cabeceras, valor, cabecera.
+    private static final RedisScript<Long> APPEND_IF_TIP = RedisScript.of("""
+            local tip = redis.call('GET', KEYS[1])
+            if not tip then
+                tip = redis.call('ZREVRANGE', KEYS[2], 0, 0)[1]
+            end
+            if tip ~= ARGV[1] then
+                return 0
+            end
+            local last
+            for i = 5, #KEYS do
+                local a = 2 + (i - 5) * 6
+                last = ARGV[a]
+                redis.call('SET', KEYS[i], ARGV[a + 4])
+                redis.call('ZADD', KEYS[2], ARGV[a + 1], last)
+                redis.call('ZADD', KEYS[3], ARGV[a + 2], last)
+                redis.call('SETRANGE', KEYS[4], ARGV[a + 3], ARGV[a + 5])
+            end
+            redis.call('SET', KEYS[1], last)
+            return 1
+            """, Long.class);
+
+    private final RedisTemplate<String, byte[]> binaryRedisTemplate;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final BlockCodec blockCodec;
+    private final HeaderRecordCodec headerRecordCodec;
+    private final LegacyBlockRepository legacyBlockRepository;
+
+    public RedisBlockRepository(RedisTemplate<String, byte[]> binaryRedisTemplate, RedisTemplate<String, String> redisTemplate,
+                           BlockCodec blockCodec, HeaderRecordCodec headerRecordCodec, LegacyBlockRepository legacyBlockRepository) {
+        this.binaryRedisTemplate = binaryRedisTemplate;
+        this.redisTemplate = redisTemplate;
+        this.blockCodec = blockCodec;
+        this.headerRecordCodec = headerRecordCodec;
+        this.legacyBlockRepository = legacyBlockRepository;
+    }
+
+    public static String key(String hash) {
+        return BLOCK_KEY_PREFIX + hash;
+    }
+
+    // El valor, su altura, su timestamp y su cabecera se escriben en un mismo pipeline.
+    @Override
+    public Block save(Block block) {
+        byte[] key = key(block.getHash()).getBytes(StandardCharsets.UTF_8);
+        byte[] value = blockCodec.encodeBlock(block);
+        byte[] member = block.getHash().getBytes(StandardCharsets.UTF_8);
+        byte[] header = headerRecordCodec.encode(block);
+        binaryRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.stringCommands().set(key, value);
+            connection.zSetCommands().zAdd(HEIGHTS_KEY_BYTES, block.getIndex(), member);
+            connection.zSetCommands().zAdd(HASHES_KEY_BYTES, block.getTimestamp(), member);
+            connection.stringCommands().setRange(HEADER_INDEX_KEY_BYTES, header, (long) block.getIndex() * HeaderRecordCodec.RECORD_BYTES);
+            return null;
+        });
+        return block;
+    }
+
+    @Override
+    public boolean appendIfTip(String expectedTipHash, List<Block> blocks) {
+        if (blocks.isEmpty()) {
+            return true;
+        }
+        List<String> keys = new ArrayList<>(4 + blocks.size());
+        keys.add(TIP_KEY);
+        keys.add(BLOCK_HEIGHTS_ZSET_KEY);
+        keys.add(BLOCK_HASHES_ZSET_KEY);
+        keys.add(HEADER_INDEX_KEY);
+        List<byte[]> args = new ArrayList<>(1 + blocks.size() * 6);
+        args.add(bytes(expectedTipHash));
+        for (Block block : blocks) {
+            keys.add(key(block.getHash()));
+            args.add(bytes(block.getHash()));
+            args.add(bytes(Integer.toString(block.getIndex())));
+            args.add(bytes(Long.toString(block.getTimestamp())));
+            args.add(bytes(Long.toString((long) block.getIndex() * HeaderRecordCodec.RECORD_BYTES)));
+            args.add(blockCodec.encodeBlock(block));
+            args.add(headerRecordCodec.encode(block));
+        }
+        Long appended = binaryRedisTemplate.execute(APPEND_IF_TIP, keys, args.toArray());
+        return appended != null && appended == 1L;
+    }
+
+    @Override
+    public Optional<String> findHashByHeight(long height) {
+        Set<String> hashes = redisTemplate.opsForZSet().rangeByScore(BLOCK_HEIGHTS_ZSET_KEY, height, height, 0, 1);
+        return hashes == null || hashes.isEmpty() ? Optional.empty() : Optional.of(hashes.iterator().next());
+    }
+
+    // Hasta limit hashes desde la altura dada (inclusive), en orden de altura.
+    @Override
+    public List<String> findHashesFromHeight(long fromHeight, int limit) {
+        Set<String> hashes = redisTemplate.opsForZSet().rangeByScore(BLOCK_HEIGHTS_ZSET_KEY, fromHeight, Double.POSITIVE_INFINITY, 0, limit);
+        return hashes != null ? new ArrayList<>(hashes) : List.of();
+    }
+
+    // Hasta limit (hash, altura) con altura en [from, to], en orden de altura.
+    @Override
+    public List<ZSetOperations.TypedTuple<String>> findHashesByHeightRange(long from, long to, int limit) {
+        Set<ZSetOperations.TypedTuple<String>> tuples = redisTemplate.opsForZSet()
+                .rangeByScoreWithScores(BLOCK_HEIGHTS_ZSET_KEY, from, to, 0, limit);
+        return tuples != null ? new ArrayList<>(tuples) : List.of();
+    }
+
+    // Altura del último bloque indexado, o -1 si la cadena está vacía.
+    @Override
+    public long findMaxHeight() {
+        Set<ZSetOperations.TypedTuple<String>> last = redisTemplate.opsForZSet().reverseRangeWithScores(BLOCK_HEIGHTS_ZSET_KEY, 0, 0);
+        if (last == null || last.isEmpty() || last.iterator().next().getScore() == null) {
+            return -1;
+        }
+        return last.iterator().next().getScore().longValue();
+    }
+
+    // Valores codificados tal como están guardados, en el orden de entrada (sin decodificarlos). Los bloques
+    // en el formato anterior se migran y se devuelven ya codificados; los inexistentes quedan en null.
+    @Override
+    public List<byte[]> findEncodedById(List<String> hashes) {
+        List<byte[]> values = binaryRedisTemplate.opsForValue().multiGet(keys(hashes));
+        List<byte[]> encoded = new ArrayList<>(hashes.size());
+        for (int i = 0; i < hashes.size(); i++) {
+            byte[] value = values != null ? values.get(i) : null;
+            if (value == null) {
+                value = migrate(hashes.get(i)).map(blockCodec::encodeBlock).orElse(null);
+            }
+            encoded.add(value);
+        }
+        return encoded;
+    }
+
+    // Hasta limit (hash, timestamp) con timestamp en [from, to], salteando los primeros offset del rango.
+    @Override
+    public List<ZSetOperations.TypedTuple<String>> findHashesByTime(long from, long to, long offset, int limit) {
+        Set<ZSetOperations.TypedTuple<String>> tuples = redisTemplate.opsForZSet()
+                .rangeByScoreWithScores(BLOCK_HASHES_ZSET_KEY, from, to, offset, limit);
+        return tuples != null ? new ArrayList<>(tuples) : List.of();
+    }
+
+    // Hashes de los bloques con timestamp mayor o igual al dado, en orden de timestamp.
+    @Override
+    public List<String> findHashesSince(long timestamp) {
+        Set<String> hashes = redisTemplate.opsForZSet().rangeByScore(BLOCK_HASHES_ZSET_KEY, timestamp, Double.POSITIVE_INFINITY);
+        return hashes != null ? new ArrayList<>(hashes) : List.of();
+    }
+
+    // Cabeceras de los bloques dados sin decodificar sus transacciones; omite los que no existen.
+    @Override
+    public List<BlockHeader> findHeadersById(Collection<String> hashes) {
+        List<BlockHeader> headers = new ArrayList<>(hashes.size());
+        List<String> batch = new ArrayList<>(Math.min(hashes.size(), MULTI_GET_BATCH));
+        for (String hash : hashes) {
+            batch.add(hash);
+            if (batch.size() == MULTI_GET_BATCH) {
+                readHeaderBatch(batch, headers);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            readHeaderBatch(batch, headers);
+        }
+        return headers;
+    }
+
+    @Override
+    public byte[] findHeaderRecords(long fromHeight, int limit) {
+        long start = Math.max(0, fromHeight) * HeaderRecordCodec.RECORD_BYTES;
+        long end = start + (long) limit * HeaderRecordCodec.RECORD_BYTES - 1;
+        byte[] records = binaryRedisTemplate.execute((RedisCallback<byte[]>) connection ->
+                connection.stringCommands().getRange(HEADER_INDEX_KEY_BYTES, start, end));
+        if (records == null) {
+            return new byte[0];
+        }
+        // Un registro incompleto sólo puede ser un SETRANGE de una altura mayor todavía no escrito del todo.
+        int complete = records.length - records.length % HeaderRecordCodec.RECORD_BYTES;
+        return complete == records.length ? records : Arrays.copyOf(records, complete);
+    }
+
+    // Completa el índice de cabeceras desde la primera altura que falta (p. ej. bloques guardados antes de que
+    // existiera). Cada tanda se lee por altura y se escribe en un pipeline.
+    @Override
+    public int rebuildHeaderIndexIfIncomplete() {
+        Long length = binaryRedisTemplate.execute((RedisCallback<Long>) connection ->
+                connection.stringCommands().strLen(HEADER_INDEX_KEY_BYTES));
+        long fromHeight = (length != null ? length : 0) / HeaderRecordCodec.RECORD_BYTES;
+        long tipHeight = findMaxHeight();
+        int indexed = 0;
+        while (fromHeight <= tipHeight) {
+            List<ZSetOperations.TypedTuple<String>> tuples = findHashesByHeightRange(fromHeight, tipHeight, MULTI_GET_BATCH);
+            if (tuples.isEmpty()) {
+                break;
+            }
+            List<String> hashes = new ArrayList<>(tuples.size());
+            for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+                hashes.add(tuple.getValue());
+            }
+            List<byte[]> records = new ArrayList<>(hashes.size());
+            List<Long> offsets = new ArrayList<>(hashes.size());
+            for (Block block : findAllById(hashes)) {
+                records.add(headerRecordCodec.encode(block));
+                offsets.add((long) block.getIndex() * HeaderRecordCodec.RECORD_BYTES);
+            }
+            binaryRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (int i = 0; i < records.size(); i++) {
+                    connection.stringCommands().setRange(HEADER_INDEX_KEY_BYTES, records.get(i), offsets.get(i));
+                }
+                return null;
+            });
+            indexed += records.size();
+            Double lastScore = tuples.get(tuples.size() - 1).getScore();
+            fromHeight = (lastScore != null ? lastScore.longValue() : tipHeight) + 1;
+        }
+        return indexed;
+    }
+
+    // Reconstruye el índice de alturas si no cubre toda la cadena (p. ej. bloques guardados antes de que existiera).
+    @Override
+    public int rebuildHeightIndexIfIncomplete() {
+        Long heights = redisTemplate.opsForZSet().size(BLOCK_HEIGHTS_ZSET_KEY);
+        if (heights != null && heights >= count()) {
+            return 0;
+        }
+        int indexed = 0;
+        for (Block block : findAll()) {
+            redisTemplate.opsForZSet().add(BLOCK_HEIGHTS_ZSET_KEY, block.getHash(), block.getIndex());
+            indexed++;
+        }
+        return indexed;
+    }
+
+    @Override
+    public Optional<Block> findById(String hash) {
+        if (hash == null) {
+            return Optional.empty();
+        }
+        Block block = decode(hash, binaryRedisTemplate.opsForValue().get(key(hash)));
+        return block != null ? Optional.of(block) : migrate(hash);
+    }
+
+    @Override
+    public boolean existsById(String hash) {
+        return Boolean.TRUE.equals(binaryRedisTemplate.hasKey(key(hash))) || legacyBlockRepository.existsById(hash);
+    }
+
+    // Bloques en el orden de la cadena, leídos con MGET por tandas.
+    @Override
+    public Iterable<Block> findAll() {
+        Set<String> hashes = redisTemplate.opsForZSet().range(BLOCK_HASHES_ZSET_KEY, 0, -1);
+        return hashes != null ? findAllById(hashes) : List.of();
+    }
+
+    // Los hashes que no existen se omiten; el resultado respeta el orden de entrada.
+    @Override
+    public List<Block> findAllById(Collection<String> hashes) {
+        List<Block> blocks = new ArrayList<>(hashes.size());
+        List<String> batch = new ArrayList<>(Math.min(hashes.size(), MULTI_GET_BATCH));
+        for (String hash : hashes) {
+            batch.add(hash);
+            if (batch.size() == MULTI_GET_BATCH) {
+                readBatch(batch, blocks);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            readBatch(batch, blocks);
+        }
+        return blocks;
+    }
+
+    @Override
+    public long count() {
+        Long count = redisTemplate.opsForZSet().size(BLOCK_HASHES_ZSET_KEY);
+        return count != null ? count : 0;
+    }
+
+    // Migra al formato binario todos los bloques de la cadena que sigan en el formato anterior.
+    @Override
+    public int migrateLegacyBlocks() {
+        Set<String> hashes = redisTemplate.opsForZSet().range(BLOCK_HASHES_ZSET_KEY, 0, -1);
+        if (hashes == null || hashes.isEmpty()) {
+            return 0;
+        }
+        int migrated = 0;
+        List<String> batch = new ArrayList<>(MULTI_GET_BATCH);
+        for (String hash : hashes) {
+            batch.add(hash);
+            if (batch.size() == MULTI_GET_BATCH) {
+                migrated += migrateBatch(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            migrated += migrateBatch(batch);
+        }
+        return migrated;
+    }
+
+    private int migrateBatch(List<String> hashes) {
+        List<byte[]> values = binaryRedisTemplate.opsForValue().multiGet(keys(hashes));
+        int migrated = 0;
+        for (int i = 0; i < hashes.size(); i++) {
+            if ((values == null || values.get(i) == null) && migrate(hashes.get(i)).isPresent()) {
+                migrated++;
+            }
+        }
+        return migrated;
+    }
+
+    private void readHeaderBatch(List<String> hashes, List<BlockHeader> headers) {
+        List<byte[]> values = binaryRedisTemplate.opsForValue().multiGet(keys(hashes));
+        for (int i = 0; i < hashes.size(); i++) {
+            byte[] value = values != null ? values.get(i) : null;
+            BlockHeader header = null;
+            if (value != null) {
+                try {
+                    header = blockCodec.decodeHeader(value);
+                } catch (IllegalArgumentException e) {
+                    System.err.println("RedisBlockRepository: No se pudo decodificar la cabecera del bloque " + hashes.get(i) + ": " + e.getMessage());
+                }
+            } else {
+                header = migrate(hashes.get(i)).map(BlockRepository::header).orElse(null);
+            }
+            if (header != null) {
+                headers.add(header);
+            }
+        }
+    }
+
+    private void readBatch(List<String> hashes, List<Block> blocks) {
+        List<byte[]> values = binaryRedisTemplate.opsForValue().multiGet(keys(hashes));
+        for (int i = 0; i < hashes.size(); i++) {
+            Block block = decode(hashes.get(i), values != null ? values.get(i) : null);
+            if (block == null) {
+                block = migrate(hashes.get(i)).orElse(null);
+            }
+            if (block != null) {
+                blocks.add(block);
+            }
+        }
+    }
+
+    // Lee el bloque del formato anterior, lo guarda en binario y borra el hash viejo.
+    private Optional<Block> migrate(String hash) {
+        Optional<Block> legacy = legacyBlockRepository.findById(hash);
+        legacy.ifPresent(block -> {
+            save(block);
+            legacyBlockRepository.deleteById(hash);
+            System.out.println("RedisBlockRepository: Bloque " + hash + " migrado al formato binario.");
+        });
+        return legacy;
+    }
+
+    private Block decode(String hash, byte[] value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return blockCodec.decodeBlock(value);
+        } catch (IllegalArgumentException e) {
+            System.err.println("RedisBlockRepository: No se pudo decodificar el bloque " + hash + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> keys(List<String> hashes) {
+        List<String> keys = new ArrayList<>(hashes.size());
+        for (String hash : hashes) {
+            keys.add(key(hash));
+        }
+        return keys;
+    }
+}
@@ -1,19 +1,37 @@
 package com.blockchain.coordinator.scheduler;
 
+import com.blockchain.coordinator.dtos.MiningScheduleStats;
 import com.blockchain.coordinator.dtos.MiningTask;
+import com.blockchain.coordinator.events.BlockCommittedEvent;
+import com.blockchain.coordinator.events.MempoolReadyEvent;
 import com.blockchain.coordinator.models.Block;
 import com.blockchain.coordinator.models.ExchangeEvent;
 import com.blockchain.coordinator.services.BlockService;
 import com.blockchain.coordinator.services.CurrentMiningTaskService;
 import com.blockchain.coordinator.services.DifficultyService;
+import com.blockchain.coordinator.services.MempoolRecoveryService;
 import com.blockchain.coordinator.services.MiningTaskNotifier;
 import com.blockchain.coordinator.services.QueueAdminService;
 import com.blockchain.coordinator.services.TransactionPoolService;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// Publicación de tareas de minería por eventos:
+//  - BlockCommittedEvent (se minó el bloque actual) y MempoolReadyEvent (el pool alcanzó el mínimo) publican
+//    la tarea siguiente enseguida;
+//  - cada tarea lleva un deadline (task-timeout-ms) y un timer la descarta al vencer y publica la siguiente.
+// Todo corre en un único hilo (mining-task-scheduler); el cron queda como respaldo para eventos perdidos o
+// tareas publicadas por otra réplica, que también se descartan por su deadline. Las tareas sin deadline
+// (guardadas por una versión anterior) se siguen descartando después de max-retries ticks del cron.
 @Component("blockchainTaskScheduler")
 @RequiredArgsConstructor
 public class TaskScheduler {
@@ -24,6 +42,7 @@ public class TaskScheduler {
     private final QueueAdminService queueAdminService;
     private final TransactionPoolService transactionPoolService;
     private final DifficultyService difficultyService;
+    private final MempoolRecoveryService mempoolRecoveryService;
 
     @Value("${blockchain.mining.max-transactions-per-block}")
     private int maxTransactionsPerBlock;
@@ -31,43 +50,164 @@ public class TaskScheduler {
     private int minTransactionsPerBlock;
     @Value("${blockchain.mining.max-retries}")
     private int maxRetries;
+    @Value("${blockchain.mining.task-timeout-ms:30000}")
+    private long taskTimeoutMillis;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "mining-task-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ScheduledFuture<?> deadlineTimer;
+
+    private enum Trigger {
+        CRON,
+        BLOCK_COMMITTED,
+        MEMPOOL_READY,
+        DEADLINE
+    }
+
+    // Métricas: idleSince es desde cuándo no hay tarea activa (0 si hay una publicada).
+    private long idleSince = System.currentTimeMillis();
+    private long publishedByEvent;
+    private long publishedByCron;
+    private long expiredTasks;
+    private long idlePeriods;
+    private long totalIdleMillis;
+    private long maxIdleMillis;
+    private long lastIdleMillis;
+    private long committedBlocks;
+    private long lastCommittedAt;
+    private long totalBlockIntervalMillis;
 
     @Scheduled(cron = "${blockchain.mining.task-publication-cron}")
     public void createAndPublishMiningTask() {
+        run(Trigger.CRON);
+    }
+
+    @EventListener
+    public void onBlockCommitted(BlockCommittedEvent event) {
+        executor.execute(() -> {
+            recordCommit(event.committedAt());
+            if (event.publishedAt() > 0) {
+                difficultyService.recordSolvedBlock(event.blockHash(), event.difficultyBits(), event.committedAt() - event.publishedAt());
+            }
+            run(Trigger.BLOCK_COMMITTED);
+        });
+    }
+
+    @EventListener
+    public void onMempoolReady(MempoolReadyEvent event) {
+        executor.execute(() -> run(Trigger.MEMPOOL_READY));
+    }
+
+    private synchronized void run(Trigger trigger) {
+        try {
+            publishIfIdle(trigger);
+        } catch (RuntimeException e) {
+            // Un error en un evento no debe cortar el hilo; el cron o el próximo evento vuelven a intentar.
+            System.err.println("Scheduler: Error al publicar la tarea de minería (" + trigger + "): " + e.getMessage());
+        }
+    }
+
+    private void publishIfIdle(Trigger trigger) {
+        if (!mempoolRecoveryService.isFinished()) {
+            System.out.println("Scheduler: Recuperación del mempool en curso, se posterga la publicación de tareas.");
+            return;
+        }
 
         MiningTask prevTask = currentMiningTaskService.getCurrentTask();
-        boolean coordinatorHasActiveMiningTask = (prevTask != null);
-
-        if (coordinatorHasActiveMiningTask) {
-            if (prevTask.getRetries() >= maxRetries) {
-                System.out.println("Scheduler: Se superaron " + maxRetries + " reintentos para el bloque " + prevTask.getBlock().getHash() + ". Descartando candidato.");
-                difficultyService.decrementChallenge();
-                miningTaskNotifier.notifyMiningTaskDropped(prevTask.getBlock().getHash());
-                currentMiningTaskService.clearCurrentTask();
-                queueAdminService.purgeBlocksQueue();
-            } else {
-                currentMiningTaskService.incrementCurrentTaskRetries();
-                System.out.println("Scheduler: Tarea de minería (" + prevTask.getBlock().getHash() + ") persistente, reintentos: " + prevTask.getRetries() + ".");
+        if (prevTask != null) {
+            long now = System.currentTimeMillis();
+            boolean expired = prevTask.getDeadline() > 0
+                    ? now >= prevTask.getDeadline()
+                    : trigger == Trigger.CRON && prevTask.getRetries() >= maxRetries;
+            if (!expired) {
+                if (prevTask.getDeadline() > 0) {
+                    // Tarea de otra réplica o cuyo timer se perdió: se programa su vencimiento acá también.
+                    scheduleDeadline(prevTask.getDeadline() - now);
+                } else if (trigger == Trigger.CRON) {
+                    currentMiningTaskService.incrementCurrentTaskRetries();
+                    System.out.println("Scheduler: Tarea de minería (" + prevTask.getBlock().getHash() + ") persistente, reintentos: " + prevTask.getRetries() + ".");
+                }
                 return;
             }
+            System.out.println("Scheduler: Venció la tarea del bloque " + prevTask.getBlock().getHash() + " sin solución. Descartando candidato.");
+            difficultyService.recordExpiredTask(prevTask.getBlock().getHash(),
+                    DifficultyService.bitsOf(prevTask.getChallenge(), prevTask.getTarget()),
+                    prevTask.getPublishedAt() > 0 ? now - prevTask.getPublishedAt() : 0);
+            miningTaskNotifier.notifyMiningTaskDropped(prevTask.getBlock().getHash());
+            currentMiningTaskService.clearCurrentTask();
+            queueAdminService.purgeBlocksQueue();
+            expiredTasks++;
+            idleSince = System.currentTimeMillis();
         }
 
         int pending = transactionPoolService.getPendingTransactionCount();
 
         if (pending >= minTransactionsPerBlock) {
-            System.out.println("Scheduler: No hay tarea activa o la anterior fue descartada. Creando y publicando nuevo bloque candidato (tarea de minería).");
+            System.out.println("Scheduler: No hay tarea activa (" + trigger + "). Creando y publicando nuevo bloque candidato (tarea de minería).");
             Block newBlock = blockService.createNewMiningCandidateBlock(maxTransactionsPerBlock);
             if (newBlock != null) {
                 String challengeForNewTask = difficultyService.getCurrentChallenge();
-                MiningTask newTask = new MiningTask(ExchangeEvent.NEW_CANDIDATE_BLOCK, challengeForNewTask, newBlock, 0);
+                String targetForNewTask = difficultyService.getCurrentTarget().toHex();
+                long publishedAt = System.currentTimeMillis();
+                MiningTask newTask = new MiningTask(ExchangeEvent.NEW_CANDIDATE_BLOCK, challengeForNewTask, targetForNewTask,
+                        newBlock, 0, publishedAt, publishedAt + taskTimeoutMillis, null, 0);
                 currentMiningTaskService.saveCurrentTask(newTask);
-                miningTaskNotifier.notifyNewMiningTask(newBlock, challengeForNewTask, 0);
+                blockService.pinVerificationContext(newTask);
+                miningTaskNotifier.notifyNewMiningTask(newBlock, challengeForNewTask, targetForNewTask, 0);
+                scheduleDeadline(taskTimeoutMillis);
+                recordPublication(trigger);
             } else {
                 System.out.println("Scheduler: No hay transacciones suficientes para crear el bloque candidato.");
             }
-        } else {
+        } else if (trigger == Trigger.CRON) {
             System.out.println("Scheduler: No hay transacciones suficientes para crear el bloque candidato. Actualmente: "
                     + pending + ". Requerido: " + minTransactionsPerBlock);
         }
     }
-}
\ No newline at end of file
+
+    // Un único timer pendiente: al vencer vuelve a evaluar la tarea actual, sea cual sea.
+    private void scheduleDeadline(long delayMillis) {
+        if (deadlineTimer != null) {
+            deadlineTimer.cancel(false);
+        }
+        deadlineTimer = executor.schedule(() -> run(Trigger.DEADLINE), Math.max(0, delayMillis), TimeUnit.MILLISECONDS);
+    }
+
+    private void recordPublication(Trigger trigger) {
+        if (trigger == Trigger.CRON) {
+            publishedByCron++;
+        } else {
+            publishedByEvent++;
+        }
+        if (idleSince > 0) {
+            lastIdleMillis = System.currentTimeMillis() - idleSince;
+            totalIdleMillis += lastIdleMillis;
+            maxIdleMillis = Math.max(maxIdleMillis, lastIdleMillis);
+            idlePeriods++;
+        }
+        idleSince = 0;
+    }
+
+    private synchronized void recordCommit(long committedAt) {
+        if (lastCommittedAt > 0) {
+            totalBlockIntervalMillis += committedAt - lastCommittedAt;
+        }
+        lastCommittedAt = committedAt;
+        committedBlocks++;
+        idleSince = committedAt;
+    }
+
+    public synchronized MiningScheduleStats getStats() {
+        return new MiningScheduleStats(publishedByEvent, publishedByCron, expiredTasks, taskTimeoutMillis,
+                idlePeriods > 0 ? (double) totalIdleMillis / idlePeriods : 0.0, maxIdleMillis, lastIdleMillis,
+                committedBlocks, committedBlocks > 1 ? (double) totalBlockIntervalMillis / (committedBlocks - 1) : 0.0);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
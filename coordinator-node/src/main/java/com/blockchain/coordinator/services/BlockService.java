@@ -1,26 +1,31 @@
 package com.blockchain.coordinator.services;
 
+import com.blockchain.coordinator.cache.BlockCache;
+import com.blockchain.coordinator.cache.BlockResponseCache;
+import com.blockchain.coordinator.crypto.BlockContentSerializer;
+import com.blockchain.coordinator.crypto.Md5Hash;
+import com.blockchain.coordinator.crypto.Md5Hasher;
+import com.blockchain.coordinator.crypto.MerkleTree;
+import com.blockchain.coordinator.crypto.MiningVerificationContext;
+import com.blockchain.coordinator.dtos.MerkleProof;
 import com.blockchain.coordinator.dtos.MiningTask;
 import com.blockchain.coordinator.models.Block;
 import com.blockchain.coordinator.models.Transaction;
 import com.blockchain.coordinator.repositories.BlockRepository;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
-import java.util.Set;
-import java.util.concurrent.TimeUnit;
 
 @Service
 public class BlockService {
@@ -31,17 +36,32 @@ public class BlockService {
     private final ObjectMapper objectMapper;
     private final CurrentMiningTaskService currentMiningTaskService;
     private final DifficultyService difficultyService;
-    private final String BLOCK_HASHES_ZSET_KEY = "block_hashes";
-    private String latestBlockHash = "0000000000000000000000000000000000000000000000000000000000000000";
-    private Block latestBlock;
-
-    public BlockService(BlockRepository blockRepository, TransactionPoolService transactionPoolService, RedisTemplate<String, String> redisTemplate, ObjectMapper objectMapper, CurrentMiningTaskService currentMiningTaskService, DifficultyService difficultyService) {
+    private final Md5Hasher md5Hasher;
+    private final BlockContentSerializer blockContentSerializer;
+    private final BlockCache blockCache;
+    private final BlockResponseCache blockResponseCache;
+    private final CandidateTemplateService candidateTemplateService;
+    private final int blockVersion;
+    private static final String GENESIS_PREVIOUS_HASH = "0000000000000000000000000000000000000000000000000000000000000000";
+    // Último bloque agregado por esta instancia o leído del almacenamiento; su hash es el tip local.
+    private volatile Block latestBlock;
+    private volatile MiningVerificationContext verificationContext;
+
+    public BlockService(BlockRepository blockRepository, TransactionPoolService transactionPoolService, RedisTemplate<String, String> redisTemplate, ObjectMapper objectMapper, CurrentMiningTaskService currentMiningTaskService, DifficultyService difficultyService, Md5Hasher md5Hasher, BlockContentSerializer blockContentSerializer, BlockCache blockCache, BlockResponseCache blockResponseCache,
+                        CandidateTemplateService candidateTemplateService,
+                        @Value("${blockchain.mining.block-version:2}") int blockVersion) {
         this.blockRepository = blockRepository;
         this.transactionPoolService = transactionPoolService;
         this.redisTemplate = redisTemplate;
         this.objectMapper = objectMapper;
         this.currentMiningTaskService = currentMiningTaskService;
         this.difficultyService = difficultyService;
+        this.md5Hasher = md5Hasher;
+        this.blockContentSerializer = blockContentSerializer;
+        this.blockCache = blockCache;
+        this.blockResponseCache = blockResponseCache;
+        this.candidateTemplateService = candidateTemplateService;
+        this.blockVersion = blockVersion;
 
         this.objectMapper.registerModule(new JavaTimeModule());
         this.objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
@@ -50,65 +70,84 @@ public class BlockService {
     }
 
     public void init() {
-        this.loadLatestBlockFromRedis();
+        int migrated = blockRepository.migrateLegacyBlocks();
+        if (migrated > 0) {
+            System.out.println("BlockService: Se migraron " + migrated + " bloques al formato binario.");
+        }
+        int indexed = blockRepository.rebuildHeightIndexIfIncomplete();
+        if (indexed > 0) {
+            System.out.println("BlockService: Se reconstruyó el índice de alturas con " + indexed + " bloques.");
+        }
+        int headers = blockRepository.rebuildHeaderIndexIfIncomplete();
+        if (headers > 0) {
+            System.out.println("BlockService: Se completó el índice de cabeceras con " + headers + " bloques.");
+        }
+        this.loadLatestBlock();
         this.difficultyService.loadCurrentSystemChallenge();
     }
 
-    private void loadLatestBlockFromRedis() {
-        Long count = redisTemplate.opsForZSet().size(BLOCK_HASHES_ZSET_KEY);
+    // El último bloque es el de mayor altura (no el de mayor timestamp: un bloque minado y su recompensa
+    // pueden compartir el mismo segundo).
+    private void loadLatestBlock() {
+        long count = blockRepository.count();
 
-        if (count == null || count == 0) {
+        if (count == 0) {
             createGenesisBlock();
         } else {
-            Set<String> lastBlockHashes = redisTemplate.opsForZSet().reverseRange(BLOCK_HASHES_ZSET_KEY, 0, 0);
-            if (lastBlockHashes != null && !lastBlockHashes.isEmpty()) {
-                String lastBlockHashStr = lastBlockHashes.iterator().next();
+            Optional<String> lastBlockHash = blockRepository.findHashByHeight(blockRepository.findMaxHeight());
+            if (lastBlockHash.isPresent()) {
+                String lastBlockHashStr = lastBlockHash.get();
                 Optional<Block> lastKnownBlock = blockRepository.findById(lastBlockHashStr);
 
                 if (lastKnownBlock.isPresent()) {
                     this.latestBlock = lastKnownBlock.get();
-                    this.latestBlockHash = latestBlock.getHash();
-                    System.out.println("BlockService: Se cargó el ultimo bloque desde redis : " + latestBlockHash);
+                    blockCache.put(latestBlock);
+                    System.out.println("BlockService: Se cargó el ultimo bloque desde el almacenamiento : " + latestBlock.getHash());
                 } else {
-                    System.err.println("BlockService: Inconsistency: Latest block hash '" + lastBlockHashStr + "' found in sorted set, but block object not found in hash store. Recreating Genesis.");
+                    System.err.println("BlockService: Inconsistency: Latest block hash '" + lastBlockHashStr + "' found in height index, but block object not found in block store. Recreating Genesis.");
                     createGenesisBlock();
                 }
             } else {
-                System.err.println("BlockService: Inconsistencia: ZSet size es > 0 pero reverseRange devolvio vacio. Recreando el bloque genesis.");
+                System.err.println("BlockService: Inconsistencia: la cadena tiene " + count + " bloques pero el índice de alturas no devolvió el último. Recreando el bloque genesis.");
                 createGenesisBlock();
             }
         }
     }
 
     private void createGenesisBlock() {
-        String genesisPreviousHash = "0000000000000000000000000000000000000000000000000000000000000000";
+        String genesisPreviousHash = GENESIS_PREVIOUS_HASH;
         long genesisTimestamp = LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
         List<Transaction> genesisTransactions = Collections.singletonList(new Transaction("system", "genesis", 0.0));
 
         Block genesisBlock = new Block(0, genesisPreviousHash, genesisTransactions, genesisTimestamp, 0, "");
+        applyVersion(genesisBlock);
         genesisBlock.setHash(calculateFinalBlockHash(genesisBlock));
 
         blockRepository.save(genesisBlock);
-        redisTemplate.opsForZSet().add(BLOCK_HASHES_ZSET_KEY, genesisBlock.getHash(), genesisBlock.getTimestamp());
+        blockCache.put(genesisBlock);
         this.latestBlock = genesisBlock;
-        this.latestBlockHash = genesisBlock.getHash();
         System.out.println("BlockService: Se creo el bloque genesis: " + genesisBlock.getHash() + " (Index: " + genesisBlock.getIndex() + ")");
     }
 
     public Block createNewMiningCandidateBlock(int numberOfTransactions) {
-        List<Transaction> transactions = transactionPoolService.getPendingTransactions(numberOfTransactions);
+        // Las hojas y el árbol de Merkle salen de la plantilla armada en segundo plano (CandidateTemplateService).
+        CandidateTemplateService.Drained drained = candidateTemplateService.take(numberOfTransactions);
+        List<Transaction> transactions = drained.transactions();
         if (transactions.isEmpty()) {
             System.out.println("BlockService: No hay transacciones pendientes para crear el bloque.");
             return null;
         }
 
-        Long currentIndexLong = redisTemplate.opsForZSet().size(BLOCK_HASHES_ZSET_KEY);
-        int newBlockIndex = (currentIndexLong != null) ? currentIndexLong.intValue() : 0;
-
-        String previousHash = getLatestBlockHash();
+        Block parent = latestBlock;
+        int newBlockIndex = parent != null ? parent.getIndex() + 1 : 0;
+        String previousHash = parent != null ? parent.getHash() : GENESIS_PREVIOUS_HASH;
         long currentTimestamp = LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
 
         Block newBlock = new Block(newBlockIndex, previousHash, transactions, currentTimestamp, 0, "");
+        newBlock.setVersion(blockVersion);
+        if (newBlock.usesMerkleRoot()) {
+            newBlock.setMerkle_root(drained.merkleRoot().toHex());
+        }
         String preliminaryHash = calculateBlockContentHash(newBlock);
         newBlock.setHash(preliminaryHash);
 
@@ -117,26 +156,70 @@ public class BlockService {
         return newBlock;
     }
 
-    public String calculateBlockContentHash(Block block) {
-        String dataAsString = "";
-        try {
-            dataAsString = objectMapper.writeValueAsString(block.getData());
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Error al serializar el bloque.", e);
+    private void applyVersion(Block block) {
+        block.setVersion(blockVersion);
+        if (block.usesMerkleRoot()) {
+            block.setMerkle_root(blockContentSerializer.merkleRoot(block.getData()).toHex());
         }
+    }
 
-        String contentInput = String.valueOf(block.getIndex()) +
-                String.valueOf(block.getTimestamp()) +
-                dataAsString +
-                block.getPrevious_hash();
+    // Prueba de inclusión de la transacción transactionId en el bloque blockHash. Vacío si el bloque no existe,
+    // no contiene la transacción o es legacy (su hash no cubre una raíz de Merkle).
+    public Optional<MerkleProof> getTransactionProof(String blockHash, String transactionId) {
+        Optional<Block> blockOptional = getBlockByHash(blockHash);
+        if (blockOptional.isEmpty() || !blockOptional.get().usesMerkleRoot()) {
+            return Optional.empty();
+        }
+        Block block = blockOptional.get();
+        List<Transaction> transactions = block.getData() != null ? block.getData() : List.of();
+        List<Md5Hash> leaves = new ArrayList<>(transactions.size());
+        int index = -1;
+        for (int i = 0; i < transactions.size(); i++) {
+            leaves.add(blockContentSerializer.transactionHash(transactions.get(i)));
+            if (index < 0 && transactions.get(i).getId() != null && transactions.get(i).getId().equals(transactionId)) {
+                index = i;
+            }
+        }
+        if (index < 0) {
+            return Optional.empty();
+        }
+        List<MerkleProof.Step> steps = new ArrayList<>();
+        for (MerkleTree.Step step : MerkleTree.proof(md5Hasher, leaves, index)) {
+            steps.add(new MerkleProof.Step(step.hash().toHex(), step.side().name().toLowerCase(Locale.ROOT)));
+        }
+        return Optional.of(new MerkleProof(block.getHash(), block.getMerkle_root(), transactionId,
+                leaves.get(index).toHex(), index, leaves.size(), steps));
+    }
 
-        return applyMd5(contentInput);
+    public String calculateBlockContentHash(Block block) {
+        return blockContentHash(block).toHex();
+    }
+
+    private Md5Hash blockContentHash(Block block) {
+        return blockContentSerializer.contentHash(block);
     }
 
     public String calculateFinalBlockHash(Block block) {
-        String blockContentHash = calculateBlockContentHash(block);
-        String finalHashInput = String.valueOf(block.getNonce()) + blockContentHash;
-        return applyMd5(finalHashInput);
+        return md5Hasher.hashFinal(block.getNonce(), blockContentHash(block)).toHex();
+    }
+
+    // Calcula y fija el contexto de verificación del candidato publicado; se llama al publicar la tarea.
+    public MiningVerificationContext pinVerificationContext(MiningTask task) {
+        MiningVerificationContext context = new MiningVerificationContext(
+                task.getBlock().getHash(), task.getChallenge(),
+                Md5Hash.isHex(task.getTarget()) ? Md5Hash.fromHex(task.getTarget()) : null, blockContentHash(task.getBlock()));
+        this.verificationContext = context;
+        System.out.println("BlockService: Contexto de verificación fijado para el bloque candidato: " + context.getBlockId());
+        return context;
+    }
+
+    private MiningVerificationContext verificationContextFor(MiningTask task) {
+        MiningVerificationContext context = this.verificationContext;
+        if (context != null && context.isFor(task.getBlock().getHash(), task.getChallenge(), task.getTarget())) {
+            return context;
+        }
+        // Tarea publicada por otra instancia o antes de un reinicio: se calcula una vez y queda fijada.
+        return pinVerificationContext(task);
     }
 
     public boolean verifyMiningSolution(String blockId, long nonce, String solvedBlockHash) {
@@ -145,107 +228,102 @@ public class BlockService {
             System.out.println("BlockService: No se encontró el bloque candidato activo con id: " + blockId + " o no coincide con la tarea actual. Puede que haya expirado o ya se procesó.");
             return false;
         }
+        return verifyMiningSolution(currentTask, nonce, solvedBlockHash);
+    }
 
-        String challengeForThisTask = currentTask.getChallenge();
-        Block blockCandidate = currentTask.getBlock();
-
-        Block blockForVerification;
-        try {
-            blockForVerification = (Block) blockCandidate.clone();
-            blockForVerification.setNonce(nonce);
-        } catch (CloneNotSupportedException e) {
-            System.err.println("BlockService: Error al clonar el bloque para verificación: " + e.getMessage());
-            return false;
-        }
-
-        String calculatedHash = calculateFinalBlockHash(blockForVerification);
-
-        boolean hashMatches = calculatedHash.equals(solvedBlockHash);
-        boolean difficultyMet = solvedBlockHash.startsWith(challengeForThisTask);
+    public boolean verifyMiningSolution(MiningTask currentTask, long nonce, String solvedBlockHash) {
+        MiningVerificationContext context = verificationContextFor(currentTask);
+        MiningVerificationContext.Result result = context.verify(md5Hasher, nonce, solvedBlockHash);
 
-        if (!hashMatches) {
+        if (result == MiningVerificationContext.Result.HASH_MISMATCH) {
             System.out.printf(
                     "BlockService: Fallo la verificación del bloque %s: hash calculado=%s, hash entregado=%s%n",
-                    blockId, calculatedHash, solvedBlockHash
+                    context.getBlockId(), md5Hasher.hashFinal(nonce, context.getContentHash()), solvedBlockHash
             );
-        }
-        if (!difficultyMet) {
+        } else if (result == MiningVerificationContext.Result.DIFFICULTY_NOT_MET) {
             System.out.printf(
-                    "BlockService: Fallo la dificultad para el bloque %s: hash entregado=%s, prefijo requerido=%s%n",
-                    blockId, solvedBlockHash, challengeForThisTask
+                    "BlockService: Fallo la dificultad para el bloque %s: hash entregado=%s, requerido=%s%n",
+                    context.getBlockId(), solvedBlockHash, context.getTarget() != null ? "<= " + context.getTarget() : "prefijo " + context.getChallenge()
             );
         }
 
-        return hashMatches && difficultyMet;
+        return result == MiningVerificationContext.Result.VALID;
     }
 
-    public Optional<Block> addMinedBlock(String blockId, long nonce, String solvedBlockHash) {
+    public Optional<Block> addMinedBlock(String blockId, long nonce, String solvedBlockHash, String minerId) {
         MiningTask currentTask = currentMiningTaskService.getCurrentTask();
         if (currentTask == null || !currentTask.getBlock().getHash().equals(blockId)) {
             System.out.println("BlockService: No se encontró el bloque candidato activo con id: " + blockId + " o no coincide con la tarea actual. Puede que haya expirado o ya se procesó.");
             return Optional.empty();
         }
-        Block verifiedBlockCandidate = currentTask.getBlock();
-
-        if (!verifyMiningSolution(blockId, nonce, solvedBlockHash)) {
+        if (!verifyMiningSolution(currentTask, nonce, solvedBlockHash)) {
             System.out.println("BlockService: Error al añadir el bloque: falló la verificación para el id:  " + blockId);
             return Optional.empty();
         }
+        return commitMinedBlock(currentTask, nonce, solvedBlockHash, minerId);
+    }
 
-        String previousHashLockKey = "blockchain:" + verifiedBlockCandidate.getPrevious_hash();
-        Boolean acquiredLock = redisTemplate.opsForValue().setIfAbsent(previousHashLockKey, solvedBlockHash, 5, TimeUnit.MINUTES);
-
-        if (acquiredLock == null || !acquiredLock) {
-            System.out.println("BlockService: Otro bloque fue aceptado por su previousHash: " + verifiedBlockCandidate.getPrevious_hash() + ". Descartando bloque: " + solvedBlockHash);
-            return Optional.empty();
-        }
-
-        if (!verifiedBlockCandidate.getPrevious_hash().equals(this.latestBlockHash)) {
-            System.out.println("BlockService: El hash previo del bloque minado (" + verifiedBlockCandidate.getPrevious_hash() + ") no coincide con el bloque actual (" + this.latestBlockHash + "). Posible bifurcación.");
-            redisTemplate.delete(previousHashLockKey);
-            return Optional.empty();
-        }
+    // Agrega a la cadena una solución ya verificada para la tarea dada junto con el bloque de recompensa del
+    // minero, en una única escritura condicionada a que el padre del candidato siga siendo el último bloque
+    // (BlockRepository.appendIfTip). Si otra instancia ya agregó un bloque sobre ese padre no se escribe nada.
+    public Optional<Block> commitMinedBlock(MiningTask currentTask, long nonce, String solvedBlockHash, String minerId) {
+        Block verifiedBlockCandidate = currentTask.getBlock();
 
         Block blockToSave;
         try {
             blockToSave = (Block) verifiedBlockCandidate.clone();
             blockToSave.setNonce(nonce);
             blockToSave.setHash(solvedBlockHash);
-            blockToSave.setTimestamp(LocalDateTime.now().toEpochSecond(ZoneOffset.UTC));
+            // El timestamp queda como en el candidato: forma parte del contenido sobre el que se minó el hash.
         } catch (CloneNotSupportedException e) {
             System.err.println("BlockService: Error al clonar el bloque final para guardar: " + e.getMessage());
             return Optional.empty();
         }
+        Block rewardBlock = rewardBlock(blockToSave, minerId);
 
-        Block savedBlock = blockRepository.save(blockToSave);
+        if (!blockRepository.appendIfTip(verifiedBlockCandidate.getPrevious_hash(), List.of(blockToSave, rewardBlock))) {
+            System.out.println("BlockService: El hash previo del bloque minado (" + verifiedBlockCandidate.getPrevious_hash()
+                    + ") ya no es el último bloque de la cadena. Descartando bloque: " + solvedBlockHash);
+            // Otra instancia pudo haber avanzado la cadena: el próximo candidato se arma sobre el último guardado.
+            loadLatestBlock();
+            return Optional.empty();
+        }
 
-        redisTemplate.opsForZSet().add(BLOCK_HASHES_ZSET_KEY, savedBlock.getHash(), savedBlock.getTimestamp());
-        this.latestBlock = savedBlock;
-        this.latestBlockHash = savedBlock.getHash();
+        for (Block saved : List.of(blockToSave, rewardBlock)) {
+            blockCache.put(saved);
+            blockResponseCache.prerender(saved);
+        }
+        this.latestBlock = rewardBlock;
+        transactionPoolService.markIncluded(blockToSave.getData());
 
-        System.out.println("BlockService: Se añadió correctamente el bloque a la blockchain: " + savedBlock.getHash() + " (Nonce: " + savedBlock.getNonce() + ", Index: " + savedBlock.getIndex() + ")");
-        return Optional.of(savedBlock);
+        System.out.println("BlockService: Se añadió correctamente el bloque a la blockchain: " + blockToSave.getHash() + " (Nonce: " + blockToSave.getNonce() + ", Index: " + blockToSave.getIndex() + ")");
+        System.out.println("BlockService: Se creo y añadió el bloque recompensa para el minero: " + minerId + " Bloque: " + rewardBlock.getHash() + " (Index: " + rewardBlock.getIndex() + ")");
+        return Optional.of(blockToSave);
     }
 
-    public void createRewardBlock(String minerId) {
+    private Block rewardBlock(Block minedBlock, String minerId) {
         long blockTimestamp = LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
         List<Transaction> blockTransactions = Collections.singletonList(new Transaction("system", minerId, 20.0));
-        Block recompenseBlock = new Block(latestBlock.getIndex() + 1, latestBlockHash, blockTransactions, blockTimestamp, 0, "");
+        Block recompenseBlock = new Block(minedBlock.getIndex() + 1, minedBlock.getHash(), blockTransactions, blockTimestamp, 0, "");
+        applyVersion(recompenseBlock);
         recompenseBlock.setHash(calculateFinalBlockHash(recompenseBlock));
-
-        blockRepository.save(recompenseBlock);
-        redisTemplate.opsForZSet().add(BLOCK_HASHES_ZSET_KEY, recompenseBlock.getHash(), recompenseBlock.getTimestamp());
-        this.latestBlock = recompenseBlock;
-        this.latestBlockHash = recompenseBlock.getHash();
-        System.out.println("BlockService: Se creo y añadió el bloque recompensa para el minero: " + minerId + " Bloque: " + recompenseBlock.getHash() + " (Index: " + recompenseBlock.getIndex() + ")");
+        return recompenseBlock;
     }
 
+    // Lee primero de la caché; en un fallo lee de Redis y deja el bloque cacheado.
     public Optional<Block> getBlockByHash(String blockHash) {
-        return blockRepository.findById(blockHash);
+        Block cached = blockCache.get(blockHash);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Block> block = blockRepository.findById(blockHash);
+        block.ifPresent(blockCache::put);
+        return block;
     }
 
     public String getLatestBlockHash() {
-        return latestBlockHash;
+        Block block = latestBlock;
+        return block != null ? block.getHash() : GENESIS_PREVIOUS_HASH;
     }
 
     public Block getLatestBlock() {
@@ -259,20 +337,4 @@ public class BlockService {
     public String getHashChallenge() {
         return difficultyService.getCurrentChallenge();
     }
-
-    private String applyMd5(String input) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("MD5");
-            byte[] hash = digest.digest(input.getBytes(StandardCharsets.UTF_8));
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) hexString.append('0');
-                hexString.append(hex);
-            }
-            return hexString.toString();
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("MD5 no disponible.", e);
-        }
-    }
 }
\ No newline at end of file
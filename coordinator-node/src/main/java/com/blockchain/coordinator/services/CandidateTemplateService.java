@@ -0,0 +1,136 @@
+package com.blockchain.coordinator.services;
+
+import com.blockchain.coordinator.crypto.BlockContentSerializer;
+import com.blockchain.coordinator.crypto.Md5Hash;
+import com.blockchain.coordinator.crypto.Md5Hasher;
+import com.blockchain.coordinator.crypto.MerkleTree;
+import com.blockchain.coordinator.models.Block;
+import com.blockchain.coordinator.models.Transaction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Plantilla del próximo bloque candidato armada en segundo plano mientras se mina el actual: cada
+// template-refresh-ms mira (sin extraer) las primeras max-transactions-per-block transacciones del pool,
+// calcula el hash de cada una y va armando la raíz de Merkle. Sólo se hashean las transacciones nuevas: si
+// el pool sólo creció, la plantilla se extiende a partir de su estado.
+//
+// Al crear el candidato, take() drena el pool y reutiliza las hojas y el estado del árbol de la plantilla
+// para el prefijo que coincide con lo drenado; sólo las transacciones que llegaron después se hashean en ese
+// momento. Lo que queda por hacer al crear el candidato es fijar index, previous_hash y timestamp, y un MD5.
+// Con bloques legacy (block-version 1) el hash cubre todo el JSON de data y la plantilla no se usa.
+@Service
+public class CandidateTemplateService {
+
+    private final TransactionPoolService transactionPoolService;
+    private final BlockContentSerializer blockContentSerializer;
+    private final Md5Hasher md5Hasher;
+    private final int maxTransactions;
+    private final boolean enabled;
+
+    private List<Transaction> transactions = List.of();
+    private List<Md5Hash> leaves = List.of();
+    private MerkleTree.Builder merkle;
+    private long reusedLeaves;
+    private long hashedOnTake;
+
+    // Transacciones drenadas para un candidato, con sus hojas y la raíz ya calculadas.
+    public record Drained(List<Transaction> transactions, List<Md5Hash> leaves, Md5Hash merkleRoot) {
+    }
+
+    public CandidateTemplateService(TransactionPoolService transactionPoolService,
+                                    BlockContentSerializer blockContentSerializer, Md5Hasher md5Hasher,
+                                    @Value("${blockchain.mining.max-transactions-per-block}") int maxTransactions,
+                                    @Value("${blockchain.mining.block-version:2}") int blockVersion) {
+        this.transactionPoolService = transactionPoolService;
+        this.blockContentSerializer = blockContentSerializer;
+        this.md5Hasher = md5Hasher;
+        this.maxTransactions = maxTransactions;
+        this.enabled = blockVersion >= Block.MERKLE_VERSION;
+        this.merkle = new MerkleTree.Builder(md5Hasher);
+    }
+
+    @Scheduled(fixedDelayString = "${blockchain.mining.template-refresh-ms:250}")
+    public synchronized void refresh() {
+        if (!enabled) {
+            return;
+        }
+        List<Transaction> pending = transactionPoolService.peekPendingTransactions(maxTransactions);
+        int common = commonPrefix(transactions, pending);
+        if (common == pending.size() && common == transactions.size()) {
+            return;
+        }
+        MerkleTree.Builder builder;
+        List<Md5Hash> next = new ArrayList<>(pending.size());
+        if (common == transactions.size()) {
+            builder = merkle;
+            next.addAll(leaves);
+        } else {
+            // Salió una transacción del medio (p. ej. se descartó): el árbol se vuelve a armar desde las hojas.
+            builder = new MerkleTree.Builder(md5Hasher);
+            for (int i = 0; i < common; i++) {
+                next.add(leaves.get(i));
+                builder.add(leaves.get(i));
+            }
+        }
+        for (int i = common; i < pending.size(); i++) {
+            Md5Hash leaf = blockContentSerializer.transactionHash(pending.get(i));
+            next.add(leaf);
+            builder.add(leaf);
+        }
+        transactions = pending;
+        leaves = next;
+        merkle = builder;
+    }
+
+    // Drena hasta max transacciones del pool para un candidato nuevo. La plantilla queda vacía: sus
+    // transacciones ya salieron del pool y la próxima se arma con las que queden.
+    public synchronized Drained take(int max) {
+        List<Transaction> drained = transactionPoolService.getPendingTransactions(max);
+        int common = commonPrefix(transactions, drained);
+        MerkleTree.Builder builder;
+        List<Md5Hash> drainedLeaves = new ArrayList<>(drained.size());
+        if (common == transactions.size()) {
+            builder = merkle.copy();
+            drainedLeaves.addAll(leaves);
+        } else {
+            builder = new MerkleTree.Builder(md5Hasher);
+            for (int i = 0; i < common; i++) {
+                drainedLeaves.add(leaves.get(i));
+                builder.add(leaves.get(i));
+            }
+        }
+        for (int i = common; i < drained.size(); i++) {
+            Md5Hash leaf = blockContentSerializer.transactionHash(drained.get(i));
+            drainedLeaves.add(leaf);
+            builder.add(leaf);
+        }
+        reusedLeaves += common;
+        hashedOnTake += drained.size() - common;
+        transactions = List.of();
+        leaves = List.of();
+        merkle = new MerkleTree.Builder(md5Hasher);
+        return new Drained(drained, drainedLeaves, builder.root());
+    }
+
+    public synchronized long getReusedLeaves() {
+        return reusedLeaves;
+    }
+
+    public synchronized long getHashedOnTake() {
+        return hashedOnTake;
+    }
+
+    // Largo del prefijo común comparando por identidad: el pool devuelve los mismos objetos que vio la plantilla.
+    private static int commonPrefix(List<Transaction> template, List<Transaction> current) {
+        int limit = Math.min(template.size(), current.size());
+        int i = 0;
+        while (i < limit && template.get(i) == current.get(i)) {
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,240 @@
+package com.blockchain.coordinator.services;
+
+import com.blockchain.coordinator.codec.BlockCodec;
+import com.blockchain.coordinator.codec.HeaderRecordCodec;
+import com.blockchain.coordinator.dtos.ChainHeader;
+import com.blockchain.coordinator.repositories.BlockRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Service;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Exporta la cadena en orden de altura, leyendo de Redis por páginas de page-size bloques. Mientras se
+// escribe una página ya se está leyendo la siguiente, y cada bloque se escribe apenas se lee: el heap usado
+// queda acotado a dos páginas sin importar el largo de la cadena.
+// La exportación termina en la altura que tenía la cadena al empezar (tip), para que sea un corte consistente;
+// para continuar una exportación cortada se vuelve a pedir desde la altura siguiente al último bloque recibido.
+// exportHeaders hace lo mismo con el índice de cabeceras, en páginas de header-page-size registros.
+@Service
+public class ChainExportService {
+
+    public enum Format {
+        NDJSON,
+        BINARY
+    }
+
+    private final BlockRepository blockRepository;
+    private final BlockCodec blockCodec;
+    private final ObjectMapper objectMapper;
+    private final int pageSize;
+    private final int headerPageSize;
+    private final ExecutorService prefetcher = Executors.newVirtualThreadPerTaskExecutor();
+
+    private record Page(List<Long> heights, List<byte[]> values) {
+    }
+
+    public ChainExportService(BlockRepository blockRepository, BlockCodec blockCodec, ObjectMapper objectMapper,
+                              @Value("${blockchain.export.page-size:64}") int pageSize,
+                              @Value("${blockchain.export.header-page-size:4096}") int headerPageSize) {
+        this.blockRepository = blockRepository;
+        this.blockCodec = blockCodec;
+        this.objectMapper = objectMapper;
+        this.pageSize = Math.max(1, pageSize);
+        this.headerPageSize = Math.max(1, headerPageSize);
+    }
+
+    public long currentTipHeight() {
+        return blockRepository.findMaxHeight();
+    }
+
+    // Escribe los bloques [fromHeight, tipHeight] en out y devuelve cuántos se exportaron.
+    //  - NDJSON: un bloque JSON por línea, igual que en GET /api/blocks/{hash} pero sin enlaces.
+    //  - BINARY: por bloque, su largo (int32 big-endian) seguido del bloque en el formato de BlockCodec, tal
+    //    como está guardado en Redis (sin decodificar ni volver a codificar).
+    public long export(long fromHeight, long tipHeight, Format format, OutputStream out) throws IOException {
+        if (fromHeight > tipHeight) {
+            return 0;
+        }
+        BlockWriter writer = format == Format.BINARY ? binaryWriter(out) : ndjsonWriter(out);
+        long exported = 0;
+        CompletableFuture<Page> next = fetch(fromHeight, tipHeight);
+        try {
+            while (true) {
+                Page page = await(next);
+                if (page.heights().isEmpty()) {
+                    break;
+                }
+                long lastHeight = page.heights().get(page.heights().size() - 1);
+                boolean more = page.heights().size() == pageSize && lastHeight < tipHeight;
+                next = more ? fetch(lastHeight + 1, tipHeight) : null;
+                for (byte[] value : page.values()) {
+                    if (value != null) {
+                        writer.write(value);
+                        exported++;
+                    }
+                }
+                if (!more) {
+                    break;
+                }
+            }
+        } finally {
+            if (next != null) {
+                next.cancel(false);
+            }
+            writer.finish();
+        }
+        return exported;
+    }
+
+    // Escribe las cabeceras [fromHeight, tipHeight] en out y devuelve cuántas se exportaron.
+    //  - NDJSON: una ChainHeader JSON por línea.
+    //  - BINARY: los registros de HeaderRecordCodec uno detrás de otro, tal como están en el índice.
+    public long exportHeaders(long fromHeight, long tipHeight, Format format, OutputStream out) throws IOException {
+        if (fromHeight > tipHeight) {
+            return 0;
+        }
+        SequenceWriter sequence = format == Format.NDJSON ? objectMapper.writer().withRootValueSeparator("\n").writeValues(out) : null;
+        long exported = 0;
+        long height = fromHeight;
+        CompletableFuture<byte[]> next = fetchHeaders(height, tipHeight);
+        try {
+            while (next != null) {
+                byte[] records = awaitHeaders(next);
+                int count = records.length / HeaderRecordCodec.RECORD_BYTES;
+                height += count;
+                next = count == headerPageSize && height <= tipHeight ? fetchHeaders(height, tipHeight) : null;
+                if (sequence == null) {
+                    out.write(records);
+                } else {
+                    for (int i = 0; i < count; i++) {
+                        sequence.write(header(records, i * HeaderRecordCodec.RECORD_BYTES));
+                    }
+                }
+                exported += count;
+            }
+        } finally {
+            if (next != null) {
+                next.cancel(false);
+            }
+            if (sequence != null) {
+                sequence.flush();
+                if (exported > 0) {
+                    out.write('\n');
+                }
+            }
+            out.flush();
+        }
+        return exported;
+    }
+
+    // Los hashes que no son MD5 (el previous_hash del génesis) no están en el registro: se leen del bloque.
+    private ChainHeader header(byte[] records, int offset) {
+        ChainHeader header = HeaderRecordCodec.decode(records, offset);
+        int notMd5 = HeaderRecordCodec.FLAG_HASH_NOT_MD5 | HeaderRecordCodec.FLAG_PREVIOUS_HASH_NOT_MD5;
+        if ((HeaderRecordCodec.flags(records, offset) & notMd5) != 0) {
+            blockRepository.findHashByHeight(header.getIndex())
+                    .flatMap(hash -> blockRepository.findHeadersById(List.of(hash)).stream().findFirst())
+                    .ifPresent(stored -> {
+                        header.setHash(stored.getHash());
+                        header.setPrevious_hash(stored.getPrevious_hash());
+                    });
+        }
+        return header;
+    }
+
+    private CompletableFuture<byte[]> fetchHeaders(long fromHeight, long tipHeight) {
+        int limit = (int) Math.min(headerPageSize, tipHeight - fromHeight + 1);
+        return CompletableFuture.supplyAsync(() -> blockRepository.findHeaderRecords(fromHeight, limit), prefetcher);
+    }
+
+    private static byte[] awaitHeaders(CompletableFuture<byte[]> records) throws IOException {
+        try {
+            return records.join();
+        } catch (CompletionException e) {
+            throw new IOException("Error leyendo el índice de cabeceras: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private CompletableFuture<Page> fetch(long fromHeight, long tipHeight) {
+        return CompletableFuture.supplyAsync(() -> {
+            List<ZSetOperations.TypedTuple<String>> tuples = blockRepository.findHashesByHeightRange(fromHeight, tipHeight, pageSize);
+            List<String> hashes = new ArrayList<>(tuples.size());
+            List<Long> heights = new ArrayList<>(tuples.size());
+            for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+                hashes.add(tuple.getValue());
+                heights.add(tuple.getScore() != null ? tuple.getScore().longValue() : fromHeight);
+            }
+            return new Page(heights, hashes.isEmpty() ? List.of() : blockRepository.findEncodedById(hashes));
+        }, prefetcher);
+    }
+
+    private static Page await(CompletableFuture<Page> page) throws IOException {
+        try {
+            return page.join();
+        } catch (CompletionException e) {
+            throw new IOException("Error leyendo bloques de Redis: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private interface BlockWriter {
+        void write(byte[] encoded) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    private static BlockWriter binaryWriter(OutputStream out) {
+        DataOutputStream data = new DataOutputStream(out);
+        return new BlockWriter() {
+            @Override
+            public void write(byte[] encoded) throws IOException {
+                data.writeInt(encoded.length);
+                data.write(encoded);
+            }
+
+            @Override
+            public void finish() throws IOException {
+                data.flush();
+            }
+        };
+    }
+
+    private BlockWriter ndjsonWriter(OutputStream out) throws IOException {
+        SequenceWriter sequence = objectMapper.writer().withRootValueSeparator("\n").writeValues(out);
+        return new BlockWriter() {
+            private boolean written;
+
+            @Override
+            public void write(byte[] encoded) throws IOException {
+                sequence.write(blockCodec.decodeBlock(encoded));
+                written = true;
+            }
+
+            @Override
+            public void finish() throws IOException {
+                sequence.flush();
+                // el separador va entre valores; la última línea también tiene que terminar en '\n'
+                if (written) {
+                    out.write('\n');
+                }
+                out.flush();
+            }
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        prefetcher.shutdownNow();
+    }
+}
@@ -0,0 +1,125 @@
+package com.blockchain.coordinator.services;
+
+import com.blockchain.coordinator.cache.BlockCache;
+import com.blockchain.coordinator.dtos.BlockHeader;
+import com.blockchain.coordinator.dtos.BlockPage;
+import com.blockchain.coordinator.models.Block;
+import com.blockchain.coordinator.repositories.BlockRepository;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// Recorridos paginados de la cadena por altura y por timestamp. Cada página lee a lo sumo limit bloques
+// (o sólo sus cabeceras), así un explorador puede recorrer toda la cadena con memoria acotada.
+//  - Por altura el cursor es la próxima altura a leer.
+//  - Por timestamp el cursor es "{timestamp}:{salteados}": el timestamp del último bloque devuelto y
+//    cuántos bloques con ese mismo timestamp ya se devolvieron. No depende de posiciones absolutas en el
+//    ZSet, así que sigue siendo válido mientras se agregan bloques nuevos.
+@Service
+public class ChainQueryService {
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final BlockRepository blockRepository;
+    private final BlockCache blockCache;
+
+    public ChainQueryService(BlockRepository blockRepository, BlockCache blockCache) {
+        this.blockRepository = blockRepository;
+        this.blockCache = blockCache;
+    }
+
+    // Los bloques de la punta se sirven desde la caché sin consultar el índice de alturas.
+    public Optional<Block> getBlockByHeight(long height) {
+        Block cached = blockCache.getByHeight(height);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Block> block = blockRepository.findHashByHeight(height).flatMap(blockRepository::findById);
+        block.ifPresent(blockCache::put);
+        return block;
+    }
+
+    public BlockPage<Block> blocksFromHeight(long fromHeight, int limit) {
+        List<String> hashes = blockRepository.findHashesFromHeight(fromHeight, pageSize(limit));
+        List<Block> blocks = blockRepository.findAllById(hashes);
+        String next = hashes.size() == pageSize(limit) && !blocks.isEmpty()
+                ? String.valueOf(blocks.get(blocks.size() - 1).getIndex() + 1L) : null;
+        return new BlockPage<>(blocks, next);
+    }
+
+    public BlockPage<BlockHeader> headersFromHeight(long fromHeight, int limit) {
+        List<String> hashes = blockRepository.findHashesFromHeight(fromHeight, pageSize(limit));
+        List<BlockHeader> headers = blockRepository.findHeadersById(hashes);
+        String next = hashes.size() == pageSize(limit) && !headers.isEmpty()
+                ? String.valueOf(headers.get(headers.size() - 1).getIndex() + 1L) : null;
+        return new BlockPage<>(headers, next);
+    }
+
+    public BlockPage<Block> blocksByTime(long from, long to, String cursor, int limit) {
+        TimePage page = timePage(from, to, cursor, limit);
+        return new BlockPage<>(blockRepository.findAllById(page.hashes), page.next);
+    }
+
+    public BlockPage<BlockHeader> headersByTime(long from, long to, String cursor, int limit) {
+        TimePage page = timePage(from, to, cursor, limit);
+        return new BlockPage<>(blockRepository.findHeadersById(page.hashes), page.next);
+    }
+
+    // Valida una altura de cursor; lanza IllegalArgumentException si no es un número >= 0.
+    public static long parseHeightCursor(String cursor) {
+        try {
+            long height = Long.parseLong(cursor);
+            if (height >= 0) {
+                return height;
+            }
+        } catch (NumberFormatException e) {
+            // se informa abajo
+        }
+        throw new IllegalArgumentException("Cursor de altura inválido: " + cursor);
+    }
+
+    private record TimePage(List<String> hashes, String next) {
+    }
+
+    private TimePage timePage(long from, long to, String cursor, int limit) {
+        int size = pageSize(limit);
+        long start = from;
+        long skip = 0;
+        if (cursor != null && !cursor.isEmpty()) {
+            int separator = cursor.indexOf(':');
+            try {
+                start = Long.parseLong(cursor.substring(0, separator));
+                skip = Long.parseLong(cursor.substring(separator + 1));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Cursor de tiempo inválido: " + cursor);
+            }
+            if (start < from || skip < 0) {
+                throw new IllegalArgumentException("Cursor de tiempo fuera del rango: " + cursor);
+            }
+        }
+
+        List<ZSetOperations.TypedTuple<String>> tuples = blockRepository.findHashesByTime(start, to, skip, size);
+        List<String> hashes = new ArrayList<>(tuples.size());
+        long lastTimestamp = start;
+        long sameTimestamp = skip;
+        for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+            long timestamp = tuple.getScore() != null ? tuple.getScore().longValue() : start;
+            sameTimestamp = timestamp == lastTimestamp ? sameTimestamp + 1 : 1;
+            lastTimestamp = timestamp;
+            hashes.add(tuple.getValue());
+        }
+        String next = tuples.size() == size ? lastTimestamp + ":" + sameTimestamp : null;
+        return new TimePage(hashes, next);
+    }
+
+    private static int pageSize(int limit) {
+        if (limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+}
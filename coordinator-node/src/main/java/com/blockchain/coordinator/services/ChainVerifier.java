@@ -0,0 +1,278 @@
+package com.blockchain.coordinator.services;
+
+import com.blockchain.coordinator.codec.BlockCodec;
+import com.blockchain.coordinator.crypto.BlockContentSerializer;
+import com.blockchain.coordinator.crypto.Md5Hasher;
+import com.blockchain.coordinator.dtos.ChainVerificationReport;
+import com.blockchain.coordinator.models.Block;
+import com.blockchain.coordinator.repositories.BlockRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+// Verificación completa de la cadena guardada. Recorre los bloques por altura en páginas de page-size:
+//  - en paralelo (ForkJoinPool de parallelism hilos) decodifica cada bloque y recalcula su hash final
+//    (calculateFinalBlockHash) para compararlo con el guardado; en bloques con raíz de Merkle también la
+//    recalcula desde las transacciones, ya que el hash sólo cubre la raíz;
+//  - en orden, controla que el index sea la altura y que previous_hash apunte al hash del bloque anterior.
+// Mientras se verifica una página ya se está leyendo la siguiente. Se detiene en la primera inconsistencia.
+// Los bloques minados antes de que commitMinedBlock dejara de pisar el timestamp no se pueden recalcular: por
+// debajo de hash-check-from-height se omite sólo el recálculo del hash final (el resto de los controles sigue).
+// Por defecto esa altura es el largo que tenía la cadena la primera vez que arrancó un nodo con esta versión
+// (recordHashCheckHeight, clave HASH_CHECK_HEIGHT_KEY en Redis); sin ese registro ningún nodo con el arreglo
+// guardó bloques todavía y no se recalcula ninguno.
+// Se usa desde POST /api/admin/chain/verify (en segundo plano) y desde ChainVerifierCli.
+@Service
+public class ChainVerifier {
+
+    public enum State {
+        IDLE,
+        RUNNING,
+        VALID,
+        INVALID,
+        FAILED
+    }
+
+    public static final String HASH_CHECK_HEIGHT_KEY = "chain:verify:hash-check-from-height";
+
+    private final BlockRepository blockRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final BlockCodec blockCodec;
+    private final BlockContentSerializer blockContentSerializer;
+    private final Md5Hasher md5Hasher;
+    private final int pageSize;
+    private final int defaultParallelism;
+    private final long configuredHashCheckFromHeight;
+
+    private volatile ChainVerificationReport lastReport;
+    private volatile Run current;
+
+    private record Page(List<Long> heights, List<String> hashes, List<byte[]> values) {
+    }
+
+    // Resultado del trabajo en paralelo para un bloque; problem es null si el bloque es válido por sí mismo.
+    private record Checked(Block block, String problem) {
+    }
+
+    private static final class Run {
+        private final int parallelism;
+        private final long tipHeight;
+        private final long hashCheckFromHeight;
+        private final long startNanos = System.nanoTime();
+        private final AtomicLong verified = new AtomicLong();
+
+        private Run(int parallelism, long tipHeight, long hashCheckFromHeight) {
+            this.parallelism = parallelism;
+            this.tipHeight = tipHeight;
+            this.hashCheckFromHeight = hashCheckFromHeight;
+        }
+
+        private ChainVerificationReport report(State state, Long failureHeight, String failureHash, String failureReason) {
+            long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+            long blocks = verified.get();
+            return new ChainVerificationReport(state.name(), parallelism, tipHeight, hashCheckFromHeight, blocks, failureHeight,
+                    failureHash, failureReason, elapsedMillis, elapsedMillis > 0 ? blocks * 1000.0 / elapsedMillis : 0.0);
+        }
+    }
+
+    public ChainVerifier(BlockRepository blockRepository, RedisTemplate<String, String> redisTemplate, BlockCodec blockCodec,
+                         BlockContentSerializer blockContentSerializer, Md5Hasher md5Hasher,
+                         @Value("${blockchain.verify.page-size:1024}") int pageSize,
+                         @Value("${blockchain.verify.parallelism:0}") int parallelism,
+                         @Value("${blockchain.verify.hash-check-from-height:-1}") long hashCheckFromHeight) {
+        this.blockRepository = blockRepository;
+        this.redisTemplate = redisTemplate;
+        this.blockCodec = blockCodec;
+        this.blockContentSerializer = blockContentSerializer;
+        this.md5Hasher = md5Hasher;
+        this.pageSize = Math.max(1, pageSize);
+        this.defaultParallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.configuredHashCheckFromHeight = hashCheckFromHeight;
+    }
+
+    // Se llama al arrancar el nodo, antes de inicializar la cadena: sólo el primer arranque con esta versión
+    // deja registrada la altura.
+    public void recordHashCheckHeight() {
+        if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(HASH_CHECK_HEIGHT_KEY, Long.toString(blockRepository.count())))) {
+            System.out.println("ChainVerifier: Se recalculará el hash de los bloques desde la altura " + blockRepository.count() + ".");
+        }
+    }
+
+    // Lanza la verificación en segundo plano; si ya hay una en curso devuelve su estado.
+    public synchronized ChainVerificationReport start(int parallelism) {
+        if (current != null) {
+            return getReport();
+        }
+        Run run = newRun(parallelism);
+        current = run;
+        Thread thread = new Thread(() -> {
+            try {
+                verify(run);
+            } finally {
+                current = null;
+            }
+        }, "chain-verifier");
+        thread.setDaemon(true);
+        thread.start();
+        return run.report(State.RUNNING, null, null, null);
+    }
+
+    public ChainVerificationReport getReport() {
+        Run run = current;
+        if (run != null) {
+            return run.report(State.RUNNING, null, null, null);
+        }
+        ChainVerificationReport report = lastReport;
+        return report != null ? report : new ChainVerificationReport(State.IDLE.name(), defaultParallelism, -1, 0, 0, null, null, null, 0, 0.0);
+    }
+
+    // Verifica la cadena hasta la altura actual en el hilo que llama.
+    public ChainVerificationReport verify(int parallelism) {
+        return verify(newRun(parallelism));
+    }
+
+    private Run newRun(int parallelism) {
+        long tipHeight = blockRepository.findMaxHeight();
+        long hashCheckFromHeight = configuredHashCheckFromHeight;
+        if (hashCheckFromHeight < 0) {
+            String recorded = redisTemplate.opsForValue().get(HASH_CHECK_HEIGHT_KEY);
+            hashCheckFromHeight = recorded != null ? Long.parseLong(recorded) : tipHeight + 1;
+        }
+        return new Run(parallelism > 0 ? parallelism : defaultParallelism, tipHeight, hashCheckFromHeight);
+    }
+
+    private ChainVerificationReport verify(Run run) {
+        System.out.println("ChainVerifier: Verificando la cadena hasta la altura " + run.tipHeight + " con " + run.parallelism
+                + " hilos (hash recalculado desde la altura " + run.hashCheckFromHeight + ").");
+        ForkJoinPool pool = new ForkJoinPool(run.parallelism);
+        ExecutorService reader = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "chain-verifier-reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ChainVerificationReport report;
+        try {
+            report = verifyPages(run, pool, reader);
+        } catch (RuntimeException e) {
+            report = run.report(State.FAILED, null, null, "Error leyendo la cadena: " + e.getMessage());
+        } finally {
+            pool.shutdownNow();
+            reader.shutdownNow();
+        }
+        lastReport = report;
+        System.out.println("ChainVerifier: Resultado " + report.getState() + " (" + report.getVerifiedBlocks() + " bloques en "
+                + report.getElapsedMillis() + " ms" + (report.getFailureReason() != null ? ": " + report.getFailureReason() : "") + ").");
+        return report;
+    }
+
+    private ChainVerificationReport verifyPages(Run run, ForkJoinPool pool, ExecutorService reader) {
+        if (run.tipHeight < 0) {
+            return run.report(State.VALID, null, null, null);
+        }
+        long expectedHeight = 0;
+        String previousHash = null;
+        CompletableFuture<Page> next = fetch(0, run.tipHeight, reader);
+        while (next != null) {
+            Page page = await(next);
+            if (page.heights().isEmpty()) {
+                return run.report(State.INVALID, expectedHeight, null, "Falta el bloque de la altura " + expectedHeight + " en el índice de alturas.");
+            }
+            long lastHeight = page.heights().get(page.heights().size() - 1);
+            next = lastHeight < run.tipHeight ? fetch(lastHeight + 1, run.tipHeight, reader) : null;
+
+            Checked[] checked = check(page, run.hashCheckFromHeight, pool);
+            for (int i = 0; i < checked.length; i++) {
+                long height = page.heights().get(i);
+                String hash = page.hashes().get(i);
+                String problem;
+                if (height < expectedHeight) {
+                    problem = "Hay más de un bloque indexado en la altura " + height + ".";
+                } else if (height > expectedHeight) {
+                    problem = "Falta el bloque de la altura " + expectedHeight + " en el índice de alturas.";
+                } else {
+                    problem = checked[i].problem();
+                }
+                if (problem == null) {
+                    Block block = checked[i].block();
+                    if (block.getIndex() != height) {
+                        problem = "El index del bloque (" + block.getIndex() + ") no coincide con su altura.";
+                    } else if (previousHash != null && !previousHash.equals(block.getPrevious_hash())) {
+                        problem = "previous_hash (" + block.getPrevious_hash() + ") no coincide con el hash del bloque anterior (" + previousHash + ").";
+                    }
+                }
+                if (problem != null) {
+                    if (next != null) {
+                        next.cancel(true);
+                    }
+                    return run.report(State.INVALID, expectedHeight, hash, problem);
+                }
+                previousHash = hash;
+                expectedHeight++;
+                run.verified.incrementAndGet();
+            }
+        }
+        return run.report(State.VALID, null, null, null);
+    }
+
+    private Checked[] check(Page page, long hashCheckFromHeight, ForkJoinPool pool) {
+        Checked[] checked = new Checked[page.values().size()];
+        pool.submit(() -> IntStream.range(0, checked.length).parallel()
+                .forEach(i -> checked[i] = check(page.hashes().get(i), page.values().get(i),
+                        page.heights().get(i) >= hashCheckFromHeight))).join();
+        return checked;
+    }
+
+    private Checked check(String hash, byte[] value, boolean recomputeHash) {
+        if (value == null) {
+            return new Checked(null, "El bloque " + hash + " está en el índice pero no en el almacenamiento.");
+        }
+        Block block;
+        try {
+            block = blockCodec.decodeBlock(value);
+        } catch (IllegalArgumentException e) {
+            return new Checked(null, "No se pudo decodificar el bloque: " + e.getMessage());
+        }
+        if (!hash.equals(block.getHash())) {
+            return new Checked(block, "El bloque guardado tiene hash " + block.getHash() + " pero está indexado como " + hash + ".");
+        }
+        if (block.usesMerkleRoot() && !blockContentSerializer.merkleRoot(block.getData()).matchesHex(block.getMerkle_root())) {
+            return new Checked(block, "La raíz de Merkle no coincide con las transacciones del bloque.");
+        }
+        if (recomputeHash && !md5Hasher.finalHashMatches(block.getNonce(), blockContentSerializer.contentHash(block), hash)) {
+            return new Checked(block, "El hash recalculado no coincide con el hash guardado.");
+        }
+        return new Checked(block, null);
+    }
+
+    private CompletableFuture<Page> fetch(long fromHeight, long tipHeight, ExecutorService reader) {
+        return CompletableFuture.supplyAsync(() -> {
+            List<ZSetOperations.TypedTuple<String>> tuples = blockRepository.findHashesByHeightRange(fromHeight, tipHeight, pageSize);
+            List<Long> heights = new ArrayList<>(tuples.size());
+            List<String> hashes = new ArrayList<>(tuples.size());
+            for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+                heights.add(tuple.getScore() != null ? tuple.getScore().longValue() : -1L);
+                hashes.add(tuple.getValue());
+            }
+            return new Page(heights, hashes, hashes.isEmpty() ? List.of() : blockRepository.findEncodedById(hashes));
+        }, reader);
+    }
+
+    private static Page await(CompletableFuture<Page> page) {
+        try {
+            return page.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+}
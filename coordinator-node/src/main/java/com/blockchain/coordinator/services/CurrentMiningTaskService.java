@@ -4,61 +4,103 @@ import com.blockchain.coordinator.dtos.MiningTask;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.PostConstruct;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Mantiene la tarea de minería actual en Redis (fuente de verdad compartida entre réplicas) y una copia
+// versionada en memoria. Las escrituras pasan por Redis y actualizan la copia local; las lecturas se
+// sirven desde memoria. Cada escritura incrementa la versión y se anuncia por pub/sub para que las demás
+// réplicas descarten su copia. Si se pierde un mensaje, la copia se revalida contra la versión en Redis
+// como máximo cada task-cache-revalidate-ms.
+// La copia cacheada nunca sale de esta clase: getCurrentTask devuelve una copia de la tarea (el bloque se
+// comparte y es de sólo lectura) y los cambios se hacen sobre una copia que se escribe en Redis antes de
+// reemplazar la cacheada.
 @Service
-@RequiredArgsConstructor
-public class CurrentMiningTaskService {
+public class CurrentMiningTaskService implements MessageListener {
 
     private final RedisTemplate<String, String> redisTemplate;
     private final ObjectMapper objectMapper;
     private final MiningTaskPublisher miningTaskPublisher;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final long revalidateMillis;
 
     private static final String CURRENT_MINING_TASK_KEY = "current_mining_task";
+    private static final String CURRENT_MINING_TASK_VERSION_KEY = "current_mining_task:version";
+    private static final String INVALIDATION_CHANNEL = "current_mining_task:invalidations";
+
+    private final String instanceId = UUID.randomUUID().toString();
+    // Se incrementa con cada invalidación recibida; evita instalar una lectura que quedó vieja en vuelo.
+    private final AtomicLong invalidations = new AtomicLong();
+    private volatile CachedTask cached;
 
+    // task == null representa "no hay tarea actual" y también se cachea.
+    private record CachedTask(long version, MiningTask task, long validatedAt) {
+    }
+
+    public CurrentMiningTaskService(
+            RedisTemplate<String, String> redisTemplate,
+            ObjectMapper objectMapper,
+            MiningTaskPublisher miningTaskPublisher,
+            RedisMessageListenerContainer listenerContainer,
+            @Value("${blockchain.mining.task-cache-revalidate-ms:1000}") long revalidateMillis) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.miningTaskPublisher = miningTaskPublisher;
+        this.listenerContainer = listenerContainer;
+        this.revalidateMillis = revalidateMillis;
+    }
 
     @PostConstruct
     public void init() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
         System.out.println("CurrentMiningTaskService: Inicializando. Cargando tarea previa de Redis si existe...");
-        try {
-            String taskJson = redisTemplate.opsForValue().get(CURRENT_MINING_TASK_KEY);
-            if (taskJson != null && !taskJson.isEmpty()) {
-                MiningTask loadedTask = objectMapper.readValue(taskJson, MiningTask.class);
-                System.out.println("CurrentMiningTaskService: Tarea previa encontrada en Redis: Bloque " + loadedTask.getBlock().getHash() + " (Reintentos: " + loadedTask.getRetries() + ").");
-            } else {
-                System.out.println("CurrentMiningTaskService: No se encontró tarea de minería previa en Redis.");
-            }
-        } catch (JsonProcessingException e) {
-            System.err.println("CurrentMiningTaskService: Error al deserializar MiningTask desde Redis durante la inicialización: " + e.getMessage());
-            redisTemplate.delete(CURRENT_MINING_TASK_KEY);
+        MiningTask loadedTask = readThrough();
+        if (loadedTask != null) {
+            System.out.println("CurrentMiningTaskService: Tarea previa encontrada en Redis: Bloque " + loadedTask.getBlock().getHash() + " (Reintentos: " + loadedTask.getRetries() + ").");
+        } else {
+            System.out.println("CurrentMiningTaskService: No se encontró tarea de minería previa en Redis.");
         }
     }
 
     public void saveCurrentTask(MiningTask task) {
         try {
             String taskJson = objectMapper.writeValueAsString(task);
-            redisTemplate.opsForValue().set(CURRENT_MINING_TASK_KEY, taskJson);
-            System.out.println("CurrentMiningTaskService: Tarea actual guardada en Redis: " + task.getBlock().getHash());
+            long version = writeAndBumpVersion(taskJson);
+            cached = new CachedTask(version, copy(task), System.currentTimeMillis());
+            publishInvalidation(version);
+            System.out.println("CurrentMiningTaskService: Tarea actual guardada en Redis: " + task.getBlock().getHash() + " (versión " + version + ")");
         } catch (JsonProcessingException e) {
             System.err.println("CurrentMiningTaskService: Error al serializar MiningTask para Redis: " + e.getMessage());
         }
     }
 
+    // Devuelve una copia de la tarea; su bloque es el mismo que el de la copia cacheada y no debe modificarse.
     public MiningTask getCurrentTask() {
-        try {
-            String taskJson = redisTemplate.opsForValue().get(CURRENT_MINING_TASK_KEY);
-            if (taskJson != null && !taskJson.isEmpty()) {
-                return objectMapper.readValue(taskJson, MiningTask.class);
-            }
-        } catch (JsonProcessingException e) {
-            System.err.println("CurrentMiningTaskService: Error al deserializar MiningTask desde Redis en getCurrentTask(): " + e.getMessage());
-            redisTemplate.delete(CURRENT_MINING_TASK_KEY);
+        CachedTask current = cached;
+        if (current != null && System.currentTimeMillis() - current.validatedAt() < revalidateMillis) {
+            return copy(current.task());
+        }
+        if (current != null && current.version() == readVersion()) {
+            cached = new CachedTask(current.version(), current.task(), System.currentTimeMillis());
+            return copy(current.task());
         }
-        return null;
+        return copy(readThrough());
     }
 
+    // Los reintentos se cambian en una copia: si la escritura en Redis falla, la copia cacheada sigue igual.
     public void incrementCurrentTaskRetries() {
         MiningTask currentTask = getCurrentTask();
         if (currentTask != null) {
@@ -69,7 +111,110 @@ public class CurrentMiningTaskService {
     }
 
     public void clearCurrentTask() {
-        redisTemplate.delete(CURRENT_MINING_TASK_KEY);
+        long version = writeAndBumpVersion(null);
+        cached = new CachedTask(version, null, System.currentTimeMillis());
+        publishInvalidation(version);
         System.out.println("CurrentMiningTaskService: Tarea actual eliminada de Redis.");
     }
-}
\ No newline at end of file
+
+    // Mensaje "{instanceId}:{version}" publicado por cualquier réplica al escribir la tarea.
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf(':');
+        if (separator < 0 || body.substring(0, separator).equals(instanceId)) {
+            return;
+        }
+        long version;
+        try {
+            version = Long.parseLong(body.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return;
+        }
+        invalidations.incrementAndGet();
+        CachedTask current = cached;
+        if (current == null || current.version() < version) {
+            cached = null;
+        }
+    }
+
+    private MiningTask readThrough() {
+        long observedInvalidations = invalidations.get();
+        List<Object> results = redisTemplate.execute(new SessionCallback<>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> List<Object> execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ops.multi();
+                ops.opsForValue().get(CURRENT_MINING_TASK_KEY);
+                ops.opsForValue().get(CURRENT_MINING_TASK_VERSION_KEY);
+                return ops.exec();
+            }
+        });
+        String taskJson = results != null && !results.isEmpty() ? (String) results.get(0) : null;
+        long version = results != null && results.size() > 1 ? parseVersion((String) results.get(1)) : 0L;
+
+        MiningTask task = null;
+        if (taskJson != null && !taskJson.isEmpty()) {
+            try {
+                task = objectMapper.readValue(taskJson, MiningTask.class);
+            } catch (JsonProcessingException e) {
+                System.err.println("CurrentMiningTaskService: Error al deserializar MiningTask desde Redis: " + e.getMessage());
+                clearCurrentTask();
+                return null;
+            }
+        }
+        if (invalidations.get() == observedInvalidations) {
+            cached = new CachedTask(version, task, System.currentTimeMillis());
+        }
+        return task;
+    }
+
+    // SET (o DEL si taskJson es null) + INCR de la versión en una transacción MULTI/EXEC.
+    private long writeAndBumpVersion(String taskJson) {
+        List<Object> results = redisTemplate.execute(new SessionCallback<>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> List<Object> execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ops.multi();
+                if (taskJson != null) {
+                    ops.opsForValue().set(CURRENT_MINING_TASK_KEY, taskJson);
+                } else {
+                    ops.delete(CURRENT_MINING_TASK_KEY);
+                }
+                ops.opsForValue().increment(CURRENT_MINING_TASK_VERSION_KEY);
+                return ops.exec();
+            }
+        });
+        Object version = results != null && !results.isEmpty() ? results.get(results.size() - 1) : null;
+        return version instanceof Long v ? v : 0L;
+    }
+
+    private long readVersion() {
+        return parseVersion(redisTemplate.opsForValue().get(CURRENT_MINING_TASK_VERSION_KEY));
+    }
+
+    private void publishInvalidation(long version) {
+        redisTemplate.convertAndSend(INVALIDATION_CHANNEL, instanceId + ":" + version);
+    }
+
+    private static MiningTask copy(MiningTask task) {
+        if (task == null) {
+            return null;
+        }
+        return new MiningTask(task.getEvent(), task.getChallenge(), task.getTarget(), task.getBlock(), task.getRetries(),
+                task.getPublishedAt(), task.getDeadline(), task.getContentHash(), task.getTransactionCount());
+    }
+
+    private static long parseVersion(String value) {
+        if (value == null) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+}
@@ -1,60 +1,186 @@
 package com.blockchain.coordinator.services;
 
+import com.blockchain.coordinator.crypto.Md5Hash;
+import com.blockchain.coordinator.crypto.MiningTarget;
+import com.blockchain.coordinator.difficulty.DifficultyRetargeter;
+import com.blockchain.coordinator.dtos.DifficultyStats;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+
+// Dificultad del sistema en bits de trabajo (ver MiningTarget): se publica como target de 128 bits y, para
+// los mineros que sólo entienden prefijos, como el prefijo de ceros que alcanza para cumplirlo. Con
+// retarget-enabled se reajusta en los dos sentidos después de cada bloque resuelto o tarea vencida (ver
+// DifficultyRetargeter) en cualquier proporción; si no, sólo baja 4 bits (un dígito) cuando vence una tarea,
+// como antes. Los tiempos de cada bloque quedan en block_solve_times y el estado del estimador en
+// difficulty_estimator, así otra réplica o un reinicio siguen desde ahí.
 @Service
 public class DifficultyService {
 
     private final RedisTemplate<String, String> redisTemplate;
 
     private static final String CURRENT_SYSTEM_CHALLENGE_KEY = "current_system_challenge";
+    private static final String CURRENT_SYSTEM_DIFFICULTY_BITS_KEY = "current_system_difficulty_bits";
+    private static final String SOLVE_TIMES_KEY = "block_solve_times";
+    private static final String ESTIMATOR_KEY = "difficulty_estimator";
     private final String defaultHashChallenge;
+    private final boolean retargetEnabled;
+    private final DifficultyRetargeter retargeter;
+
+    // Estado publicado junto: bits, target y prefijo siempre corresponden a la misma dificultad.
+    private record Difficulty(double bits, Md5Hash target, String challenge) {
+        private static Difficulty ofBits(double bits) {
+            double clamped = Math.max(0, Math.min(MiningTarget.MAX_BITS, bits));
+            Md5Hash target = MiningTarget.fromBits(clamped);
+            return new Difficulty(clamped, target, MiningTarget.prefixFor(target));
+        }
+    }
 
-    private String currentSystemChallenge;
+    private volatile Difficulty current;
 
     public DifficultyService(
             RedisTemplate<String, String> redisTemplate,
-            @Value("${blockchain.mining.default-hash-challenge}") String defaultHashChallenge) {
+            @Value("${blockchain.mining.default-hash-challenge}") String defaultHashChallenge,
+            @Value("${blockchain.difficulty.retarget-enabled:true}") boolean retargetEnabled,
+            @Value("${blockchain.difficulty.target-block-interval-ms:10000}") long targetBlockIntervalMillis,
+            @Value("${blockchain.difficulty.ema-alpha:0.2}") double emaAlpha,
+            @Value("${blockchain.difficulty.max-step-bits:4}") double maxStepBits,
+            @Value("${blockchain.difficulty.min-samples:3}") int minSamples) {
         this.redisTemplate = redisTemplate;
         this.defaultHashChallenge = defaultHashChallenge;
+        this.retargetEnabled = retargetEnabled;
+        this.retargeter = new DifficultyRetargeter(targetBlockIntervalMillis, emaAlpha, maxStepBits, minSamples);
     }
 
-    public void loadCurrentSystemChallenge() {
+    // Bits de la dificultad con que se publicó una tarea; las tareas sin target usan su prefijo.
+    public static double bitsOf(String challenge, String target) {
+        if (Md5Hash.isHex(target)) {
+            return MiningTarget.bits(Md5Hash.fromHex(target));
+        }
+        return challenge != null ? 4.0 * challenge.length() : 0;
+    }
+
+    public synchronized void loadCurrentSystemChallenge() {
+        String loadedBits = redisTemplate.opsForValue().get(CURRENT_SYSTEM_DIFFICULTY_BITS_KEY);
         String loadedChallenge = redisTemplate.opsForValue().get(CURRENT_SYSTEM_CHALLENGE_KEY);
-        if (loadedChallenge != null && !loadedChallenge.isEmpty()) {
-            this.currentSystemChallenge = loadedChallenge;
-            System.out.println("DifficultyService: Dificultad del sistema cargada desde Redis: " + currentSystemChallenge);
+        if (loadedBits != null && !loadedBits.isEmpty()) {
+            this.current = Difficulty.ofBits(Double.parseDouble(loadedBits));
+            System.out.println("DifficultyService: Dificultad del sistema cargada desde Redis: " + describe(current));
+        } else if (loadedChallenge != null && !loadedChallenge.isEmpty()) {
+            // Dificultad guardada antes del target numérico: se toma la longitud del prefijo.
+            this.current = Difficulty.ofBits(4.0 * loadedChallenge.length());
+            saveCurrentDifficulty();
+            System.out.println("DifficultyService: Dificultad del sistema cargada desde el challenge en Redis: " + describe(current));
         } else {
-            this.currentSystemChallenge = defaultHashChallenge;
-            saveCurrentSystemChallenge();
+            this.current = Difficulty.ofBits(4.0 * defaultHashChallenge.length());
+            saveCurrentDifficulty();
             System.out.println("DifficultyService: No se encontró dificultad del sistema en Redis. Usando por defecto: " + defaultHashChallenge);
         }
+        Map<Object, Object> estimator = redisTemplate.opsForHash().entries(ESTIMATOR_KEY);
+        if (!estimator.isEmpty()) {
+            try {
+                retargeter.restore(Double.parseDouble((String) estimator.get("averageSolved")),
+                        Double.parseDouble((String) estimator.get("averageMillisPerWork")),
+                        Double.parseDouble((String) estimator.get("averageMillis")),
+                        Long.parseLong((String) estimator.get("samples")));
+                System.out.println("DifficultyService: Estimador de hashrate cargado desde Redis (" + retargeter.getSamples() + " muestras).");
+            } catch (RuntimeException e) {
+                System.err.println("DifficultyService: Estado del estimador inválido en Redis, se empieza de cero: " + e.getMessage());
+            }
+        }
     }
 
-    private void saveCurrentSystemChallenge() {
-        redisTemplate.opsForValue().set(CURRENT_SYSTEM_CHALLENGE_KEY, this.currentSystemChallenge);
-        System.out.println("DifficultyService: Dificultad del sistema guardada en Redis: " + this.currentSystemChallenge);
+    private void saveCurrentDifficulty() {
+        redisTemplate.opsForValue().set(CURRENT_SYSTEM_DIFFICULTY_BITS_KEY, Double.toString(current.bits()));
+        redisTemplate.opsForValue().set(CURRENT_SYSTEM_CHALLENGE_KEY, current.challenge());
+        System.out.println("DifficultyService: Dificultad del sistema guardada en Redis: " + describe(current));
     }
 
-    public void setCurrentChallenge(String newChallenge) {
-        this.currentSystemChallenge = newChallenge;
-        saveCurrentSystemChallenge();
-        System.out.println("DifficultyService: Dificultad del sistema establecida: " + newChallenge);
+    // Fija la dificultad de un prefijo de ceros de esa longitud.
+    public synchronized void setCurrentChallenge(String newChallenge) {
+        setDifficultyBits(4.0 * newChallenge.length());
     }
 
-    public void decrementChallenge() {
-        if (currentSystemChallenge.length() > 0) {
-            this.currentSystemChallenge = currentSystemChallenge.substring(0, currentSystemChallenge.length() - 1);
-            saveCurrentSystemChallenge();
-            System.out.println("DifficultyService: Dificultad del sistema decrementada. Nuevo challenge: " + currentSystemChallenge);
+    public synchronized void setDifficultyBits(double bits) {
+        this.current = Difficulty.ofBits(bits);
+        saveCurrentDifficulty();
+        System.out.println("DifficultyService: Dificultad del sistema establecida: " + describe(current));
+    }
+
+    public synchronized void decrementChallenge() {
+        if (current.bits() > 0) {
+            this.current = Difficulty.ofBits(current.bits() - 4);
+            saveCurrentDifficulty();
+            System.out.println("DifficultyService: Dificultad del sistema decrementada. Nuevo challenge: " + describe(current));
         } else {
             System.out.println("DifficultyService: No se puede decrementar más la dificultad. Ya no hay ceros en el challenge.");
         }
     }
 
+    // Bloque resuelto solveMillis después de publicarse con difficultyBits bits.
+    public synchronized void recordSolvedBlock(String blockHash, double difficultyBits, long solveMillis) {
+        recordSample(blockHash, difficultyBits, solveMillis, true);
+        if (retargetEnabled) {
+            retarget();
+        }
+    }
+
+    // Tarea vencida sin solución: su tiempo es una cota inferior del que habría tardado.
+    public synchronized void recordExpiredTask(String blockHash, double difficultyBits, long elapsedMillis) {
+        recordSample(blockHash, difficultyBits, elapsedMillis, false);
+        if (retargetEnabled && retargeter.isWarm()) {
+            retarget();
+        } else {
+            decrementChallenge();
+        }
+    }
+
+    private void recordSample(String blockHash, double difficultyBits, long millis, boolean solved) {
+        if (millis <= 0) {
+            return;
+        }
+        retargeter.record(difficultyBits, millis, solved);
+        redisTemplate.opsForHash().put(SOLVE_TIMES_KEY, blockHash, (solved ? "solved:" : "expired:") + millis + ":" + difficultyBits);
+        redisTemplate.opsForHash().putAll(ESTIMATOR_KEY, Map.of(
+                "averageSolved", Double.toString(retargeter.getAverageSolved()),
+                "averageMillisPerWork", Double.toString(retargeter.getAverageMillisPerWork()),
+                "averageMillis", Double.toString(retargeter.getAverageMillis()),
+                "samples", Long.toString(retargeter.getSamples())));
+    }
+
+    private void retarget() {
+        double next = retargeter.nextBits(current.bits());
+        // Cambios menores a una centésima de bit (menos de 0,7% de trabajo) no se publican.
+        if (Math.abs(next - current.bits()) >= 0.01) {
+            System.out.println("DifficultyService: Hashrate estimado " + Math.round(retargeter.hashrate()) + " H/s, intervalo promedio "
+                    + Math.round(retargeter.getAverageMillis()) + " ms. Reajustando la dificultad a " + String.format("%.2f", next) + " bits.");
+            setDifficultyBits(next);
+        }
+    }
+
+    private static String describe(Difficulty difficulty) {
+        return String.format("%.2f bits (prefijo %s, target %s)", difficulty.bits(), difficulty.challenge(), difficulty.target().toHex());
+    }
+
+    public synchronized DifficultyStats getStats() {
+        Difficulty difficulty = current;
+        return new DifficultyStats(difficulty.challenge(), difficulty.target().toHex(), difficulty.bits(), retargetEnabled,
+                retargeter.getTargetIntervalMillis(), retargeter.getSamples(), retargeter.getAverageMillis(),
+                retargeter.hashrate(), retargeter.hashrate() > 0 ? retargeter.desiredBits() : 0.0);
+    }
+
+    // Prefijo compatible con los mineros que no leen el target.
     public String getCurrentChallenge() {
-        return this.currentSystemChallenge;
+        return current.challenge();
+    }
+
+    public Md5Hash getCurrentTarget() {
+        return current.target();
+    }
+
+    public double getCurrentDifficultyBits() {
+        return current.bits();
     }
-}
\ No newline at end of file
+}
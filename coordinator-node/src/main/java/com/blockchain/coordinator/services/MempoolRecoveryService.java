@@ -0,0 +1,385 @@
+package com.blockchain.coordinator.services;
+
+import com.blockchain.coordinator.codec.BlockCodec;
+import com.blockchain.coordinator.dtos.BlockHeader;
+import com.blockchain.coordinator.dtos.MiningTask;
+import com.blockchain.coordinator.dtos.RecoveryStatus;
+import com.blockchain.coordinator.models.Transaction;
+import com.blockchain.coordinator.repositories.BlockRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.DataType;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Reconstruye el mempool desde Redis al arrancar el coordinador. Primero junta los ids de las transacciones
+// de los últimos recent-blocks bloques (leídos del repositorio, sin pasar por el caché de bloques) y de la
+// tarea de minería actual. Después un SCAN de "transactions:*" reparte las claves en lotes a varios hilos,
+// que las leen con un GET en pipeline por lote (transacciones en formato binario de BlockCodec; las
+// guardadas con el formato anterior, como hash, se leen de a una). Se descartan las que ya están en esos
+// bloques y el resto se agrega al mempool en orden de timestamp. Mientras tanto el scheduler no publica tareas.
+// Alcanza con una ventana fija de bloques porque al confirmar un bloque se borran las claves de sus
+// transacciones (TransactionPersister.deletePersisted); la ventana cubre las que quedaron por una caída o un
+// error de Redis entre el bloque y el borrado. Las claves con el formato anterior
+// ("transactions:{timestamp}:{sender}", sin id) nunca se borraban: de ésas sólo se restauran las que no son
+// anteriores al primer bloque de la ventana.
+// timeout-ms acota las dos etapas. Si se supera leyendo los bloques no se restaura nada (las transacciones
+// siguen en Redis para el próximo arranque); si se supera leyendo claves se restaura lo leído hasta ese
+// momento. En los dos casos el estado queda en TIMED_OUT.
+@Service
+public class MempoolRecoveryService {
+
+    public enum State {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        TIMED_OUT,
+        FAILED,
+        DISABLED
+    }
+
+    private static final String TRANSACTION_KEY_PATTERN = "transactions:*";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisTemplate<String, byte[]> binaryRedisTemplate;
+    private final BlockCodec blockCodec;
+    private final TransactionPoolService transactionPoolService;
+    private final BlockRepository blockRepository;
+    private final CurrentMiningTaskService currentMiningTaskService;
+    private final ObjectMapper objectMapper;
+
+    private final boolean enabled;
+    private final int scanCount;
+    private final int batchSize;
+    private final int parallelism;
+    private final int recentBlocks;
+    private final long timeoutMillis;
+
+    private volatile State state = State.PENDING;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private final AtomicLong keysScanned = new AtomicLong();
+    private final AtomicLong transactionsLoaded = new AtomicLong();
+    private final AtomicLong unreadable = new AtomicLong();
+    private final AtomicLong blocksChecked = new AtomicLong();
+    private final AtomicLong alreadyIncluded = new AtomicLong();
+    private final AtomicLong skippedLegacy = new AtomicLong();
+    private final AtomicLong recovered = new AtomicLong();
+
+    public MempoolRecoveryService(
+            RedisTemplate<String, String> redisTemplate,
+            RedisTemplate<String, byte[]> binaryRedisTemplate,
+            BlockCodec blockCodec,
+            TransactionPoolService transactionPoolService,
+            BlockRepository blockRepository,
+            CurrentMiningTaskService currentMiningTaskService,
+            ObjectMapper objectMapper,
+            @Value("${blockchain.transactions.recovery.enabled:true}") boolean enabled,
+            @Value("${blockchain.transactions.recovery.scan-count:10000}") int scanCount,
+            @Value("${blockchain.transactions.recovery.batch-size:1000}") int batchSize,
+            @Value("${blockchain.transactions.recovery.parallelism:4}") int parallelism,
+            @Value("${blockchain.transactions.recovery.recent-blocks:1000}") int recentBlocks,
+            @Value("${blockchain.transactions.recovery.timeout-ms:60000}") long timeoutMillis) {
+        this.redisTemplate = redisTemplate;
+        this.binaryRedisTemplate = binaryRedisTemplate;
+        this.blockCodec = blockCodec;
+        this.transactionPoolService = transactionPoolService;
+        this.blockRepository = blockRepository;
+        this.currentMiningTaskService = currentMiningTaskService;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.scanCount = Math.max(1, scanCount);
+        this.batchSize = Math.max(1, batchSize);
+        this.parallelism = Math.max(1, parallelism);
+        this.recentBlocks = Math.max(0, recentBlocks);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    // Lanza la recuperación en segundo plano; el scheduler espera a isFinished() antes de publicar.
+    public void start() {
+        if (!enabled) {
+            state = State.DISABLED;
+            System.out.println("MempoolRecoveryService: Recuperación del mempool deshabilitada.");
+            return;
+        }
+        Thread worker = new Thread(this::recover, "mempool-recovery");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public boolean isFinished() {
+        return state != State.PENDING && state != State.RUNNING;
+    }
+
+    private void recover() {
+        startedAt = System.currentTimeMillis();
+        state = State.RUNNING;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        System.out.println("MempoolRecoveryService: Recuperando transacciones pendientes desde Redis...");
+
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, r -> new Thread(r, "mempool-recovery-worker"));
+        try {
+            RecentBlocks recent = recentBlocks(workers, deadline);
+            if (recent == null) {
+                state = State.TIMED_OUT;
+                System.err.println("MempoolRecoveryService: No se terminaron de leer los últimos bloques antes del timeout; las transacciones quedan en Redis sin restaurar.");
+            } else {
+                ConcurrentLinkedQueue<Loaded> loaded = new ConcurrentLinkedQueue<>();
+                boolean complete = loadTransactions(workers, loaded, deadline);
+
+                List<Transaction> pending = new ArrayList<>(loaded.size());
+                for (Loaded entry : loaded) {
+                    Transaction transaction = entry.transaction();
+                    if (recent.transactionIds().contains(transaction.getId())) {
+                        alreadyIncluded.incrementAndGet();
+                    } else if (entry.legacy() && transaction.getTimestamp() < recent.since()) {
+                        skippedLegacy.incrementAndGet();
+                    } else {
+                        pending.add(transaction);
+                    }
+                }
+                pending.sort(Comparator.comparingLong(Transaction::getTimestamp));
+                recovered.set(transactionPoolService.restoreTransactions(pending));
+
+                state = complete ? State.COMPLETED : State.TIMED_OUT;
+            }
+        } catch (Exception e) {
+            state = State.FAILED;
+            System.err.println("MempoolRecoveryService: Error al recuperar el mempool: " + e.getMessage());
+        } finally {
+            workers.shutdownNow();
+            finishedAt = System.currentTimeMillis();
+        }
+        System.out.println("MempoolRecoveryService: Recuperación " + state + ": " + getStatus());
+        // Durante la recuperación el scheduler no publica: se vuelve a avisar si alcanza para un bloque.
+        transactionPoolService.resignalIfReady();
+    }
+
+    // SCAN en el hilo de recuperación; cada lote de claves se lee en pipeline en un hilo del pool.
+    // Devuelve false si se cortó por timeout.
+    private boolean loadTransactions(ExecutorService workers, ConcurrentLinkedQueue<Loaded> loaded, long deadline) throws Exception {
+        // Acota los lotes en vuelo para no acumular claves en memoria si Redis responde lento.
+        Semaphore inFlight = new Semaphore(parallelism * 2);
+        List<Future<?>> batches = new ArrayList<>();
+        ScanOptions options = ScanOptions.scanOptions().match(TRANSACTION_KEY_PATTERN).count(scanCount).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            List<String> batch = new ArrayList<>(batchSize);
+            while (cursor.hasNext()) {
+                if (System.nanoTime() >= deadline) {
+                    return false;
+                }
+                batch.add(cursor.next());
+                keysScanned.incrementAndGet();
+                if (batch.size() == batchSize) {
+                    if (!inFlight.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                        return false;
+                    }
+                    batches.add(submitBatch(workers, inFlight, batch, loaded));
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                if (!inFlight.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    return false;
+                }
+                batches.add(submitBatch(workers, inFlight, batch, loaded));
+            }
+        }
+        return awaitAll(batches, deadline);
+    }
+
+    // El permiso de inFlight ya fue tomado por quien llama y se libera al terminar el lote.
+    private Future<?> submitBatch(ExecutorService workers, Semaphore inFlight, List<String> keys,
+                                  ConcurrentLinkedQueue<Loaded> loaded) {
+        return workers.submit(() -> {
+            try {
+                for (Loaded transaction : fetchBatch(keys)) {
+                    loaded.add(transaction);
+                    transactionsLoaded.incrementAndGet();
+                }
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private List<Loaded> fetchBatch(List<String> keys) {
+        List<Object> results;
+        try {
+            results = binaryRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String key : keys) {
+                    connection.stringCommands().get(key.getBytes(StandardCharsets.UTF_8));
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            // Algún valor no es un string (transacciones guardadas como hash con el formato anterior): se leen de a una.
+            return fetchOneByOne(keys);
+        }
+        List<Loaded> transactions = new ArrayList<>(keys.size());
+        for (int i = 0; i < results.size(); i++) {
+            Transaction transaction = results.get(i) instanceof byte[] value ? decode(value) : null;
+            if (transaction != null) {
+                transactions.add(Loaded.of(keys.get(i), transaction));
+            } else {
+                unreadable.incrementAndGet();
+            }
+        }
+        return transactions;
+    }
+
+    private List<Loaded> fetchOneByOne(List<String> keys) {
+        List<Loaded> transactions = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            Transaction transaction = null;
+            try {
+                DataType type = redisTemplate.type(key);
+                if (type == DataType.HASH) {
+                    transaction = fromHash(redisTemplate.opsForHash().entries(key));
+                } else if (type == DataType.STRING) {
+                    transaction = decode(binaryRedisTemplate.opsForValue().get(key));
+                }
+            } catch (RuntimeException e) {
+                System.err.println("MempoolRecoveryService: No se pudo leer la clave " + key + ": " + e.getMessage());
+            }
+            if (transaction != null) {
+                transactions.add(Loaded.of(key, transaction));
+            } else {
+                unreadable.incrementAndGet();
+            }
+        }
+        return transactions;
+    }
+
+    // Formato binario actual o JSON (lo que guardaba el formato anterior cuando no podía armar el hash).
+    private Transaction decode(byte[] value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            Transaction transaction = BlockCodec.isEncodedTransaction(value)
+                    ? blockCodec.decodeTransaction(value)
+                    : objectMapper.readValue(value, Transaction.class);
+            return transaction.getId() != null ? transaction : null;
+        } catch (IllegalArgumentException | IOException e) {
+            return null;
+        }
+    }
+
+    // Campos del formato anterior (hash con id, sender, receiver, amount y timestamp como texto).
+    static Transaction fromHash(Map<Object, Object> fields) {
+        Object id = fields.get("id");
+        if (id == null) {
+            return null;
+        }
+        try {
+            Transaction transaction = new Transaction();
+            transaction.setId(id.toString());
+            transaction.setSender(fields.get("sender") != null ? fields.get("sender").toString() : null);
+            transaction.setReceiver(fields.get("receiver") != null ? fields.get("receiver").toString() : null);
+            transaction.setAmount(fields.get("amount") != null ? Double.parseDouble(fields.get("amount").toString()) : 0);
+            transaction.setTimestamp(fields.get("timestamp") != null ? Long.parseLong(fields.get("timestamp").toString()) : 0);
+            return transaction;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Ids de las transacciones de los últimos recent-blocks bloques y de la tarea de minería actual, junto con
+    // el timestamp del primer bloque de la ventana (Long.MIN_VALUE si la ventana llega al génesis). Los
+    // bloques se leen codificados del repositorio y sólo se decodifican los ids. Devuelve null si no terminó
+    // antes del deadline.
+    private RecentBlocks recentBlocks(ExecutorService workers, long deadline) throws Exception {
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        MiningTask currentTask = currentMiningTaskService.getCurrentTask();
+        if (currentTask != null && currentTask.getBlock().getData() != null) {
+            currentTask.getBlock().getData().forEach(transaction -> ids.add(transaction.getId()));
+        }
+
+        long tip = blockRepository.findMaxHeight();
+        if (tip < 0 || recentBlocks == 0) {
+            return new RecentBlocks(ids, tip < 0 ? Long.MIN_VALUE : Long.MAX_VALUE);
+        }
+        long from = Math.max(0, tip - recentBlocks + 1);
+        List<String> hashes = blockRepository.findHashesFromHeight(from, (int) (tip - from + 1));
+        long since = from == 0 || hashes.isEmpty() ? Long.MIN_VALUE
+                : blockRepository.findHeadersById(List.of(hashes.get(0))).stream()
+                        .mapToLong(BlockHeader::getTimestamp).findFirst().orElse(Long.MIN_VALUE);
+
+        List<Future<?>> fetches = new ArrayList<>();
+        int slice = Math.max(1, Math.min(batchSize, (hashes.size() + parallelism - 1) / parallelism));
+        for (int start = 0; start < hashes.size(); start += slice) {
+            List<String> sliceHashes = hashes.subList(start, Math.min(hashes.size(), start + slice));
+            fetches.add(workers.submit(() -> {
+                for (byte[] encoded : blockRepository.findEncodedById(sliceHashes)) {
+                    if (encoded != null) {
+                        ids.addAll(blockCodec.decodeTransactionIds(encoded));
+                    }
+                    blocksChecked.incrementAndGet();
+                }
+            }));
+        }
+        return awaitAll(fetches, deadline) ? new RecentBlocks(ids, since) : null;
+    }
+
+    // Devuelve false si se llegó al deadline antes de que terminaran todos.
+    private static boolean awaitAll(List<Future<?>> futures, long deadline) throws Exception {
+        for (Future<?> future : futures) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            try {
+                future.get(remaining, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public RecoveryStatus getStatus() {
+        long end = finishedAt != 0 ? finishedAt : System.currentTimeMillis();
+        return new RecoveryStatus(
+                state.name(),
+                keysScanned.get(),
+                transactionsLoaded.get(),
+                unreadable.get(),
+                blocksChecked.get(),
+                alreadyIncluded.get(),
+                skippedLegacy.get(),
+                recovered.get(),
+                startedAt != 0 ? end - startedAt : 0);
+    }
+
+    private record RecentBlocks(Set<String> transactionIds, long since) {
+    }
+
+    // legacy: la clave no tiene el formato actual (TransactionPersister.redisKey), así que no se borró al
+    // confirmar la transacción.
+    private record Loaded(Transaction transaction, boolean legacy) {
+        static Loaded of(String key, Transaction transaction) {
+            return new Loaded(transaction, !key.equals(TransactionPersister.redisKey(transaction)));
+        }
+    }
+}
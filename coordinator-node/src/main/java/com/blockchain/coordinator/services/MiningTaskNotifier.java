@@ -1,6 +1,7 @@
 package com.blockchain.coordinator.services;
 
 import com.blockchain.coordinator.config.RabbitMQConfig;
+import com.blockchain.coordinator.crypto.BlockContentSerializer;
 import com.blockchain.coordinator.dtos.MiningTaskStatus;
 import com.blockchain.coordinator.dtos.MiningTask;
 import com.blockchain.coordinator.models.Block;
@@ -9,20 +10,27 @@ import org.springframework.amqp.core.AmqpTemplate;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
 public class MiningTaskNotifier {
 
     private final AmqpTemplate rabbitTemplate;
-    private final MessageConverter jsonMessageConverter;
+    private final MessageConverter messageConverter;
+    private final BlockContentSerializer blockContentSerializer;
+    private final boolean headerOnlyTasks;
 
-    public MiningTaskNotifier(AmqpTemplate rabbitTemplate, MessageConverter jsonMessageConverter) {
+    public MiningTaskNotifier(AmqpTemplate rabbitTemplate, MessageConverter messageConverter,
+                              BlockContentSerializer blockContentSerializer,
+                              @Value("${blockchain.mining.header-only-tasks:true}") boolean headerOnlyTasks) {
         this.rabbitTemplate = rabbitTemplate;
-        this.jsonMessageConverter = jsonMessageConverter;
+        this.messageConverter = messageConverter;
+        this.blockContentSerializer = blockContentSerializer;
+        this.headerOnlyTasks = headerOnlyTasks;
     }
 
-    public void notifyNewMiningTask(Block blockCandidate, String hashChallenge, int retries) {
+    public void notifyNewMiningTask(Block blockCandidate, String hashChallenge, String target, int retries) {
         if (blockCandidate == null) {
             System.out.println("Error al notificar la tarea, el bloque candidato es nulo.");
             return;
@@ -30,14 +38,17 @@ public class MiningTaskNotifier {
 
         MiningTask task = new MiningTask();
         task.setChallenge(hashChallenge);
-        task.setBlock(blockCandidate);
+        task.setTarget(target);
+        task.setBlock(taskBlock(blockCandidate));
         task.setRetries(retries);
         task.setEvent(ExchangeEvent.NEW_CANDIDATE_BLOCK);
+        task.setContentHash(blockContentSerializer.contentHash(blockCandidate).toHex());
+        task.setTransactionCount(blockCandidate.getData() != null ? blockCandidate.getData().size() : 0);
 
         MessageProperties properties = new MessageProperties();
         properties.setDeliveryMode(MessageProperties.DEFAULT_DELIVERY_MODE.PERSISTENT);
 
-        Message message = jsonMessageConverter.toMessage(task, properties);
+        Message message = messageConverter.toMessage(task, properties);
 
         rabbitTemplate.send(
                 RabbitMQConfig.BLOCKCHAIN_EXCHANGE,
@@ -46,10 +57,25 @@ public class MiningTaskNotifier {
         );
         System.out.println(
                 "MiningTaskNotifier: Tarea de minería publicada para el bloque con index: " + blockCandidate.getIndex() +
-                        " (hash ID: " + blockCandidate.getHash() + ", reintentos: " + retries + ", challenge: " + hashChallenge+ " ) al exchange '" + RabbitMQConfig.BLOCKCHAIN_EXCHANGE + "'."
+                        " (hash ID: " + blockCandidate.getHash() + ", reintentos: " + retries + ", challenge: " + hashChallenge + ", target: " + target
+                        + ", transacciones: " + task.getTransactionCount() + (task.getBlock().getData() == null ? ", sólo cabecera" : "")
+                        + ", " + message.getBody().length + " bytes) al exchange '" + RabbitMQConfig.BLOCKCHAIN_EXCHANGE + "'."
         );
     }
 
+    // Bloque que viaja en la tarea: en bloques con raíz de Merkle el hash de contenido no depende de data, así
+    // que se publica sólo la cabecera (el mensaje va a la cola de cada minero) y las transacciones quedan en
+    // GET /api/blocks/candidates/{hash}/transactions. Los bloques legacy (versión 1) necesitan data para
+    // calcular el hash y se siguen publicando completos.
+    private Block taskBlock(Block blockCandidate) {
+        if (!headerOnlyTasks || !blockCandidate.usesMerkleRoot()) {
+            return blockCandidate;
+        }
+        return new Block(blockCandidate.getHash(), blockCandidate.getPrevious_hash(), blockCandidate.getNonce(),
+                blockCandidate.getTimestamp(), null, blockCandidate.getIndex(), blockCandidate.getVersion(),
+                blockCandidate.getMerkle_root());
+    }
+
     public void notifySolvedCandidateBlock(String preliminaryHash, String minerId) {
         MiningTaskStatus solvedTaskStatus = new MiningTaskStatus(
                 ExchangeEvent.RESOLVED_CANDIDATE_BLOCK,
@@ -60,7 +86,7 @@ public class MiningTaskNotifier {
         MessageProperties properties = new MessageProperties();
         properties.setDeliveryMode(MessageProperties.DEFAULT_DELIVERY_MODE.PERSISTENT);
 
-        Message message = jsonMessageConverter.toMessage(solvedTaskStatus, properties);
+        Message message = messageConverter.toMessage(solvedTaskStatus, properties);
         rabbitTemplate.send(RabbitMQConfig.BLOCKCHAIN_EXCHANGE, "", message);
         System.out.println("MiningTaskNotifier: Notificado que el bloque: " + preliminaryHash + " fue resuelto por " + minerId + ". Evento RESOLVED_CANDIDATE_BLOCK publicado.");
     }
@@ -75,7 +101,7 @@ public class MiningTaskNotifier {
         MessageProperties properties = new MessageProperties();
         properties.setDeliveryMode(MessageProperties.DEFAULT_DELIVERY_MODE.PERSISTENT);
 
-        Message message = jsonMessageConverter.toMessage(droppedTaskStatus, properties);
+        Message message = messageConverter.toMessage(droppedTaskStatus, properties);
         rabbitTemplate.send(RabbitMQConfig.BLOCKCHAIN_EXCHANGE, "", message);
         System.out.println("MiningTaskNotifier: Notificado que el bloque: " + preliminaryHash + " fue descartado. Evento CANDIDATE_BLOCK_DROPPED publicado.");
     }
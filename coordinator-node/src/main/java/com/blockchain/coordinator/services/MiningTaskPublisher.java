@@ -17,12 +17,12 @@ public class MiningTaskPublisher {
 
     private final AmqpTemplate rabbitTemplate;
     private MiningTask task;
-    private final MessageConverter jsonMessageConverter;
+    private final MessageConverter messageConverter;
     private final AmqpAdmin amqpAdmin;
 
-    public MiningTaskPublisher(AmqpTemplate rabbitTemplate, MessageConverter jsonMessageConverter, AmqpAdmin amqpAdmin) {
+    public MiningTaskPublisher(AmqpTemplate rabbitTemplate, MessageConverter messageConverter, AmqpAdmin amqpAdmin) {
         this.rabbitTemplate = rabbitTemplate;
-        this.jsonMessageConverter = jsonMessageConverter;
+        this.messageConverter = messageConverter;
         this.amqpAdmin = amqpAdmin;
     }
 
@@ -43,7 +43,7 @@ public class MiningTaskPublisher {
         properties.setDeliveryMode(MessageProperties.DEFAULT_DELIVERY_MODE.PERSISTENT);
 
         org.springframework.amqp.core.Message message =
-                jsonMessageConverter.toMessage(task, properties);
+                messageConverter.toMessage(task, properties);
 
         rabbitTemplate.send(
                 RabbitMQConfig.BLOCKCHAIN_EXCHANGE,
@@ -88,7 +88,7 @@ public class MiningTaskPublisher {
         MessageProperties properties = new MessageProperties();
         properties.setDeliveryMode(MessageProperties.DEFAULT_DELIVERY_MODE.PERSISTENT);
 
-        Message message = jsonMessageConverter.toMessage(solvedTask, properties);
+        Message message = messageConverter.toMessage(solvedTask, properties);
         rabbitTemplate.send(RabbitMQConfig.BLOCKCHAIN_EXCHANGE, "", message);
         System.out.println("Se notificó que el bloque: " + preliminaryHash + "  fue resuelto. Evento RESOLVED_CANDIDATE_BLOCK publicado.");
     }
@@ -104,7 +104,7 @@ public class MiningTaskPublisher {
         MessageProperties properties = new MessageProperties();
         properties.setDeliveryMode(MessageProperties.DEFAULT_DELIVERY_MODE.PERSISTENT);
 
-        Message message = jsonMessageConverter.toMessage(solvedTask, properties);
+        Message message = messageConverter.toMessage(solvedTask, properties);
         rabbitTemplate.send(RabbitMQConfig.BLOCKCHAIN_EXCHANGE, "", message);
 
         System.out.println("Se notificó que el bloque: " + preliminaryHash + "  fue dropeado. Evento CANDIDATE_BLOCK_DROPPED publicado.");
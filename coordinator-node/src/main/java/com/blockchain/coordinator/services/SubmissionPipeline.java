@@ -0,0 +1,237 @@
+package com.blockchain.coordinator.services;
+
+import com.blockchain.coordinator.crypto.Md5Hash;
+import com.blockchain.coordinator.crypto.MiningTarget;
+import com.blockchain.coordinator.dtos.MiningResult;
+import com.blockchain.coordinator.dtos.MiningTask;
+import com.blockchain.coordinator.dtos.SubmissionOutcome;
+import com.blockchain.coordinator.dtos.SubmissionStats;
+import com.blockchain.coordinator.events.BlockCommittedEvent;
+import com.blockchain.coordinator.models.Block;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Pipeline de envíos de soluciones de minería:
+//  1. Ingesta (hilo de la petición): descarta sin verificar los envíos de otro bloque, de una ronda ya
+//     resuelta, con nonce repetido o con un hash que ni siquiera cumple el target (o el prefijo del challenge).
+//     Un nonce cuenta como repetido mientras su envío se verifica o si ya fue aceptado; si resultó inválido
+//     (o falló) se libera para que el envío correcto del mismo nonce se pueda verificar.
+//  2. Verificación: los envíos que sobreviven se verifican en paralelo en hilos virtuales, acotados por
+//     queue-capacity; si la cola está llena se responde 503.
+//  3. Commit: un único hilo agrega el primer ganador a la cadena; los demás reciben 409 sin tocar Redis.
+//     Al terminar publica BlockCommittedEvent para que el scheduler publique la próxima tarea sin esperar al cron.
+@Service
+public class SubmissionPipeline {
+
+    private final BlockService blockService;
+    private final CurrentMiningTaskService currentMiningTaskService;
+    private final QueueAdminService queueAdminService;
+    private final MiningTaskNotifier miningTaskNotifier;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final int queueCapacity;
+    private final Semaphore verificationSlots;
+    private final ExecutorService verifiers = Executors.newVirtualThreadPerTaskExecutor();
+    private final ExecutorService committer = Executors.newSingleThreadExecutor(r -> new Thread(r, "block-committer"));
+    private final AtomicInteger pendingCommits = new AtomicInteger();
+
+    private volatile Round round = new Round("");
+
+    private final Map<SubmissionOutcome, LongAdder> outcomes = new EnumMap<>(SubmissionOutcome.class);
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    // Estado de la ronda del bloque candidato actual.
+    private static final class Round {
+        private final String blockId;
+        private final Set<Long> seenNonces = ConcurrentHashMap.newKeySet();
+        private final AtomicBoolean resolved = new AtomicBoolean();
+
+        private Round(String blockId) {
+            this.blockId = blockId;
+        }
+    }
+
+    public SubmissionPipeline(
+            BlockService blockService,
+            CurrentMiningTaskService currentMiningTaskService,
+            QueueAdminService queueAdminService,
+            MiningTaskNotifier miningTaskNotifier,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${blockchain.submissions.queue-capacity:1024}") int queueCapacity) {
+        this.blockService = blockService;
+        this.currentMiningTaskService = currentMiningTaskService;
+        this.queueAdminService = queueAdminService;
+        this.miningTaskNotifier = miningTaskNotifier;
+        this.eventPublisher = eventPublisher;
+        this.queueCapacity = queueCapacity;
+        this.verificationSlots = new Semaphore(queueCapacity);
+        for (SubmissionOutcome outcome : SubmissionOutcome.values()) {
+            outcomes.put(outcome, new LongAdder());
+        }
+    }
+
+    public CompletableFuture<SubmissionOutcome> submit(MiningResult result) {
+        long receivedAt = System.nanoTime();
+        MiningTask task = currentMiningTaskService.getCurrentTask();
+        if (task == null || result.getBlockId() == null || !task.getBlock().getHash().equals(result.getBlockId())) {
+            return CompletableFuture.completedFuture(record(SubmissionOutcome.STALE, receivedAt));
+        }
+        Round currentRound = roundFor(result.getBlockId());
+        SubmissionOutcome early = precheck(currentRound, task, result);
+        if (early != null) {
+            return CompletableFuture.completedFuture(record(early, receivedAt));
+        }
+        if (!verificationSlots.tryAcquire()) {
+            currentRound.seenNonces.remove(result.getNonce());
+            return CompletableFuture.completedFuture(record(SubmissionOutcome.OVERLOADED, receivedAt));
+        }
+
+        return CompletableFuture
+                .supplyAsync(() -> {
+                    try {
+                        return blockService.verifyMiningSolution(task, result.getNonce(), result.getHash());
+                    } finally {
+                        verificationSlots.release();
+                    }
+                }, verifiers)
+                .thenCompose(valid -> {
+                    if (valid) {
+                        return commit(currentRound, task, result);
+                    }
+                    // Un hash falso o equivocado no debe bloquear el nonce: el envío correcto se verifica igual.
+                    currentRound.seenNonces.remove(result.getNonce());
+                    return CompletableFuture.completedFuture(SubmissionOutcome.INVALID);
+                })
+                .exceptionally(e -> {
+                    System.err.println("SubmissionPipeline: Error procesando el envío para el bloque " + result.getBlockId() + ": " + e.getMessage());
+                    currentRound.seenNonces.remove(result.getNonce());
+                    return SubmissionOutcome.ERROR;
+                })
+                .thenApply(outcome -> record(outcome, receivedAt));
+    }
+
+    // Filtros baratos previos a la verificación. Devuelve null si el envío debe verificarse.
+    private SubmissionOutcome precheck(Round currentRound, MiningTask task, MiningResult result) {
+        if (currentRound.resolved.get()) {
+            return SubmissionOutcome.STALE;
+        }
+        if (!Md5Hash.isHex(result.getHash()) || !meetsDifficulty(task, result.getHash())) {
+            return SubmissionOutcome.INVALID;
+        }
+        if (!currentRound.seenNonces.add(result.getNonce())) {
+            return SubmissionOutcome.DUPLICATE;
+        }
+        return null;
+    }
+
+    private static boolean meetsDifficulty(MiningTask task, String hash) {
+        if (Md5Hash.isHex(task.getTarget())) {
+            return MiningTarget.meets(Md5Hash.fromHex(hash), Md5Hash.fromHex(task.getTarget()));
+        }
+        return hash.startsWith(task.getChallenge() != null ? task.getChallenge() : "");
+    }
+
+    private Round roundFor(String blockId) {
+        Round current = round;
+        if (current.blockId.equals(blockId)) {
+            return current;
+        }
+        synchronized (this) {
+            if (!round.blockId.equals(blockId)) {
+                round = new Round(blockId);
+            }
+            return round;
+        }
+    }
+
+    private CompletableFuture<SubmissionOutcome> commit(Round currentRound, MiningTask task, MiningResult result) {
+        pendingCommits.incrementAndGet();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                if (currentRound.resolved.get()) {
+                    return SubmissionOutcome.LOST;
+                }
+                // La tarea pudo ser descartada por el scheduler mientras se verificaba.
+                MiningTask activeTask = currentMiningTaskService.getCurrentTask();
+                if (activeTask == null || !activeTask.getBlock().getHash().equals(result.getBlockId())) {
+                    return SubmissionOutcome.STALE;
+                }
+                Optional<Block> addedBlock = blockService.commitMinedBlock(task, result.getNonce(), result.getHash(), result.getMinerId());
+                if (addedBlock.isEmpty()) {
+                    currentRound.resolved.set(true);
+                    return SubmissionOutcome.LOST;
+                }
+                currentRound.resolved.set(true);
+                Block solvedBlock = addedBlock.get();
+                System.out.println("Coordinador: ¡Bloque " + solvedBlock.getHash() + " añadido exitosamente a la blockchain por el minero " + result.getMinerId() + "!");
+                // El bloque ya está en la cadena: un error de aquí en adelante se registra pero no cambia la
+                // respuesta al minero ni impide que se publique la próxima tarea.
+                afterCommit("purgar la cola de bloques", queueAdminService::purgeBlocksQueue);
+                afterCommit("avisar a los mineros", () -> miningTaskNotifier.notifySolvedCandidateBlock(result.getBlockId(), result.getMinerId()));
+                afterCommit("descartar la tarea actual", currentMiningTaskService::clearCurrentTask);
+                afterCommit("publicar el evento de bloque confirmado", () -> eventPublisher.publishEvent(new BlockCommittedEvent(solvedBlock.getHash(),
+                        DifficultyService.bitsOf(task.getChallenge(), task.getTarget()),
+                        task.getPublishedAt(), System.currentTimeMillis())));
+                return SubmissionOutcome.ACCEPTED;
+            } finally {
+                pendingCommits.decrementAndGet();
+            }
+        }, committer);
+    }
+
+    private static void afterCommit(String step, Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            System.err.println("SubmissionPipeline: Error al " + step + " tras confirmar el bloque: " + e.getMessage());
+        }
+    }
+
+    private SubmissionOutcome record(SubmissionOutcome outcome, long receivedAt) {
+        long latency = System.nanoTime() - receivedAt;
+        outcomes.get(outcome).increment();
+        completed.increment();
+        totalLatencyNanos.add(latency);
+        maxLatencyNanos.accumulateAndGet(latency, Math::max);
+        return outcome;
+    }
+
+    public SubmissionStats getStats() {
+        Map<SubmissionOutcome, Long> counts = new EnumMap<>(SubmissionOutcome.class);
+        outcomes.forEach((outcome, count) -> counts.put(outcome, count.sum()));
+        long done = completed.sum();
+        double averageMillis = done == 0 ? 0 : totalLatencyNanos.sum() / (double) done / 1_000_000;
+        return new SubmissionStats(
+                queueCapacity - verificationSlots.availablePermits(),
+                queueCapacity,
+                pendingCommits.get(),
+                counts,
+                done,
+                averageMillis,
+                maxLatencyNanos.get() / 1_000_000.0);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        verifiers.shutdown();
+        committer.shutdown();
+    }
+}
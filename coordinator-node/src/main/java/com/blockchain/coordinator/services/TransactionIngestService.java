@@ -0,0 +1,119 @@
+package com.blockchain.coordinator.services;
+
+import com.blockchain.coordinator.dtos.TransactionAdmission;
+import com.blockchain.coordinator.dtos.TransactionIngestItem;
+import com.blockchain.coordinator.dtos.TransactionIngestSummary;
+import com.blockchain.coordinator.models.Transaction;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+// Carga masiva de transacciones. El cuerpo se lee de a una transacción (un arreglo JSON o NDJSON, una por
+// línea) sin materializarlo completo, y se admite en el pool por tandas de chunk-size. Mientras se lee la
+// tanda siguiente se espera la persistencia de la anterior, así no hay más de dos tandas en vuelo.
+@Service
+public class TransactionIngestService {
+
+    private final TransactionPoolService transactionPoolService;
+    private final ObjectReader transactionReader;
+    private final int chunkSize;
+
+    public TransactionIngestService(
+            TransactionPoolService transactionPoolService,
+            ObjectMapper objectMapper,
+            @Value("${blockchain.transactions.ingest.chunk-size:1000}") int chunkSize) {
+        this.transactionPoolService = transactionPoolService;
+        this.transactionReader = objectMapper.readerFor(Transaction.class);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    // Misma normalización que el alta individual: se asigna id y timestamp si no vienen.
+    public static void normalize(Transaction transaction) {
+        if (transaction.getId() == null || transaction.getId().isEmpty()) {
+            transaction.setId(UUID.randomUUID().toString());
+        }
+        if (transaction.getTimestamp() == 0) { // Si el timestamp no viene, se asigna el actual
+            transaction.setTimestamp(LocalDateTime.now().toEpochSecond(ZoneOffset.UTC));
+        }
+    }
+
+    public TransactionIngestSummary ingest(InputStream body) throws IOException {
+        List<TransactionIngestItem> items = new ArrayList<>();
+        List<Transaction> chunk = new ArrayList<>(chunkSize);
+        List<TransactionIngestItem> chunkItems = new ArrayList<>(chunkSize);
+        CompletableFuture<Void> inFlight = CompletableFuture.completedFuture(null);
+        String error = null;
+
+        try (MappingIterator<Transaction> iterator = transactionReader.readValues(body)) {
+            while (true) {
+                Transaction transaction;
+                try {
+                    if (!iterator.hasNextValue()) {
+                        break;
+                    }
+                    transaction = iterator.nextValue();
+                } catch (JsonParseException e) {
+                    // JSON mal formado: no se puede saber dónde empieza la siguiente transacción.
+                    error = "JSON mal formado en el elemento " + items.size() + ": " + e.getOriginalMessage();
+                    break;
+                } catch (JsonMappingException e) {
+                    // El elemento es JSON válido pero no es una transacción; se saltea y se sigue.
+                    items.add(new TransactionIngestItem(null, TransactionAdmission.INVALID));
+                    continue;
+                }
+                if (transaction == null) {
+                    items.add(new TransactionIngestItem(null, TransactionAdmission.INVALID));
+                    continue;
+                }
+                normalize(transaction);
+                TransactionIngestItem item = new TransactionIngestItem(transaction.getId(), null);
+                items.add(item);
+                chunkItems.add(item);
+                chunk.add(transaction);
+                if (chunk.size() == chunkSize) {
+                    CompletableFuture<Void> admitted = admit(chunk, chunkItems);
+                    inFlight.join();
+                    inFlight = admitted;
+                    chunk = new ArrayList<>(chunkSize);
+                    chunkItems = new ArrayList<>(chunkSize);
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            CompletableFuture<Void> admitted = admit(chunk, chunkItems);
+            inFlight.join();
+            inFlight = admitted;
+        }
+        inFlight.join();
+
+        Map<TransactionAdmission, Integer> counts = new EnumMap<>(TransactionAdmission.class);
+        for (TransactionIngestItem item : items) {
+            counts.merge(item.getStatus(), 1, Integer::sum);
+        }
+        System.out.println("TransactionIngestService: Carga masiva de " + items.size() + " transacciones: " + counts);
+        return new TransactionIngestSummary(items.size(), counts, items, error);
+    }
+
+    private CompletableFuture<Void> admit(List<Transaction> chunk, List<TransactionIngestItem> chunkItems) {
+        return transactionPoolService.addTransactions(chunk).thenAccept(admissions -> {
+            for (int i = 0; i < admissions.size(); i++) {
+                chunkItems.get(i).setStatus(admissions.get(i));
+            }
+        });
+    }
+}
@@ -0,0 +1,218 @@
+package com.blockchain.coordinator.services;
+
+import com.blockchain.coordinator.codec.BlockCodec;
+import com.blockchain.coordinator.dtos.PersistenceStats;
+import com.blockchain.coordinator.models.Transaction;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Persistencia write-behind de las transacciones aceptadas. Las transacciones se encolan en memoria y un
+// único hilo las escribe en Redis por lotes (un pipeline por lote) cuando se junta batch-size o pasa
+// flush-interval-ms desde la primera transacción del lote.
+// Garantías según el modo:
+//  - ACK_ON_FLUSH: el cliente recibe la respuesta recién cuando el lote que contiene su transacción quedó
+//    escrito en Redis; si la escritura falla, la transacción se rechaza.
+//  - ACK_ON_ENQUEUE: se responde al encolar. Si el proceso cae antes del flush (o Redis falla), las
+//    transacciones encoladas se pierden de Redis; quedan en el mempool mientras el proceso siga vivo.
+// Si la cola está llena se rechaza la transacción en lugar de bloquear el hilo de la petición.
+@Service
+public class TransactionPersister {
+
+    public enum AckMode {
+        ACK_ON_FLUSH,
+        ACK_ON_ENQUEUE
+    }
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final BlockCodec blockCodec;
+    private final AckMode ackMode;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final int queueCapacity;
+
+    private final BlockingQueue<Pending> queue;
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder persisted = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final AtomicLong lastFlushMicros = new AtomicLong();
+
+    private record Pending(Transaction transaction, CompletableFuture<Void> flushed) {
+    }
+
+    public TransactionPersister(
+            RedisTemplate<String, String> redisTemplate,
+            BlockCodec blockCodec,
+            @Value("${blockchain.transactions.persistence.ack-mode:ACK_ON_FLUSH}") AckMode ackMode,
+            @Value("${blockchain.transactions.persistence.batch-size:256}") int batchSize,
+            @Value("${blockchain.transactions.persistence.flush-interval-ms:5}") long flushIntervalMillis,
+            @Value("${blockchain.transactions.persistence.queue-capacity:100000}") int queueCapacity) {
+        this.redisTemplate = redisTemplate;
+        this.blockCodec = blockCodec;
+        this.ackMode = ackMode;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMillis = Math.max(0, flushIntervalMillis);
+        this.queueCapacity = queueCapacity;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.flusher = new Thread(this::runFlusher, "transaction-persister");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+        System.out.println("TransactionPersister: Modo " + ackMode + ", lotes de hasta " + this.batchSize + " transacciones cada " + this.flushIntervalMillis + " ms.");
+    }
+
+    public AckMode getAckMode() {
+        return ackMode;
+    }
+
+    // Encola la transacción. Devuelve null si la cola está llena; si no, un future que se completa cuando
+    // el lote que la contiene quedó escrito en Redis (o excepcionalmente si la escritura falló).
+    public CompletableFuture<Void> enqueue(Transaction transaction) {
+        Pending pending = new Pending(transaction, new CompletableFuture<>());
+        if (!running || !queue.offer(pending)) {
+            rejected.increment();
+            return null;
+        }
+        enqueued.increment();
+        return pending.flushed();
+    }
+
+    private void runFlusher() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0 || !running) {
+                        break;
+                    }
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        long start = System.nanoTime();
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Pending pending : batch) {
+                    write(connection, pending.transaction());
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            failed.add(batch.size());
+            System.err.println("TransactionPersister: Error al escribir un lote de " + batch.size() + " transacciones en Redis: " + e.getMessage());
+            for (Pending pending : batch) {
+                pending.flushed().completeExceptionally(e);
+            }
+            return;
+        }
+        persisted.add(batch.size());
+        batches.increment();
+        lastFlushMicros.set(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+        for (Pending pending : batch) {
+            pending.flushed().complete(null);
+        }
+    }
+
+    // Un valor binario por transacción (BlockCodec); la clave sigue el patrón "transactions:{timestamp}:{sender}:{id}".
+    private void write(RedisConnection connection, Transaction transaction) {
+        connection.stringCommands().set(bytes(redisKey(transaction)), blockCodec.encodeTransaction(transaction));
+    }
+
+    // Borra de Redis las transacciones que ya quedaron en un bloque, para que la recuperación al arrancar
+    // no las vuelva a cargar. Un único pipeline por bloque. Cada clave incluye el id, así que borrar una
+    // transacción no toca a otra del mismo sender en el mismo segundo.
+    public void deletePersisted(List<Transaction> transactions) {
+        if (transactions == null || transactions.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Transaction transaction : transactions) {
+                    connection.keyCommands().del(bytes(redisKey(transaction)));
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            // No es crítico: la recuperación descarta las transacciones que están en los últimos bloques.
+            System.err.println("TransactionPersister: Error al borrar " + transactions.size() + " transacciones incluidas en un bloque: " + e.getMessage());
+        }
+    }
+
+    public static String redisKey(Transaction transaction) {
+        return "transactions:" + transaction.getTimestamp() + ":" + transaction.getSender() + ":" + transaction.getId();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public PersistenceStats getStats() {
+        long batchCount = batches.sum();
+        long persistedCount = persisted.sum();
+        return new PersistenceStats(
+                ackMode.name(),
+                queue.size(),
+                queueCapacity,
+                enqueued.sum(),
+                rejected.sum(),
+                persistedCount,
+                failed.sum(),
+                batchCount,
+                batchCount == 0 ? 0 : persistedCount / (double) batchCount,
+                lastFlushMicros.get() / 1000.0);
+    }
+
+    // Al apagar se escriben las transacciones que quedaron en la cola antes de cerrar la conexión a Redis.
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            System.err.println("TransactionPersister: " + queue.size() + " transacciones quedaron sin persistir al apagar.");
+        }
+    }
+}
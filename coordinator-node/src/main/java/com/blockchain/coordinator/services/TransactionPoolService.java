@@ -1,86 +1,145 @@
 package com.blockchain.coordinator.services;
 
+import com.blockchain.coordinator.dtos.TransactionAdmission;
+import com.blockchain.coordinator.events.MempoolReadyEvent;
+import com.blockchain.coordinator.mempool.Mempool;
 import com.blockchain.coordinator.models.Transaction;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 public class TransactionPoolService {
 
-    // Cola concurrente para almacenar las transacciones pendientes en memoria
-    private final Queue<Transaction> pendingTransactions = new ConcurrentLinkedQueue<>();
+    // Mempool en memoria: orden de llegada, índice por id y conteo O(1)
+    private final Mempool pendingTransactions = new Mempool();
 
-    private final RedisTemplate<String, String> redisTemplate;
-    private final ObjectMapper objectMapper;
+    private final TransactionPersister transactionPersister;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int minTransactionsPerBlock;
+    // MempoolReadyEvent se publica una vez por cada vez que el pool cruza min-transactions-per-block hacia
+    // arriba; se rearma cuando un drenaje lo deja por debajo.
+    private final AtomicBoolean readySignaled = new AtomicBoolean();
 
-    public TransactionPoolService(RedisTemplate<String, String> redisTemplate) {
-        this.redisTemplate = redisTemplate;
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new JavaTimeModule());
-        this.objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    public TransactionPoolService(TransactionPersister transactionPersister, ApplicationEventPublisher eventPublisher,
+                                  @Value("${blockchain.mining.min-transactions-per-block}") int minTransactionsPerBlock) {
+        this.transactionPersister = transactionPersister;
+        this.eventPublisher = eventPublisher;
+        this.minTransactionsPerBlock = minTransactionsPerBlock;
     }
 
-     // Agrega una nueva transacción al pool de transacciones pendientes en memoria y la almacena en Redis.
-    public void addTransaction(Transaction transaction) {
-        pendingTransactions.offer(transaction); // Añade al final de la cola en memoria
-        System.out.println("Transaction añadida al pool (en memoria): " + transaction.getId());
-
-        // Se almacena la transacción individualmente en Redis (La clave sigue el patrón "transactions:{timestamp}:{sender}")
-        String transactionIdKey = "transactions:" + transaction.getTimestamp() + ":" + transaction.getSender();
-        try {
-            Map<String, Object> transactionMap = objectMapper.convertValue(transaction, new TypeReference<Map<String, Object>>() {});
-            Map<String, String> stringMap = transactionMap.entrySet().stream()
-                    .collect(Collectors.toMap(
-                            Map.Entry::getKey,
-                            e -> e.getValue() != null ? String.valueOf(e.getValue()) : null
-                    ));
-            redisTemplate.opsForHash().putAll(transactionIdKey, stringMap);
-            System.out.println("Transaccion guardada en redis: " + transactionIdKey);
-        } catch (IllegalArgumentException e) {
-            System.err.println("Error en la conversion de la transaccion: " + e.getMessage());
-            try {
-                redisTemplate.opsForValue().set(transactionIdKey, objectMapper.writeValueAsString(transaction));
-                System.out.println("Se guarda como string formateada JSON en Redis: " + transactionIdKey);
-            } catch (Exception jsonE) {
-                System.err.println("Error al guardar la transaccion formateada a JSON string: " + jsonE.getMessage());
+     // Agrega una nueva transacción al pool de transacciones pendientes en memoria y la encola para
+     // persistirla en Redis (write-behind). Según el ack-mode, el resultado se completa al encolar o recién
+     // cuando el lote quedó escrito. Una transacción cuyo id ya está pendiente no se vuelve a persistir.
+    public CompletableFuture<TransactionAdmission> addTransaction(Transaction transaction) {
+        CompletableFuture<TransactionAdmission> admission = admit(transaction);
+        if (admission.getNow(null) == TransactionAdmission.DUPLICATE) {
+            System.out.println("Transaction duplicada, ya está en el pool: " + transaction.getId());
+        } else if (admission.getNow(null) != TransactionAdmission.OVERLOADED) {
+            System.out.println("Transaction añadida al pool (en memoria): " + transaction.getId());
+        }
+        return admission;
+    }
+
+    // Agrega un lote de transacciones; el resultado conserva el orden del lote.
+    public CompletableFuture<List<TransactionAdmission>> addTransactions(List<Transaction> transactions) {
+        List<CompletableFuture<TransactionAdmission>> admissions = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            admissions.add(admit(transaction));
+        }
+        return CompletableFuture.allOf(admissions.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> admissions.stream().map(CompletableFuture::join).toList());
+    }
+
+    private CompletableFuture<TransactionAdmission> admit(Transaction transaction) {
+        if (!pendingTransactions.add(transaction)) { // Añade al final del mempool si el id no está pendiente
+            return CompletableFuture.completedFuture(TransactionAdmission.DUPLICATE);
+        }
+
+        CompletableFuture<Void> flushed = transactionPersister.enqueue(transaction);
+        if (flushed == null) {
+            pendingTransactions.remove(transaction.getId());
+            System.err.println("Cola de persistencia llena, transacción rechazada: " + transaction.getId());
+            return CompletableFuture.completedFuture(TransactionAdmission.OVERLOADED);
+        }
+        signalIfReady();
+
+        if (transactionPersister.getAckMode() == TransactionPersister.AckMode.ACK_ON_ENQUEUE) {
+            return CompletableFuture.completedFuture(TransactionAdmission.ACCEPTED);
+        }
+        return flushed.handle((ignored, error) -> {
+            if (error != null) {
+                // Sin persistir no se confirma: se saca del pool para que el cliente pueda reintentar.
+                pendingTransactions.remove(transaction.getId());
+                return TransactionAdmission.PERSISTENCE_FAILED;
+            }
+            return TransactionAdmission.ACCEPTED;
+        });
+    }
+
+    // Vuelve a cargar en el mempool transacciones que ya están en Redis (recuperación al arrancar), sin
+    // persistirlas de nuevo. Devuelve cuántas se agregaron (las que ya estaban pendientes se ignoran).
+    public int restoreTransactions(List<Transaction> transactions) {
+        int restored = 0;
+        for (Transaction transaction : transactions) {
+            if (pendingTransactions.add(transaction)) {
+                restored++;
             }
         }
+        return restored;
+    }
+
+    // Las transacciones ya quedaron en un bloque de la cadena: se borran de Redis.
+    public void markIncluded(List<Transaction> transactions) {
+        transactionPersister.deletePersisted(transactions);
     }
-    
+
     // Obtiene un número específico de transacciones pendientes del pool en memoria.
     // Las transacciones se eliminan del pool una vez que se obtienen, para ser incluidas en un bloque.
     public List<Transaction> getPendingTransactions(int count) {
-        if (pendingTransactions.isEmpty() || count <= 0) {
-            return Collections.emptyList();
+        List<Transaction> drained = pendingTransactions.drain(count);
+        if (pendingTransactions.size() < minTransactionsPerBlock) {
+            readySignaled.set(false);
         }
+        return drained;
+    }
 
-        List<Transaction> transactionsToProcess = new ArrayList<>();
-        // Extrae transacciones del pool hasta alcanzar el conteo o el pool esté vacío
-        for (int i = 0; i < count && !pendingTransactions.isEmpty(); i++) {
-            transactionsToProcess.add(pendingTransactions.poll()); // Elimina y devuelve el elemento principal de la cola
+    // Vuelve a avisar aunque ya se haya avisado (p. ej. el aviso llegó mientras el scheduler no podía publicar).
+    public void resignalIfReady() {
+        readySignaled.set(false);
+        signalIfReady();
+    }
+
+    // Publica MempoolReadyEvent si el pool alcanzó el mínimo para un bloque y todavía no se avisó.
+    public void signalIfReady() {
+        int size = pendingTransactions.size();
+        if (size >= minTransactionsPerBlock && readySignaled.compareAndSet(false, true)) {
+            eventPublisher.publishEvent(new MempoolReadyEvent(size));
         }
-        return transactionsToProcess;
     }
 
-    // Obtiene el número actual de transacciones pendientes en el pool en memoria.
+    // Las primeras count transacciones pendientes, sin eliminarlas (las que tomaría getPendingTransactions).
+    public List<Transaction> peekPendingTransactions(int count) {
+        return pendingTransactions.peek(count);
+    }
+
+    // Obtiene el número actual de transacciones pendientes en el pool en memoria (O(1)).
     public int getPendingTransactionCount() {
         return pendingTransactions.size();
     }
 
+    // Busca una transacción pendiente por id.
+    public Transaction getPendingTransaction(String id) {
+        return pendingTransactions.get(id);
+    }
+
     // obtiene una copia de todas las transacciones pendientes sin eliminarlas del pool.
     public List<Transaction> getAllPendingTransactions() {
-        return new ArrayList<>(pendingTransactions);
+        return pendingTransactions.snapshot();
     }
 }
@@ -0,0 +1,256 @@
+package com.blockchain.coordinator.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// Log de sólo-agregado de registros por altura (0, 1, 2, ...) en segmentos mapeados en memoria.
+//
+// Segmento: archivo "{altura del primer registro, 20 dígitos}.log" de tamaño fijo (segmentBytes, o más si
+// un registro no entra), preasignado con ceros. Registro:
+//   largo del payload int32 | CRC32C(altura + payload) int32 | altura int64 | payload
+// Un largo 0 marca el fin de los datos del segmento.
+//
+// Índice disperso: la posición (segmento, offset) de una de cada indexInterval alturas. Para leer una altura
+// se salta a la entrada anterior y se avanza por las cabeceras de los registros.
+//
+// Recuperación: al abrir se recorren todos los registros verificando largo, altura esperada y CRC. En el
+// primer registro inválido (escritura cortada por una caída) se trunca el log: se borra con ceros el resto
+// del segmento y se eliminan los segmentos siguientes.
+//
+// Un único escritor (append sincronizado) y lectores concurrentes sin locks: los lectores sólo usan
+// lecturas absolutas sobre el buffer y nunca pasan de nextHeight, que se publica después de escribir.
+public final class ChainLog implements Closeable {
+
+    public interface RecordVisitor {
+        void visit(long height, byte[] payload);
+    }
+
+    static final int HEADER_BYTES = 16;
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int indexInterval;
+    private final boolean fsync;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private volatile long[] sparseIndex = new long[1024];
+    private volatile long nextHeight;
+    private long truncatedBytes;
+
+    // El mapeo sigue siendo válido después de cerrar el archivo.
+    private static final class Segment {
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private int limit;
+
+        private Segment(Path path, int minimumBytes) throws IOException {
+            this.path = path;
+            try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+                if (file.length() < minimumBytes) {
+                    file.setLength(minimumBytes);
+                }
+                this.capacity = (int) Math.min(Integer.MAX_VALUE, file.length());
+                this.buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            }
+        }
+    }
+
+    private ChainLog(Path directory, int segmentBytes, int indexInterval, boolean fsync) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.indexInterval = Math.max(1, indexInterval);
+        this.fsync = fsync;
+    }
+
+    // Abre (o crea) el log del directorio, lo recupera y entrega cada registro válido al visitor, en orden.
+    public static ChainLog open(Path directory, int segmentBytes, int indexInterval, boolean fsync,
+                                RecordVisitor visitor) throws IOException {
+        if (segmentBytes < HEADER_BYTES * 2) {
+            throw new IllegalArgumentException("Tamaño de segmento demasiado chico: " + segmentBytes);
+        }
+        Files.createDirectories(directory);
+        ChainLog log = new ChainLog(directory, segmentBytes, indexInterval, fsync);
+        log.recover(visitor);
+        return log;
+    }
+
+    public long nextHeight() {
+        return nextHeight;
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    // Bytes descartados por la recuperación al abrir (0 si el log estaba sano).
+    public long truncatedBytes() {
+        return truncatedBytes;
+    }
+
+    // Agrega el registro de la altura siguiente; height tiene que ser exactamente nextHeight().
+    public synchronized void append(long height, byte[] payload) throws IOException {
+        if (height != nextHeight) {
+            throw new IllegalStateException("Altura fuera de orden: se esperaba " + nextHeight + " y llegó " + height);
+        }
+        int recordBytes = HEADER_BYTES + payload.length;
+        Segment segment = segments.get(segments.size() - 1);
+        if (segment.limit + recordBytes > segment.capacity) {
+            segment.buffer.force();
+            segment = newSegment(height, Math.max(segmentBytes, recordBytes));
+        }
+
+        int offset = segment.limit;
+        MappedByteBuffer buffer = segment.buffer;
+        buffer.putInt(offset + 4, crc(height, payload));
+        buffer.putLong(offset + 8, height);
+        buffer.put(offset + HEADER_BYTES, payload);
+        // El largo se escribe al final: hasta entonces el registro se lee como fin de datos.
+        buffer.putInt(offset, payload.length);
+        if (fsync) {
+            buffer.force(offset, recordBytes);
+        }
+        segment.limit = offset + recordBytes;
+        index(height, segments.size() - 1, offset);
+        nextHeight = height + 1;
+    }
+
+    // Payload de la altura dada, o null si todavía no existe.
+    public byte[] read(long height) {
+        if (height < 0 || height >= nextHeight) {
+            return null;
+        }
+        long position = sparseIndex[(int) (height / indexInterval)];
+        int segmentIndex = (int) (position >>> 32);
+        int offset = (int) position;
+        while (true) {
+            Segment segment = segments.get(segmentIndex);
+            int length = offset + HEADER_BYTES <= segment.capacity ? segment.buffer.getInt(offset) : 0;
+            if (length == 0) {
+                segmentIndex++;
+                offset = 0;
+                continue;
+            }
+            if (segment.buffer.getLong(offset + 8) == height) {
+                byte[] payload = new byte[length];
+                segment.buffer.get(offset + HEADER_BYTES, payload);
+                return payload;
+            }
+            offset += HEADER_BYTES + length;
+        }
+    }
+
+    public synchronized void force() {
+        for (Segment segment : segments) {
+            segment.buffer.force();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        force();
+    }
+
+    private void recover(RecordVisitor visitor) throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> path.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        }
+
+        long expected = 0;
+        boolean torn = false;
+        for (Path file : files) {
+            long baseHeight = Long.parseLong(file.getFileName().toString().replace(SUFFIX, ""));
+            if (torn || baseHeight != expected) {
+                // Segmento posterior a un registro inválido, o que no empieza donde terminó el anterior.
+                torn = true;
+                truncatedBytes += Files.size(file);
+                Files.delete(file);
+                System.err.println("ChainLog: Se eliminó el segmento " + file.getFileName() + " (se esperaba la altura " + expected + ").");
+                continue;
+            }
+            Segment segment = new Segment(file, 0);
+            segments.add(segment);
+
+            int offset = 0;
+            MappedByteBuffer buffer = segment.buffer;
+            while (offset + HEADER_BYTES <= segment.capacity) {
+                int length = buffer.getInt(offset);
+                if (length == 0) {
+                    break;
+                }
+                byte[] payload = length > 0 && offset + HEADER_BYTES + length <= segment.capacity ? new byte[length] : null;
+                if (payload != null) {
+                    buffer.get(offset + HEADER_BYTES, payload);
+                }
+                if (payload == null || buffer.getLong(offset + 8) != expected || buffer.getInt(offset + 4) != crc(expected, payload)) {
+                    torn = truncate(segment, offset, expected);
+                    break;
+                }
+                visitor.visit(expected, payload);
+                index(expected, segments.size() - 1, offset);
+                offset += HEADER_BYTES + length;
+                expected++;
+            }
+            if (!torn) {
+                segment.limit = offset;
+            }
+        }
+
+        nextHeight = expected;
+        if (segments.isEmpty()) {
+            newSegment(0, segmentBytes);
+        }
+    }
+
+    // Descarta desde offset hasta el final del segmento.
+    private boolean truncate(Segment segment, int offset, long height) {
+        int cleared = segment.capacity - offset;
+        segment.buffer.put(offset, new byte[cleared]);
+        segment.buffer.force();
+        segment.limit = offset;
+        truncatedBytes += cleared;
+        System.err.println("ChainLog: Registro inválido en " + segment.path.getFileName() + " (offset " + offset
+                + ", altura " + height + "). Se trunca el log en ese punto.");
+        return true;
+    }
+
+    private Segment newSegment(long baseHeight, int bytes) throws IOException {
+        Path path = directory.resolve(String.format("%020d%s", baseHeight, SUFFIX));
+        Segment segment = new Segment(path, bytes);
+        segments.add(segment);
+        return segment;
+    }
+
+    private void index(long height, int segmentIndex, int offset) {
+        if (height % indexInterval != 0) {
+            return;
+        }
+        int slot = (int) (height / indexInterval);
+        long[] current = sparseIndex;
+        if (slot >= current.length) {
+            current = Arrays.copyOf(current, Math.max(slot + 1, current.length * 2));
+        }
+        current[slot] = ((long) segmentIndex << 32) | (offset & 0xFFFFFFFFL);
+        sparseIndex = current;
+    }
+
+    private static int crc(long height, byte[] payload) {
+        CRC32C crc = new CRC32C();
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            crc.update((int) (height >>> shift));
+        }
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue();
+    }
+}
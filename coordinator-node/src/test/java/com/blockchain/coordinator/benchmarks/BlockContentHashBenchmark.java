@@ -0,0 +1,77 @@
+package com.blockchain.coordinator.benchmarks;
+
+import com.blockchain.coordinator.crypto.BlockContentSerializer;
+import com.blockchain.coordinator.crypto.Md5Hash;
+import com.blockchain.coordinator.crypto.Md5Hasher;
+import com.blockchain.coordinator.models.Block;
+import com.blockchain.coordinator.models.Transaction;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Hash de contenido de un bloque con max-transactions-per-block transacciones:
+// concatenación de Strings original contra la serialización en streaming al digest.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockContentHashBenchmark {
+
+    @Param({"5000"})
+    private int transactions;
+
+    private ObjectMapper objectMapper;
+    private Md5Hasher md5Hasher;
+    private BlockContentSerializer serializer;
+    private Block block;
+
+    @Setup
+    public void setup() {
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        objectMapper.configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        md5Hasher = new Md5Hasher();
+        serializer = new BlockContentSerializer(objectMapper, md5Hasher);
+
+        List<Transaction> data = new ArrayList<>(transactions);
+        for (int i = 0; i < transactions; i++) {
+            data.add(new Transaction("sender-" + i, "receiver-" + (i * 7), i * 1.25));
+        }
+        block = new Block(1024, "9e107d9d372bb6826bd81d3542a419d6", data);
+    }
+
+    @Benchmark
+    public String legacyStringConcatenation() throws JsonProcessingException {
+        String contentInput = String.valueOf(block.getIndex()) +
+                String.valueOf(block.getTimestamp()) +
+                objectMapper.writeValueAsString(block.getData()) +
+                block.getPrevious_hash();
+        return md5Hasher.hashHex(contentInput);
+    }
+
+    @Benchmark
+    public Md5Hash streamingSerializer() {
+        return serializer.contentHash(block);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(BlockContentHashBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
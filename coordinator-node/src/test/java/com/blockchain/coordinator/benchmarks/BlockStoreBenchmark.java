@@ -0,0 +1,128 @@
+package com.blockchain.coordinator.benchmarks;
+
+import com.blockchain.coordinator.codec.BlockCodec;
+import com.blockchain.coordinator.codec.HeaderRecordCodec;
+import com.blockchain.coordinator.crypto.BlockContentSerializer;
+import com.blockchain.coordinator.crypto.Md5Hasher;
+import com.blockchain.coordinator.models.Block;
+import com.blockchain.coordinator.models.Transaction;
+import com.blockchain.coordinator.repositories.BlockRepository;
+import com.blockchain.coordinator.repositories.ChainLogBlockRepository;
+import com.blockchain.coordinator.repositories.RedisBlockRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Agregado y lectura aleatoria por hash de bloques con transactions transacciones, Redis contra el log local.
+// El backend redis usa localhost:6379, base 15 (se vacía al terminar). El log corre sin fsync por bloque,
+// para comparar el costo del almacenamiento y no el del disco.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockStoreBenchmark {
+
+    private static final int PRELOADED_BLOCKS = 2000;
+
+    @Param({"log", "redis"})
+    private String backend;
+
+    @Param({"100"})
+    private int transactions;
+
+    private BlockRepository repository;
+    private LettuceConnectionFactory connectionFactory;
+    private Path directory;
+    private List<Transaction> data;
+    private String[] hashes;
+    private int nextHeight;
+
+    @Setup
+    public void setup() throws IOException {
+        BlockCodec blockCodec = new BlockCodec(1024);
+        HeaderRecordCodec headerRecordCodec = new HeaderRecordCodec(new BlockContentSerializer(new ObjectMapper(), new Md5Hasher()));
+        if (backend.equals("redis")) {
+            connectionFactory = new LettuceConnectionFactory("localhost", 6379);
+            connectionFactory.setDatabase(15);
+            connectionFactory.afterPropertiesSet();
+            connectionFactory.start();
+            // Los bloques del benchmark nunca están en el formato anterior: no hace falta LegacyBlockRepository.
+            repository = new RedisBlockRepository(template(RedisSerializer.byteArray()), template(new StringRedisSerializer()), blockCodec, headerRecordCodec, null);
+        } else {
+            directory = Files.createTempDirectory("chain-log-benchmark");
+            repository = new ChainLogBlockRepository(blockCodec, headerRecordCodec, directory.toString(), 64 * 1024 * 1024, 64, false);
+        }
+
+        data = new ArrayList<>(transactions);
+        for (int i = 0; i < transactions; i++) {
+            data.add(new Transaction("sender-" + i, "receiver-" + (i * 7), i * 1.25));
+        }
+        hashes = new String[PRELOADED_BLOCKS];
+        for (int i = 0; i < PRELOADED_BLOCKS; i++) {
+            hashes[i] = append().getHash();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (connectionFactory != null) {
+            connectionFactory.getConnection().serverCommands().flushDb();
+            connectionFactory.destroy();
+        }
+        if (repository instanceof ChainLogBlockRepository log) {
+            log.close();
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public Block append() {
+        int height = nextHeight++;
+        Block block = new Block(height, height > 0 ? hashes[(height - 1) % PRELOADED_BLOCKS] : "0", data, 1_700_000_000L + height, height, String.format("%032x", height));
+        return repository.save(block);
+    }
+
+    @Benchmark
+    public Block randomRead() {
+        return repository.findById(hashes[ThreadLocalRandom.current().nextInt(PRELOADED_BLOCKS)]).orElseThrow();
+    }
+
+    private <V> RedisTemplate<String, V> template(RedisSerializer<V> valueSerializer) {
+        RedisTemplate<String, V> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(valueSerializer);
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(BlockStoreBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
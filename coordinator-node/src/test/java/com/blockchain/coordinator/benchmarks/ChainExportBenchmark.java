@@ -0,0 +1,149 @@
+package com.blockchain.coordinator.benchmarks;
+
+import com.blockchain.coordinator.codec.BlockCodec;
+import com.blockchain.coordinator.codec.HeaderRecordCodec;
+import com.blockchain.coordinator.crypto.BlockContentSerializer;
+import com.blockchain.coordinator.crypto.Md5Hasher;
+import com.blockchain.coordinator.models.Block;
+import com.blockchain.coordinator.models.Transaction;
+import com.blockchain.coordinator.repositories.BlockRepository;
+import com.blockchain.coordinator.repositories.ChainLogBlockRepository;
+import com.blockchain.coordinator.repositories.RedisBlockRepository;
+import com.blockchain.coordinator.services.ChainExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Exportación binaria completa (GET /api/blocks/export?format=binary) de una cadena de BLOCKS bloques con
+// transactions transacciones, desde Redis o desde el log local, escribiendo a un stream que descarta los bytes.
+// El contador bytes da los bytes exportados por segundo. El backend redis usa localhost:6379, base 15 (se vacía
+// al terminar).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChainExportBenchmark {
+
+    private static final int BLOCKS = 20_000;
+
+    @Param({"log", "redis"})
+    private String backend;
+
+    @Param({"100"})
+    private int transactions;
+
+    @Param({"64", "512"})
+    private int pageSize;
+
+    private LettuceConnectionFactory connectionFactory;
+    private Path directory;
+    private BlockRepository repository;
+    private ChainExportService exportService;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Exported {
+        public long bytes;
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        BlockCodec blockCodec = new BlockCodec(1024);
+        HeaderRecordCodec headerRecordCodec = new HeaderRecordCodec(new BlockContentSerializer(new ObjectMapper(), new Md5Hasher()));
+        if (backend.equals("redis")) {
+            connectionFactory = new LettuceConnectionFactory("localhost", 6379);
+            connectionFactory.setDatabase(15);
+            connectionFactory.afterPropertiesSet();
+            connectionFactory.start();
+            repository = new RedisBlockRepository(template(RedisSerializer.byteArray()), template(new StringRedisSerializer()), blockCodec, headerRecordCodec, null);
+        } else {
+            directory = Files.createTempDirectory("chain-export-benchmark");
+            repository = new ChainLogBlockRepository(blockCodec, headerRecordCodec, directory.toString(), 64 * 1024 * 1024, 64, false);
+        }
+        List<Transaction> data = new ArrayList<>(transactions);
+        for (int i = 0; i < transactions; i++) {
+            data.add(new Transaction("sender-" + i, "receiver-" + (i * 7), i * 1.25));
+        }
+        String previousHash = "0";
+        for (int height = 0; height < BLOCKS; height++) {
+            Block block = new Block(height, previousHash, data, 1_700_000_000L + height, height, String.format("%032x", height));
+            repository.save(block);
+            previousHash = block.getHash();
+        }
+        exportService = new ChainExportService(repository, blockCodec, new ObjectMapper(), pageSize, 4096);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        exportService.shutdown();
+        if (connectionFactory != null) {
+            connectionFactory.getConnection().serverCommands().flushDb();
+            connectionFactory.destroy();
+        }
+        if (repository instanceof ChainLogBlockRepository log) {
+            log.close();
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public long exportBinary(Exported exported) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        long blocks = exportService.export(0, BLOCKS - 1, ChainExportService.Format.BINARY, out);
+        exported.bytes += out.count;
+        return blocks;
+    }
+
+    private <V> RedisTemplate<String, V> template(RedisSerializer<V> valueSerializer) {
+        RedisTemplate<String, V> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(valueSerializer);
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ChainExportBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
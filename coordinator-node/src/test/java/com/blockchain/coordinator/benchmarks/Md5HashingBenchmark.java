@@ -0,0 +1,86 @@
+package com.blockchain.coordinator.benchmarks;
+
+import com.blockchain.coordinator.crypto.Md5Hash;
+import com.blockchain.coordinator.crypto.Md5Hasher;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+// Compara el applyMd5 original de BlockService con Md5Hasher en la verificación de una solución.
+// Ejecutar con main() (perfilador gc incluido para ver las asignaciones por operación).
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Md5HashingBenchmark {
+
+    private final Md5Hasher md5Hasher = new Md5Hasher();
+
+    private String contentHashHex;
+    private Md5Hash contentHash;
+    private long nonce;
+    private String submittedHash;
+
+    @Setup
+    public void setup() {
+        contentHashHex = legacyApplyMd5("1171234567890[{\"id\":\"tx\"}]previous");
+        contentHash = Md5Hash.fromHex(contentHashHex);
+        nonce = 48_213_977L;
+        submittedHash = legacyApplyMd5(nonce + contentHashHex);
+    }
+
+    @Benchmark
+    public boolean legacyVerify() {
+        String calculated = legacyApplyMd5(String.valueOf(nonce) + contentHashHex);
+        return calculated.equals(submittedHash);
+    }
+
+    @Benchmark
+    public boolean hasherVerify() {
+        return md5Hasher.finalHashMatches(nonce, contentHash, submittedHash);
+    }
+
+    @Benchmark
+    public String legacyFinalHash() {
+        return legacyApplyMd5(String.valueOf(nonce) + contentHashHex);
+    }
+
+    @Benchmark
+    public String hasherFinalHash() {
+        return md5Hasher.hashFinal(nonce, contentHash).toHex();
+    }
+
+    // Copia textual de BlockService.applyMd5 antes de introducir Md5Hasher.
+    private static String legacyApplyMd5(String input) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            byte[] hash = digest.digest(input.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hexString = new StringBuilder();
+            for (byte b : hash) {
+                String hex = Integer.toHexString(0xff & b);
+                if (hex.length() == 1) hexString.append('0');
+                hexString.append(hex);
+            }
+            return hexString.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("MD5 no disponible.", e);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(Md5HashingBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
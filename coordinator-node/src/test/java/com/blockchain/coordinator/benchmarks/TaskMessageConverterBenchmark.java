@@ -0,0 +1,112 @@
+package com.blockchain.coordinator.benchmarks;
+
+import com.blockchain.coordinator.codec.TaskMessageCodec;
+import com.blockchain.coordinator.codec.TaskMessageConverter;
+import com.blockchain.coordinator.crypto.Md5Hasher;
+import com.blockchain.coordinator.crypto.MiningTarget;
+import com.blockchain.coordinator.dtos.MiningTask;
+import com.blockchain.coordinator.models.Block;
+import com.blockchain.coordinator.models.ExchangeEvent;
+import com.blockchain.coordinator.models.Transaction;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Tarea de minería por AMQP: Jackson2JsonMessageConverter contra TaskMessageConverter (binario, comprimido desde
+// compressionThreshold bytes; 0 sin comprimir), serializando y deserializando. transactions = 0 es la tarea
+// sólo-cabecera; 5000 un bloque completo (legacy o header-only-tasks=false). main imprime además el tamaño de
+// cada mensaje.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskMessageConverterBenchmark {
+
+    @Param({"0", "5000"})
+    private int transactions;
+
+    @Param({"1024", "0"})
+    private int compressionThreshold;
+
+    private MessageConverter json;
+    private MessageConverter binary;
+    private MiningTask task;
+    private Message jsonMessage;
+    private Message binaryMessage;
+
+    @Setup
+    public void setup() {
+        json = new Jackson2JsonMessageConverter();
+        binary = new TaskMessageConverter(new TaskMessageCodec(compressionThreshold), new Jackson2JsonMessageConverter(), true);
+        task = task(transactions);
+        jsonMessage = json.toMessage(task, new MessageProperties());
+        binaryMessage = binary.toMessage(task, new MessageProperties());
+    }
+
+    @Benchmark
+    public Message jsonSerialize() {
+        return json.toMessage(task, new MessageProperties());
+    }
+
+    @Benchmark
+    public Message binarySerialize() {
+        return binary.toMessage(task, new MessageProperties());
+    }
+
+    @Benchmark
+    public Object jsonDeserialize() {
+        return json.fromMessage(jsonMessage);
+    }
+
+    @Benchmark
+    public Object binaryDeserialize() {
+        return binary.fromMessage(binaryMessage);
+    }
+
+    static MiningTask task(int transactions) {
+        Md5Hasher md5Hasher = new Md5Hasher();
+        List<Transaction> data = null;
+        if (transactions > 0) {
+            data = new ArrayList<>(transactions);
+            for (int i = 0; i < transactions; i++) {
+                data.add(new Transaction("sender-" + i, "receiver-" + (i * 7), i * 1.25));
+            }
+        }
+        Block block = new Block(1024, "9e107d9d372bb6826bd81d3542a419d6", data, 1_700_000_000L, 0,
+                md5Hasher.hashString("candidato").toHex());
+        block.setVersion(Block.MERKLE_VERSION);
+        block.setMerkle_root(md5Hasher.hashString("raiz").toHex());
+        return new MiningTask(ExchangeEvent.NEW_CANDIDATE_BLOCK, "000", MiningTarget.fromBits(14).toHex(), block, 0,
+                System.currentTimeMillis(), System.currentTimeMillis() + 30_000, md5Hasher.hashString("contenido").toHex(),
+                transactions);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        MessageConverter json = new Jackson2JsonMessageConverter();
+        MessageConverter binary = new TaskMessageConverter(new TaskMessageCodec(1024), new Jackson2JsonMessageConverter(), true);
+        MessageConverter uncompressed = new TaskMessageConverter(new TaskMessageCodec(0), new Jackson2JsonMessageConverter(), true);
+        for (int transactions : new int[]{0, 5000}) {
+            MiningTask task = task(transactions);
+            System.out.println("transactions=" + transactions + ": json " + json.toMessage(task, new MessageProperties()).getBody().length
+                    + " bytes, binario " + binary.toMessage(task, new MessageProperties()).getBody().length
+                    + " bytes, binario sin comprimir " + uncompressed.toMessage(task, new MessageProperties()).getBody().length + " bytes");
+        }
+        Options options = new OptionsBuilder()
+                .include(TaskMessageConverterBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
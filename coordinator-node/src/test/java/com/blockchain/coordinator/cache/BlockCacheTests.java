@@ -0,0 +1,66 @@
+package com.blockchain.coordinator.cache;
+
+import com.blockchain.coordinator.dtos.BlockCacheStats;
+import com.blockchain.coordinator.models.Block;
+import com.blockchain.coordinator.models.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockCacheTests {
+
+    private static Block block(int index, int transactions) {
+        List<Transaction> data = new ArrayList<>();
+        for (int i = 0; i < transactions; i++) {
+            data.add(new Transaction("a" + i, "b" + i, i));
+        }
+        return new Block(index, "prev" + index, data, 1000L + index, 0, "h" + index);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedByCountAndKeepsHeightViewInSync() {
+        BlockCache cache = new BlockCache(3, Long.MAX_VALUE);
+        cache.put(block(0, 1));
+        cache.put(block(1, 1));
+        cache.put(block(2, 1));
+
+        // h0 pasa a ser el más reciente; el próximo desalojo es h1.
+        assertNotNull(cache.get("h0"));
+        cache.put(block(3, 1));
+
+        assertNull(cache.get("h1"));
+        assertNull(cache.getByHeight(1));
+        assertEquals("h0", cache.getByHeight(0).getHash());
+        assertEquals("h3", cache.getByHeight(3).getHash());
+
+        BlockCacheStats stats = cache.getStats();
+        assertEquals(3, stats.getEntries());
+        assertEquals(1, stats.getEvictions());
+        assertEquals(3, stats.getHits());
+        assertEquals(2, stats.getMisses());
+    }
+
+    @Test
+    void boundsTotalWeightAndSkipsBlocksHeavierThanTheLimit() {
+        long maxWeight = BlockCache.weightOf(block(0, 10)) * 2;
+        BlockCache cache = new BlockCache(100, maxWeight);
+        cache.put(block(0, 10));
+        cache.put(block(1, 10));
+        cache.put(block(2, 10));
+
+        assertNull(cache.get("h0"));
+        assertNotNull(cache.get("h2"));
+        assertTrue(cache.getStats().getWeightBytes() <= maxWeight);
+
+        cache.put(block(3, 1000));
+        assertNull(cache.get("h3"));
+        assertEquals(2, cache.getStats().getEntries());
+
+        cache.invalidate("h2");
+        assertNull(cache.getByHeight(2));
+        assertEquals(BlockCache.weightOf(block(1, 10)), cache.getStats().getWeightBytes());
+    }
+}
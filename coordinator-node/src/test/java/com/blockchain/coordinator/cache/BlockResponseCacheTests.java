@@ -0,0 +1,47 @@
+package com.blockchain.coordinator.cache;
+
+import com.blockchain.coordinator.crypto.Md5Hasher;
+import com.blockchain.coordinator.models.Block;
+import com.blockchain.coordinator.models.Transaction;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockResponseCacheTests {
+
+    private static final String BASE = "http://localhost:8080/api/blocks";
+
+    @Test
+    void rendersHalOnceAndReusesBytesAndEtag() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        BlockResponseCache cache = new BlockResponseCache(objectMapper, new Md5Hasher(), 1 << 20);
+        Block block = new Block(3, "prev", List.of(new Transaction("alice", "bob", 5)), 1000L, 42, "abc");
+
+        BlockResponseCache.Rendered first = cache.block(BASE, block);
+        BlockResponseCache.Rendered second = cache.block(BASE, block);
+        assertSame(first, second);
+        assertTrue(first.etag().startsWith("\"") && first.etag().endsWith("\""));
+
+        JsonNode json = objectMapper.readTree(first.body());
+        assertEquals("abc", json.get("hash").asText());
+        assertEquals(42, json.get("nonce").asLong());
+        assertEquals(BASE + "/abc", json.at("/_links/self/href").asText());
+        assertEquals(BASE + "/prev", json.at("/_links/previous-block/href").asText());
+        assertEquals(BASE + "/latest", json.at("/_links/latest-block/href").asText());
+
+        // /latest tiene otros enlaces, y por lo tanto otro cuerpo y otro ETag.
+        BlockResponseCache.Rendered latest = cache.latest(BASE, block);
+        assertNotEquals(first.etag(), latest.etag());
+        assertEquals(BASE + "/latest", objectMapper.readTree(latest.body()).at("/_links/self/href").asText());
+
+        // Un bloque nuevo se pre-arma con la última base vista.
+        Block next = new Block(4, "abc", List.of(), 1001L, 7, "def");
+        cache.prerender(next);
+        assertEquals(3, cache.size());
+        assertNotEquals(latest.etag(), cache.latest(BASE, next).etag());
+    }
+}
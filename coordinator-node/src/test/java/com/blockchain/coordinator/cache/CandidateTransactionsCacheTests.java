@@ -0,0 +1,42 @@
+package com.blockchain.coordinator.cache;
+
+import com.blockchain.coordinator.crypto.Md5Hasher;
+import com.blockchain.coordinator.dtos.MiningTask;
+import com.blockchain.coordinator.models.Block;
+import com.blockchain.coordinator.models.ExchangeEvent;
+import com.blockchain.coordinator.models.Transaction;
+import com.blockchain.coordinator.services.CurrentMiningTaskService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CandidateTransactionsCacheTests {
+
+    @Test
+    void rendersTheCurrentCandidateOnceAndRejectsOthers() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        CurrentMiningTaskService currentMiningTaskService = mock(CurrentMiningTaskService.class);
+        CandidateTransactionsCache cache = new CandidateTransactionsCache(currentMiningTaskService, objectMapper, new Md5Hasher());
+        Block candidate = new Block(3, "prev", List.of(new Transaction("alice", "bob", 5), new Transaction("bob", "carol", 2)), 1000L, 0, "abc");
+        candidate.setMerkle_root("root");
+        when(currentMiningTaskService.getCurrentTask()).thenReturn(
+                new MiningTask(ExchangeEvent.NEW_CANDIDATE_BLOCK, "0", null, candidate, 0, 0, 0, null, 0));
+
+        BlockResponseCache.Rendered first = cache.transactions("abc").orElseThrow();
+        assertSame(first, cache.transactions("abc").orElseThrow());
+        verify(currentMiningTaskService, times(1)).getCurrentTask();
+
+        JsonNode json = objectMapper.readTree(first.body());
+        assertEquals("abc", json.get("blockId").asText());
+        assertEquals("root", json.get("merkleRoot").asText());
+        assertEquals(2, json.get("transactionCount").asInt());
+        assertEquals("carol", json.at("/transactions/1/receiver").asText());
+
+        assertTrue(cache.transactions("otro").isEmpty());
+    }
+}
@@ -0,0 +1,126 @@
+package com.blockchain.coordinator.codec;
+
+import com.blockchain.coordinator.crypto.Md5Hasher;
+import com.blockchain.coordinator.dtos.BlockHeader;
+import com.blockchain.coordinator.models.Block;
+import com.blockchain.coordinator.models.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockCodecTests {
+
+    private final BlockCodec codec = new BlockCodec(1024);
+    private final Md5Hasher md5Hasher = new Md5Hasher();
+
+    @Test
+    void roundTripsBlocksWithAndWithoutCompression() {
+        Random random = new Random(11);
+        for (int transactions : new int[]{0, 1, 5, 300, 5_000}) {
+            Block block = randomBlock(random, transactions);
+            byte[] encoded = codec.encodeBlock(block);
+            assertEquals(block, codec.decodeBlock(encoded));
+            assertEquals(block, new BlockCodec(0).decodeBlock(new BlockCodec(0).encodeBlock(block)));
+        }
+    }
+
+    @Test
+    void roundTripsMerkleFieldsAndReadsFormatOne() {
+        Block block = randomBlock(new Random(13), 4);
+        block.setVersion(Block.MERKLE_VERSION);
+        block.setMerkle_root(md5Hasher.hashString("root").toHex());
+        byte[] encoded = codec.encodeBlock(block);
+        assertEquals(block, codec.decodeBlock(encoded));
+        assertEquals(block.getMerkle_root(), codec.decodeHeader(encoded).getMerkle_root());
+
+        // Formato 1: el mismo cuerpo sin versión del bloque ni merkle_root.
+        Block legacy = randomBlock(new Random(17), 3);
+        byte[] current = new BlockCodec(0).encodeBlock(legacy);
+        int versionOffset = 3 + 4 + 8 + 8 + 17 + 17;
+        byte[] formatOne = new byte[current.length - 2];
+        System.arraycopy(current, 0, formatOne, 0, versionOffset);
+        System.arraycopy(current, versionOffset + 2, formatOne, versionOffset, current.length - versionOffset - 2);
+        formatOne[1] = 1;
+        assertEquals(legacy, codec.decodeBlock(formatOne));
+        assertEquals(0, codec.decodeHeader(formatOne).getVersion());
+    }
+
+    @Test
+    void keepsNonCanonicalIdsAndHashesVerbatim() {
+        List<Transaction> data = new ArrayList<>();
+        data.add(new Transaction(UUID.randomUUID().toString().toUpperCase(), "a", "b", 1.5, 10));
+        data.add(new Transaction("tx-1", null, "ñandú 🚀", -0.0, Long.MAX_VALUE));
+        data.add(new Transaction(null, "", "", Double.NaN, 0));
+        Block genesis = new Block(0, "0".repeat(64), data, 1_700_000_000L, 0, "ABCDEF0123456789ABCDEF0123456789");
+
+        Block decoded = codec.decodeBlock(codec.encodeBlock(genesis));
+        assertEquals(genesis, decoded);
+        assertEquals("tx-1", decoded.getData().get(1).getId());
+
+        Block empty = new Block(3, null, null, 0, 0, null);
+        assertEquals(List.of(), codec.decodeBlock(codec.encodeBlock(empty)).getData());
+    }
+
+    @Test
+    void decodesHeaderWithoutTransactions() {
+        Random random = new Random(3);
+        Block block = randomBlock(random, 2_000);
+        BlockHeader header = codec.decodeHeader(codec.encodeBlock(block));
+        assertEquals(block.getIndex(), header.getIndex());
+        assertEquals(block.getHash(), header.getHash());
+        assertEquals(block.getPrevious_hash(), header.getPrevious_hash());
+        assertEquals(block.getNonce(), header.getNonce());
+        assertEquals(2_000, header.getTransactionCount());
+
+        // Cabecera más larga que el prefijo que se descomprime primero.
+        block.setPrevious_hash("x".repeat(2_000));
+        assertEquals(block.getPrevious_hash(), codec.decodeHeader(codec.encodeBlock(block)).getPrevious_hash());
+    }
+
+    @Test
+    void decodesOnlyTheTransactionIds() {
+        Block block = randomBlock(new Random(5), 300);
+        block.getData().add(new Transaction("tx-1", null, "ñandú", 1, 2));
+        List<String> ids = block.getData().stream().map(Transaction::getId).toList();
+        assertEquals(ids, codec.decodeTransactionIds(codec.encodeBlock(block)));
+        assertEquals(ids, new BlockCodec(0).decodeTransactionIds(new BlockCodec(0).encodeBlock(block)));
+
+        byte[] encoded = new BlockCodec(0).encodeBlock(block);
+        assertThrows(IllegalArgumentException.class, () -> codec.decodeTransactionIds(Arrays.copyOf(encoded, encoded.length - 4)));
+    }
+
+    @Test
+    void transactionsRoundTripAndRejectForeignBytes() {
+        Transaction transaction = new Transaction("alice", "bob", 42.25);
+        byte[] encoded = codec.encodeTransaction(transaction);
+        assertTrue(BlockCodec.isEncodedTransaction(encoded));
+        assertEquals(transaction, codec.decodeTransaction(encoded));
+        // id UUID (16) + textos cortos + numéricos fijos: bastante menos que el hash de campos en texto.
+        assertTrue(encoded.length < 60, "tamaño " + encoded.length);
+
+        assertFalse(BlockCodec.isEncodedTransaction("{\"id\":\"x\"}".getBytes()));
+        assertThrows(IllegalArgumentException.class, () -> codec.decodeBlock(encoded));
+        assertThrows(IllegalArgumentException.class, () -> codec.decodeTransaction(Arrays.copyOf(encoded, encoded.length - 4)));
+
+        byte[] futureVersion = encoded.clone();
+        futureVersion[1] = BlockCodec.VERSION + 1;
+        assertThrows(IllegalArgumentException.class, () -> codec.decodeTransaction(futureVersion));
+    }
+
+    private Block randomBlock(Random random, int transactions) {
+        String[] names = {"alice", "bob", "carol", "minero-" + random.nextInt(10)};
+        List<Transaction> data = new ArrayList<>(transactions);
+        for (int i = 0; i < transactions; i++) {
+            data.add(new Transaction(UUID.randomUUID().toString(), names[random.nextInt(names.length)],
+                    names[random.nextInt(names.length)], random.nextInt(10_000) / 100.0, 1_700_000_000L + random.nextInt(1_000_000)));
+        }
+        return new Block(random.nextInt(100_000), md5Hasher.hashString("prev" + random.nextInt()).toHex(), data,
+                1_700_000_000L + random.nextInt(1_000_000), random.nextLong(), md5Hasher.hashString("hash" + random.nextInt()).toHex());
+    }
+}
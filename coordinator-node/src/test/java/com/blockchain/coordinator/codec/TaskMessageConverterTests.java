@@ -0,0 +1,110 @@
+package com.blockchain.coordinator.codec;
+
+import com.blockchain.coordinator.crypto.Md5Hasher;
+import com.blockchain.coordinator.crypto.MiningTarget;
+import com.blockchain.coordinator.dtos.MiningTask;
+import com.blockchain.coordinator.dtos.MiningTaskStatus;
+import com.blockchain.coordinator.models.Block;
+import com.blockchain.coordinator.models.ExchangeEvent;
+import com.blockchain.coordinator.models.Transaction;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskMessageConverterTests {
+
+    // Compartido con el pool y los mineros Python; se corre desde coordinator-node.
+    private static final Path GOLDEN_MESSAGES = Path.of("..", "wire-fixtures", "task-messages.json");
+
+    private final Md5Hasher md5Hasher = new Md5Hasher();
+    private final TaskMessageConverter binary = new TaskMessageConverter(new TaskMessageCodec(1024), new Jackson2JsonMessageConverter(), true);
+    private final TaskMessageConverter json = new TaskMessageConverter(new TaskMessageCodec(1024), new Jackson2JsonMessageConverter(), false);
+
+    @Test
+    void roundTripsHeaderOnlyAndFullTasks() {
+        Block header = block(0);
+        header.setData(null);
+        MiningTask headerOnly = task(header);
+        Message message = binary.toMessage(headerOnly, new MessageProperties());
+        assertEquals(TaskMessageConverter.CONTENT_TYPE, message.getMessageProperties().getContentType());
+        assertEquals(headerOnly, binary.fromMessage(message));
+        assertNull(((MiningTask) binary.fromMessage(message)).getBlock().getData());
+
+        // Con transacciones el cuerpo supera el umbral y viaja comprimido; se decodifica igual.
+        MiningTask full = task(block(500));
+        Message compressed = binary.toMessage(full, new MessageProperties());
+        assertEquals(full, binary.fromMessage(compressed));
+        assertTrue(compressed.getBody().length < json.toMessage(full, new MessageProperties()).getBody().length / 3);
+
+        MiningTaskStatus status = new MiningTaskStatus(ExchangeEvent.RESOLVED_CANDIDATE_BLOCK, header.getHash(), "minero-1");
+        assertEquals(status, binary.fromMessage(binary.toMessage(status, new MessageProperties())));
+    }
+
+    @Test
+    void readsJsonRegardlessOfTheConfiguredFormat() {
+        MiningTask task = task(block(3));
+        Message message = json.toMessage(task, new MessageProperties());
+        assertEquals(MessageProperties.CONTENT_TYPE_JSON, message.getMessageProperties().getContentType());
+        assertEquals(task, binary.fromMessage(message));
+        assertEquals(task, json.fromMessage(binary.toMessage(task, new MessageProperties())));
+    }
+
+    // SubTask y CancelTask son del pool. El cuerpo comprimido se compara sólo al decodificar: los bytes de
+    // Deflate dependen de la versión de zlib.
+    @Test
+    void decodesAndReencodesTheSharedGoldenMessages() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        TaskMessageCodec codec = new TaskMessageCodec(1024);
+        int checked = 0;
+        for (JsonNode fixture : objectMapper.readTree(GOLDEN_MESSAGES.toFile()).get("cases")) {
+            Class<?> type = switch (fixture.get("type").asText()) {
+                case "MiningTask" -> MiningTask.class;
+                case "MiningTaskStatus" -> MiningTaskStatus.class;
+                default -> null;
+            };
+            if (type == null) {
+                continue;
+            }
+            String name = fixture.get("name").asText();
+            byte[] body = HexFormat.of().parseHex(fixture.get("hex").asText());
+            JsonNode message = fixture.get("message");
+            // MiningTaskStatus no tiene constructor vacío para Jackson.
+            Object expected = type == MiningTaskStatus.class
+                    ? new MiningTaskStatus(ExchangeEvent.valueOf(message.get("event").asText()),
+                    message.get("preliminaryHashBlockResolved").asText(), message.get("minerId").asText())
+                    : objectMapper.treeToValue(message, type);
+            assertEquals(expected, codec.decode(body), name);
+            if ((body[2] & 1) == 0) {
+                assertArrayEquals(body, codec.encode(expected), name);
+            }
+            checked++;
+        }
+        assertEquals(3, checked);
+    }
+
+    private MiningTask task(Block block) {
+        return new MiningTask(ExchangeEvent.NEW_CANDIDATE_BLOCK, "000", MiningTarget.fromBits(13.5).toHex(), block, 2,
+                1_000L, 31_000L, md5Hasher.hashString("contenido").toHex(), 500);
+    }
+
+    private Block block(int transactions) {
+        List<Transaction> data = new ArrayList<>(transactions);
+        for (int i = 0; i < transactions; i++) {
+            data.add(new Transaction("sender-" + i, "receiver-" + (i * 7), i * 1.25));
+        }
+        Block block = new Block(7, md5Hasher.hashString("previo").toHex(), data, 1_700_000_000L, 0, md5Hasher.hashString("candidato").toHex());
+        block.setVersion(Block.MERKLE_VERSION);
+        block.setMerkle_root(md5Hasher.hashString("raiz").toHex());
+        return block;
+    }
+}
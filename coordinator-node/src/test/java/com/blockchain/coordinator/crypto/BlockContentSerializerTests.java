@@ -0,0 +1,94 @@
+package com.blockchain.coordinator.crypto;
+
+import com.blockchain.coordinator.models.Block;
+import com.blockchain.coordinator.models.Transaction;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BlockContentSerializerTests {
+
+    private final ObjectMapper objectMapper = blockServiceObjectMapper();
+    private final Md5Hasher md5Hasher = new Md5Hasher();
+    private final BlockContentSerializer serializer = new BlockContentSerializer(objectMapper, md5Hasher);
+
+    @Test
+    void streamingHashMatchesStringConcatenation() throws Exception {
+        Random random = new Random(7);
+        for (int i = 0; i < 50; i++) {
+            Block block = randomBlock(random, random.nextInt(300));
+            assertEquals(legacyContentHash(block), serializer.contentHash(block).toHex());
+        }
+    }
+
+    @Test
+    void handlesGenesisAndEmptyBlocks() throws Exception {
+        Block genesis = new Block(0, "0".repeat(64), Collections.singletonList(new Transaction("system", "genesis", 0.0)), 1_700_000_000L, 0, "");
+        assertEquals(legacyContentHash(genesis), serializer.contentHash(genesis).toHex());
+
+        Block empty = new Block(3, null, null, 0, 0, "");
+        assertEquals(legacyContentHash(empty), serializer.contentHash(empty).toHex());
+    }
+
+    @Test
+    void merkleVersionCommitsToRootInsteadOfData() throws Exception {
+        Block block = randomBlock(new Random(5), 9);
+        block.setVersion(Block.MERKLE_VERSION);
+        String root = serializer.merkleRoot(block.getData()).toHex();
+        String expected = md5Hasher.hashHex(block.getIndex() + "" + block.getTimestamp() + root + block.getPrevious_hash());
+        // Sin merkle_root se calcula desde data; con merkle_root se usa el guardado.
+        assertEquals(expected, serializer.contentHash(block).toHex());
+        block.setMerkle_root(root);
+        assertEquals(expected, serializer.contentHash(block).toHex());
+
+        // Hoja: md5 del mismo JSON con el que la transacción aparece dentro de data.
+        Transaction first = block.getData().get(0);
+        assertEquals(md5Hasher.hashHex(objectMapper.writeValueAsString(first)), serializer.transactionHash(first).toHex());
+    }
+
+    // Implementación original de BlockService.calculateBlockContentHash.
+    private String legacyContentHash(Block block) throws Exception {
+        String contentInput = String.valueOf(block.getIndex()) +
+                String.valueOf(block.getTimestamp()) +
+                objectMapper.writeValueAsString(block.getData()) +
+                block.getPrevious_hash();
+        return md5Hasher.hashHex(contentInput);
+    }
+
+    static Block randomBlock(Random random, int transactions) {
+        List<Transaction> data = new ArrayList<>(transactions);
+        for (int i = 0; i < transactions; i++) {
+            data.add(new Transaction(
+                    UUID.randomUUID().toString(),
+                    randomName(random),
+                    randomName(random),
+                    random.nextInt(4) == 0 ? random.nextInt(1000) : random.nextDouble() * Math.pow(10, random.nextInt(12) - 3),
+                    1_700_000_000L + random.nextInt(1_000_000)));
+        }
+        return new Block(random.nextInt(100_000), UUID.randomUUID().toString().replace("-", ""), data,
+                1_700_000_000L + random.nextInt(1_000_000), 0, "");
+    }
+
+    private static String randomName(Random random) {
+        String[] names = {"alice", "bob", "carlos \"el\" minero", "ñandú", "tab\there", "línea\nnueva", "emoji 🚀", "back\\slash"};
+        return names[random.nextInt(names.length)];
+    }
+
+    static ObjectMapper blockServiceObjectMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        mapper.configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        mapper.configure(SerializationFeature.INDENT_OUTPUT, false);
+        return mapper;
+    }
+}
@@ -0,0 +1,59 @@
+package com.blockchain.coordinator.crypto;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Md5HasherTests {
+
+    private final Md5Hasher md5Hasher = new Md5Hasher();
+
+    @Test
+    void hashStringMatchesMessageDigest() throws Exception {
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            String input = randomString(random, random.nextInt(40_000));
+            assertEquals(reference(input), md5Hasher.hashHex(input));
+        }
+        assertEquals(reference("transacción ñandú"), md5Hasher.hashHex("transacción ñandú"));
+    }
+
+    @Test
+    void finalHashMatchesNonceConcatenation() throws Exception {
+        Md5Hash contentHash = md5Hasher.hashString("contenido");
+        for (long nonce : new long[]{0, 7, 10, 99, 4_294_967_295L, Long.MAX_VALUE, -1, Long.MIN_VALUE}) {
+            String expected = reference(nonce + contentHash.toHex());
+            assertEquals(expected, md5Hasher.hashFinal(nonce, contentHash).toHex());
+            assertTrue(md5Hasher.finalHashMatches(nonce, contentHash, expected));
+            assertFalse(md5Hasher.finalHashMatches(nonce + 1, contentHash, expected));
+            assertFalse(md5Hasher.finalHashMatches(nonce, contentHash, expected.toUpperCase()));
+        }
+    }
+
+    @Test
+    void md5HashRoundTripsThroughHexAndBytes() {
+        Md5Hash hash = md5Hasher.hashString("bloque");
+        assertEquals(hash, Md5Hash.fromHex(hash.toHex()));
+        assertEquals(hash, Md5Hash.fromBytes(hash.toBytes(), 0));
+        assertTrue(hash.matchesHex(hash.toHex()));
+        assertFalse(Md5Hash.isHex("xyz"));
+    }
+
+    private static String reference(String input) throws Exception {
+        byte[] digest = MessageDigest.getInstance("MD5").digest(input.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest);
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(random.nextInt(20) == 0 ? (char) (0xa0 + random.nextInt(0x500)) : (char) (0x20 + random.nextInt(0x5f)));
+        }
+        return sb.toString();
+    }
+}
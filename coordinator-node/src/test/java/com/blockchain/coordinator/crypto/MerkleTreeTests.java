@@ -0,0 +1,63 @@
+package com.blockchain.coordinator.crypto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MerkleTreeTests {
+
+    private final Md5Hasher md5Hasher = new Md5Hasher();
+
+    @Test
+    void builderMatchesLevelByLevelTreeForAnyLeafCount() {
+        assertEquals(md5Hasher.hashString(""), MerkleTree.root(md5Hasher, List.of()));
+        for (int n = 1; n <= 70; n++) {
+            List<Md5Hash> leaves = leaves(n);
+            assertEquals(levelByLevelRoot(leaves), MerkleTree.root(md5Hasher, leaves), "hojas: " + n);
+        }
+
+        // Tres hojas: el nodo impar sube sin duplicarse.
+        List<Md5Hash> three = leaves(3);
+        Md5Hash expected = MerkleTree.parent(md5Hasher, MerkleTree.parent(md5Hasher, three.get(0), three.get(1)), three.get(2));
+        assertEquals(expected, MerkleTree.root(md5Hasher, three));
+    }
+
+    @Test
+    void proofsVerifyOnlyAgainstTheirLeafAndRoot() {
+        for (int n : new int[]{1, 2, 5, 8, 13}) {
+            List<Md5Hash> leaves = leaves(n);
+            Md5Hash root = MerkleTree.root(md5Hasher, leaves);
+            for (int i = 0; i < n; i++) {
+                List<MerkleTree.Step> proof = MerkleTree.proof(md5Hasher, leaves, i);
+                assertTrue(MerkleTree.verify(md5Hasher, leaves.get(i), proof, root), n + "/" + i);
+                if (n > 1) {
+                    assertFalse(MerkleTree.verify(md5Hasher, leaves.get((i + 1) % n), proof, root), n + "/" + i);
+                }
+            }
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> MerkleTree.proof(md5Hasher, leaves(3), 3));
+    }
+
+    private List<Md5Hash> leaves(int n) {
+        List<Md5Hash> leaves = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            leaves.add(md5Hasher.hashString("tx" + i));
+        }
+        return leaves;
+    }
+
+    private Md5Hash levelByLevelRoot(List<Md5Hash> leaves) {
+        List<Md5Hash> level = leaves;
+        while (level.size() > 1) {
+            List<Md5Hash> parents = new ArrayList<>();
+            for (int i = 0; i < level.size(); i += 2) {
+                parents.add(i + 1 < level.size() ? MerkleTree.parent(md5Hasher, level.get(i), level.get(i + 1)) : level.get(i));
+            }
+            level = parents;
+        }
+        return level.get(0);
+    }
+}
@@ -0,0 +1,45 @@
+package com.blockchain.coordinator.crypto;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MiningTargetTests {
+
+    private final Md5Hasher md5Hasher = new Md5Hasher();
+
+    @Test
+    void zeroPrefixTargetBehavesLikeStartsWith() {
+        assertEquals("000fffffffffffffffffffffffffffff", MiningTarget.fromZeroPrefix(3).toHex());
+        assertEquals("ffffffffffffffffffffffffffffffff", MiningTarget.fromBits(0).toHex());
+        assertEquals("00000000000000000000000000000000", MiningTarget.fromBits(128).toHex());
+        Md5Hash contentHash = md5Hasher.hashString("contenido");
+        for (long nonce = 0; nonce < 5_000; nonce++) {
+            Md5Hash hash = md5Hasher.hashFinal(nonce, contentHash);
+            for (int zeros = 0; zeros <= 3; zeros++) {
+                Md5Hash target = MiningTarget.fromZeroPrefix(zeros);
+                boolean expected = hash.toHex().startsWith("0".repeat(zeros));
+                assertEquals(expected, MiningTarget.meets(hash.toBytes(), 0, target));
+                assertEquals(expected, MiningTarget.meets(hash, target));
+            }
+        }
+    }
+
+    @Test
+    void fractionalBitsRoundTripAndPublishASufficientPrefix() {
+        for (double bits = 0; bits <= 40; bits += 0.37) {
+            Md5Hash target = MiningTarget.fromBits(bits);
+            assertEquals(bits, MiningTarget.bits(target), 1e-9);
+            String prefix = MiningTarget.prefixFor(target);
+            assertEquals((int) Math.ceil(bits / 4 - 1e-9), prefix.length());
+            // El hash más grande que cumple el prefijo también cumple el target.
+            Md5Hash largest = Md5Hash.fromHex(prefix + "f".repeat(Md5Hash.HEX_LENGTH - prefix.length()));
+            assertTrue(MiningTarget.meets(largest, target));
+        }
+        // Entre dos prefijos hay dificultades intermedias: 10 bits está entre 2 y 3 ceros.
+        Md5Hash tenBits = MiningTarget.fromBits(10);
+        assertTrue(tenBits.compareTo(MiningTarget.fromZeroPrefix(2)) < 0);
+        assertTrue(tenBits.compareTo(MiningTarget.fromZeroPrefix(3)) > 0);
+        assertEquals("003fffffffffffffffffffffffffffff", tenBits.toHex());
+    }
+}
@@ -0,0 +1,57 @@
+package com.blockchain.coordinator.crypto;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MiningVerificationContextTests {
+
+    private final Md5Hasher md5Hasher = new Md5Hasher();
+    private final Md5Hash contentHash = md5Hasher.hashString("contenido del candidato");
+
+    @Test
+    void acceptsMatchingHashThatMeetsChallenge() {
+        long nonce = findNonce("00");
+        String solved = md5Hasher.hashFinal(nonce, contentHash).toHex();
+        MiningVerificationContext context = new MiningVerificationContext("blk", "00", contentHash);
+
+        assertEquals(MiningVerificationContext.Result.VALID, context.verify(md5Hasher, nonce, solved));
+        assertEquals(MiningVerificationContext.Result.HASH_MISMATCH, context.verify(md5Hasher, nonce + 1, solved));
+        assertEquals(MiningVerificationContext.Result.HASH_MISMATCH, context.verify(md5Hasher, nonce, null));
+    }
+
+    @Test
+    void challengeCheckBehavesLikeStartsWith() {
+        for (long nonce = 0; nonce < 2_000; nonce++) {
+            String solved = md5Hasher.hashFinal(nonce, contentHash).toHex();
+            for (String challenge : new String[]{"", "0", "a", "0f", "A", "zz"}) {
+                MiningVerificationContext context = new MiningVerificationContext("blk", challenge, contentHash);
+                MiningVerificationContext.Result expected = solved.startsWith(challenge)
+                        ? MiningVerificationContext.Result.VALID
+                        : MiningVerificationContext.Result.DIFFICULTY_NOT_MET;
+                assertEquals(expected, context.verify(md5Hasher, nonce, solved));
+            }
+        }
+    }
+
+    @Test
+    void targetCheckComparesTheRawDigest() {
+        Md5Hash target = MiningTarget.fromBits(6);
+        for (long nonce = 0; nonce < 2_000; nonce++) {
+            Md5Hash hash = md5Hasher.hashFinal(nonce, contentHash);
+            MiningVerificationContext context = new MiningVerificationContext("blk", "00", target, contentHash);
+            MiningVerificationContext.Result expected = hash.compareTo(target) <= 0
+                    ? MiningVerificationContext.Result.VALID
+                    : MiningVerificationContext.Result.DIFFICULTY_NOT_MET;
+            assertEquals(expected, context.verify(md5Hasher, nonce, hash.toHex()));
+        }
+    }
+
+    private long findNonce(String prefix) {
+        long nonce = 0;
+        while (!md5Hasher.hashFinal(nonce, contentHash).toHex().startsWith(prefix)) {
+            nonce++;
+        }
+        return nonce;
+    }
+}
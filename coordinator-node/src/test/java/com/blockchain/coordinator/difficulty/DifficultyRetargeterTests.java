@@ -0,0 +1,118 @@
+package com.blockchain.coordinator.difficulty;
+
+import com.blockchain.coordinator.crypto.Md5Hash;
+import com.blockchain.coordinator.crypto.MiningTarget;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DifficultyRetargeterTests {
+
+    private static final long TARGET_MILLIS = 10_000;
+    private static final long TIMEOUT_MILLIS = 30_000;
+
+    private static final double MAX_STEP_BITS = 4;
+
+    // Red simulada: cada bloque tarda una exponencial de media 2^bits / hashrate; pasado el timeout la tarea
+    // vence. Reproduce lo que hace DifficultyService con cada resultado: publica MiningTarget.fromBits y toma
+    // los bits del target publicado.
+    private static final class Network {
+        private final DifficultyRetargeter retargeter = new DifficultyRetargeter(TARGET_MILLIS, 0.2, MAX_STEP_BITS, 3);
+        private final Random random = new Random(42);
+        private Md5Hash target;
+        private double solvedMillis;
+        private int solved;
+
+        private Network(double bits) {
+            this.target = MiningTarget.fromBits(bits);
+        }
+
+        private double bits() {
+            return MiningTarget.bits(target);
+        }
+
+        private void run(double hashrate, int blocks) {
+            solvedMillis = 0;
+            solved = 0;
+            for (int i = 0; i < blocks; i++) {
+                double bits = bits();
+                long millis = (long) (-Math.log(1 - random.nextDouble()) * Math.pow(2, bits) / hashrate * 1000);
+                if (millis < TIMEOUT_MILLIS) {
+                    retargeter.record(bits, millis, true);
+                    target = MiningTarget.fromBits(retargeter.nextBits(bits));
+                    solvedMillis += millis;
+                    solved++;
+                } else {
+                    retargeter.record(bits, TIMEOUT_MILLIS, false);
+                    target = MiningTarget.fromBits(retargeter.isWarm() ? retargeter.nextBits(bits) : bits - MAX_STEP_BITS);
+                }
+                assertTrue(Math.abs(bits() - bits) <= MAX_STEP_BITS + 1e-6, "El paso no quedó acotado a max-step-bits");
+            }
+        }
+
+        private double averageSolveMillis() {
+            return solvedMillis / solved;
+        }
+    }
+
+    private static double desiredBits(double hashrate) {
+        return Math.log(hashrate * TARGET_MILLIS / 1000.0) / Math.log(2);
+    }
+
+    @Test
+    void convergesToTheTargetIntervalFromAnOverestimatedDifficulty() {
+        // 2^20 H/s: el intervalo objetivo pide ~23.3 bits; se arranca con 36.
+        Network network = new Network(36);
+        network.run(1 << 20, 100);
+        network.run(1 << 20, 300);
+        assertEquals(desiredBits(1 << 20), network.bits(), 1.0);
+        assertTrue(network.averageSolveMillis() > TARGET_MILLIS / 2.0 && network.averageSolveMillis() < TARGET_MILLIS * 2.0,
+                "Intervalo promedio fuera de rango: " + network.averageSolveMillis());
+        assertEquals(1 << 20, network.retargeter.hashrate(), (1 << 20) * 0.5);
+    }
+
+    @Test
+    void fractionalTargetsSettleCloseToTheTargetInterval() {
+        // Sin redondear a dígitos hex (target numérico) el intervalo queda cerca del objetivo y no a un factor 4.
+        DifficultyRetargeter retargeter = new DifficultyRetargeter(TARGET_MILLIS, 0.2, 4, 3);
+        Random random = new Random(7);
+        double hashrate = 3_000_000;
+        double bits = 16;
+        double totalMillis = 0;
+        int blocks = 0;
+        for (int i = 0; i < 1_500; i++) {
+            long millis = (long) (-Math.log(1 - random.nextDouble()) * Math.pow(2, bits) / hashrate * 1000);
+            boolean solved = millis < TIMEOUT_MILLIS;
+            retargeter.record(bits, solved ? millis : TIMEOUT_MILLIS, solved);
+            double next = retargeter.nextBits(bits);
+            assertTrue(Math.abs(next - bits) <= 4 + 1e-9, "El paso no quedó acotado a max-step-bits");
+            bits = next;
+            if (i >= 500) {
+                totalMillis += Math.min(millis, TIMEOUT_MILLIS);
+                blocks++;
+            }
+        }
+        assertEquals(Math.log(hashrate * TARGET_MILLIS / 1000.0) / Math.log(2), bits, 1.0);
+        assertEquals(TARGET_MILLIS, totalMillis / blocks, TARGET_MILLIS * 0.3);
+    }
+
+    @Test
+    void raisesDifficultyWhenTheFleetGrowsAndLowersItWhenItShrinks() {
+        Network network = new Network(24);
+        network.run(1 << 20, 200);
+        assertEquals(desiredBits(1 << 20), network.bits(), 1.0);
+
+        // Se suma flota: 16 veces más hashrate pide 4 bits más.
+        network.run(1 << 24, 100);
+        assertEquals(desiredBits(1 << 24), network.bits(), 1.0);
+        network.run(1 << 24, 200);
+        assertTrue(network.averageSolveMillis() > TARGET_MILLIS / 2.0 && network.averageSolveMillis() < TARGET_MILLIS * 2.0,
+                "Intervalo promedio fuera de rango: " + network.averageSolveMillis());
+
+        // Se retira flota: con 256 veces menos la dificultad baja 8 bits.
+        network.run(1 << 16, 200);
+        assertEquals(desiredBits(1 << 16), network.bits(), 1.0);
+    }
+}
@@ -0,0 +1,81 @@
+package com.blockchain.coordinator.mempool;
+
+import com.blockchain.coordinator.models.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MempoolTests {
+
+    @Test
+    void drainsInArrivalOrderAndDeduplicatesById() {
+        Mempool mempool = new Mempool();
+        Transaction a = new Transaction("alice", "bob", 1);
+        Transaction b = new Transaction("bob", "carol", 2);
+        Transaction c = new Transaction("carol", "alice", 3);
+
+        assertTrue(mempool.add(a));
+        assertTrue(mempool.add(b));
+        assertFalse(mempool.add(new Transaction(a.getId(), "x", "y", 9, 0)));
+        assertTrue(mempool.add(c));
+        assertEquals(3, mempool.size());
+        assertSame(b, mempool.get(b.getId()));
+
+        assertTrue(mempool.remove(b.getId()));
+        assertEquals(List.of(a, c), mempool.snapshot());
+        assertEquals(List.of(a), mempool.drain(1));
+        assertEquals(List.of(c), mempool.drain(10));
+        assertTrue(mempool.isEmpty());
+
+        // Re-agregar una transacción removida la pone al final, no en su posición anterior.
+        assertTrue(mempool.add(b));
+        assertEquals(List.of(b), mempool.drain(10));
+    }
+
+    @Test
+    void concurrentProducersAndConsumersNeverLoseOrDuplicate() throws Exception {
+        Mempool mempool = new Mempool();
+        int producers = 8;
+        int perProducer = 20_000;
+        Set<String> drained = ConcurrentHashMap.newKeySet();
+        List<String> duplicates = new ArrayList<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(producers + 2);
+        for (int p = 0; p < producers; p++) {
+            executor.submit(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    mempool.add(new Transaction("s", "r", i));
+                }
+            });
+        }
+        for (int c = 0; c < 2; c++) {
+            executor.submit(() -> {
+                long deadline = System.currentTimeMillis() + 10_000;
+                while (drained.size() < producers * perProducer && System.currentTimeMillis() < deadline) {
+                    for (Transaction tx : mempool.drain(500)) {
+                        if (!drained.add(tx.getId())) {
+                            synchronized (duplicates) {
+                                duplicates.add(tx.getId());
+                            }
+                        }
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertTrue(duplicates.isEmpty());
+        assertEquals(producers * perProducer, new HashSet<>(drained).size());
+        assertEquals(0, mempool.size());
+    }
+}
@@ -0,0 +1,91 @@
+package com.blockchain.coordinator.repositories;
+
+import com.blockchain.coordinator.codec.BlockCodec;
+import com.blockchain.coordinator.codec.HeaderRecordCodec;
+import com.blockchain.coordinator.crypto.BlockContentSerializer;
+import com.blockchain.coordinator.crypto.Md5Hasher;
+import com.blockchain.coordinator.models.Block;
+import com.blockchain.coordinator.models.Transaction;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChainLogBlockRepositoryTests {
+
+    // Más que la capacidad inicial de los índices en memoria, para que crezcan.
+    private static final int CHAIN_LENGTH = 1500;
+
+    private final Md5Hasher md5Hasher = new Md5Hasher();
+    private final BlockCodec blockCodec = new BlockCodec(1024);
+    private final HeaderRecordCodec headerRecordCodec = new HeaderRecordCodec(new BlockContentSerializer(new ObjectMapper(), md5Hasher));
+
+    @Test
+    void pagesThroughATimeRangeInTimestampThenHashOrder(@TempDir Path directory) throws Exception {
+        List<Block> blocks = new ArrayList<>();
+        ChainLogBlockRepository repository = open(directory);
+        try {
+            String previousHash = "0".repeat(32);
+            for (int height = 0; height < CHAIN_LENGTH; height++) {
+                // Tres bloques por segundo (empates) y cada 50 uno atrasado 20 segundos (fuera de orden).
+                long timestamp = 1_000L + height / 3 - (height % 50 == 49 ? 20 : 0);
+                Block block = new Block(height, previousHash, List.of(new Transaction("a", "b", height)), timestamp, height,
+                        md5Hasher.hashString("bloque-" + height).toHex());
+                repository.save(block);
+                blocks.add(block);
+                previousHash = block.getHash();
+            }
+
+            assertPages(repository, blocks, 1_100L, 1_300L, 7);
+            assertPages(repository, blocks, Long.MIN_VALUE, Long.MAX_VALUE, 100);
+            assertEquals(List.of(), repository.findHashesByTime(2_000L, 3_000L, 0, 10));
+            assertEquals(List.of(), repository.findHashesByTime(1_300L, 1_100L, 0, 10));
+            assertEquals(expected(blocks, 1_400L, Long.MAX_VALUE), repository.findHashesSince(1_400L));
+        } finally {
+            repository.close();
+        }
+
+        // Al reabrir, el índice por tiempo se reconstruye desde el log con el mismo orden.
+        ChainLogBlockRepository reopened = open(directory);
+        try {
+            assertPages(reopened, blocks, 1_100L, 1_300L, 7);
+        } finally {
+            reopened.close();
+        }
+    }
+
+    private static void assertPages(ChainLogBlockRepository repository, List<Block> blocks, long from, long to, int pageSize) {
+        List<String> paged = new ArrayList<>();
+        for (long offset = 0; ; offset += pageSize) {
+            List<ZSetOperations.TypedTuple<String>> page = repository.findHashesByTime(from, to, offset, pageSize);
+            assertTrue(page.size() <= pageSize);
+            for (ZSetOperations.TypedTuple<String> tuple : page) {
+                paged.add(tuple.getValue());
+            }
+            if (page.size() < pageSize) {
+                break;
+            }
+        }
+        assertEquals(expected(blocks, from, to), paged);
+        assertEquals(paged.size(), repository.findHashesByTime(from, to, 0, -1).size());
+    }
+
+    private static List<String> expected(List<Block> blocks, long from, long to) {
+        return blocks.stream()
+                .filter(block -> block.getTimestamp() >= from && block.getTimestamp() <= to)
+                .sorted(Comparator.comparingLong(Block::getTimestamp).thenComparing(Block::getHash))
+                .map(Block::getHash)
+                .toList();
+    }
+
+    private ChainLogBlockRepository open(Path directory) throws Exception {
+        return new ChainLogBlockRepository(blockCodec, headerRecordCodec, directory.toString(), 1 << 16, 16, false);
+    }
+}
@@ -0,0 +1,189 @@
+package com.blockchain.coordinator.repositories;
+
+import com.blockchain.coordinator.codec.BlockCodec;
+import com.blockchain.coordinator.codec.HeaderRecordCodec;
+import com.blockchain.coordinator.crypto.BlockContentSerializer;
+import com.blockchain.coordinator.crypto.Md5Hasher;
+import com.blockchain.coordinator.models.Block;
+import com.blockchain.coordinator.models.Transaction;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// El orden de KEYS/ARGV de APPEND_IF_TIP se controla siempre; el script en sí sólo contra un Redis en
+// localhost:6379, base 15 (se vacía antes y después de cada test), y se saltea si no hay servidor. Con
+// -Dredis.required=true (la corrida previa a publicar un cambio en el script) la falta de servidor es un error.
+class RedisBlockRepositoryTests {
+
+    private final Md5Hasher md5Hasher = new Md5Hasher();
+    private final BlockCodec blockCodec = new BlockCodec(1024);
+    private final HeaderRecordCodec headerRecordCodec = new HeaderRecordCodec(new BlockContentSerializer(new ObjectMapper(), md5Hasher));
+    private LettuceConnectionFactory connectionFactory;
+
+    @AfterEach
+    void flush() {
+        if (connectionFactory != null) {
+            connectionFactory.getConnection().serverCommands().flushDb();
+            connectionFactory.destroy();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void passesTheTipAndSixArgumentsPerBlockInKeyOrder() {
+        RedisTemplate<String, byte[]> binary = mock(RedisTemplate.class);
+        RedisBlockRepository repository = new RedisBlockRepository(binary, mock(RedisTemplate.class), blockCodec, headerRecordCodec, null);
+        List<Block> blocks = List.of(block(3, "padre"), block(4, md5Hasher.hashString("bloque-3").toHex()));
+        List<Object[]> calls = new ArrayList<>();
+        doAnswer(invocation -> {
+            calls.add(invocation.getRawArguments());
+            return calls.size() == 1 ? 1L : 0L;
+        }).when(binary).execute(any(RedisScript.class), anyList(), any(Object[].class));
+
+        assertTrue(repository.appendIfTip("padre", blocks));
+        assertFalse(repository.appendIfTip("padre", blocks));
+        assertTrue(repository.appendIfTip("padre", List.of()));
+        assertEquals(2, calls.size());
+
+        assertEquals(List.of("block_chain_tip", "block_heights", "block_hashes", "block_header_index",
+                RedisBlockRepository.key(blocks.get(0).getHash()), RedisBlockRepository.key(blocks.get(1).getHash())), calls.get(0)[1]);
+        Object[] args = (Object[]) calls.get(0)[2];
+        assertEquals(1 + blocks.size() * 6, args.length);
+        assertEquals("padre", text(args[0]));
+        for (int i = 0; i < blocks.size(); i++) {
+            Block block = blocks.get(i);
+            int a = 1 + i * 6;
+            assertEquals(block.getHash(), text(args[a]));
+            assertEquals(Integer.toString(block.getIndex()), text(args[a + 1]));
+            assertEquals(Long.toString(block.getTimestamp()), text(args[a + 2]));
+            assertEquals(Long.toString((long) block.getIndex() * HeaderRecordCodec.RECORD_BYTES), text(args[a + 3]));
+            assertArrayEquals(blockCodec.encodeBlock(block), (byte[]) args[a + 4]);
+            assertArrayEquals(headerRecordCodec.encode(block), (byte[]) args[a + 5]);
+        }
+    }
+
+    @Test
+    void fallsBackToTheHighestHeightWhenThereIsNoTipKey() {
+        RedisBlockRepository repository = connect();
+        Block genesis = block(0, "0".repeat(32));
+        repository.save(genesis);
+        assertNull(strings().opsForValue().get("block_chain_tip"));
+
+        Block first = block(1, genesis.getHash());
+        assertFalse(repository.appendIfTip("otro", List.of(first)));
+        assertTrue(repository.appendIfTip(genesis.getHash(), List.of(first)));
+        assertEquals(first.getHash(), strings().opsForValue().get("block_chain_tip"));
+        assertEquals(1, repository.findMaxHeight());
+    }
+
+    @Test
+    void rejectsAStaleTipWithoutWritingAnything() {
+        RedisBlockRepository repository = connect();
+        Block genesis = block(0, "0".repeat(32));
+        repository.save(genesis);
+        Block winner = block(1, genesis.getHash());
+        assertTrue(repository.appendIfTip(genesis.getHash(), List.of(winner)));
+
+        // Otra instancia minó sobre el mismo padre: su bloque no se agrega.
+        Block loser = block(1, genesis.getHash(), 99);
+        assertFalse(repository.appendIfTip(genesis.getHash(), List.of(loser)));
+        assertEquals(winner.getHash(), strings().opsForValue().get("block_chain_tip"));
+        assertFalse(repository.existsById(loser.getHash()));
+        assertEquals(List.of(genesis.getHash(), winner.getHash()), repository.findHashesFromHeight(0, 10));
+        assertEquals(2, repository.findHashesSince(0).size());
+        assertEquals(2L * HeaderRecordCodec.RECORD_BYTES, repository.findHeaderRecords(0, 10).length);
+    }
+
+    @Test
+    void keepsTheTipAndIndexesConsistentAfterATwoBlockAppend() {
+        RedisBlockRepository repository = connect();
+        Block genesis = block(0, "0".repeat(32));
+        repository.save(genesis);
+        Block mined = block(1, genesis.getHash());
+        Block reward = block(2, mined.getHash());
+
+        assertTrue(repository.appendIfTip(genesis.getHash(), List.of(mined, reward)));
+        assertEquals(reward.getHash(), strings().opsForValue().get("block_chain_tip"));
+        assertEquals(2, repository.findMaxHeight());
+        assertEquals(List.of(genesis.getHash(), mined.getHash(), reward.getHash()), repository.findHashesFromHeight(0, 10));
+        List<ZSetOperations.TypedTuple<String>> byTime = repository.findHashesByTime(0, Long.MAX_VALUE, 0, 10);
+        assertEquals(List.of(genesis.getHash(), mined.getHash(), reward.getHash()), byTime.stream().map(ZSetOperations.TypedTuple::getValue).toList());
+        assertEquals((double) reward.getTimestamp(), byTime.get(2).getScore());
+        assertEquals(reward, repository.findById(reward.getHash()).orElseThrow());
+        byte[] records = repository.findHeaderRecords(1, 10);
+        assertArrayEquals(headerRecordCodec.encode(mined), Arrays.copyOfRange(records, 0, HeaderRecordCodec.RECORD_BYTES));
+        assertArrayEquals(headerRecordCodec.encode(reward), Arrays.copyOfRange(records, HeaderRecordCodec.RECORD_BYTES, records.length));
+
+        // El siguiente agregado tiene que partir del último bloque, no del minado.
+        assertFalse(repository.appendIfTip(mined.getHash(), List.of(block(3, mined.getHash()))));
+        assertTrue(repository.appendIfTip(reward.getHash(), List.of(block(3, reward.getHash()))));
+    }
+
+    private RedisBlockRepository connect() {
+        connectionFactory = new LettuceConnectionFactory("localhost", 6379);
+        connectionFactory.setDatabase(15);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        boolean available;
+        try {
+            connectionFactory.getConnection().serverCommands().flushDb();
+            available = true;
+        } catch (RuntimeException e) {
+            available = false;
+        }
+        if (!available) {
+            connectionFactory.destroy();
+            connectionFactory = null;
+        }
+        if (Boolean.getBoolean("redis.required")) {
+            assertTrue(available, "No hay Redis en localhost:6379 y redis.required=true");
+        }
+        assumeTrue(available, "No hay Redis en localhost:6379");
+        return new RedisBlockRepository(template(RedisSerializer.byteArray()), strings(), blockCodec, headerRecordCodec,
+                mock(LegacyBlockRepository.class));
+    }
+
+    private RedisTemplate<String, String> strings() {
+        return template(new StringRedisSerializer());
+    }
+
+    private <V> RedisTemplate<String, V> template(RedisSerializer<V> valueSerializer) {
+        RedisTemplate<String, V> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(valueSerializer);
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    private Block block(int index, String previousHash) {
+        return block(index, previousHash, 0);
+    }
+
+    private Block block(int index, String previousHash, long nonce) {
+        Block block = new Block(index, previousHash, List.of(new Transaction("id-" + index, "a", "b", index, 1_700_000_000L)),
+                1_700_000_000L + index, nonce, md5Hasher.hashString("bloque-" + index + "-" + nonce).toHex());
+        block.setVersion(Block.LEGACY_VERSION);
+        return block;
+    }
+
+    private static String text(Object arg) {
+        return new String((byte[]) arg, StandardCharsets.UTF_8);
+    }
+}
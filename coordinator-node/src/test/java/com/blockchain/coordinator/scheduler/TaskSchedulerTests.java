@@ -0,0 +1,95 @@
+package com.blockchain.coordinator.scheduler;
+
+import com.blockchain.coordinator.crypto.Md5Hash;
+import com.blockchain.coordinator.dtos.MiningTask;
+import com.blockchain.coordinator.events.BlockCommittedEvent;
+import com.blockchain.coordinator.models.Block;
+import com.blockchain.coordinator.models.ExchangeEvent;
+import com.blockchain.coordinator.services.BlockService;
+import com.blockchain.coordinator.services.CurrentMiningTaskService;
+import com.blockchain.coordinator.services.DifficultyService;
+import com.blockchain.coordinator.services.MempoolRecoveryService;
+import com.blockchain.coordinator.services.MiningTaskNotifier;
+import com.blockchain.coordinator.services.QueueAdminService;
+import com.blockchain.coordinator.services.TransactionPoolService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TaskSchedulerTests {
+
+    private static final String TARGET = "000fffffffffffffffffffffffffffff";
+
+    private final BlockService blockService = mock(BlockService.class);
+    private final MiningTaskNotifier miningTaskNotifier = mock(MiningTaskNotifier.class);
+    private final CurrentMiningTaskService currentMiningTaskService = mock(CurrentMiningTaskService.class);
+    private final QueueAdminService queueAdminService = mock(QueueAdminService.class);
+    private final TransactionPoolService transactionPoolService = mock(TransactionPoolService.class);
+    private final DifficultyService difficultyService = mock(DifficultyService.class);
+    private final MempoolRecoveryService mempoolRecoveryService = mock(MempoolRecoveryService.class);
+    private TaskScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new TaskScheduler(blockService, miningTaskNotifier, currentMiningTaskService, queueAdminService,
+                transactionPoolService, difficultyService, mempoolRecoveryService);
+        ReflectionTestUtils.setField(scheduler, "maxTransactionsPerBlock", 10);
+        ReflectionTestUtils.setField(scheduler, "minTransactionsPerBlock", 1);
+        ReflectionTestUtils.setField(scheduler, "maxRetries", 3);
+        ReflectionTestUtils.setField(scheduler, "taskTimeoutMillis", 60_000L);
+        when(mempoolRecoveryService.isFinished()).thenReturn(true);
+        when(transactionPoolService.getPendingTransactionCount()).thenReturn(5);
+        when(difficultyService.getCurrentChallenge()).thenReturn("000");
+        when(difficultyService.getCurrentTarget()).thenReturn(Md5Hash.fromHex(TARGET));
+        when(blockService.createNewMiningCandidateBlock(anyInt())).thenReturn(block("candidato"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void publishesTheNextTaskAsSoonAsABlockIsCommitted() {
+        scheduler.onBlockCommitted(new BlockCommittedEvent("minado", 12.0, System.currentTimeMillis() - 8_000, System.currentTimeMillis()));
+
+        ArgumentCaptor<MiningTask> saved = ArgumentCaptor.forClass(MiningTask.class);
+        verify(currentMiningTaskService, timeout(5_000)).saveCurrentTask(saved.capture());
+        verify(miningTaskNotifier, timeout(5_000)).notifyNewMiningTask(any(), eq("000"), eq(TARGET), eq(0));
+        assertTrue(saved.getValue().getDeadline() > System.currentTimeMillis());
+        assertEquals(TARGET, saved.getValue().getTarget());
+        assertEquals(1, scheduler.getStats().getPublishedByEvent());
+        assertEquals(0, scheduler.getStats().getPublishedByCron());
+        verify(difficultyService).recordSolvedBlock(eq("minado"), eq(12.0), longThat(millis -> millis >= 8_000));
+    }
+
+    @Test
+    void dropsATaskOnlyAfterItsDeadline() {
+        MiningTask task = new MiningTask(ExchangeEvent.NEW_CANDIDATE_BLOCK, "000", TARGET, block("viejo"), 0,
+                System.currentTimeMillis() - 1_000, System.currentTimeMillis() + 60_000, null, 0);
+        when(currentMiningTaskService.getCurrentTask()).thenReturn(task);
+        scheduler.createAndPublishMiningTask();
+        verify(currentMiningTaskService, never()).clearCurrentTask();
+        verify(currentMiningTaskService, never()).incrementCurrentTaskRetries();
+
+        task.setDeadline(System.currentTimeMillis() - 1);
+        scheduler.createAndPublishMiningTask();
+        verify(difficultyService).recordExpiredTask(eq("viejo"), doubleThat(bits -> Math.abs(bits - 12) < 1e-9), longThat(millis -> millis >= 1_000));
+        verify(miningTaskNotifier).notifyMiningTaskDropped("viejo");
+        verify(currentMiningTaskService).clearCurrentTask();
+        verify(miningTaskNotifier).notifyNewMiningTask(any(), eq("000"), eq(TARGET), eq(0));
+        assertEquals(1, scheduler.getStats().getExpiredTasks());
+    }
+
+    private static Block block(String hash) {
+        Block block = new Block();
+        block.setHash(hash);
+        return block;
+    }
+}
@@ -0,0 +1,71 @@
+package com.blockchain.coordinator.services;
+
+import com.blockchain.coordinator.cache.BlockCache;
+import com.blockchain.coordinator.cache.BlockResponseCache;
+import com.blockchain.coordinator.crypto.BlockContentSerializer;
+import com.blockchain.coordinator.crypto.Md5Hasher;
+import com.blockchain.coordinator.dtos.MiningTask;
+import com.blockchain.coordinator.models.Block;
+import com.blockchain.coordinator.models.ExchangeEvent;
+import com.blockchain.coordinator.models.Transaction;
+import com.blockchain.coordinator.repositories.BlockRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BlockServiceTests {
+
+    private final Md5Hasher md5Hasher = new Md5Hasher();
+    private final BlockRepository blockRepository = mock(BlockRepository.class);
+    private final BlockService blockService = new BlockService(blockRepository, mock(TransactionPoolService.class), null,
+            new ObjectMapper(), mock(CurrentMiningTaskService.class), mock(DifficultyService.class), md5Hasher,
+            new BlockContentSerializer(new ObjectMapper(), md5Hasher), mock(BlockCache.class), mock(BlockResponseCache.class),
+            mock(CandidateTemplateService.class), 2);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void commitsTheSolvedAndRewardBlocksInOneConditionalAppend() {
+        MiningTask task = task("padre");
+        when(blockRepository.appendIfTip(eq("padre"), anyList())).thenReturn(true);
+
+        Optional<Block> committed = blockService.commitMinedBlock(task, 42, "resuelto", "minero-1");
+
+        ArgumentCaptor<List<Block>> appended = ArgumentCaptor.forClass(List.class);
+        verify(blockRepository).appendIfTip(eq("padre"), appended.capture());
+        verify(blockRepository, never()).save(any());
+        List<Block> blocks = appended.getValue();
+        assertEquals(2, blocks.size());
+        assertEquals("resuelto", blocks.get(0).getHash());
+        assertEquals(42, blocks.get(0).getNonce());
+        assertEquals(6, blocks.get(1).getIndex());
+        assertEquals("resuelto", blocks.get(1).getPrevious_hash());
+        assertEquals("minero-1", blocks.get(1).getData().get(0).getReceiver());
+        assertEquals(committed.orElseThrow(), blocks.get(0));
+        assertEquals(blocks.get(1).getHash(), blockService.getLatestBlockHash());
+    }
+
+    @Test
+    void reloadsTheTipWhenAnotherInstanceAlreadyExtendedTheParent() {
+        Block foreignTip = new Block(7, "otro", List.of(), 1000L, 0, "tip-de-otra-instancia");
+        when(blockRepository.appendIfTip(anyString(), anyList())).thenReturn(false);
+        when(blockRepository.count()).thenReturn(8L);
+        when(blockRepository.findMaxHeight()).thenReturn(7L);
+        when(blockRepository.findHashByHeight(7)).thenReturn(Optional.of("tip-de-otra-instancia"));
+        when(blockRepository.findById("tip-de-otra-instancia")).thenReturn(Optional.of(foreignTip));
+
+        assertTrue(blockService.commitMinedBlock(task("padre"), 42, "resuelto", "minero-1").isEmpty());
+        assertEquals("tip-de-otra-instancia", blockService.getLatestBlockHash());
+    }
+
+    private static MiningTask task(String previousHash) {
+        Block candidate = new Block(5, previousHash, List.of(new Transaction("alice", "bob", 3.0)), 1000L, 0, "candidato");
+        return new MiningTask(ExchangeEvent.NEW_CANDIDATE_BLOCK, "0", null, candidate, 0, 0, 0, null, 0);
+    }
+}
@@ -0,0 +1,70 @@
+package com.blockchain.coordinator.services;
+
+import com.blockchain.coordinator.crypto.BlockContentSerializer;
+import com.blockchain.coordinator.crypto.Md5Hasher;
+import com.blockchain.coordinator.models.Transaction;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CandidateTemplateServiceTests {
+
+    private final Md5Hasher md5Hasher = new Md5Hasher();
+    private final BlockContentSerializer serializer = new BlockContentSerializer(new ObjectMapper(), md5Hasher);
+
+    @Test
+    void takeReusesLeavesHashedInTheBackground() {
+        List<Transaction> pool = transactions(8);
+        TransactionPoolService transactionPoolService = mock(TransactionPoolService.class);
+        CandidateTemplateService templates = new CandidateTemplateService(transactionPoolService, serializer, md5Hasher, 100, 2);
+
+        // La plantilla se arma con 5 transacciones y después se extiende con las 3 que llegaron.
+        when(transactionPoolService.peekPendingTransactions(anyInt())).thenReturn(pool.subList(0, 5), pool);
+        templates.refresh();
+        templates.refresh();
+
+        when(transactionPoolService.getPendingTransactions(anyInt())).thenReturn(pool);
+        CandidateTemplateService.Drained drained = templates.take(100);
+        assertEquals(pool, drained.transactions());
+        assertEquals(serializer.merkleRoot(pool), drained.merkleRoot());
+        assertEquals(8, templates.getReusedLeaves());
+        assertEquals(0, templates.getHashedOnTake());
+    }
+
+    @Test
+    void takeRebuildsWhenThePoolChangedUnderTheTemplate() {
+        List<Transaction> pool = transactions(6);
+        TransactionPoolService transactionPoolService = mock(TransactionPoolService.class);
+        CandidateTemplateService templates = new CandidateTemplateService(transactionPoolService, serializer, md5Hasher, 100, 2);
+        when(transactionPoolService.peekPendingTransactions(anyInt())).thenReturn(pool);
+        templates.refresh();
+
+        // La transacción 2 salió del pool antes de crear el candidato.
+        List<Transaction> drainedFromPool = new ArrayList<>(pool);
+        drainedFromPool.remove(2);
+        when(transactionPoolService.getPendingTransactions(anyInt())).thenReturn(drainedFromPool);
+        CandidateTemplateService.Drained drained = templates.take(100);
+        assertEquals(serializer.merkleRoot(drainedFromPool), drained.merkleRoot());
+        assertEquals(2, templates.getReusedLeaves());
+        assertEquals(3, templates.getHashedOnTake());
+
+        // Después de take la plantilla queda vacía.
+        when(transactionPoolService.getPendingTransactions(anyInt())).thenReturn(List.of());
+        assertEquals(serializer.merkleRoot(List.of()), templates.take(100).merkleRoot());
+    }
+
+    private static List<Transaction> transactions(int count) {
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            transactions.add(new Transaction("sender-" + i, "receiver-" + i, i * 1.5));
+        }
+        return transactions;
+    }
+}
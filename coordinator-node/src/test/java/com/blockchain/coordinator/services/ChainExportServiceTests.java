@@ -0,0 +1,140 @@
+package com.blockchain.coordinator.services;
+
+import com.blockchain.coordinator.codec.BlockCodec;
+import com.blockchain.coordinator.codec.HeaderRecordCodec;
+import com.blockchain.coordinator.crypto.BlockContentSerializer;
+import com.blockchain.coordinator.crypto.Md5Hash;
+import com.blockchain.coordinator.crypto.Md5Hasher;
+import com.blockchain.coordinator.dtos.ChainHeader;
+import com.blockchain.coordinator.models.Block;
+import com.blockchain.coordinator.models.Transaction;
+import com.blockchain.coordinator.repositories.BlockRepository;
+import com.blockchain.coordinator.repositories.ChainLogBlockRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ChainExportServiceTests {
+
+    private static final int CHAIN_LENGTH = 10;
+
+    @Test
+    void binaryExportWalksPagesInHeightOrderAndResumesFromHeight() throws Exception {
+        BlockRepository repository = mock(BlockRepository.class);
+        when(repository.findHashesByHeightRange(anyLong(), anyLong(), anyInt())).thenAnswer(invocation -> {
+            long from = invocation.getArgument(0);
+            long to = invocation.getArgument(1);
+            int limit = invocation.getArgument(2);
+            List<ZSetOperations.TypedTuple<String>> range = new ArrayList<>();
+            for (long height = from; height <= Math.min(to, CHAIN_LENGTH - 1) && range.size() < limit; height++) {
+                range.add(new DefaultTypedTuple<>("h" + height, (double) height));
+            }
+            return range;
+        });
+        when(repository.findEncodedById(anyList())).thenAnswer(invocation -> {
+            List<byte[]> values = new ArrayList<>();
+            for (Object hash : invocation.<List<?>>getArgument(0)) {
+                values.add(hash.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            return values;
+        });
+        ChainExportService service = new ChainExportService(repository, new BlockCodec(1024), new ObjectMapper(), 3, 4);
+
+        try {
+            assertEquals(List.of("h0", "h1", "h2", "h3", "h4", "h5", "h6", "h7"), exportBinary(service, 0, 7));
+            assertEquals(List.of("h8", "h9"), exportBinary(service, 8, 9));
+            assertEquals(List.of(), exportBinary(service, 10, 9));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void headerExportStreamsFixedRecordsThatProveWork(@TempDir Path directory) throws Exception {
+        Md5Hasher md5Hasher = new Md5Hasher();
+        BlockContentSerializer serializer = new BlockContentSerializer(new ObjectMapper(), md5Hasher);
+        HeaderRecordCodec headerRecordCodec = new HeaderRecordCodec(serializer);
+        BlockCodec blockCodec = new BlockCodec(1024);
+        ChainLogBlockRepository repository = new ChainLogBlockRepository(blockCodec, headerRecordCodec, directory.toString(), 1 << 16, 4, false);
+        String previousHash = "0".repeat(64);
+        for (int height = 0; height < CHAIN_LENGTH; height++) {
+            Block block = new Block(height, previousHash, List.of(new Transaction("a", "b", height)), 1_700_000_000L + height, height * 31L, "");
+            block.setVersion(height % 2 == 0 ? Block.MERKLE_VERSION : Block.LEGACY_VERSION);
+            if (block.usesMerkleRoot()) {
+                block.setMerkle_root(serializer.merkleRoot(block.getData()).toHex());
+            }
+            block.setHash(md5Hasher.hashFinal(block.getNonce(), serializer.contentHash(block)).toHex());
+            repository.save(block);
+            previousHash = block.getHash();
+        }
+        ChainExportService service = new ChainExportService(repository, blockCodec, new ObjectMapper(), 3, 4);
+
+        try {
+            ByteArrayOutputStream binary = new ByteArrayOutputStream();
+            assertEquals(7, service.exportHeaders(3, CHAIN_LENGTH - 1, ChainExportService.Format.BINARY, binary));
+            assertEquals(7 * HeaderRecordCodec.RECORD_BYTES, binary.size());
+            ChainHeader fourth = HeaderRecordCodec.decode(binary.toByteArray(), HeaderRecordCodec.RECORD_BYTES);
+            assertEquals(4, fourth.getIndex());
+            assertEquals(repository.findHashByHeight(3).orElseThrow(), fourth.getPrevious_hash());
+            // La prueba de trabajo se verifica sólo con la cabecera.
+            assertTrue(md5Hasher.finalHashMatches(fourth.getNonce(), Md5Hash.fromHex(fourth.getContent_hash()), fourth.getHash()));
+
+            ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+            assertEquals(CHAIN_LENGTH, service.exportHeaders(0, CHAIN_LENGTH - 1, ChainExportService.Format.NDJSON, ndjson));
+            String[] lines = ndjson.toString(StandardCharsets.UTF_8).split("\n");
+            assertEquals(CHAIN_LENGTH, lines.length);
+            ChainHeader genesis = new ObjectMapper().readValue(lines[0], ChainHeader.class);
+            assertEquals("0".repeat(64), genesis.getPrevious_hash());
+            assertNotNull(genesis.getMerkle_root());
+            assertNull(new ObjectMapper().readValue(lines[1], ChainHeader.class).getMerkle_root());
+        } finally {
+            service.shutdown();
+            repository.close();
+        }
+
+        // Al reabrir, un índice de cabeceras que quedó más corto que el log se completa desde los bloques.
+        try (FileChannel headers = FileChannel.open(directory.resolve("headers.idx"),
+                StandardOpenOption.WRITE)) {
+            headers.truncate(5L * HeaderRecordCodec.RECORD_BYTES);
+        }
+        ChainLogBlockRepository reopened = new ChainLogBlockRepository(blockCodec, headerRecordCodec, directory.toString(), 1 << 16, 4, false);
+        try {
+            assertEquals(CHAIN_LENGTH - 5, reopened.rebuildHeaderIndexIfIncomplete());
+            assertEquals(CHAIN_LENGTH * HeaderRecordCodec.RECORD_BYTES, reopened.findHeaderRecords(0, 100).length);
+        } finally {
+            reopened.close();
+        }
+    }
+
+    private static List<String> exportBinary(ChainExportService service, long from, long tip) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long exported = service.export(from, tip, ChainExportService.Format.BINARY, out);
+
+        List<String> records = new ArrayList<>();
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+        while (in.available() > 0) {
+            byte[] record = new byte[in.readInt()];
+            in.readFully(record);
+            records.add(new String(record, StandardCharsets.UTF_8));
+        }
+        assertEquals(exported, records.size());
+        return records;
+    }
+}
@@ -0,0 +1,63 @@
+package com.blockchain.coordinator.services;
+
+import com.blockchain.coordinator.cache.BlockCache;
+import com.blockchain.coordinator.dtos.BlockHeader;
+import com.blockchain.coordinator.dtos.BlockPage;
+import com.blockchain.coordinator.repositories.BlockRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ChainQueryServiceTests {
+
+    // Bloques con timestamps repetidos: 10, 10, 10, 11, 12, 12.
+    private static final long[] TIMESTAMPS = {10, 10, 10, 11, 12, 12};
+
+    @Test
+    void timeCursorWalksBlocksSharingTimestampsWithoutGapsOrRepeats() {
+        BlockRepository repository = mock(BlockRepository.class);
+        when(repository.findHashesByTime(anyLong(), anyLong(), anyLong(), anyInt())).thenAnswer(invocation -> {
+            long from = invocation.getArgument(0);
+            long to = invocation.getArgument(1);
+            long offset = invocation.getArgument(2);
+            int limit = invocation.getArgument(3);
+            List<ZSetOperations.TypedTuple<String>> range = new ArrayList<>();
+            for (int i = 0; i < TIMESTAMPS.length; i++) {
+                if (TIMESTAMPS[i] >= from && TIMESTAMPS[i] <= to) {
+                    range.add(new DefaultTypedTuple<>("h" + i, (double) TIMESTAMPS[i]));
+                }
+            }
+            return range.subList((int) Math.min(offset, range.size()), (int) Math.min(offset + limit, range.size()));
+        });
+        when(repository.findHeadersById(anyCollection())).thenAnswer(invocation -> {
+            List<BlockHeader> headers = new ArrayList<>();
+            for (Object hash : invocation.<java.util.Collection<?>>getArgument(0)) {
+                headers.add(new BlockHeader(Integer.parseInt(hash.toString().substring(1)), hash.toString(), null, 0, 0, 0, 0, null));
+            }
+            return headers;
+        });
+        ChainQueryService service = new ChainQueryService(repository, new BlockCache(16, 1 << 20));
+
+        List<String> walked = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            BlockPage<BlockHeader> page = service.headersByTime(0, Long.MAX_VALUE, cursor, 2);
+            page.getItems().forEach(header -> walked.add(header.getHash()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null && pages < 10);
+
+        assertEquals(List.of("h0", "h1", "h2", "h3", "h4", "h5"), walked);
+        assertThrows(IllegalArgumentException.class, () -> service.headersByTime(0, 100, "nope", 2));
+        assertThrows(IllegalArgumentException.class, () -> ChainQueryService.parseHeightCursor("-1"));
+    }
+}
@@ -0,0 +1,144 @@
+package com.blockchain.coordinator.services;
+
+import com.blockchain.coordinator.codec.BlockCodec;
+import com.blockchain.coordinator.crypto.BlockContentSerializer;
+import com.blockchain.coordinator.crypto.Md5Hasher;
+import com.blockchain.coordinator.dtos.ChainVerificationReport;
+import com.blockchain.coordinator.models.Block;
+import com.blockchain.coordinator.models.Transaction;
+import com.blockchain.coordinator.repositories.BlockRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChainVerifierTests {
+
+    private final Md5Hasher md5Hasher = new Md5Hasher();
+    private final BlockContentSerializer serializer = new BlockContentSerializer(new ObjectMapper(), md5Hasher);
+    private final BlockCodec blockCodec = new BlockCodec(1024);
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> values = mock(ValueOperations.class);
+
+    private List<Block> chain(int length) {
+        List<Block> chain = new ArrayList<>();
+        String previousHash = "0".repeat(32);
+        for (int i = 0; i < length; i++) {
+            Block block = new Block(i, previousHash, List.of(new Transaction("system", "miner-" + i, 20.0)), 1000L + i, i * 31L, "");
+            block.setHash(md5Hasher.hashFinal(block.getNonce(), serializer.contentHash(block)).toHex());
+            chain.add(block);
+            previousHash = block.getHash();
+        }
+        return chain;
+    }
+
+    private ChainVerifier verifier(List<Block> chain) {
+        return verifier(chain, 0);
+    }
+
+    private ChainVerifier verifier(List<Block> chain, long hashCheckFromHeight) {
+        Map<String, byte[]> stored = new HashMap<>();
+        chain.forEach(block -> stored.put(block.getHash(), blockCodec.encodeBlock(block)));
+        BlockRepository repository = mock(BlockRepository.class);
+        when(repository.findMaxHeight()).thenReturn(chain.size() - 1L);
+        when(repository.findHashesByHeightRange(anyLong(), anyLong(), anyInt())).thenAnswer(invocation -> {
+            long from = invocation.getArgument(0);
+            long to = invocation.getArgument(1);
+            int limit = invocation.getArgument(2);
+            List<ZSetOperations.TypedTuple<String>> range = new ArrayList<>();
+            for (long height = from; height <= to && height < chain.size() && range.size() < limit; height++) {
+                range.add(new DefaultTypedTuple<>(chain.get((int) height).getHash(), (double) height));
+            }
+            return range;
+        });
+        when(repository.findEncodedById(anyList())).thenAnswer(invocation -> {
+            List<byte[]> values = new ArrayList<>();
+            for (Object hash : invocation.<List<?>>getArgument(0)) {
+                values.add(stored.get(hash.toString()));
+            }
+            return values;
+        });
+        when(repository.count()).thenReturn((long) chain.size());
+        when(redisTemplate.opsForValue()).thenReturn(values);
+        return new ChainVerifier(repository, redisTemplate, blockCodec, serializer, md5Hasher, 7, 4, hashCheckFromHeight);
+    }
+
+    @Test
+    void acceptsConsistentChainAcrossPages() {
+        ChainVerificationReport report = verifier(chain(50)).verify(0);
+        assertEquals("VALID", report.getState());
+        assertEquals(50, report.getVerifiedBlocks());
+        assertNull(report.getFailureHeight());
+    }
+
+    @Test
+    void reportsFirstTamperedBlockAndFirstBrokenLink() {
+        List<Block> tampered = chain(50);
+        tampered.get(23).setTimestamp(tampered.get(23).getTimestamp() + 60);
+        tampered.get(40).setNonce(tampered.get(40).getNonce() + 1);
+        ChainVerificationReport report = verifier(tampered).verify(2);
+        assertEquals("INVALID", report.getState());
+        assertEquals(23L, report.getFailureHeight());
+        assertEquals(23, report.getVerifiedBlocks());
+
+        List<Block> unlinked = chain(50);
+        unlinked.get(12).setPrevious_hash("f".repeat(32));
+        unlinked.get(12).setHash(md5Hasher.hashFinal(unlinked.get(12).getNonce(), serializer.contentHash(unlinked.get(12))).toHex());
+        report = verifier(unlinked).verify(2);
+        assertEquals("INVALID", report.getState());
+        assertEquals(12L, report.getFailureHeight());
+        assertTrue(report.getFailureReason().contains("previous_hash"));
+    }
+
+    @Test
+    void skipsHashRecomputationBelowTheRecordedHeight() {
+        // Bloques minados antes del arreglo: el coordinador pisó el timestamp después de minar.
+        List<Block> upgraded = chain(50);
+        for (int i = 1; i < 30; i++) {
+            upgraded.get(i).setTimestamp(upgraded.get(i).getTimestamp() + 5);
+        }
+
+        ChainVerifier strict = verifier(upgraded, 0);
+        assertEquals("INVALID", strict.verify(2).getState());
+
+        ChainVerifier configured = verifier(upgraded, 30);
+        ChainVerificationReport report = configured.verify(2);
+        assertEquals("VALID", report.getState());
+        assertEquals(30, report.getHashCheckFromHeight());
+
+        // Con -1 se usa la altura registrada en el primer arranque y, sin registro, no se recalcula ninguno.
+        ChainVerifier recorded = verifier(upgraded, -1);
+        when(values.get(ChainVerifier.HASH_CHECK_HEIGHT_KEY)).thenReturn("30");
+        assertEquals("VALID", recorded.verify(2).getState());
+        when(values.get(ChainVerifier.HASH_CHECK_HEIGHT_KEY)).thenReturn("29");
+        report = recorded.verify(2);
+        assertEquals("INVALID", report.getState());
+        assertEquals(29L, report.getFailureHeight());
+        when(values.get(ChainVerifier.HASH_CHECK_HEIGHT_KEY)).thenReturn(null);
+        assertEquals(50, recorded.verify(2).getHashCheckFromHeight());
+
+        // Un bloque posterior con el hash roto se sigue detectando.
+        upgraded.get(40).setNonce(upgraded.get(40).getNonce() + 1);
+        report = verifier(upgraded, 30).verify(2);
+        assertEquals("INVALID", report.getState());
+        assertEquals(40L, report.getFailureHeight());
+
+        recorded.recordHashCheckHeight();
+        verify(values).setIfAbsent(ChainVerifier.HASH_CHECK_HEIGHT_KEY, "50");
+    }
+}
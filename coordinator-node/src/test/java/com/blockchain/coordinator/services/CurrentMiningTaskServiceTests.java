@@ -0,0 +1,174 @@
+package com.blockchain.coordinator.services;
+
+import com.blockchain.coordinator.dtos.MiningTask;
+import com.blockchain.coordinator.models.Block;
+import com.blockchain.coordinator.models.ExchangeEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// Redis simulado con un mapa: las transacciones MULTI/EXEC acumulan los resultados de cada comando y EXEC los
+// devuelve, como hace Lettuce.
+class CurrentMiningTaskServiceTests {
+
+    private static final String TASK_KEY = "current_mining_task";
+    private static final String VERSION_KEY = "current_mining_task:version";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, String> store = new HashMap<>();
+    private final List<Object> queued = new ArrayList<>();
+    private final List<String> published = new ArrayList<>();
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+    private int transactions;
+    private boolean failWrites;
+
+    @Test
+    void writesThroughAndServesCopiesFromMemory() throws Exception {
+        CurrentMiningTaskService service = service(60_000);
+        service.saveCurrentTask(task("a", 0));
+
+        assertEquals(objectMapper.writeValueAsString(task("a", 0)), store.get(TASK_KEY));
+        assertEquals("1", store.get(VERSION_KEY));
+        assertEquals(1, published.size());
+        assertTrue(published.get(0).endsWith(":1"));
+
+        int before = transactions;
+        MiningTask first = service.getCurrentTask();
+        first.setRetries(99);
+        assertEquals(0, service.getCurrentTask().getRetries());
+        assertNotSame(first, service.getCurrentTask());
+        assertEquals(before, transactions, "las lecturas dentro de la ventana no van a Redis");
+    }
+
+    @Test
+    void incrementingRetriesWritesACopyAndLeavesTheCacheIntactWhenRedisFails() throws Exception {
+        CurrentMiningTaskService service = service(60_000);
+        service.saveCurrentTask(task("a", 0));
+        MiningTask heldByReader = service.getCurrentTask();
+
+        service.incrementCurrentTaskRetries();
+        assertEquals(0, heldByReader.getRetries());
+        assertEquals(1, service.getCurrentTask().getRetries());
+        assertEquals(1, objectMapper.readValue(store.get(TASK_KEY), MiningTask.class).getRetries());
+        assertEquals("2", store.get(VERSION_KEY));
+
+        failWrites = true;
+        assertThrows(QueryTimeoutException.class, service::incrementCurrentTaskRetries);
+        assertEquals(1, service.getCurrentTask().getRetries());
+    }
+
+    @Test
+    void anInvalidationFromAnotherReplicaForcesARead() throws Exception {
+        CurrentMiningTaskService service = service(60_000);
+        service.saveCurrentTask(task("a", 0));
+
+        // Otra réplica escribe la tarea "b" (versión 2) y lo anuncia.
+        store.put(TASK_KEY, objectMapper.writeValueAsString(task("b", 0)));
+        store.put(VERSION_KEY, "2");
+        assertEquals("a", service.getCurrentTask().getBlock().getHash(), "sin mensaje se sirve la copia hasta revalidar");
+
+        // Los mensajes propios y los de versiones viejas no descartan la copia.
+        service.onMessage(message(published.get(0)), null);
+        service.onMessage(message("otra-replica:1"), null);
+        assertEquals("a", service.getCurrentTask().getBlock().getHash());
+
+        service.onMessage(message("otra-replica:2"), null);
+        assertEquals("b", service.getCurrentTask().getBlock().getHash());
+    }
+
+    @Test
+    void revalidatesAgainstTheVersionOnceTheWindowExpires() throws Exception {
+        CurrentMiningTaskService service = service(0);
+        service.saveCurrentTask(task("a", 0));
+
+        int before = transactions;
+        assertEquals("a", service.getCurrentTask().getBlock().getHash());
+        assertEquals(before, transactions, "con la misma versión sólo se lee la versión");
+        verify(redisTemplate.opsForValue(), atLeastOnce()).get(VERSION_KEY);
+
+        // Cambio perdido: la versión en Redis avanzó sin que llegara la invalidación.
+        store.put(TASK_KEY, objectMapper.writeValueAsString(task("b", 3)));
+        store.put(VERSION_KEY, "5");
+        MiningTask reloaded = service.getCurrentTask();
+        assertEquals("b", reloaded.getBlock().getHash());
+        assertEquals(3, reloaded.getRetries());
+        assertEquals(before + 1, transactions);
+
+        service.clearCurrentTask();
+        assertNull(service.getCurrentTask());
+        assertFalse(store.containsKey(TASK_KEY));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private CurrentMiningTaskService service(long revalidateMillis) {
+        ValueOperations<String, String> directValues = mock(ValueOperations.class);
+        when(directValues.get(anyString())).thenAnswer(invocation -> store.get(invocation.<String>getArgument(0)));
+        when(redisTemplate.opsForValue()).thenReturn(directValues);
+        doAnswer(invocation -> {
+            published.add(invocation.getArgument(1));
+            return 1L;
+        }).when(redisTemplate).convertAndSend(anyString(), any());
+
+        ValueOperations<String, String> queuedValues = mock(ValueOperations.class);
+        when(queuedValues.get(anyString())).thenAnswer(invocation -> queue(store.get(invocation.<String>getArgument(0))));
+        doAnswer(invocation -> queue(store.put(invocation.getArgument(0), invocation.getArgument(1)) != null))
+                .when(queuedValues).set(anyString(), anyString());
+        when(queuedValues.increment(anyString())).thenAnswer(invocation -> {
+            long next = Long.parseLong(store.getOrDefault(invocation.<String>getArgument(0), "0")) + 1;
+            store.put(invocation.getArgument(0), Long.toString(next));
+            return queue(next);
+        });
+        RedisOperations<String, String> operations = mock(RedisOperations.class);
+        when(operations.opsForValue()).thenReturn(queuedValues);
+        when(operations.delete(anyString())).thenAnswer(invocation -> queue(store.remove(invocation.<String>getArgument(0)) != null));
+        when(operations.exec()).thenAnswer(invocation -> {
+            List<Object> results = new ArrayList<>(queued);
+            queued.clear();
+            return results;
+        });
+
+        when(redisTemplate.execute(any(SessionCallback.class))).thenAnswer(invocation -> {
+            if (failWrites) {
+                throw new QueryTimeoutException("redis");
+            }
+            transactions++;
+            return invocation.<SessionCallback>getArgument(0).execute(operations);
+        });
+
+        CurrentMiningTaskService service = new CurrentMiningTaskService(redisTemplate, objectMapper,
+                mock(MiningTaskPublisher.class), mock(RedisMessageListenerContainer.class), revalidateMillis);
+        service.init();
+        return service;
+    }
+
+    private Object queue(Object result) {
+        queued.add(result);
+        return null;
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage("current_mining_task:invalidations".getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static MiningTask task(String hash, int retries) {
+        return new MiningTask(ExchangeEvent.NEW_CANDIDATE_BLOCK, "00", null,
+                new Block(3, "padre", List.of(), 1000L, 0, hash), retries, 10L, 20L, null, 0);
+    }
+}
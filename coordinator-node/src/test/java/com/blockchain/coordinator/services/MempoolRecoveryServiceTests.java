@@ -0,0 +1,189 @@
+package com.blockchain.coordinator.services;
+
+import com.blockchain.coordinator.codec.BlockCodec;
+import com.blockchain.coordinator.codec.HeaderRecordCodec;
+import com.blockchain.coordinator.crypto.BlockContentSerializer;
+import com.blockchain.coordinator.crypto.Md5Hasher;
+import com.blockchain.coordinator.dtos.BlockHeader;
+import com.blockchain.coordinator.dtos.RecoveryStatus;
+import com.blockchain.coordinator.models.Block;
+import com.blockchain.coordinator.models.Transaction;
+import com.blockchain.coordinator.repositories.BlockRepository;
+import com.blockchain.coordinator.repositories.ChainLogBlockRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// Redis simulado: el SCAN recorre las claves de un mapa y cada GET en pipeline devuelve su valor (o se
+// demora, para las claves en slow).
+class MempoolRecoveryServiceTests {
+
+    private final Md5Hasher md5Hasher = new Md5Hasher();
+    private final BlockCodec blockCodec = new BlockCodec(1024);
+    private final HeaderRecordCodec headerRecordCodec = new HeaderRecordCodec(new BlockContentSerializer(new ObjectMapper(), md5Hasher));
+    private final Map<String, byte[]> stored = new LinkedHashMap<>();
+    private final Set<String> slow = new HashSet<>();
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, byte[]> binaryRedisTemplate = mock(RedisTemplate.class);
+    private final TransactionPoolService transactionPoolService = mock(TransactionPoolService.class);
+    private final List<Transaction> restored = new ArrayList<>();
+
+    @SuppressWarnings("unchecked")
+    MempoolRecoveryServiceTests() {
+        when(redisTemplate.scan(any(ScanOptions.class))).thenAnswer(invocation -> {
+            Iterator<String> keys = new ArrayList<>(stored.keySet()).iterator();
+            Cursor<String> cursor = mock(Cursor.class);
+            when(cursor.hasNext()).thenAnswer(i -> keys.hasNext());
+            when(cursor.next()).thenAnswer(i -> keys.next());
+            return cursor;
+        });
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisStringCommands stringCommands = mock(RedisStringCommands.class);
+        when(connection.stringCommands()).thenReturn(stringCommands);
+        when(binaryRedisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            List<Object> results = new ArrayList<>();
+            doAnswer(get -> {
+                String key = new String(get.<byte[]>getArgument(0), StandardCharsets.UTF_8);
+                if (slow.contains(key)) {
+                    Thread.sleep(10_000);
+                }
+                results.add(stored.get(key));
+                return null;
+            }).when(stringCommands).get(any(byte[].class));
+            invocation.<RedisCallback<Object>>getArgument(0).doInRedis(connection);
+            return results;
+        });
+        when(transactionPoolService.restoreTransactions(anyList())).thenAnswer(invocation -> {
+            restored.addAll(invocation.getArgument(0));
+            return restored.size();
+        });
+    }
+
+    @Test
+    void dropsTransactionsFromTheRecentBlocksAndStaleLegacyKeys(@TempDir Path directory) throws Exception {
+        ChainLogBlockRepository repository = new ChainLogBlockRepository(blockCodec, headerRecordCodec, directory.toString(), 1 << 16, 16, false);
+        try {
+            Transaction old = transaction("viejo", 1_000L);
+            Transaction mined = transaction("minado", 1_040L);
+            String previousHash = "0".repeat(32);
+            for (int height = 0; height < 5; height++) {
+                List<Transaction> data = height == 0 ? List.of(old) : height == 4 ? List.of(mined) : List.of();
+                Block block = new Block(height, previousHash, data, 1_000L + height * 10, height, md5Hasher.hashString("bloque-" + height).toHex());
+                repository.save(block);
+                previousHash = block.getHash();
+            }
+            // Un cliente puede mandar cualquier timestamp: ni el del pasado ni el futuro cambian qué bloques se leen.
+            Transaction backdated = transaction("pendiente", 1L);
+            Transaction futureDated = transaction("pendiente", 9_999_999_999L);
+            Transaction legacyStale = transaction("legacy", 1_005L);
+            Transaction legacyRecent = transaction("legacy", 1_035L);
+            persist(TransactionPersister.redisKey(mined), mined);
+            persist(TransactionPersister.redisKey(futureDated), futureDated);
+            persist(TransactionPersister.redisKey(backdated), backdated);
+            persist("transactions:1005:legacy", legacyStale);
+            persist("transactions:1035:legacy", legacyRecent);
+
+            // Ventana de 3 bloques: alturas 2 a 4, el primero con timestamp 1020.
+            RecoveryStatus status = recover(service(repository, 3, 60_000));
+
+            assertEquals("COMPLETED", status.getState());
+            assertEquals(5, status.getKeysScanned());
+            assertEquals(3, status.getBlocksChecked());
+            assertEquals(1, status.getAlreadyIncluded());
+            assertEquals(1, status.getSkippedLegacy());
+            assertEquals(List.of(backdated.getId(), legacyRecent.getId(), futureDated.getId()),
+                    restored.stream().map(Transaction::getId).toList());
+        } finally {
+            repository.close();
+        }
+    }
+
+    @Test
+    void restoresWhatWasReadWhenTheScanTimesOut() throws Exception {
+        BlockRepository repository = mock(BlockRepository.class);
+        when(repository.findMaxHeight()).thenReturn(-1L);
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Transaction transaction = transaction("sender-" + i, 1_000L + i);
+            transactions.add(transaction);
+            persist(TransactionPersister.redisKey(transaction), transaction);
+        }
+        slow.add(TransactionPersister.redisKey(transactions.get(2)));
+
+        RecoveryStatus status = recover(service(repository, 1000, 300));
+
+        assertEquals("TIMED_OUT", status.getState());
+        assertEquals(List.of(transactions.get(0).getId(), transactions.get(1).getId()),
+                restored.stream().map(Transaction::getId).toList());
+        assertEquals(2, status.getRecovered());
+    }
+
+    @Test
+    void restoresNothingWhenTheRecentBlocksAreNotReadInTime() throws Exception {
+        BlockRepository repository = mock(BlockRepository.class);
+        when(repository.findMaxHeight()).thenReturn(10L);
+        when(repository.findHashesFromHeight(anyLong(), anyInt())).thenReturn(List.of("a", "b"));
+        when(repository.findHeadersById(anyCollection())).thenReturn(List.of(new BlockHeader()));
+        when(repository.findEncodedById(anyList())).thenAnswer(invocation -> {
+            Thread.sleep(10_000);
+            return List.of();
+        });
+        Transaction transaction = transaction("sender", 1_000L);
+        persist(TransactionPersister.redisKey(transaction), transaction);
+
+        RecoveryStatus status = recover(service(repository, 1000, 300));
+
+        assertEquals("TIMED_OUT", status.getState());
+        verify(redisTemplate, never()).scan(any(ScanOptions.class));
+        verify(transactionPoolService, never()).restoreTransactions(anyList());
+        verify(transactionPoolService).resignalIfReady();
+    }
+
+    private MempoolRecoveryService service(BlockRepository repository, int recentBlocks, long timeoutMillis) {
+        return new MempoolRecoveryService(redisTemplate, binaryRedisTemplate, blockCodec, transactionPoolService, repository,
+                mock(CurrentMiningTaskService.class), new ObjectMapper(), true, 100, 1, 1, recentBlocks, timeoutMillis);
+    }
+
+    private static RecoveryStatus recover(MempoolRecoveryService service) throws InterruptedException {
+        service.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!service.isFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(service.isFinished());
+        return service.getStatus();
+    }
+
+    private void persist(String key, Transaction transaction) {
+        stored.put(key, blockCodec.encodeTransaction(transaction));
+    }
+
+    private static Transaction transaction(String sender, long timestamp) {
+        Transaction transaction = new Transaction(sender, "receptor", 1);
+        transaction.setTimestamp(timestamp);
+        return transaction;
+    }
+}
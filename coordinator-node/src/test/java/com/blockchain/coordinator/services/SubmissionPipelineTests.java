@@ -0,0 +1,167 @@
+package com.blockchain.coordinator.services;
+
+import com.blockchain.coordinator.dtos.MiningResult;
+import com.blockchain.coordinator.dtos.MiningTask;
+import com.blockchain.coordinator.dtos.SubmissionOutcome;
+import com.blockchain.coordinator.events.BlockCommittedEvent;
+import com.blockchain.coordinator.models.Block;
+import com.blockchain.coordinator.models.ExchangeEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SubmissionPipelineTests {
+
+    private static final String BLOCK_ID = "candidato";
+    // Cumple el challenge "0" del precheck; la verificación real la decide el mock de BlockService.
+    private static final String HASH = "0123456789abcdef0123456789abcdef";
+
+    private final BlockService blockService = mock(BlockService.class);
+    private final CurrentMiningTaskService currentMiningTaskService = mock(CurrentMiningTaskService.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final QueueAdminService queueAdminService = mock(QueueAdminService.class);
+    private final MiningTaskNotifier miningTaskNotifier = mock(MiningTaskNotifier.class);
+    private final MiningTask task = new MiningTask(ExchangeEvent.NEW_CANDIDATE_BLOCK, "0", null,
+            new Block(5, "padre", List.of(), 1000L, 0, BLOCK_ID), 0, 0, 0, null, 0);
+    private SubmissionPipeline pipeline = pipeline(16);
+
+    @AfterEach
+    void shutdown() {
+        pipeline.shutdown();
+    }
+
+    @Test
+    void rejectsSubmissionsForAnotherBlockOrWithoutATaskAsStale() throws Exception {
+        when(currentMiningTaskService.getCurrentTask()).thenReturn(null);
+        assertEquals(SubmissionOutcome.STALE, submit(1));
+
+        when(currentMiningTaskService.getCurrentTask()).thenReturn(task);
+        assertEquals(SubmissionOutcome.STALE, pipeline.submit(new MiningResult(HASH, "padre", 1, 1000L, null, 5, "otro", "m")).get(5, TimeUnit.SECONDS));
+        verifyNoInteractions(blockService);
+    }
+
+    @Test
+    void rejectsANonceThatIsStillBeingVerified() throws Exception {
+        when(currentMiningTaskService.getCurrentTask()).thenReturn(task);
+        CountDownLatch verifying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(blockService.verifyMiningSolution(any(MiningTask.class), eq(7L), anyString())).thenAnswer(invocation -> {
+            verifying.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return false;
+        });
+
+        CompletableFuture<SubmissionOutcome> first = pipeline.submit(result(7));
+        assertTrue(verifying.await(5, TimeUnit.SECONDS));
+        assertEquals(SubmissionOutcome.DUPLICATE, submit(7));
+        release.countDown();
+        assertEquals(SubmissionOutcome.INVALID, first.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void anInvalidSubmissionDoesNotBlockTheValidOneForTheSameNonce() throws Exception {
+        when(currentMiningTaskService.getCurrentTask()).thenReturn(task);
+        when(blockService.verifyMiningSolution(any(MiningTask.class), eq(7L), anyString())).thenReturn(false, true);
+        when(blockService.commitMinedBlock(any(), eq(7L), anyString(), anyString())).thenReturn(Optional.of(task.getBlock()));
+
+        assertEquals(SubmissionOutcome.INVALID, submit(7));
+        assertEquals(SubmissionOutcome.ACCEPTED, submit(7));
+        verify(eventPublisher).publishEvent(any(BlockCommittedEvent.class));
+    }
+
+    @Test
+    void anErrorDuringVerificationReleasesTheNonce() throws Exception {
+        when(currentMiningTaskService.getCurrentTask()).thenReturn(task);
+        when(blockService.verifyMiningSolution(any(MiningTask.class), eq(7L), anyString())).thenThrow(new IllegalStateException("redis")).thenReturn(true);
+        when(blockService.commitMinedBlock(any(), eq(7L), anyString(), anyString())).thenReturn(Optional.of(task.getBlock()));
+
+        assertEquals(SubmissionOutcome.ERROR, submit(7));
+        assertEquals(SubmissionOutcome.ACCEPTED, submit(7));
+    }
+
+    @Test
+    void answersOverloadedWhenTheVerificationQueueIsFull() throws Exception {
+        pipeline.shutdown();
+        pipeline = pipeline(1);
+        when(currentMiningTaskService.getCurrentTask()).thenReturn(task);
+        CountDownLatch verifying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(blockService.verifyMiningSolution(any(MiningTask.class), anyLong(), anyString())).thenAnswer(invocation -> {
+            verifying.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return false;
+        });
+
+        CompletableFuture<SubmissionOutcome> first = pipeline.submit(result(1));
+        assertTrue(verifying.await(5, TimeUnit.SECONDS));
+        assertEquals(SubmissionOutcome.OVERLOADED, submit(2));
+        release.countDown();
+        assertEquals(SubmissionOutcome.INVALID, first.get(5, TimeUnit.SECONDS));
+        // El nonce rechazado por sobrecarga no quedó marcado: se vuelve a verificar.
+        assertEquals(SubmissionOutcome.INVALID, submit(2));
+    }
+
+    @Test
+    void onlyOneOfManyValidSubmissionsWins() throws Exception {
+        pipeline.shutdown();
+        pipeline = pipeline(64);
+        when(currentMiningTaskService.getCurrentTask()).thenReturn(task);
+        when(blockService.verifyMiningSolution(any(MiningTask.class), anyLong(), anyString())).thenReturn(true);
+        when(blockService.commitMinedBlock(any(), anyLong(), anyString(), anyString())).thenReturn(Optional.of(task.getBlock()));
+
+        List<CompletableFuture<SubmissionOutcome>> futures = new ArrayList<>();
+        for (long nonce = 0; nonce < 50; nonce++) {
+            futures.add(pipeline.submit(result(nonce)));
+        }
+        int accepted = 0;
+        for (CompletableFuture<SubmissionOutcome> future : futures) {
+            SubmissionOutcome outcome = future.get(5, TimeUnit.SECONDS);
+            if (outcome == SubmissionOutcome.ACCEPTED) {
+                accepted++;
+            } else {
+                assertTrue(outcome == SubmissionOutcome.LOST || outcome == SubmissionOutcome.STALE, outcome.name());
+            }
+        }
+        assertEquals(1, accepted);
+        verify(blockService, times(1)).commitMinedBlock(any(), anyLong(), anyString(), anyString());
+        verify(currentMiningTaskService, times(1)).clearCurrentTask();
+    }
+
+    @Test
+    void aFailureAfterTheCommitStillAcceptsAndPublishesTheNextTask() throws Exception {
+        when(currentMiningTaskService.getCurrentTask()).thenReturn(task);
+        when(blockService.verifyMiningSolution(any(MiningTask.class), anyLong(), anyString())).thenReturn(true);
+        when(blockService.commitMinedBlock(any(), anyLong(), anyString(), anyString())).thenReturn(Optional.of(task.getBlock()));
+        doThrow(new IllegalStateException("RabbitMQ caído")).when(queueAdminService).purgeBlocksQueue();
+        doThrow(new IllegalStateException("RabbitMQ caído")).when(miningTaskNotifier).notifySolvedCandidateBlock(anyString(), anyString());
+
+        assertEquals(SubmissionOutcome.ACCEPTED, submit(1));
+        verify(currentMiningTaskService).clearCurrentTask();
+        verify(eventPublisher).publishEvent(any(BlockCommittedEvent.class));
+        assertEquals(SubmissionOutcome.STALE, submit(2));
+    }
+
+    private SubmissionPipeline pipeline(int queueCapacity) {
+        return new SubmissionPipeline(blockService, currentMiningTaskService, queueAdminService,
+                miningTaskNotifier, eventPublisher, queueCapacity);
+    }
+
+    private SubmissionOutcome submit(long nonce) throws Exception {
+        return pipeline.submit(result(nonce)).get(5, TimeUnit.SECONDS);
+    }
+
+    private static MiningResult result(long nonce) {
+        return new MiningResult(HASH, "padre", nonce, 1000L, null, 5, BLOCK_ID, "minero-" + nonce);
+    }
+}
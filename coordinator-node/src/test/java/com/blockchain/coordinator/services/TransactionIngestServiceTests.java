@@ -0,0 +1,75 @@
+package com.blockchain.coordinator.services;
+
+import com.blockchain.coordinator.dtos.TransactionAdmission;
+import com.blockchain.coordinator.dtos.TransactionIngestSummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TransactionIngestServiceTests {
+
+    private TransactionPoolService transactionPoolService;
+    private TransactionIngestService ingestService;
+
+    @BeforeEach
+    void setUp() {
+        TransactionPersister persister = mock(TransactionPersister.class);
+        when(persister.getAckMode()).thenReturn(TransactionPersister.AckMode.ACK_ON_FLUSH);
+        when(persister.enqueue(any())).thenAnswer(invocation -> CompletableFuture.completedFuture(null));
+        transactionPoolService = new TransactionPoolService(persister, event -> { }, 1);
+        ingestService = new TransactionIngestService(transactionPoolService, new ObjectMapper(), 2);
+    }
+
+    @Test
+    void ingestsJsonArrayInChunksAndReportsPerItemStatus() throws IOException {
+        String body = """
+                [{"id":"t1","sender":"a","receiver":"b","amount":1},
+                 {"sender":"b","receiver":"c","amount":2},
+                 {"id":"t1","sender":"a","receiver":"b","amount":1},
+                 {"sender":"c","receiver":"a","amount":"no es un numero"},
+                 {"id":"t5","sender":"c","receiver":"a","amount":3,"timestamp":42}]
+                """;
+        TransactionIngestSummary summary = ingestService.ingest(stream(body));
+
+        assertNull(summary.getError());
+        assertEquals(5, summary.getReceived());
+        assertEquals(TransactionAdmission.ACCEPTED, summary.getItems().get(0).getStatus());
+        assertNotNull(summary.getItems().get(1).getId());
+        assertEquals(TransactionAdmission.DUPLICATE, summary.getItems().get(2).getStatus());
+        assertEquals(TransactionAdmission.INVALID, summary.getItems().get(3).getStatus());
+        assertEquals(3, summary.getCounts().get(TransactionAdmission.ACCEPTED));
+        assertEquals(3, transactionPoolService.getPendingTransactionCount());
+        assertEquals(42, transactionPoolService.getPendingTransaction("t5").getTimestamp());
+        assertNotEquals(0, transactionPoolService.getPendingTransaction(summary.getItems().get(1).getId()).getTimestamp());
+    }
+
+    @Test
+    void ingestsNdjsonAndStopsAtMalformedLine() throws IOException {
+        String body = """
+                {"id":"n1","sender":"a","receiver":"b","amount":1}
+                {"id":"n2","sender":"a","receiver":"b","amount":2}
+                {"id":"n3","sender":"a","receiver":"b","amount":3}
+                {"id":"n4","sender":
+                """;
+        TransactionIngestSummary summary = ingestService.ingest(stream(body));
+
+        assertEquals(3, summary.getReceived());
+        assertNotNull(summary.getError());
+        assertEquals(3, summary.getCounts().get(TransactionAdmission.ACCEPTED));
+        assertEquals(3, transactionPoolService.getPendingTransactionCount());
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
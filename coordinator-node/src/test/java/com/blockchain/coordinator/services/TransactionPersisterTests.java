@@ -0,0 +1,130 @@
+package com.blockchain.coordinator.services;
+
+import com.blockchain.coordinator.codec.BlockCodec;
+import com.blockchain.coordinator.models.Transaction;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TransactionPersisterTests {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushesInPipelinedBatchesAndCompletesAfterWrite() throws Exception {
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisStringCommands stringCommands = mock(RedisStringCommands.class);
+        when(connection.stringCommands()).thenReturn(stringCommands);
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        List<String> keys = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            int before = keys.size();
+            invocation.<RedisCallback<Object>>getArgument(0).doInRedis(connection);
+            batchSizes.add(keys.size() - before);
+            return List.of();
+        }).when(redisTemplate).executePipelined(any(RedisCallback.class));
+        BlockCodec blockCodec = new BlockCodec(1024);
+        doAnswer(invocation -> {
+            keys.add(new String(invocation.<byte[]>getArgument(0), StandardCharsets.UTF_8));
+            assertNotNull(blockCodec.decodeTransaction(invocation.getArgument(1)).getId());
+            return true;
+        }).when(stringCommands).set(any(byte[].class), any(byte[].class));
+
+        TransactionPersister persister = new TransactionPersister(redisTemplate, blockCodec, TransactionPersister.AckMode.ACK_ON_FLUSH, 50, 20, 1_000);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            Transaction transaction = new Transaction("sender" + i, "receiver", i);
+            transactions.add(transaction);
+            futures.add(persister.enqueue(transaction));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        persister.shutdown();
+
+        assertEquals(120, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 50));
+        assertTrue(batchSizes.size() < 120);
+        assertEquals(TransactionPersister.redisKey(transactions.get(0)), keys.get(0));
+        assertEquals(120, persister.getStats().getPersisted());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedFlushCompletesExceptionallyAndFullQueueRejects() throws Exception {
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        BlockCodec blockCodec = new BlockCodec(1024);
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenThrow(new RedisConnectionFailureException("sin conexión"));
+
+        TransactionPersister persister = new TransactionPersister(redisTemplate, blockCodec, TransactionPersister.AckMode.ACK_ON_FLUSH, 10, 0, 1);
+        CompletableFuture<Void> flushed = persister.enqueue(new Transaction("a", "b", 1));
+        ExecutionException error = assertThrows(ExecutionException.class, () -> flushed.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RedisConnectionFailureException.class, error.getCause());
+        assertEquals(1, persister.getStats().getFailed());
+        persister.shutdown();
+
+        assertNull(persister.enqueue(new Transaction("a", "b", 2)));
+        assertEquals(1, persister.getStats().getRejected());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deletingAnIncludedTransactionKeepsAnotherFromTheSameSenderAndSecond() throws Exception {
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisStringCommands stringCommands = mock(RedisStringCommands.class);
+        RedisKeyCommands keyCommands = mock(RedisKeyCommands.class);
+        when(connection.stringCommands()).thenReturn(stringCommands);
+        when(connection.keyCommands()).thenReturn(keyCommands);
+        Map<String, byte[]> stored = new ConcurrentHashMap<>();
+        doAnswer(invocation -> {
+            invocation.<RedisCallback<Object>>getArgument(0).doInRedis(connection);
+            return List.of();
+        }).when(redisTemplate).executePipelined(any(RedisCallback.class));
+        doAnswer(invocation -> {
+            stored.put(new String(invocation.<byte[]>getArgument(0), StandardCharsets.UTF_8), invocation.getArgument(1));
+            return true;
+        }).when(stringCommands).set(any(byte[].class), any(byte[].class));
+        doAnswer(invocation -> {
+            long deleted = 0;
+            for (byte[] key : (byte[][]) invocation.getRawArguments()[0]) {
+                deleted += stored.remove(new String(key, StandardCharsets.UTF_8)) != null ? 1 : 0;
+            }
+            return deleted;
+        }).when(keyCommands).del(any());
+
+        BlockCodec blockCodec = new BlockCodec(1024);
+        TransactionPersister persister = new TransactionPersister(redisTemplate, blockCodec, TransactionPersister.AckMode.ACK_ON_FLUSH, 10, 0, 100);
+        // Mismo sender y mismo segundo, como los de una carga masiva.
+        Transaction included = new Transaction("sender", "a", 1);
+        Transaction pending = new Transaction("sender", "b", 2);
+        pending.setTimestamp(included.getTimestamp());
+        CompletableFuture.allOf(persister.enqueue(included), persister.enqueue(pending)).get(5, TimeUnit.SECONDS);
+        persister.shutdown();
+        assertEquals(2, stored.size());
+
+        persister.deletePersisted(List.of(included));
+
+        assertEquals(1, stored.size());
+        assertEquals(pending.getId(), blockCodec.decodeTransaction(stored.get(TransactionPersister.redisKey(pending))).getId());
+        assertTrue(TransactionPersister.redisKey(pending).startsWith("transactions:"));
+    }
+}
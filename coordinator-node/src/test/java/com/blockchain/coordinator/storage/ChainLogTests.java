@@ -0,0 +1,89 @@
+package com.blockchain.coordinator.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChainLogTests {
+
+    private static byte[] payload(long height) {
+        return ("bloque-" + height + "-" + "x".repeat((int) (height % 50))).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void appendsAcrossSegmentsAndReadsEveryHeightAfterReopening(@TempDir Path directory) throws Exception {
+        try (ChainLog log = ChainLog.open(directory, 512, 4, false, (height, payload) -> fail())) {
+            for (long height = 0; height < 100; height++) {
+                log.append(height, payload(height));
+            }
+            assertTrue(log.segmentCount() > 1);
+            assertArrayEquals(payload(57), log.read(57));
+            assertNull(log.read(100));
+            assertThrows(IllegalStateException.class, () -> log.append(5, payload(5)));
+        }
+
+        List<Long> visited = new ArrayList<>();
+        try (ChainLog log = ChainLog.open(directory, 512, 4, false, (height, payload) -> {
+            assertArrayEquals(payload(height), payload);
+            visited.add(height);
+        })) {
+            assertEquals(100, visited.size());
+            assertEquals(100, log.nextHeight());
+            assertEquals(0, log.truncatedBytes());
+            for (long height = 0; height < 100; height++) {
+                assertArrayEquals(payload(height), log.read(height));
+            }
+            log.append(100, payload(100));
+            assertArrayEquals(payload(100), log.read(100));
+        }
+    }
+
+    @Test
+    void truncatesTornTailOnRecovery(@TempDir Path directory) throws Exception {
+        try (ChainLog log = ChainLog.open(directory, 4096, 4, false, (height, payload) -> fail())) {
+            for (long height = 0; height < 10; height++) {
+                log.append(height, payload(height));
+            }
+        }
+
+        // Se corrompe el payload del último registro, como si la escritura se hubiera cortado.
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.sorted().reduce((first, second) -> second).orElseThrow();
+        }
+        int lastRecordEnd = 0;
+        int lastRecordStart = 0;
+        for (long height = 0; height < 10; height++) {
+            lastRecordStart = lastRecordEnd;
+            lastRecordEnd += ChainLog.HEADER_BYTES + payload(height).length;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(lastRecordEnd - 1);
+            file.write('#');
+        }
+
+        List<Long> visited = new ArrayList<>();
+        try (ChainLog log = ChainLog.open(directory, 4096, 4, false, (height, payload) -> visited.add(height))) {
+            assertEquals(9, visited.size());
+            assertEquals(9, log.nextHeight());
+            assertTrue(log.truncatedBytes() >= lastRecordEnd - lastRecordStart);
+            assertNull(log.read(9));
+
+            log.append(9, payload(9));
+        }
+        try (ChainLog log = ChainLog.open(directory, 4096, 4, false, (height, payload) -> { })) {
+            assertEquals(10, log.nextHeight());
+            assertEquals(0, log.truncatedBytes());
+            assertArrayEquals(payload(9), log.read(9));
+        }
+    }
+}
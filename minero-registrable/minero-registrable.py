@@ -13,6 +13,7 @@ from pika import exceptions as rabbitmq_exceptions
 
 from utils.check_gpu import check_for_nvidia_smi
 from model.block import Block
+from utils.wire_codec import decode_message
 from plugins.rabbitmq import rabbit_connect
 
 # --- Configuración HTTP / Registro / Keep-alive ---
@@ -82,7 +83,9 @@ def send_mining_result(block, block_id):
 
 # --- Lógica de PoW interrumpible ---
 
-def mine_range(challenge, block, start, end):
+# Con target numerico se busca contra el target tambien en GPU: el prefijo es hasta 4 bits mas estricto y
+# haria buscar hasta 16 veces mas.
+def mine_range(challenge, block, start, end, target=None):
     preliminary_hash = block.hash
     content_hash     = block.get_block_content_hash()
 
@@ -91,8 +94,11 @@ def mine_range(challenge, block, start, end):
             print(f"[{MINER_ID}] Ejecutable CUDA no encontrado en {CUDA_EXECUTABLE}", file=sys.stderr)
             return None, None, preliminary_hash
 
+        command = [CUDA_EXECUTABLE, challenge, content_hash, str(start), str(end)]
+        if target:
+            command.append(f"{int(target, 16):032x}")
         proc = subprocess.Popen(
-            [CUDA_EXECUTABLE, challenge, content_hash, str(start), str(end)],
+            command,
             stdout=subprocess.PIPE, stderr=subprocess.PIPE, text=True
         )
         print(f"[{MINER_ID}] Iniciando PoW GPU: rango {start}-{end}")
@@ -103,6 +109,10 @@ def mine_range(challenge, block, start, end):
                 return None, None, preliminary_hash
             time.sleep(0.5)
         out, _ = proc.communicate()
+        if proc.returncode != 0 and target:
+            # Ejecutable compilado antes de aceptar el target: se reintenta con el prefijo, que tambien cumple.
+            print(f"[{MINER_ID}] El ejecutable CUDA no acepta target, se usa el prefijo '{challenge}'.", file=sys.stderr)
+            return mine_range(challenge, block, start, end)
     else:
         print(f"[{MINER_ID}] GPU no disponible, minando en CPU: rango {start}-{end}")
         out = ""
@@ -111,7 +121,7 @@ def mine_range(challenge, block, start, end):
             if stop_current_task.is_set():
                 print(f"[{MINER_ID}] PoW CPU abortado en rango {start}-{end}")
                 return None, None, preliminary_hash
-            result = find_nonce(challenge, content_hash, n)
+            result = find_nonce(challenge, content_hash, n, target)
             if result:
                 nonce, digest = result
                 out = f"Nonce encontrado: {nonce}\nHash resultante: {digest}"
@@ -136,14 +146,15 @@ def consume_subtasks():
 
     def on_subtask(ch, method, props, body):
         stop_current_task.clear()
-        data = json.loads(body)
-        blk  = Block.from_task_payload(data["block"])
+        data = decode_message(body, props.content_type)
+        blk  = Block.from_task_payload(data["block"], data.get("contentHash"))
         chal = data["challenge"]
+        target = data.get("target")
         frm  = data.get("from", 0)
         to   = data.get("to", 100_000_000_000)
 
         print(f"[{MINER_ID}] Nueva subtarea: idx={blk.index}, rango={frm}-{to}")
-        nonce, hsh, prelim = mine_range(chal, blk, frm, to)
+        nonce, hsh, prelim = mine_range(chal, blk, frm, to, target)
 
         if nonce is not None:
             blk.nonce = nonce
@@ -173,7 +184,7 @@ def consume_control():
             ch.basic_qos(prefetch_count=1)
             def on_control(ch, method, props, body):
                 try:
-                    data = json.loads(body)
+                    data = decode_message(body, props.content_type)
                     ph   = data.get("preliminaryHash")
                     print(f"[{MINER_ID}] Cancel received for hash={ph}")
                     stop_current_task.set()
@@ -2,9 +2,14 @@
 import hashlib
 from typing import Optional
 
-def find_nonce(prefix: str, content_hash: str, n: int) -> Optional[tuple[int, str]]:
+def find_nonce(prefix: str, content_hash: str, n: int, target: Optional[str] = None) -> Optional[tuple[int, str]]:
     data = f"{n}{content_hash}".encode()
-    digest = hashlib.md5(data).hexdigest()
-    if digest.startswith(prefix):
-        return n, digest
+    digest = hashlib.md5(data).digest()
+    # Con target numerico (hex de 128 bits) el hash cumple si, leido como entero, es <= target.
+    if target:
+        if int.from_bytes(digest, 'big') <= int(target, 16):
+            return n, digest.hex()
+        return None
+    if digest.hex().startswith(prefix):
+        return n, digest.hex()
     return None
\ No newline at end of file
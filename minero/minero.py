@@ -13,6 +13,7 @@ from pika import exceptions as rabbitmq_exceptions
 from plugins.rabbitmq import rabbit_connect
 from model.block import Block
 from utils.check_gpu import check_for_nvidia_smi
+from utils.wire_codec import decode_message
 
 # --- Configuración ---
 BLOCKS_COORDINATOR_URL = os.environ.get(
@@ -46,9 +47,11 @@ def send_mining_result(block_solved, miner_id, block_id):
         print(f"[{miner_id}] Error enviando resultado: {e}", file=sys.stderr)
 
 
-def mine_block(challenge, block, frm, to):
+def mine_block(challenge, block, frm, to, target=None):
     """
     Minado interrumpible. Devuelve (nonce, hash, preliminary_hash).
+    Si la tarea trae el target numerico se busca contra el target, en CPU y en GPU: el prefijo es hasta
+    4 bits mas estricto y haria buscar hasta 16 veces mas.
     """
     preliminary = block.hash
     content_hash = block.get_block_content_hash()
@@ -67,8 +70,11 @@ def mine_block(challenge, block, frm, to):
                 print(f"[{MINER_ID}] CUDA no encontrado.", file=sys.stderr)
                 return None, None, preliminary
 
+            command = [CUDA_EXECUTABLE_PATH, challenge, content_hash, str(frm), str(to)]
+            if target:
+                command.append(f"{int(target, 16):032x}")
             proc = subprocess.Popen(
-                [CUDA_EXECUTABLE_PATH, challenge, content_hash, str(frm), str(to)],
+                command,
                 stdout=subprocess.PIPE, stderr=subprocess.PIPE, text=True
             )
             while proc.poll() is None:
@@ -78,14 +84,22 @@ def mine_block(challenge, block, frm, to):
                     return None, None, preliminary
                 time.sleep(0.5)
             out, _ = proc.communicate()
+            if proc.returncode != 0 and target:
+                # Ejecutable compilado antes de aceptar el target: se reintenta con el prefijo, que tambien cumple.
+                print(f"[{MINER_ID}] El ejecutable CUDA no acepta target, se usa el prefijo '{challenge}'.", file=sys.stderr)
+                target = None
+                continue
         else:
-            from utils.find_nonce import find_nonce_with_prefix
+            from utils.find_nonce import find_nonce_with_prefix, find_nonce_with_target
             out = ""
             for n in range(frm, to):
                 if stop_current_task.is_set():
                     print(f"[{MINER_ID}] ABORTANDO por evento: {stop_current_task.reason}.")
                     return None, None, preliminary
-                h = find_nonce_with_prefix(challenge, content_hash, n, n + 1)
+                if target:
+                    h = find_nonce_with_target(target, content_hash, n, n + 1)
+                else:
+                    h = find_nonce_with_prefix(challenge, content_hash, n, n + 1)
                 if h:
                     out = f"Nonce encontrado: {n}\nHash resultante: {h}"
                     break
@@ -108,9 +122,9 @@ def fanout_listener():
     q = ch.queue_declare(queue="", exclusive=True).method.queue
     ch.queue_bind(exchange=EXCHANGE_NAME, queue=q)
 
-    def on_event(_, __, ___, body):
+    def on_event(_, __, props, body):
         try:
-            msg = json.loads(body)
+            msg = decode_message(body, props.content_type)
             event = msg.get("event")
 
             # Bloque resuelto por otro minero
@@ -159,17 +173,18 @@ def mining_task_consumer():
                 stop_current_task.reason = None
 
                 try:
-                    task = json.loads(body)
+                    task = decode_message(body, props.content_type)
                     if task.get("event") != "NEW_CANDIDATE_BLOCK":
                         return
 
                     challenge = task["challenge"]
-                    blk = Block.from_task_payload(task["block"])
+                    target = task.get("target")
+                    blk = Block.from_task_payload(task["block"], task.get("contentHash"))
                     frm = task.get("from", 0)
                     to = task.get("to", 100_000_000_000)
 
                     print(f"[{MINER_ID}] NEW task idx={blk.index} range={frm}-{to}")
-                    nonce, fh, prelim = mine_block(challenge, blk, frm, to)
+                    nonce, fh, prelim = mine_block(challenge, blk, frm, to, target)
 
                     if nonce is not None:
                         blk.nonce = nonce
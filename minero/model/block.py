@@ -3,20 +3,35 @@ import json
 import hashlib
 import time
 
+# Desde la version 2 el hash de contenido cubre la raiz de Merkle de las transacciones en lugar de data.
+MERKLE_VERSION = 2
+
 class Block:
-    def __init__(self, data, timestamp, current_hash, previous_hash, nonce, index):
+    def __init__(self, data, timestamp, current_hash, previous_hash, nonce, index, version=1, merkle_root=None,
+                 content_hash=None):
         self.data = data
         self.timestamp = timestamp
         self.hash = current_hash
         self.previous_hash = previous_hash
         self.nonce = nonce
         self.index = index
+        self.version = version
+        self.merkle_root = merkle_root
+        # Hash de contenido ya calculado por el coordinador (tareas solo-cabecera); no depende del nonce
+        self.content_hash = content_hash
 
     def get_block_content_hash(self):
         """
         Calcula el hash MD5 del contenido del bloque (index + timestamp + data_as_string + previous_hash).
-        Corresponde a `md5(index+timestamp+data+previous_hash)`
+        Corresponde a `md5(index+timestamp+data+previous_hash)`.
+        En bloques version 2 la raiz de Merkle (calculada por el coordinador) reemplaza a data:
+        `md5(index+timestamp+merkle_root+previous_hash)`
         """
+        if self.content_hash:
+            return self.content_hash
+        if self.version >= MERKLE_VERSION:
+            content_input = f"{self.index}{self.timestamp}{self.merkle_root}{self.previous_hash}"
+            return hashlib.md5(content_input.encode('utf-8')).hexdigest()
         data_as_string = json.dumps(self.data, separators=(',', ':'), sort_keys=False)
         content_input = f"{self.index}{self.timestamp}{data_as_string}{self.previous_hash}"
         return hashlib.md5(content_input.encode('utf-8')).hexdigest()
@@ -41,17 +56,23 @@ class Block:
             "hash": self.hash,
             "previous_hash": self.previous_hash,
             "nonce": self.nonce,
-            "data": self.data
+            "data": self.data,
+            "version": self.version,
+            "merkle_root": self.merkle_root
         }
 
-    # Método para crear un objeto Block desde el formato de tarea recibido
+    # Método para crear un objeto Block desde el formato de tarea recibido. En tareas solo-cabecera data viene
+    # en null: las transacciones se piden al coordinador si hacen falta y el hash de contenido llega en la tarea.
     @classmethod
-    def from_task_payload(cls, task_block_data):
+    def from_task_payload(cls, task_block_data, content_hash=None):
         return cls(
-            data=task_block_data["data"],
+            data=task_block_data.get("data"),
             timestamp=task_block_data["timestamp"],
             current_hash= task_block_data["hash"],
             previous_hash=task_block_data["previous_hash"],
             nonce=0,
-            index=task_block_data["index"]
+            index=task_block_data["index"],
+            version=task_block_data.get("version") or 1,
+            merkle_root=task_block_data.get("merkle_root"),
+            content_hash=content_hash
         )
\ No newline at end of file
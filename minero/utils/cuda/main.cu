@@ -12,9 +12,36 @@ using word = unsigned int; // Asegúrate de que 'word' sea unsigned int aquí ta
 // Rango de nonces a probar en cada batch (≤ 65 535)
 static constexpr int BATCH_SIZE = 1 << 15;  // 32 768 nonces por llamada
 
+// Target numérico de 128 bits en hex (32 dígitos, big-endian) a 16 bytes; false si no es válido.
+static bool parse_target(const char* hex, byte* out) {
+    if (std::strlen(hex) != 32) {
+        return false;
+    }
+    for (int i = 0; i < 32; ++i) {
+        char c = hex[i];
+        int v = (c >= '0' && c <= '9') ? c - '0'
+              : (c >= 'a' && c <= 'f') ? c - 'a' + 10
+              : (c >= 'A' && c <= 'F') ? c - 'A' + 10 : -1;
+        if (v < 0) {
+            return false;
+        }
+        out[i / 2] = (i % 2 == 0) ? (byte)(v << 4) : (byte)(out[i / 2] | v);
+    }
+    return true;
+}
+
 int main(int argc, char** argv) {
-    if (argc != 5) {
-        std::fprintf(stderr, "Uso: %s <prefijo_hex> <cadena> <inicio> <fin>\n", argv[0]);
+    if (argc != 5 && argc != 6) {
+        std::fprintf(stderr, "Uso: %s <prefijo_hex> <cadena> <inicio> <fin> [target_hex]\n", argv[0]);
+        return EXIT_FAILURE;
+    }
+
+    // Con target el hash cumple si, leído como entero big-endian, es <= target (lo mismo que verifica el
+    // coordinador); el prefijo es más estricto y haría buscar hasta 16 veces más.
+    byte target[16];
+    bool use_target = argc == 6;
+    if (use_target && !parse_target(argv[5], target)) {
+        std::fprintf(stderr, "Error: target invalido '%s' (se esperan 32 digitos hex)\n", argv[5]);
         return EXIT_FAILURE;
     }
 
@@ -80,7 +107,10 @@ int main(int argc, char** argv) {
         // Buscar solución en resultados
         for (int i = 0; i < this_batch; ++i) {
             bool ok = true;
-            for (int b = 0; b < prefix_len; ++b) {
+            if (use_target) {
+                ok = std::memcmp(h_out + i * 16, target, 16) <= 0;
+            }
+            for (int b = 0; !use_target && b < prefix_len; ++b) {
                 byte v = h_out[i * 16 + (b / 2)];
                 char c = (b % 2 == 0)
                     ? "0123456789abcdef"[(v >> 4) & 0xF]
@@ -111,6 +141,9 @@ int main(int argc, char** argv) {
         }
         std::printf("Nonce encontrado: %lu\n", found_nonce);
         std::printf("Hash resultante: %s\n", hex);
+    } else if (use_target) {
+        std::printf("No se encontro un hash <= target %s en el rango [%lu, %lu]\n",
+                     argv[5], inicio, fin);
     } else {
         std::printf("No se encontro un hash que comience con '%s' en el rango [%lu, %lu]\n",
                      prefix, inicio, fin);
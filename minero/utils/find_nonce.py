@@ -12,4 +12,19 @@ def find_nonce_with_prefix(challenge_prefix, block_content_hash, start_nonce, en
 
         if test_block_hash.startswith(challenge_prefix):
             return nonce, test_block_hash
+    return 0, ""
+
+
+def find_nonce_with_target(target, block_content_hash, start_nonce, end_nonce):
+    """
+    Igual que find_nonce_with_prefix pero con el target numerico de 128 bits (hex): el hash cumple si,
+    leido como entero, es menor o igual al target.
+    """
+    target_value = int(target, 16)
+    for nonce in range(start_nonce, end_nonce + 1):
+        test_hash_input = f"{nonce}{block_content_hash}"
+        digest = hashlib.md5(test_hash_input.encode('utf-8')).digest()
+
+        if int.from_bytes(digest, 'big') <= target_value:
+            return nonce, digest.hex()
     return 0, ""
\ No newline at end of file
@@ -0,0 +1,28 @@
+# utils/test_wire_codec.py
+# python -m unittest utils.test_wire_codec (desde la carpeta del minero)
+import json
+import os
+import unittest
+
+from utils.wire_codec import CONTENT_TYPE, decode_message
+
+# Mensajes de referencia compartidos con los tests del coordinador y del pool.
+GOLDEN_MESSAGES = os.path.join(os.path.dirname(__file__), "..", "..", "wire-fixtures", "task-messages.json")
+
+
+class WireCodecTest(unittest.TestCase):
+
+    def test_decodes_the_shared_golden_messages(self):
+        with open(GOLDEN_MESSAGES, encoding="utf-8") as f:
+            cases = json.load(f)["cases"]
+        self.assertEqual(5, len(cases))
+        for case in cases:
+            with self.subTest(case["name"]):
+                self.assertEqual(case["message"], decode_message(bytes.fromhex(case["hex"]), CONTENT_TYPE))
+
+    def test_reads_json_when_the_content_type_is_not_binary(self):
+        self.assertEqual({"preliminaryHash": "abc"}, decode_message(b'{"preliminaryHash": "abc"}', "application/json"))
+
+
+if __name__ == "__main__":
+    unittest.main()
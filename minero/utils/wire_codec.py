@@ -0,0 +1,130 @@
+# utils/wire_codec.py
+import json
+import struct
+import uuid
+import zlib
+
+# Decodificador del formato binario de los mensajes de mineria (TaskMessageCodec del coordinador y del pool).
+# Devuelve los mismos diccionarios que el JSON de cada mensaje; los mensajes con otro content-type (JSON) se
+# leen con json.loads, asi que el minero sigue funcionando si el coordinador o el pool publican JSON.
+CONTENT_TYPE = "application/x-blockchain-task"
+VERSION = 1
+_MAGIC = ord('W')
+_FLAG_DEFLATE = 1
+
+_TYPE_MINING_TASK = 1
+_TYPE_MINING_TASK_STATUS = 2
+_TYPE_SUB_TASK = 3
+_TYPE_CANCEL_TASK = 4
+
+
+def decode_message(body, content_type=None):
+    if content_type != CONTENT_TYPE:
+        return json.loads(body)
+    if len(body) < 4 or body[0] != _MAGIC:
+        raise ValueError("Cabecera de mensaje invalida")
+    if body[1] < 1 or body[1] > VERSION:
+        raise ValueError(f"Version de formato no soportada: {body[1]}")
+    reader = _Reader(body, 4)
+    if body[2] & _FLAG_DEFLATE:
+        length = reader.varint()
+        payload = zlib.decompress(body[reader.pos:])
+        if len(payload) != length:
+            raise ValueError("Cuerpo comprimido truncado")
+        reader = _Reader(payload, 0)
+
+    message_type = body[3]
+    if message_type == _TYPE_MINING_TASK:
+        task = {
+            "event": reader.text(),
+            "challenge": reader.text(),
+            "target": reader.text(),
+        }
+        retries = reader.int32()
+        task["retries"] = retries if retries >= 0 else None
+        task["publishedAt"] = reader.int64()
+        task["deadline"] = reader.int64()
+        task["contentHash"] = reader.text()
+        task["transactionCount"] = reader.int32()
+        task["block"] = reader.block()
+        return task
+    if message_type == _TYPE_MINING_TASK_STATUS:
+        return {"event": reader.text(), "preliminaryHashBlockResolved": reader.text(), "minerId": reader.text()}
+    if message_type == _TYPE_SUB_TASK:
+        sub_task = {"from": reader.int64(), "to": reader.int64()}
+        sub_task["challenge"] = reader.text()
+        sub_task["target"] = reader.text()
+        sub_task["contentHash"] = reader.text()
+        sub_task["block"] = reader.block()
+        return sub_task
+    if message_type == _TYPE_CANCEL_TASK:
+        return {"preliminaryHash": reader.text()}
+    raise ValueError(f"Tipo de mensaje desconocido: {message_type}")
+
+
+class _Reader:
+    def __init__(self, data, pos):
+        self.data = data
+        self.pos = pos
+
+    def _take(self, n):
+        if self.pos + n > len(self.data):
+            raise ValueError("Mensaje codificado truncado")
+        chunk = self.data[self.pos:self.pos + n]
+        self.pos += n
+        return chunk
+
+    def byte(self):
+        return self._take(1)[0]
+
+    def int32(self):
+        return struct.unpack(">i", self._take(4))[0]
+
+    def int64(self):
+        return struct.unpack(">q", self._take(8))[0]
+
+    def float64(self):
+        return struct.unpack(">d", self._take(8))[0]
+
+    def varint(self):
+        value = 0
+        for shift in range(0, 35, 7):
+            b = self.byte()
+            value |= (b & 0x7F) << shift
+            if not b & 0x80:
+                return value
+        raise ValueError("Varint demasiado largo")
+
+    # Tags: 0 = null, 1 = UTF-8 con largo varint, 2 = UUID en 16 bytes, 3 = MD5 en 16 bytes
+    def text(self):
+        tag = self.byte()
+        if tag == 0:
+            return None
+        if tag == 1:
+            return self._take(self.varint()).decode("utf-8")
+        if tag == 2:
+            return str(uuid.UUID(bytes=bytes(self._take(16))))
+        if tag == 3:
+            return bytes(self._take(16)).hex()
+        raise ValueError(f"Tag de texto desconocido: {tag}")
+
+    def block(self):
+        if self.byte() == 0:
+            return None
+        block = {"index": self.int32(), "timestamp": self.int64(), "nonce": self.int64()}
+        block["hash"] = self.text()
+        block["previous_hash"] = self.text()
+        block["version"] = self.varint()
+        block["merkle_root"] = self.text()
+        count = self.varint() - 1
+        if count < 0:
+            block["data"] = None
+            return block
+        transactions = []
+        for _ in range(count):
+            transaction = {"id": self.text(), "sender": self.text(), "receiver": self.text()}
+            transaction["amount"] = self.float64()
+            transaction["timestamp"] = self.int64()
+            transactions.append(transaction)
+        block["data"] = transactions
+        return block
@@ -1,5 +1,7 @@
 package com.blockchain.miningpool.config;
 
+import com.blockchain.miningpool.codec.TaskMessageCodec;
+import com.blockchain.miningpool.codec.TaskMessageConverter;
 import org.springframework.amqp.core.*;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
@@ -7,6 +9,7 @@ import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.DefaultClassMapper;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -79,8 +82,16 @@ public class RabbitMQConfig {
         return BindingBuilder.bind(poolControlQueue).to(poolControlExchange);
     }
 
+    // Tareas, estados, subtareas y cancelaciones en el formato binario (TaskMessageCodec) sólo con wire-format=binary.
+    // Los mensajes JSON (del coordinador o de los mineros) se siguen leyendo con el mapeo de clases.
     @Bean
-    public MessageConverter jsonMessageConverter() {
+    public MessageConverter messageConverter(@Value("${pool.amqp.wire-format:json}") String wireFormat,
+                                             @Value("${pool.amqp.compression-threshold:1024}") int compressionThreshold) {
+        return new TaskMessageConverter(new TaskMessageCodec(compressionThreshold), jsonMessageConverter(),
+                "binary".equalsIgnoreCase(wireFormat));
+    }
+
+    private static MessageConverter jsonMessageConverter() {
         Jackson2JsonMessageConverter converter = new Jackson2JsonMessageConverter();
         DefaultClassMapper classMapper = new DefaultClassMapper();
         Map<String, Class<?>> idClassMapping = new HashMap<>();
@@ -94,19 +105,20 @@ public class RabbitMQConfig {
     @Bean
     public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(
             ConnectionFactory cf,
-            SimpleRabbitListenerContainerFactoryConfigurer configurer
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            MessageConverter messageConverter
     ) {
         SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
         configurer.configure(factory, cf);
         factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
-        factory.setMessageConverter(jsonMessageConverter());
+        factory.setMessageConverter(messageConverter);
         return factory;
     }
 
     @Bean
-    public RabbitTemplate rabbitModificatedTemplate(ConnectionFactory connectionFactory) {
+    public RabbitTemplate rabbitModificatedTemplate(ConnectionFactory connectionFactory, MessageConverter messageConverter) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
-        rabbitTemplate.setMessageConverter(jsonMessageConverter());
+        rabbitTemplate.setMessageConverter(messageConverter);
         return rabbitTemplate;
     }
 }
\ No newline at end of file
@@ -14,6 +14,12 @@ import java.io.Serializable;
 public class MiningTask implements Serializable {
     private ExchangeEvent event;
     private String challenge;
+    // Target de 128 bits en hex; los mineros que lo soportan lo usan en lugar del prefijo.
+    private String target;
     private Block block;
     private Integer retries;
+    // Hash de contenido ya calculado por el coordinador y cantidad de transacciones. En tareas sólo-cabecera
+    // block.data viene en null y los cuerpos se piden al coordinador (/api/blocks/candidates/{hash}/transactions).
+    private String contentHash;
+    private int transactionCount;
 }
\ No newline at end of file
@@ -11,6 +11,8 @@ import lombok.NoArgsConstructor;
 public class SubTask {
     private Block block;
     private String challenge;
+    private String target;
+    private String contentHash;
     private long from;
     private long to;
 }
\ No newline at end of file
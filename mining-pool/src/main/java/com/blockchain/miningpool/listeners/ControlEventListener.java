@@ -69,6 +69,8 @@ public class ControlEventListener {
                     dispatcher.dispatchSubTasks(
                             task.getBlock(),
                             task.getChallenge(),
+                            task.getTarget(),
+                            task.getContentHash(),
                             currentFrom,
                             currentTo
                     );
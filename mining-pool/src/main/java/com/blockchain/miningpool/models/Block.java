@@ -17,6 +17,9 @@ public class Block implements Cloneable {
     private long timestamp;
     private List<Transaction> data;
     private int index;
+    // Versión del hash de contenido y raíz de Merkle del coordinador; se reenvían tal cual a los mineros.
+    private int version;
+    private String merkle_root;
 
     public Block(int index, String previous_hash, List<Transaction> data, long timestamp, long nonce, String hash) {
         this.index = index;
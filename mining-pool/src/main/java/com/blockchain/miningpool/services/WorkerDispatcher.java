@@ -4,7 +4,7 @@ import com.blockchain.miningpool.models.Block;
 
 public interface WorkerDispatcher {
 
-    void dispatchSubTasks(Block block, String challenge, long from, long to);
+    void dispatchSubTasks(Block block, String challenge, String target, String contentHash, long from, long to);
 
     void broadcastCancel(String preliminaryHash);
 }
\ No newline at end of file
@@ -22,7 +22,6 @@ public class MiningResultServiceImpl implements MiningResultService {
     public boolean isValidMiningResult(MiningResult miningResult) {
         if (miningResult.getHash().isEmpty() ||
                 miningResult.getPrevious_hash().isEmpty() ||
-                miningResult.getData().isEmpty() ||
                 miningResult.getIndex() < 0 ||
                 miningResult.getNonce() < 0 ||
                 miningResult.getTimestamp() < 0 ||
@@ -33,7 +32,7 @@ public class MiningResultServiceImpl implements MiningResultService {
             miningResult.setMinerId(minerId);
             ResponseEntity<String> resp = coordinatorClient.sendResult(miningResult);
             return resp.getStatusCode().is2xxSuccessful();
-        } catch (FeignException.BadRequest e) {
+        } catch (FeignException.BadRequest | FeignException.Conflict e) {
             return false;
         }
     }
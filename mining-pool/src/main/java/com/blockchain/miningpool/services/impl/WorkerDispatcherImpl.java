@@ -15,8 +15,8 @@ public class WorkerDispatcherImpl implements WorkerDispatcher {
 
     private final RabbitTemplate rabbitTemplate;
 
-    public void dispatchSubTasks(Block block, String challenge, long from, long to) {
-        SubTask msg = new SubTask(block, challenge, from, to);
+    public void dispatchSubTasks(Block block, String challenge, String target, String contentHash, long from, long to) {
+        SubTask msg = new SubTask(block, challenge, target, contentHash, from, to);
         rabbitTemplate.convertAndSend(
                 RabbitMQConfig.POOL_TASKS_EXCHANGE,
                 RabbitMQConfig.POOL_TASKS_ROUTING_KEY,
@@ -0,0 +1,72 @@
+package com.blockchain.miningpool.codec;
+
+import com.blockchain.miningpool.dtos.CancelTask;
+import com.blockchain.miningpool.dtos.MiningTask;
+import com.blockchain.miningpool.dtos.MiningTaskStatus;
+import com.blockchain.miningpool.dtos.SubTask;
+import com.blockchain.miningpool.models.ExchangeEvent;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+import java.nio.file.Path;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskMessageCodecTests {
+
+    // Compartido con el coordinador y los mineros Python; se corre desde mining-pool.
+    private static final Path GOLDEN_MESSAGES = Path.of("..", "wire-fixtures", "task-messages.json");
+
+    // El pool no tiene publishedAt ni deadline en MiningTask: los ignora al leer y escribe 0, así que las tareas
+    // sólo se comparan al decodificar. El cuerpo comprimido tampoco se compara al codificar (depende de zlib).
+    @Test
+    void decodesTheSharedGoldenMessagesAndReencodesItsOwn() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        TaskMessageCodec codec = new TaskMessageCodec(1024);
+        int checked = 0;
+        for (JsonNode fixture : objectMapper.readTree(GOLDEN_MESSAGES.toFile()).get("cases")) {
+            Class<?> type = switch (fixture.get("type").asText()) {
+                case "MiningTask" -> MiningTask.class;
+                case "MiningTaskStatus" -> MiningTaskStatus.class;
+                case "SubTask" -> SubTask.class;
+                case "CancelTask" -> CancelTask.class;
+                default -> throw new IllegalArgumentException(fixture.get("type").asText());
+            };
+            String name = fixture.get("name").asText();
+            byte[] body = HexFormat.of().parseHex(fixture.get("hex").asText());
+            JsonNode message = fixture.get("message");
+            // MiningTaskStatus no tiene constructor vacío para Jackson.
+            Object expected = type == MiningTaskStatus.class
+                    ? new MiningTaskStatus(ExchangeEvent.valueOf(message.get("event").asText()),
+                    message.get("preliminaryHashBlockResolved").asText(), message.get("minerId").asText())
+                    : objectMapper.treeToValue(message, type);
+            assertEquals(expected, codec.decode(body), name);
+            if (type != MiningTask.class && (body[2] & 1) == 0) {
+                assertArrayEquals(body, codec.encode(expected), name);
+            }
+            checked++;
+        }
+        assertEquals(5, checked);
+    }
+
+    @Test
+    void convertsByContentTypeAndPublishesJsonUnlessBinaryIsConfigured() throws Exception {
+        CancelTask cancel = new CancelTask("91decb248f8a7be12263b3988d28cdf0");
+        TaskMessageConverter json = new TaskMessageConverter(new TaskMessageCodec(1024), new Jackson2JsonMessageConverter(), false);
+        TaskMessageConverter binary = new TaskMessageConverter(new TaskMessageCodec(1024), new Jackson2JsonMessageConverter(), true);
+
+        Message jsonMessage = json.toMessage(cancel, new MessageProperties());
+        assertEquals(MessageProperties.CONTENT_TYPE_JSON, jsonMessage.getMessageProperties().getContentType());
+        Message binaryMessage = binary.toMessage(cancel, new MessageProperties());
+        assertEquals(TaskMessageConverter.CONTENT_TYPE, binaryMessage.getMessageProperties().getContentType());
+
+        assertEquals(cancel, json.fromMessage(binaryMessage));
+        assertEquals(cancel, binary.fromMessage(jsonMessage));
+    }
+}